@@ -2,8 +2,9 @@ package aesd.algorithms.digraph;
 
 import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
-import aesd.ds.implementations.nonlinear.graph.Edge;
 import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
 import aesd.ds.interfaces.Queue;
 import aesd.ds.interfaces.Stack;
@@ -19,6 +20,11 @@ import aesd.ds.interfaces.Stack;
  * processados) e também é usada por {@link KosarajuSharirSCC} para guiar a
  * segunda busca. Complexidade O(V + E).
  *
+ * A busca é iterativa e percorre o digrafo no formato CSR (os digrafos com
+ * listas de adjacências são convertidos, mantendo a ordem das adjacências
+ * e, portanto, as mesmas ordens da versão recursiva), com a pilha de
+ * chamadas substituída por uma pilha de quadros ({@link DepthFirstFrames}).
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -53,19 +59,7 @@ public class DepthFirstOrder {
      * @param digraph o digrafo
      */
     public DepthFirstOrder( Digraph digraph ) {
-        
-        pre = new int[digraph.getNumberOfVertices()];
-        post = new int[digraph.getNumberOfVertices()];
-        postorder = new LinkedQueue<>();
-        preorder = new LinkedQueue<>();
-        marked = new boolean[digraph.getNumberOfVertices()];
-        
-        for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
-            if ( !marked[v] ) {
-                dfs( digraph, v );
-            }
-        }
-
+        this( new CSRGraph( digraph ) );
     }
 
     /**
@@ -74,57 +68,71 @@ public class DepthFirstOrder {
      * @param digraph o digrafo ponderado
      */
     public DepthFirstOrder( EdgeWeightedDigraph digraph ) {
+        this( new CSRGraph( digraph ) );
+    }
+
+    /**
+     * Determina a ordem de profundidade de um digrafo no formato CSR.
+     *
+     * @param digraph o digrafo CSR
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public DepthFirstOrder( CSRGraph digraph ) throws IllegalArgumentException {
         
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
         pre = new int[digraph.getNumberOfVertices()];
         post = new int[digraph.getNumberOfVertices()];
         postorder = new LinkedQueue<>();
         preorder = new LinkedQueue<>();
         marked = new boolean[digraph.getNumberOfVertices()];
         
-        for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
-            if ( !marked[v] ) {
-                dfs( digraph, v );
-            }
-        }
+        dfs( digraph );
         
     }
 
-    // executa a busca em profundidade no digrafo a partir do vértice v e
-    // computa pré-ordem/pó-ordem
-    private void dfs( Digraph digraph, int v ) {
-        
-        marked[v] = true;
-        pre[v] = preCounter++;
-        preorder.enqueue( v );
-        
-        for ( int w : digraph.adj( v ) ) {
-            if ( !marked[w] ) {
-                dfs( digraph, w );
+    // versão iterativa da busca em profundidade, executada a partir de todos
+    // os vértices ainda não marcados: a pilha de quadros faz o papel da pilha
+    // de chamadas e o vértice entra na pós-ordem quando o seu quadro é
+    // desempilhado
+    private void dfs( CSRGraph digraph ) {
+        
+        int vertices = digraph.getNumberOfVertices();
+        DepthFirstFrames frames = DepthFirstFrames.acquire( digraph );
+        
+        for ( int s = 0; s < vertices; s++ ) {
+            
+            if ( marked[s] ) {
+                continue;
             }
-        }
-        
-        postorder.enqueue( v );
-        post[v] = postCounter++;
-        
-    }
-
-    // executa a busca em profundidade no digrafo ponderado a partir do vértice
-    // v e computa pré-ordem/pó-ordem
-    private void dfs( EdgeWeightedDigraph G, int v ) {
-        
-        marked[v] = true;
-        pre[v] = preCounter++;
-        preorder.enqueue( v );
-        
-        for ( Edge e : G.adj( v ) ) {
-            int w = e.to();
-            if ( !marked[w] ) {
-                dfs( G, w );
+            
+            marked[s] = true;
+            pre[s] = preCounter++;
+            preorder.enqueue( s );
+            frames.push( s );
+            
+            while ( !frames.isEmpty() ) {
+                
+                int w = frames.advance();
+                
+                if ( w == -1 ) {
+                    int v = frames.pop();
+                    postorder.enqueue( v );
+                    post[v] = postCounter++;
+                } else if ( !marked[w] ) {
+                    marked[w] = true;
+                    pre[w] = preCounter++;
+                    preorder.enqueue( w );
+                    frames.push( w );
+                }
+                
             }
+            
         }
         
-        postorder.enqueue( v );
-        post[v] = postCounter++;
+        frames.release();
         
     }
 
@@ -2,6 +2,7 @@ package aesd.algorithms.digraph;
 
 import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
 import aesd.ds.interfaces.Queue;
 import aesd.ds.interfaces.Stack;
@@ -38,9 +39,6 @@ public class DirectedBreadthFirstSearch {
 
     // vértice fonte
     private final int source;
-
-    // o grafo
-    private final Digraph digraph;
     
     /**
      * Computa o menor caminho entre o vértice fonte s e todos os outros
@@ -64,7 +62,38 @@ public class DirectedBreadthFirstSearch {
         }
         
         this.source = source;
-        this.digraph = digraph;
+        
+        bfs( digraph, source );
+        
+    }
+
+    /**
+     * Computa o menor caminho entre o vértice fonte s e todos os outros
+     * vértices de um digrafo no formato CSR.
+     *
+     * @param digraph o digrafo CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public DirectedBreadthFirstSearch( CSRGraph digraph, int source ) throws IllegalArgumentException {
+        
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
+        marked = new boolean[digraph.getNumberOfVertices()];
+        distTo = new int[digraph.getNumberOfVertices()];
+        edgeTo = new int[digraph.getNumberOfVertices()];
+
+        // validateVertex() depende de marked já estar inicializado
+        validateVertex( source );
+
+        for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
+            distTo[v] = INFINITY;
+        }
+        
+        this.source = source;
         
         bfs( digraph, source );
         
@@ -96,6 +125,38 @@ public class DirectedBreadthFirstSearch {
         
     }
 
+    // implementação da busca em largura para uma fonte em um digrafo CSR - como
+    // cada vértice entra na fila no máximo uma vez, um array de V posições
+    // substitui a fila encadeada
+    private void bfs( CSRGraph digraph, int source ) {
+        
+        int[] queue = new int[digraph.getNumberOfVertices()];
+        int head = 0;
+        int tail = 0;
+        
+        distTo[source] = 0;
+        marked[source] = true;
+        queue[tail++] = source;
+
+        while ( head < tail ) {
+            
+            int v = queue[head++];
+            int end = digraph.end( v );
+            
+            for ( int i = digraph.begin( v ); i < end; i++ ) {
+                int w = digraph.target( i );
+                if ( !marked[w] ) {
+                    edgeTo[w] = v;
+                    distTo[w] = distTo[v] + 1;
+                    marked[w] = true;
+                    queue[tail++] = w;
+                }
+            }
+            
+        }
+        
+    }
+
     /**
      * Há um caminho direcionado entre o vértice fonte e v?
      *
@@ -165,7 +226,7 @@ public class DirectedBreadthFirstSearch {
         sb.append( "Breadth-First Search (source: vertex" ).append( source ).append( ")\n" );
         sb.append( "v\tmarked[v]\tedgeTo[v]\tdistTo[v]\n" );
         
-        for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
+        for ( int v = 0; v < marked.length; v++ ) {
             sb.append( String.format( "%d\t%s\t\t%s\t\t%s\n",
                     v,
                     marked[v] ? "T" : "F",
@@ -1,6 +1,8 @@
 package aesd.algorithms.digraph;
 
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
 import aesd.ds.interfaces.Stack;
 
@@ -16,6 +18,10 @@ import aesd.ds.interfaces.Stack;
  * foi totalmente processado e removido da pilha, a aresta apenas cruza para
  * um ramo já concluído da DFS, não fecha ciclo algum. Complexidade O(V + E).
  *
+ * Na versão iterativa usada aqui, a pilha de recursão é a própria pilha de
+ * quadros ({@link DepthFirstFrames}): onStack[v] é ligado quando o quadro de
+ * v é empilhado e desligado quando ele é desempilhado.
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -41,37 +47,63 @@ public class DirectedCycle {
      * @param digraph o digrafo
      */
     public DirectedCycle( Digraph digraph ) {
+        this( new CSRGraph( digraph ) );
+    }
+
+    /**
+     * Determina se um digrafo no formato CSR possui ciclo e, caso tenha,
+     * encontra o mesmo.
+     *
+     * @param digraph o digrafo CSR
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public DirectedCycle( CSRGraph digraph ) throws IllegalArgumentException {
         
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
         marked = new boolean[digraph.getNumberOfVertices()];
         onStack = new boolean[digraph.getNumberOfVertices()];
         edgeTo = new int[digraph.getNumberOfVertices()];
         
+        DepthFirstFrames frames = DepthFirstFrames.acquire( digraph );
+        
         for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
             if ( !marked[v] && cycle == null ) {
-                dfs( digraph, v );
+                dfs( frames, v );
             }
         }
         
+        frames.release();
+        
     }
 
-    // busca em profundidade para encontrar o ciclo direcionado, caso exista
-    private void dfs( Digraph digraph, int v ) {
+    // busca em profundidade iterativa para encontrar o ciclo direcionado,
+    // caso exista
+    private void dfs( DepthFirstFrames frames, int s ) {
         
-        onStack[v] = true;
-        marked[v] = true;
+        onStack[s] = true;
+        marked[s] = true;
+        frames.push( s );
         
-        for ( int w : digraph.adj( v ) ) {
-
-            // se encontrou um ciclo, para
-            if ( cycle != null ) {
-                return;
-            } // encontrou um novo vértice, invoca recursivamente
+        while ( !frames.isEmpty() ) {
+            
+            int w = frames.advance();
+            
+            // terminou o vértice do topo, desempilha
+            if ( w == -1 ) {
+                onStack[frames.pop()] = false;
+            } // encontrou um novo vértice, empilha
             else if ( !marked[w] ) {
-                edgeTo[w] = v;
-                dfs( digraph, w );
-            } // calcula o ciclo direcionado
+                onStack[w] = true;
+                marked[w] = true;
+                edgeTo[w] = frames.peek();
+                frames.push( w );
+            } // calcula o ciclo direcionado e para
             else if ( onStack[w] ) {
                 
+                int v = frames.peek();
                 cycle = new ResizingArrayStack<>();
                 
                 for ( int x = v; x != w; x = edgeTo[x] ) {
@@ -80,13 +112,12 @@ public class DirectedCycle {
                 
                 cycle.push( w );
                 cycle.push( v );
+                return;
                 
             }
             
         }
         
-        onStack[v] = false;
-        
     }
 
     /**
@@ -1,6 +1,8 @@
 package aesd.algorithms.digraph;
 
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
 import aesd.ds.interfaces.Stack;
 
@@ -15,6 +17,10 @@ import aesd.ds.interfaces.Stack;
  * de base para {@link TransitiveClosure}, que a utiliza uma vez por vértice
  * para determinar toda a alcançabilidade do digrafo. Complexidade O(V + E).
  *
+ * Como em {@link aesd.algorithms.graph.DepthFirstSearch}, a busca é
+ * iterativa, sobre o digrafo no formato CSR, usando uma pilha de quadros
+ * ({@link DepthFirstFrames}) reaproveitada entre buscas da mesma thread.
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -32,9 +38,6 @@ public class DirectedDepthFirstSearch {
     // vértice fonte
     private final int source;
 
-    // o digrafo
-    private final Digraph digraph;
-
     /**
      * Computa o caminho entre o vértice fonte s e todos os outros vértices do
      * digrafo.
@@ -44,9 +47,25 @@ public class DirectedDepthFirstSearch {
      * @throws IllegalArgumentException se o vértice for inválido
      */
     public DirectedDepthFirstSearch( Digraph digraph, int source ) throws IllegalArgumentException {
+        this( new CSRGraph( digraph ), source );
+    }
+
+    /**
+     * Computa o caminho entre o vértice fonte s e todos os outros vértices de
+     * um digrafo no formato CSR.
+     *
+     * @param digraph o digrafo CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public DirectedDepthFirstSearch( CSRGraph digraph, int source ) throws IllegalArgumentException {
         
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
         this.source = source;
-        this.digraph = digraph;
 
         marked = new boolean[digraph.getNumberOfVertices()];
         edgeTo = new int[digraph.getNumberOfVertices()];
@@ -58,18 +77,32 @@ public class DirectedDepthFirstSearch {
         
     }
 
-    // implementação da busca em profundidade a partir de v
-    private void dfs( Digraph digraph, int v ) {
+    // implementação iterativa da busca em profundidade a partir de source: a
+    // pilha de quadros faz o papel da pilha de chamadas e guarda a posição do
+    // próximo arco de cada vértice empilhado
+    private void dfs( CSRGraph digraph, int source ) {
+        
+        DepthFirstFrames frames = DepthFirstFrames.acquire( digraph );
         
-        marked[v] = true;
+        marked[source] = true;
+        frames.push( source );
         
-        for ( int w : digraph.adj( v ) ) {
-            if ( !marked[w] ) {
-                dfs( digraph, w );
-                edgeTo[w] = v;
+        while ( !frames.isEmpty() ) {
+            
+            int w = frames.advance();
+            
+            if ( w == -1 ) {
+                frames.pop();
+            } else if ( !marked[w] ) {
+                marked[w] = true;
+                edgeTo[w] = frames.peek();
+                frames.push( w );
             }
+            
         }
         
+        frames.release();
+        
     }
 
     /**
@@ -130,7 +163,7 @@ public class DirectedDepthFirstSearch {
         sb.append( "Depth-First Search (source: vertex " ).append( source ).append( ")\n" );
         sb.append( "v\tmarked[v]\tedgeTo[v]\n" );
         
-        for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
+        for ( int v = 0; v < marked.length; v++ ) {
             sb.append( String.format( "%d\t%s\t\t%s\n",
                     v,
                     marked[v] ? "T" : "F",
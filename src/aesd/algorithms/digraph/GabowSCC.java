@@ -1,8 +1,8 @@
 package aesd.algorithms.digraph;
 
-import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
-import aesd.ds.interfaces.Stack;
 
 /**
  * Calcula os componentes fortes do digrafo (componentes fortemente conexos).
@@ -18,6 +18,11 @@ import aesd.ds.interfaces.Stack;
  * que w. Quando o topo de stack2 volta a ser o próprio v, um componente
  * completo é desempilhado de stack1. Complexidade O(V + E).
  *
+ * As duas pilhas são arrays de inteiros e a DFS é iterativa, com a pilha de
+ * chamadas substituída por {@link DepthFirstFrames}; digrafos com listas de
+ * adjacências são convertidos para o formato CSR, na mesma ordem de
+ * adjacências, antes da busca.
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -39,9 +44,6 @@ public class GabowSCC {
     
     // quantidade dos componentes fortemente conexos do grafo processado
     private int count;
-    
-    private Stack<Integer> stack1;
-    private Stack<Integer> stack2;
 
     /**
      * Calcula os componentes fortes do digrafo (componentes fortemente conexos).
@@ -49,56 +51,97 @@ public class GabowSCC {
      * @param digraph o digrafo
      */
     public GabowSCC( Digraph digraph ) {
+        this( new CSRGraph( digraph ) );
+    }
+
+    /**
+     * Calcula os componentes fortes de um digrafo no formato CSR.
+     *
+     * @param digraph o digrafo CSR
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public GabowSCC( CSRGraph digraph ) throws IllegalArgumentException {
         
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
         marked = new boolean[digraph.getNumberOfVertices()];
-        stack1 = new ResizingArrayStack<>();
-        stack2 = new ResizingArrayStack<>();
         id = new int[digraph.getNumberOfVertices()];
         preorder = new int[digraph.getNumberOfVertices()];
         
         for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
             id[v] = -1;
         }
-
-        for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
-            if ( !marked[v] ) {
-                dfs( digraph, v );
-            }
-        }
+        
+        dfs( digraph );
         
     }
 
-    // dfa no digrafo
-    private void dfs( Digraph digraph, int v ) {
+    // versão iterativa da dfs, executada a partir de todos os vértices ainda
+    // não marcados: a pilha de quadros faz o papel da pilha de chamadas e as
+    // duas pilhas do algoritmo são arrays de inteiros
+    private void dfs( CSRGraph digraph ) {
         
-        marked[v] = true;
-        preorder[v] = pre++;
-        stack1.push( v );
-        stack2.push( v );
+        int vertices = digraph.getNumberOfVertices();
+        DepthFirstFrames frames = DepthFirstFrames.acquire( digraph );
+        int[] stack1 = new int[vertices];
+        int[] stack2 = new int[vertices];
+        int top1 = 0;
+        int top2 = 0;
         
-        for ( int w : digraph.adj( v ) ) {
-            if ( !marked[w] ) {
-                dfs( digraph, w );
-            } else if ( id[w] == -1 ) {
-                while ( preorder[stack2.peek()] > preorder[w] ) {
-                    stack2.pop();
-                }
+        for ( int s = 0; s < vertices; s++ ) {
+            
+            if ( marked[s] ) {
+                continue;
             }
-        }
-
-        // encontrou um componente forte contendo v
-        if ( stack2.peek() == v ) {
             
-            stack2.pop();
-            int w;
-            do {
-                w = stack1.pop();
-                id[w] = count;
-            } while ( w != v );
+            marked[s] = true;
+            preorder[s] = pre++;
+            stack1[top1++] = s;
+            stack2[top2++] = s;
+            frames.push( s );
             
-            count++;
+            while ( !frames.isEmpty() ) {
+                
+                int w = frames.advance();
+                
+                if ( w != -1 ) {
+                    
+                    if ( !marked[w] ) {
+                        marked[w] = true;
+                        preorder[w] = pre++;
+                        stack1[top1++] = w;
+                        stack2[top2++] = w;
+                        frames.push( w );
+                    } else if ( id[w] == -1 ) {
+                        while ( preorder[stack2[top2 - 1]] > preorder[w] ) {
+                            top2--;
+                        }
+                    }
+                    
+                } else {
+                    
+                    int v = frames.pop();
+                    
+                    // encontrou um componente forte contendo v
+                    if ( stack2[top2 - 1] == v ) {
+                        top2--;
+                        do {
+                            w = stack1[--top1];
+                            id[w] = count;
+                        } while ( w != v );
+                        count++;
+                    }
+                    
+                }
+                
+            }
             
         }
+        
+        frames.release();
+        
     }
 
     /**
@@ -1,5 +1,7 @@
 package aesd.algorithms.digraph;
 
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
 
 /**
@@ -15,6 +17,10 @@ import aesd.ds.implementations.nonlinear.graph.Digraph;
  * componente já concluído, um vértice de um componente ainda não iniciado.
  * Complexidade O(V + E).
  *
+ * As duas passadas são buscas iterativas no formato CSR (ver
+ * {@link DepthFirstFrames}), então a profundidade do digrafo não é limitada
+ * pelo tamanho da pilha da JVM.
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -37,34 +43,63 @@ public class KosarajuSharirSCC {
      * @param digraph o digrafo
      */
     public KosarajuSharirSCC( Digraph digraph ) {
+        this( new CSRGraph( digraph ) );
+    }
+
+    /**
+     * Calcula os componentes fortes de um digrafo no formato CSR.
+     *
+     * @param digraph o digrafo CSR
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public KosarajuSharirSCC( CSRGraph digraph ) throws IllegalArgumentException {
+
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
 
         // computa a pós-ordem reversa do reverso do grafo
         DepthFirstOrder dfs = new DepthFirstOrder( digraph.reverse() );
 
-        // executa a DFS no digrafo, usando a pós-ordeme reversa para guiar o
+        // executa a DFS no digrafo, usando a pós-ordem reversa para guiar o
         // cálculo
         marked = new boolean[digraph.getNumberOfVertices()];
         id = new int[digraph.getNumberOfVertices()];
         
+        // a pilha de quadros é compartilhada por todas as buscas, já que
+        // cada uma termina com a pilha vazia
+        DepthFirstFrames frames = DepthFirstFrames.acquire( digraph );
+        
         for ( int v : dfs.reversePost() ) {
             if ( !marked[v] ) {
-                dfs( digraph, v );
+                dfs( frames, v );
                 count++;
             }
         }
+        
+        frames.release();
 
     }
 
-    // dfs no digrafo
-    private void dfs( Digraph digraph, int v ) {
+    // versão iterativa da dfs
+    private void dfs( DepthFirstFrames frames, int s ) {
         
-        marked[v] = true;
-        id[v] = count;
+        marked[s] = true;
+        id[s] = count;
+        frames.push( s );
         
-        for ( int w : digraph.adj( v ) ) {
-            if ( !marked[w] ) {
-                dfs( digraph, w );
+        while ( !frames.isEmpty() ) {
+            
+            int w = frames.advance();
+            
+            if ( w == -1 ) {
+                frames.pop();
+            } else if ( !marked[w] ) {
+                marked[w] = true;
+                id[w] = count;
+                frames.push( w );
             }
+            
         }
         
     }
@@ -1,8 +1,8 @@
 package aesd.algorithms.digraph;
 
-import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
-import aesd.ds.interfaces.Stack;
 
 /**
  * Calcula os componentes fortes do digrafo (componentes fortemente conexos).
@@ -17,6 +17,11 @@ import aesd.ds.interfaces.Stack;
  * e são desempilhados de uma vez. Diferente de {@link KosarajuSharirSCC},
  * não exige computar o digrafo reverso. Complexidade O(V + E).
  *
+ * A DFS é iterativa (ver {@link DepthFirstFrames}) e percorre o digrafo no
+ * formato CSR, para o qual os digrafos com listas de adjacências são
+ * convertidos sem mudar a ordem das adjacências nem, portanto, a numeração
+ * dos componentes.
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -38,8 +43,6 @@ public class TarjanSCC {
     
     // quantidade dos componentes fortemente conexos do grafo processado
     private int count;
-    
-    private Stack<Integer> stack;
 
     /**
      * Calcula os componentes fortes do digrafo (componentes fortemente conexos).
@@ -47,52 +50,96 @@ public class TarjanSCC {
      * @param digraph o digrafo
      */
     public TarjanSCC( Digraph digraph ) {
+        this( new CSRGraph( digraph ) );
+    }
+
+    /**
+     * Calcula os componentes fortes de um digrafo no formato CSR.
+     *
+     * @param digraph o digrafo CSR
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public TarjanSCC( CSRGraph digraph ) throws IllegalArgumentException {
         
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
         marked = new boolean[digraph.getNumberOfVertices()];
-        stack = new ResizingArrayStack<>();
         id = new int[digraph.getNumberOfVertices()];
         low = new int[digraph.getNumberOfVertices()];
         
-        for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
-            if ( !marked[v] ) {
-                dfs( digraph, v );
-            }
-        }
+        dfs( digraph );
         
     }
 
-    // dfs no digrafo
-    private void dfs( Digraph digraph, int v ) {
-        
-        marked[v] = true;
-        low[v] = pre++;
+    // versão iterativa da dfs, executada a partir de todos os vértices ainda
+    // não marcados: a pilha de quadros faz o papel da pilha de chamadas,
+    // min[v] guarda a variável local min da versão recursiva e a pilha de
+    // vértices do componente em formação é um array de inteiros
+    private void dfs( CSRGraph digraph ) {
         
-        int min = low[v];
+        int vertices = digraph.getNumberOfVertices();
+        DepthFirstFrames frames = DepthFirstFrames.acquire( digraph );
+        int[] min = new int[vertices];
+        int[] component = new int[vertices];
+        int componentTop = 0;
         
-        stack.push( v );
-        
-        for ( int w : digraph.adj( v ) ) {
-            if ( !marked[w] ) {
-                dfs( digraph, w );
+        for ( int s = 0; s < vertices; s++ ) {
+            
+            if ( marked[s] ) {
+                continue;
             }
-            if ( low[w] < min ) {
-                min = low[w];
+            
+            marked[s] = true;
+            low[s] = pre++;
+            min[s] = low[s];
+            component[componentTop++] = s;
+            frames.push( s );
+            
+            while ( !frames.isEmpty() ) {
+                
+                int w = frames.advance();
+                
+                if ( w != -1 ) {
+                    
+                    if ( !marked[w] ) {
+                        marked[w] = true;
+                        low[w] = pre++;
+                        min[w] = low[w];
+                        component[componentTop++] = w;
+                        frames.push( w );
+                    } else if ( low[w] < min[frames.peek()] ) {
+                        min[frames.peek()] = low[w];
+                    }
+                    
+                } else {
+                    
+                    int v = frames.pop();
+                    
+                    if ( min[v] < low[v] ) {
+                        low[v] = min[v];
+                    } else {
+                        do {
+                            w = component[--componentTop];
+                            id[w] = count;
+                            low[w] = vertices;
+                        } while ( w != v );
+                        count++;
+                    }
+                    
+                    // retorno da chamada: atualiza o min do vértice pai
+                    if ( !frames.isEmpty() && low[v] < min[frames.peek()] ) {
+                        min[frames.peek()] = low[v];
+                    }
+                    
+                }
+                
             }
+            
         }
         
-        if ( min < low[v] ) {
-            low[v] = min;
-            return;
-        }
-        
-        int w;
-        do {
-            w = stack.pop();
-            id[w] = count;
-            low[w] = digraph.getNumberOfVertices();
-        } while ( w != v );
-        
-        count++;
+        frames.release();
         
     }
 
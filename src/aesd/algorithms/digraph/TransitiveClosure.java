@@ -1,5 +1,6 @@
 package aesd.algorithms.digraph;
 
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
 import aesd.ds.implementations.nonlinear.graph.Digraph;
 
 /**
@@ -32,8 +33,11 @@ public class TransitiveClosure {
         
         tc = new DirectedDepthFirstSearch[digraph.getNumberOfVertices()];
         
+        // o digrafo é convertido uma única vez, e não a cada busca
+        CSRGraph csr = new CSRGraph( digraph );
+        
         for ( int v = 0; v < digraph.getNumberOfVertices(); v++ ) {
-            tc[v] = new DirectedDepthFirstSearch( digraph, v );
+            tc[v] = new DirectedDepthFirstSearch( csr, v );
         }
         
     }
@@ -0,0 +1,550 @@
+package aesd.algorithms.digraph.edgeweighted;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.implementations.nonlinear.graph.AdjMatrixEdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import aesd.ds.interfaces.Queue;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/**
+ * Versão em blocos (tiled) e paralela do algoritmo de Floyd-Warshall, que
+ * calcula os menores caminhos entre todos os pares de vértices de um
+ * digrafo ponderado.
+ *
+ * Em {@link FloydWarshall}, cada iteração i percorre a matriz inteira, que
+ * não cabe na cache do processador a partir de algumas centenas de
+ * vértices: cada elemento é trazido da memória principal V vezes. Aqui a
+ * matriz de distâncias é um único array double[], dividido em blocos B x B
+ * (64 x 64 por padrão, 32 KiB) armazenados contiguamente, e as iterações
+ * são agrupadas de B em B. Para o bloco K da diagonal, cada rodada tem
+ * três fases:
+ *     1. o bloco (K, K) é atualizado usando apenas os seus próprios
+ *        vértices como intermediários;
+ *     2. os blocos da linha K e da coluna K são atualizados usando o bloco
+ *        (K, K), cada um de forma independente;
+ *     3. os demais blocos (I, J) são atualizados usando os blocos (I, K) e
+ *        (K, J), também de forma independente.
+ * Cada atualização de bloco trabalha sobre três blocos que cabem juntos
+ * na cache (B^3 operações para 3B^2 elementos), e os blocos das fases 2 e
+ * 3 são processados em paralelo por tarefas de um ForkJoinPool. O
+ * resultado é o mesmo do algoritmo original, com o mesmo custo O(V^3).
+ *
+ * Em vez da matriz de arestas Edge[V][V], os caminhos são reconstruídos a
+ * partir de uma matriz de próximos saltos int[] com o mesmo layout em
+ * blocos: next[v][w] é o vértice seguinte a v no menor caminho v-w, e é
+ * atualizado para next[v][k] quando o caminho passa a usar o
+ * intermediário k. Para que a sequência de saltos nunca entre em um ciclo
+ * de peso zero, os empates de distância são desempatados pela quantidade de
+ * arestas do caminho, guardada em uma terceira matriz. Os ciclos negativos
+ * são detectados, ao final de cada rodada, por alguma distância negativa na
+ * diagonal.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class BlockedFloydWarshall {
+
+    // tamanho padrão dos blocos
+    private static final int DEFAULT_BLOCK_SIZE = 64;
+
+    // quantidade de vértices
+    private final int vertices;
+
+    // tamanho dos blocos e quantidade de blocos por linha
+    private final int blockSize;
+    private final int blocks;
+
+    // quantidade de arestas dos caminhos inexistentes
+    private static final int NO_PATH = Integer.MAX_VALUE / 2;
+
+    // distâncias, próximos saltos e quantidade de arestas dos caminhos, em
+    // blocos (ver index())
+    private final double[] distTo;
+    private final int[] next;
+    private final int[] hops;
+
+    // arestas de cada vértice, para a reconstrução dos caminhos
+    private final int[] first;
+    private final Edge[] edges;
+
+    // há um ciclo negativo?
+    private boolean hasNegativeCycle;
+
+    // estado do cálculo, usado pelas tarefas
+    private int round;
+
+    /**
+     * Calcula os menores caminhos entre todos os pares de vértices de um
+     * digrafo ponderado representado por matriz de adjacências, com blocos
+     * de 64 x 64 e o pool comum do ForkJoin.
+     *
+     * @param digraph o digrafo ponderado
+     */
+    public BlockedFloydWarshall( AdjMatrixEdgeWeightedDigraph digraph ) {
+        this( digraph, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Calcula os menores caminhos entre todos os pares de vértices de um
+     * digrafo ponderado, com blocos de 64 x 64 e o pool comum do ForkJoin.
+     *
+     * @param digraph o digrafo ponderado
+     */
+    public BlockedFloydWarshall( EdgeWeightedDigraph digraph ) {
+        this( digraph, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Calcula os menores caminhos entre todos os pares de vértices de um
+     * digrafo ponderado representado por matriz de adjacências.
+     *
+     * @param digraph o digrafo ponderado
+     * @param blockSize a quantidade de vértices de cada lado dos blocos
+     * @param pool o pool de threads que executará as tarefas
+     * @throws IllegalArgumentException se blockSize não for positivo
+     * @throws IllegalArgumentException se o pool for null
+     */
+    public BlockedFloydWarshall( AdjMatrixEdgeWeightedDigraph digraph, int blockSize, ForkJoinPool pool )
+            throws IllegalArgumentException {
+        this( digraph.getNumberOfVertices(), digraph::adj, blockSize, pool );
+    }
+
+    /**
+     * Calcula os menores caminhos entre todos os pares de vértices de um
+     * digrafo ponderado.
+     *
+     * @param digraph o digrafo ponderado
+     * @param blockSize a quantidade de vértices de cada lado dos blocos
+     * @param pool o pool de threads que executará as tarefas
+     * @throws IllegalArgumentException se blockSize não for positivo
+     * @throws IllegalArgumentException se o pool for null
+     */
+    public BlockedFloydWarshall( EdgeWeightedDigraph digraph, int blockSize, ForkJoinPool pool )
+            throws IllegalArgumentException {
+        this( digraph.getNumberOfVertices(), digraph::adj, blockSize, pool );
+    }
+
+    private BlockedFloydWarshall( int vertices, IntFunction<Iterable<Edge>> adj, int blockSize, ForkJoinPool pool )
+            throws IllegalArgumentException {
+
+        if ( blockSize <= 0 ) {
+            throw new IllegalArgumentException( "blockSize must be positive" );
+        }
+
+        if ( pool == null ) {
+            throw new IllegalArgumentException( "pool is null" );
+        }
+
+        this.vertices = vertices;
+        this.blockSize = blockSize;
+        this.blocks = Math.max( 1, ( vertices + blockSize - 1 ) / blockSize );
+
+        // a matriz é completada até um múltiplo de blockSize com vértices
+        // sem arestas, que não alteram nenhuma distância
+        long cells = (long) blocks * blockSize * blocks * blockSize;
+        if ( cells > Integer.MAX_VALUE - 8 ) {
+            throw new IllegalArgumentException( "too many vertices: " + vertices );
+        }
+
+        distTo = new double[(int) cells];
+        next = new int[(int) cells];
+        hops = new int[(int) cells];
+        Arrays.fill( distTo, Double.POSITIVE_INFINITY );
+        Arrays.fill( next, -1 );
+        Arrays.fill( hops, NO_PATH );
+
+        // arestas agrupadas por vértice de origem
+        first = new int[vertices + 1];
+        for ( int v = 0; v < vertices; v++ ) {
+            for ( Edge e : adj.apply( v ) ) {
+                first[v + 1]++;
+            }
+        }
+        for ( int v = 0; v < vertices; v++ ) {
+            first[v + 1] += first[v];
+        }
+        edges = new Edge[first[vertices]];
+
+        int n = 0;
+        for ( int v = 0; v < vertices; v++ ) {
+            for ( Edge e : adj.apply( v ) ) {
+                edges[n++] = e;
+                int i = index( e.from(), e.to() );
+                if ( e.weight() < distTo[i] ) {
+                    distTo[i] = e.weight();
+                    next[i] = e.to();
+                    hops[i] = 1;
+                }
+            }
+        }
+
+        // tratando loops
+        for ( int v = 0; v < blocks * blockSize; v++ ) {
+            int i = index( v, v );
+            if ( !( distTo[i] < 0.0 ) ) {
+                distTo[i] = 0.0;
+                next[i] = v;
+                hops[i] = 0;
+            }
+        }
+
+        for ( round = 0; round < blocks && !hasNegativeCycle; round++ ) {
+
+            // fase 1: bloco da diagonal
+            update( round, round, round, round, round, round );
+
+            // fase 2: blocos da linha e da coluna
+            if ( blocks > 1 ) {
+                pool.invoke( new CrossPhase( 0, 2 * blocks ) );
+            }
+
+            // fase 3: demais blocos
+            if ( blocks > 1 ) {
+                pool.invoke( new RemainingPhase( 0, blocks * blocks ) );
+            }
+
+            // verificação de ciclo negativo
+            for ( int v = 0; v < vertices; v++ ) {
+                if ( distTo[index( v, v )] < 0.0 ) {
+                    hasNegativeCycle = true;
+                    break;
+                }
+            }
+
+        }
+
+    }
+
+    /*
+     * Posição do par (v, w) nos arrays: os blocos ficam em ordem de linha e,
+     * dentro de cada bloco, os elementos também.
+     */
+    private int index( int v, int w ) {
+        int bi = v / blockSize;
+        int bj = w / blockSize;
+        return ( ( bi * blocks + bj ) * blockSize + v % blockSize ) * blockSize + w % blockSize;
+    }
+
+    /*
+     * Atualiza o bloco C = (ci, cj) usando os intermediários do bloco K:
+     * C[i][j] = min(C[i][j], A[i][k] + B[k][j]), com A = (ai, aj) e
+     * B = (bi, bj), ou com a mesma distância e menos arestas. Quando C é o
+     * próprio A ou B (fases 1 e 2), o laço de k precisa ser o mais externo
+     * para que o resultado seja o do algoritmo original; na fase 3, A e B
+     * não mudam e o laço de i fica por fora, mantendo a linha i de C na
+     * cache. Em ambos os casos o laço mais interno, o de j, percorre
+     * posições contíguas dos blocos.
+     */
+    private void update( int ci, int cj, int ai, int aj, int bi, int bj ) {
+
+        int b = blockSize;
+        int c = ( ci * blocks + cj ) * b * b;
+        int a = ( ai * blocks + aj ) * b * b;
+        int bb = ( bi * blocks + bj ) * b * b;
+
+        if ( c == a || c == bb ) {
+            for ( int k = 0; k < b; k++ ) {
+                for ( int i = 0; i < b; i++ ) {
+                    relax( c + i * b, a + i * b + k, bb + k * b );
+                }
+            }
+        } else {
+            for ( int i = 0; i < b; i++ ) {
+                for ( int k = 0; k < b; k++ ) {
+                    relax( c + i * b, a + i * b + k, bb + k * b );
+                }
+            }
+        }
+
+    }
+
+    /*
+     * Relaxa a linha de C que começa em row usando o elemento ik de A e a
+     * linha de B que começa em kRow.
+     */
+    private void relax( int row, int ik, int kRow ) {
+
+        double aik = distTo[ik];
+        if ( aik == Double.POSITIVE_INFINITY ) {
+            return;
+        }
+
+        int hop = next[ik];
+        int hik = hops[ik];
+
+        for ( int j = 0; j < blockSize; j++ ) {
+            double d = aik + distTo[kRow + j];
+            if ( d <= distTo[row + j] ) {
+                int h = hik + hops[kRow + j];
+                if ( d < distTo[row + j] || h < hops[row + j] ) {
+                    distTo[row + j] = d;
+                    next[row + j] = hop;
+                    hops[row + j] = h;
+                }
+            }
+        }
+
+    }
+
+    // fase 2: as posições [0, blocks) são os blocos da linha do bloco da
+    // diagonal e as [blocks, 2 * blocks), os da coluna
+    @SuppressWarnings( "serial" )
+    private class CrossPhase extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+
+        CrossPhase( int lo, int hi ) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > 1 ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new CrossPhase( lo, mid ), new CrossPhase( mid, hi ) );
+                return;
+            }
+
+            int k = round;
+
+            if ( lo < blocks ) {
+                if ( lo != k ) {
+                    update( k, lo, k, k, k, lo );
+                }
+            } else if ( lo - blocks != k ) {
+                int i = lo - blocks;
+                update( i, k, i, k, k, k );
+            }
+
+        }
+
+    }
+
+    // fase 3: as posições [lo, hi) são os blocos em ordem de linha
+    @SuppressWarnings( "serial" )
+    private class RemainingPhase extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+
+        RemainingPhase( int lo, int hi ) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > 1 ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new RemainingPhase( lo, mid ), new RemainingPhase( mid, hi ) );
+                return;
+            }
+
+            int k = round;
+            int i = lo / blocks;
+            int j = lo % blocks;
+
+            if ( i != k && j != k ) {
+                update( i, j, i, k, k, j );
+            }
+
+        }
+
+    }
+
+    /**
+     * Há um ciclo negativo?
+     *
+     * @return verdadeiro se houver um ciclo negativo, falso caso contrário
+     */
+    public boolean hasNegativeCycle() {
+        return hasNegativeCycle;
+    }
+
+    /**
+     * Retorna um ciclo negativo ou null caso não haja.
+     *
+     * O ciclo é procurado seguindo os próximos saltos em direção a um
+     * vértice v com distância negativa até si mesmo. Caso isso não leve a
+     * um ciclo negativo (os próximos saltos não são garantidos quando há
+     * ciclos negativos), o ciclo é obtido por {@link BellmanFordSP} a
+     * partir de v.
+     *
+     * @return um ciclo negativo ou null caso não haja.
+     */
+    public Iterable<Edge> negativeCycle() {
+
+        if ( !hasNegativeCycle ) {
+            return null;
+        }
+
+        int v = 0;
+        while ( distTo[index( v, v )] >= 0.0 ) {
+            v++;
+        }
+
+        // position[u] = posição de u na sequência de saltos, ou -1
+        int[] position = new int[vertices];
+        Arrays.fill( position, -1 );
+        int[] sequence = new int[vertices + 1];
+        int n = 0;
+
+        for ( int u = v; u >= 0 && u < vertices; u = next[index( u, v )] ) {
+
+            if ( position[u] >= 0 ) {
+
+                Queue<Edge> cycle = new LinkedQueue<>();
+                double weight = 0;
+                sequence[n] = u;
+
+                for ( int p = position[u]; p < n; p++ ) {
+                    Edge e = edge( sequence[p], sequence[p + 1] );
+                    if ( e == null ) {
+                        break;
+                    }
+                    cycle.enqueue( e );
+                    weight += e.weight();
+                }
+
+                if ( cycle.getSize() == n - position[u] && weight < 0.0 ) {
+                    return cycle;
+                }
+
+                break;
+
+            }
+
+            position[u] = n;
+            sequence[n++] = u;
+
+        }
+
+        EdgeWeightedDigraph digraph = new EdgeWeightedDigraph( vertices );
+        for ( Edge e : edges ) {
+            digraph.addEdge( e.from(), e.to(), e.weight() );
+        }
+
+        return new BellmanFordSP( digraph, v ).negativeCycle();
+
+    }
+
+    // aresta de menor peso entre u e w, ou null caso não exista
+    private Edge edge( int u, int w ) {
+
+        Edge best = null;
+
+        for ( int i = first[u]; i < first[u + 1]; i++ ) {
+            if ( edges[i].to() == w && ( best == null || edges[i].weight() < best.weight() ) ) {
+                best = edges[i];
+            }
+        }
+
+        return best;
+
+    }
+
+    /**
+     * Há um caminho de source até target?
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @return verdadeiro caso haja um caminho entre os vértices source e target
+     * falso caso contrário
+     * @throws IllegalArgumentException se o vértice source ou o vértice target
+     * forem inválidos
+     */
+    public boolean hasPath( int source, int target ) throws IllegalArgumentException {
+
+        validateVertex( source );
+        validateVertex( target );
+
+        return distTo[index( source, target )] < Double.POSITIVE_INFINITY;
+
+    }
+
+    /**
+     * Retorna o comprimento menor caminho entre o vértice source e o vértice
+     * target.
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @return o comprimento do menor caminho entre os vértices source e target
+     * ou Double.POSITIVE_INFINITY caso não exista
+     * @throws UnsupportedOperationException se houver um ciclo negativo
+     * @throws IllegalArgumentException se o vértice source ou o vértice target
+     * forem inválidos
+     */
+    public double dist( int source, int target )
+            throws UnsupportedOperationException, IllegalArgumentException {
+
+        validateVertex( source );
+        validateVertex( target );
+
+        if ( hasNegativeCycle() ) {
+            throw new UnsupportedOperationException( "Negative cost cycle exists" );
+        }
+
+        return distTo[index( source, target )];
+
+    }
+
+    /**
+     * Retorna o menor caminho entre o vértice source e o vértice target,
+     * seguindo os próximos saltos a partir de source.
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @return o menor caminho entre os vértices source e target ou null caso
+     * não exista
+     * @throws UnsupportedOperationException se houver um ciclo negativo
+     * @throws IllegalArgumentException se o vértice source ou o vértice target
+     * forem inválidos
+     */
+    public Iterable<Edge> path( int source, int target )
+            throws UnsupportedOperationException, IllegalArgumentException {
+
+        validateVertex( source );
+        validateVertex( target );
+
+        if ( hasNegativeCycle() ) {
+            throw new UnsupportedOperationException( "Negative cost cycle exists" );
+        }
+
+        if ( !hasPath( source, target ) ) {
+            return null;
+        }
+
+        Queue<Edge> path = new LinkedQueue<>();
+        for ( int u = source; u != target; ) {
+            int w = next[index( u, target )];
+            path.enqueue( edge( u, w ) );
+            u = w;
+        }
+
+        return path;
+
+    }
+
+    /**
+     * Retorna o tamanho dos blocos.
+     *
+     * @return a quantidade de vértices de cada lado dos blocos
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    private void validateVertex( int v ) throws IllegalArgumentException {
+        if ( v < 0 || v >= vertices ) {
+            throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( vertices - 1 ) );
+        }
+    }
+
+}
@@ -0,0 +1,609 @@
+package aesd.algorithms.digraph.edgeweighted;
+
+import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedGraph;
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.interfaces.Stack;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Implementação paralela do algoritmo delta-stepping para o problema do
+ * menor caminho a partir de um vértice fonte em grafos e digrafos ponderados
+ * com pesos não negativos.
+ *
+ * Em vez de uma fila de prioridades, os vértices são agrupados em baldes
+ * (buckets) de largura delta: o balde i contém os vértices com distância
+ * provisória em [i * delta, (i + 1) * delta). Os baldes são processados em
+ * ordem crescente e, dentro de um balde, todos os vértices são relaxados ao
+ * mesmo tempo por tarefas de um ForkJoinPool. As arestas leves (peso menor
+ * ou igual a delta) podem colocar vértices de volta no próprio balde e por
+ * isso são relaxadas em fases repetidas até o balde esvaziar; as arestas
+ * pesadas só alcançam baldes posteriores e são relaxadas uma única vez, ao
+ * final do balde. Com delta muito pequeno o algoritmo se aproxima do de
+ * Dijkstra (pouco paralelismo); com delta muito grande, do de Bellman-Ford
+ * (muitos relaxamentos repetidos). Por padrão usa-se delta = maior peso /
+ * grau médio, sugerido por Meyer e Sanders para pesos aleatórios.
+ *
+ * As distâncias provisórias ficam em um AtomicLongArray com a representação
+ * binária dos doubles — para números não negativos, a ordem dessas
+ * representações como long é a mesma dos doubles, de modo que o
+ * relaxamento é um "mínimo atômico" feito com compareAndSet. A aresta
+ * usada para chegar a cada vértice não é registrada durante os
+ * relaxamentos, já que duas tarefas poderiam gravar a distância de uma e a
+ * aresta da outra: ao final, uma busca em largura paralela a partir da
+ * fonte, restrita aos arcos v->w "justos" (distTo[v] + peso == distTo[w]),
+ * escolhe o arco que chega a cada vértice, o que resulta em uma árvore de
+ * menores caminhos sem ciclos mesmo com arestas de peso zero.
+ *
+ * As distâncias são exatamente as calculadas por {@link DirectedDijkstraSP}
+ * e {@link aesd.algorithms.graph.edgeweighted.DijkstraSP}, e a API de
+ * consulta é a mesma. Os grafos e digrafos com listas de adjacências são
+ * convertidos para o formato CSR (ver {@link CSRGraph}) antes do
+ * processamento.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class DeltaSteppingSP {
+
+    // quantidade de vértices processada sequencialmente por cada tarefa
+    private static final int GRAIN = 256;
+
+    // quantidade máxima de baldes ativos ao mesmo tempo
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    // dist[v] = representação binária de distTo[v]
+    private final AtomicLongArray dist;
+
+    // arcTo[v] = posição do último arco no menor caminho entre source-v
+    private final AtomicIntegerArray arcTo;
+
+    // largura dos baldes
+    private final double delta;
+
+    // estado do algoritmo, usado pelas tarefas
+    private final CSRGraph graph;
+    private final ForkJoinPool pool;
+    private final int source;
+    private int[] active;
+    private int[] improved;
+    private final AtomicInteger improvedSize = new AtomicInteger();
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte para todos
+     * os outros vértices do digrafo ponderado, com a largura de balde padrão.
+     *
+     * @param digraph o digrafo ponderado
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     */
+    public DeltaSteppingSP( EdgeWeightedDigraph digraph, int source ) throws IllegalArgumentException {
+        this( new CSRGraph( digraph ), source );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte para todos
+     * os outros vértices do digrafo ponderado.
+     *
+     * @param digraph o digrafo ponderado
+     * @param source o vértice fonte
+     * @param delta a largura dos baldes
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se delta não for positivo
+     */
+    public DeltaSteppingSP( EdgeWeightedDigraph digraph, int source, double delta ) throws IllegalArgumentException {
+        this( new CSRGraph( digraph ), source, delta, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte para todos
+     * os outros vértices do grafo ponderado, com a largura de balde padrão.
+     *
+     * @param graph o grafo ponderado
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     */
+    public DeltaSteppingSP( EdgeWeightedGraph graph, int source ) throws IllegalArgumentException {
+        this( new CSRGraph( graph ), source );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte para todos
+     * os outros vértices do grafo ponderado.
+     *
+     * @param graph o grafo ponderado
+     * @param source o vértice fonte
+     * @param delta a largura dos baldes
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se delta não for positivo
+     */
+    public DeltaSteppingSP( EdgeWeightedGraph graph, int source, double delta ) throws IllegalArgumentException {
+        this( new CSRGraph( graph ), source, delta, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte para todos
+     * os outros vértices de um grafo ou digrafo CSR, com a largura de balde
+     * padrão.
+     *
+     * @param graph o grafo ou digrafo CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     */
+    public DeltaSteppingSP( CSRGraph graph, int source ) throws IllegalArgumentException {
+        this( graph, source, defaultDelta( graph ), ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte para todos
+     * os outros vértices de um grafo ou digrafo CSR, usando o pool passado.
+     *
+     * @param graph o grafo ou digrafo CSR
+     * @param source o vértice fonte
+     * @param delta a largura dos baldes
+     * @param pool o pool de threads que executará as tarefas
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se delta não for positivo ou for
+     * pequeno demais em relação aos pesos
+     * @throws IllegalArgumentException se o pool for null
+     */
+    public DeltaSteppingSP( CSRGraph graph, int source, double delta, ForkJoinPool pool ) throws IllegalArgumentException {
+
+        if ( !( delta > 0 ) || Double.isInfinite( delta ) ) {
+            throw new IllegalArgumentException( "delta must be positive" );
+        }
+
+        if ( pool == null ) {
+            throw new IllegalArgumentException( "pool is null" );
+        }
+
+        double maxWeight = 0;
+        for ( int i = 0; i < graph.getNumberOfArcs(); i++ ) {
+            double w = graph.weight( i );
+            if ( w < 0 ) {
+                throw new IllegalArgumentException( "edge " + i + " has negative weight" );
+            }
+            maxWeight = Math.max( maxWeight, w );
+        }
+
+        int vertices = graph.getNumberOfVertices();
+
+        // os números dos baldes (no máximo a maior distância possível sobre
+        // delta) são chaves double da fila de baldes e precisam ser exatos
+        if ( maxWeight / delta >= MAX_BUCKETS || Math.max( 1, vertices - 1 ) * ( maxWeight / delta ) >= 0x1p53 ) {
+            throw new IllegalArgumentException( "delta is too small for the edge weights" );
+        }
+
+        dist = new AtomicLongArray( vertices );
+        arcTo = new AtomicIntegerArray( vertices );
+
+        this.delta = delta;
+        this.graph = graph;
+        this.pool = pool;
+
+        validateVertex( source );
+
+        long infinity = Double.doubleToLongBits( Double.POSITIVE_INFINITY );
+        for ( int v = 0; v < vertices; v++ ) {
+            dist.set( v, infinity );
+        }
+        for ( int v = 0; v < vertices; v++ ) {
+            arcTo.set( v, -1 );
+        }
+
+        this.source = source;
+        run( (int) ( maxWeight / delta ) + 2 );
+        tree();
+
+        active = null;
+        improved = null;
+
+    }
+
+    // delta = maior peso / grau médio
+    private static double defaultDelta( CSRGraph graph ) {
+
+        double maxWeight = 0;
+        for ( int i = 0; i < graph.getNumberOfArcs(); i++ ) {
+            maxWeight = Math.max( maxWeight, graph.weight( i ) );
+        }
+
+        double degree = Math.max( 1.0, (double) graph.getNumberOfArcs() / Math.max( 1, graph.getNumberOfVertices() ) );
+        double delta = maxWeight / degree;
+
+        return delta > 0 ? delta : 1.0;
+
+    }
+
+    // laço principal: processa os baldes ocupados em ordem crescente,
+    // usando um array circular de buckets posições - como todas as
+    // distâncias provisórias ficam em [b * delta, b * delta + maior peso],
+    // onde b é o balde atual, nunca há dois baldes ativos ocupando a mesma
+    // posição. Os números dos baldes são longs, pois a maior distância
+    // dividida por delta pode passar de 2^31, e as posições ocupadas ficam
+    // em uma fila de prioridades com o número do balde como chave, então os
+    // baldes vazios entre dois ocupados nunca são visitados
+    private void run( int buckets ) {
+
+        int vertices = graph.getNumberOfVertices();
+
+        // listas de vértices de cada balde; bucketOf[v] = balde em que v
+        // está no momento (-1 se não estiver em nenhum). Entradas de vértices
+        // que mudaram de balde continuam nas listas antigas e são ignoradas
+        int[][] items = new int[buckets][];
+        int[] sizes = new int[buckets];
+        long[] bucketOf = new long[vertices];
+        Arrays.fill( bucketOf, -1 );
+        IndexedDaryDoubleMinPQ occupied = new IndexedDaryDoubleMinPQ( buckets );
+
+        // settled[v] = último balde em que v foi removido (para as arestas
+        // pesadas de cada vértice serem relaxadas uma única vez por balde)
+        long[] settled = new long[vertices];
+        Arrays.fill( settled, -1 );
+
+        active = new int[16];
+        improved = new int[16];
+        int[] removed = new int[16];
+
+        dist.set( source, Double.doubleToLongBits( 0.0 ) );
+        bucketOf[source] = 0;
+        items[0] = new int[] { source };
+        sizes[0] = 1;
+        occupied.insert( 0, 0 );
+
+        while ( !occupied.isEmpty() ) {
+
+            long b = (long) occupied.peekKey();
+            int slot = occupied.delete();
+            int removedCount = 0;
+
+            while ( sizes[slot] > 0 ) {
+
+                // retira do balde os vértices que de fato pertencem a ele
+                int count = 0;
+                int[] list = items[slot];
+                int size = sizes[slot];
+                sizes[slot] = 0;
+
+                for ( int k = 0; k < size; k++ ) {
+                    int v = list[k];
+                    if ( bucketOf[v] == b ) {
+                        bucketOf[v] = -1;
+                        active = append( active, count++, v );
+                        if ( settled[v] != b ) {
+                            settled[v] = b;
+                            removed = append( removed, removedCount++, v );
+                        }
+                    }
+                }
+
+                if ( count == 0 ) {
+                    break;
+                }
+
+                // fase leve
+                relax( count, true, b, items, sizes, bucketOf, occupied );
+
+            }
+
+            // fase pesada
+            if ( removedCount > 0 ) {
+                int[] t = active;
+                active = removed;
+                relax( removedCount, false, b, items, sizes, bucketOf, occupied );
+                removed = active;
+                active = t;
+            }
+
+        }
+
+    }
+
+    // relaxa em paralelo os arcos leves ou pesados dos count primeiros
+    // vértices de active e coloca os vértices melhorados nos seus baldes; o
+    // balde atual b não entra na fila, pois é esvaziado pelo laço principal
+    private void relax( int count, boolean light, long b, int[][] items, int[] sizes, long[] bucketOf,
+                        IndexedDaryDoubleMinPQ occupied ) {
+
+        // cada vértice melhorado é anotado no máximo uma vez por arco
+        long arcs = 0;
+        for ( int k = 0; k < count; k++ ) {
+            arcs += graph.degree( active[k] );
+        }
+        if ( improved.length < arcs ) {
+            improved = new int[(int) Math.min( Integer.MAX_VALUE - 8, Math.max( arcs, 2L * improved.length ) )];
+        }
+
+        improvedSize.set( 0 );
+        pool.invoke( new Relax( 0, count, light ) );
+
+        int size = improvedSize.get();
+        int buckets = sizes.length;
+
+        for ( int k = 0; k < size; k++ ) {
+
+            int w = improved[k];
+            long nb = (long) ( Double.longBitsToDouble( dist.get( w ) ) / delta );
+
+            if ( nb != bucketOf[w] ) {
+                bucketOf[w] = nb;
+                int slot = (int) ( nb % buckets );
+                if ( items[slot] == null ) {
+                    items[slot] = new int[16];
+                }
+                items[slot] = append( items[slot], sizes[slot]++, w );
+                if ( nb != b && !occupied.contains( slot ) ) {
+                    occupied.insert( slot, nb );
+                }
+            }
+
+        }
+
+    }
+
+    private static int[] append( int[] array, int position, int value ) {
+        if ( position == array.length ) {
+            array = Arrays.copyOf( array, array.length * 2 );
+        }
+        array[position] = value;
+        return array;
+    }
+
+    // relaxamento atômico: tenta baixar a distância de w para d
+    private boolean lower( int w, double d ) {
+
+        long bits = Double.doubleToLongBits( d );
+        long current;
+
+        do {
+            current = dist.get( w );
+            if ( current <= bits ) {
+                return false;
+            }
+        } while ( !dist.compareAndSet( w, current, bits ) );
+
+        return true;
+
+    }
+
+    // relaxa os arcos dos vértices active[lo, hi)
+    @SuppressWarnings( "serial" )
+    private class Relax extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+        private final boolean light;
+
+        Relax( int lo, int hi, boolean light ) {
+            this.lo = lo;
+            this.hi = hi;
+            this.light = light;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > GRAIN ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new Relax( lo, mid, light ), new Relax( mid, hi, light ) );
+                return;
+            }
+
+            int[] found = new int[16];
+            int count = 0;
+
+            for ( int k = lo; k < hi; k++ ) {
+
+                int v = active[k];
+                double d = Double.longBitsToDouble( dist.get( v ) );
+                int end = graph.end( v );
+
+                for ( int i = graph.begin( v ); i < end; i++ ) {
+                    double weight = graph.weight( i );
+                    if ( ( weight <= delta ) == light ) {
+                        int w = graph.target( i );
+                        if ( lower( w, d + weight ) ) {
+                            found = append( found, count++, w );
+                        }
+                    }
+                }
+
+            }
+
+            if ( count > 0 ) {
+                int position = improvedSize.getAndAdd( count );
+                System.arraycopy( found, 0, improved, position, count );
+            }
+
+        }
+
+    }
+
+    // constrói a árvore de menores caminhos com uma busca em largura
+    // paralela, nível a nível, pelos arcos justos a partir da fonte: cada
+    // vértice é reivindicado com compareAndSet pelo primeiro arco que o
+    // alcança
+    private void tree() {
+
+        int size = 1;
+        active = new int[] { source };
+
+        while ( size > 0 ) {
+
+            long arcs = 0;
+            for ( int k = 0; k < size; k++ ) {
+                arcs += graph.degree( active[k] );
+            }
+            if ( improved.length < arcs ) {
+                improved = new int[(int) Math.min( Integer.MAX_VALUE - 8, Math.max( arcs, 2L * improved.length ) )];
+            }
+
+            improvedSize.set( 0 );
+            pool.invoke( new Tree( 0, size ) );
+
+            int[] t = active;
+            active = improved;
+            improved = t;
+            size = improvedSize.get();
+
+        }
+
+    }
+
+    // expande os vértices active[lo, hi) da busca pelos arcos justos
+    @SuppressWarnings( "serial" )
+    private class Tree extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+
+        Tree( int lo, int hi ) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > GRAIN ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new Tree( lo, mid ), new Tree( mid, hi ) );
+                return;
+            }
+
+            int[] found = new int[16];
+            int count = 0;
+
+            for ( int k = lo; k < hi; k++ ) {
+
+                int v = active[k];
+                double d = Double.longBitsToDouble( dist.get( v ) );
+                int end = graph.end( v );
+
+                for ( int i = graph.begin( v ); i < end; i++ ) {
+                    int w = graph.target( i );
+                    if ( w != source
+                            && d + graph.weight( i ) == Double.longBitsToDouble( dist.get( w ) )
+                            && arcTo.compareAndSet( w, -1, i ) ) {
+                        found = append( found, count++, w );
+                    }
+                }
+
+            }
+
+            if ( count > 0 ) {
+                int position = improvedSize.getAndAdd( count );
+                System.arraycopy( found, 0, improved, position, count );
+            }
+
+        }
+
+    }
+
+    // vértice de origem do arco i (busca binária nas posições iniciais)
+    private int tail( int i ) {
+
+        int lo = 0;
+        int hi = graph.getNumberOfVertices() - 1;
+
+        while ( lo < hi ) {
+            int mid = ( lo + hi + 1 ) >>> 1;
+            if ( graph.begin( mid ) <= i ) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return lo;
+
+    }
+
+    /**
+     * Retorna a largura dos baldes usada.
+     *
+     * @return a largura dos baldes
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * Retorna o comprimento/tamanho do menor caminho entre o vértice fonte e o
+     * vértice de destino.
+     *
+     * @param v o vértice de destino
+     * @return o comprimento/tamanho do menor caminho entre o vértice fonte e o
+     * vértice de destino ou Double.POSITIVE_INFINITY se não houver caminho entre
+     * eles.
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public double distTo( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return Double.longBitsToDouble( dist.get( v ) );
+    }
+
+    /**
+     * Retorna verdadeiro se houver um caminho entre o vértice fonte e o vértice
+     * de destino.
+     *
+     * @param v o vértice de destino
+     * @return verdadeiro se houver um caminho entre o vértice fonte e o vértice
+     * de destino, falso caso contrário
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public boolean hasPathTo( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return distTo( v ) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Retorna o menor caminho entre o vértice fonte e o vértice de destino.
+     *
+     * @param v o vértice de destino
+     * @return o menor caminho entre o vértice fonte e o vértice de destino como
+     * um iterável, ou null caso o caminho não exista
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public Iterable<Edge> pathTo( int v ) throws IllegalArgumentException {
+
+        validateVertex( v );
+
+        if ( !hasPathTo( v ) ) {
+            return null;
+        }
+
+        Stack<Edge> path = new ResizingArrayStack<>();
+
+        for ( int x = v; arcTo.get( x ) != -1; ) {
+            int i = arcTo.get( x );
+            int u = tail( i );
+            path.push( new Edge( u, x, graph.weight( i ) ) );
+            x = u;
+        }
+
+        return path;
+
+    }
+
+    private void validateVertex( int v ) {
+        int length = arcTo.length();
+        if ( v < 0 || v >= length ) {
+            throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( length - 1 ) );
+        }
+    }
+
+}
@@ -1,10 +1,13 @@
 package aesd.algorithms.digraph.edgeweighted;
 
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
 import aesd.ds.implementations.nonlinear.graph.Edge;
 import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
-import aesd.ds.implementations.nonlinear.pq.IndexedMinPriorityQueue;
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
 import aesd.ds.interfaces.Stack;
+import java.util.Arrays;
 
 /**
  * Implementação do algoritmo de menor caminho de Dijksta para digrafos
@@ -31,7 +34,15 @@ public class DirectedDijkstraSP {
     private Edge[] edgeTo;
     
     // fila de prioridades indexada dos vértices
-    private IndexedMinPriorityQueue<Double> pq;
+    private IndexedDoublePriorityQueue pq;
+    
+    // versão CSR: o digrafo (null nas outras versões), arcTo[v] = posição do
+    // último arco no menor caminho entre source-v e parent[v] = vértice de
+    // origem desse arco (-1 para a fonte) - as arestas só são criadas em
+    // pathTo, e não a cada relaxamento
+    private CSRGraph csr;
+    private int[] arcTo;
+    private int[] parent;
 
     /**
      * Computa a árvore de menor caminho a partir do vértice fonte (source) para
@@ -61,7 +72,7 @@ public class DirectedDijkstraSP {
         distTo[source] = 0.0;
 
         // relaxamento dos vértices na ordem de distância ao vértice fonte
-        pq = new IndexedMinPriorityQueue<>( digraph.getNumberOfVertices() );
+        pq = new IndexedDaryDoubleMinPQ( digraph.getNumberOfVertices() );
         pq.insert( source, distTo[source] );
         
         while ( !pq.isEmpty() ) {
@@ -73,6 +84,73 @@ public class DirectedDijkstraSP {
         
     }
 
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte (source) para
+     * todos os outros vértices de um digrafo ponderado no formato CSR.
+     *
+     * @param digraph o digrafo ponderado CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public DirectedDijkstraSP( CSRGraph digraph, int source ) throws IllegalArgumentException {
+        
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
+        for ( int i = 0; i < digraph.getNumberOfArcs(); i++ ) {
+            if ( digraph.weight( i ) < 0 ) {
+                throw new IllegalArgumentException( "edge " + i + " has negative weight" );
+            }
+        }
+
+        csr = digraph;
+        distTo = new double[digraph.getNumberOfVertices()];
+        arcTo = new int[digraph.getNumberOfVertices()];
+        parent = new int[digraph.getNumberOfVertices()];
+
+        validateVertex( source );
+
+        Arrays.fill( distTo, Double.POSITIVE_INFINITY );
+        Arrays.fill( parent, -1 );
+        distTo[source] = 0.0;
+
+        // relaxamento dos vértices na ordem de distância ao vértice fonte
+        pq = new IndexedDaryDoubleMinPQ( digraph.getNumberOfVertices() );
+        pq.insert( source, distTo[source] );
+        
+        while ( !pq.isEmpty() ) {
+            
+            int v = pq.delete();
+            int end = digraph.end( v );
+            
+            for ( int i = digraph.begin( v ); i < end; i++ ) {
+                
+                int w = digraph.target( i );
+                double d = distTo[v] + digraph.weight( i );
+                
+                if ( distTo[w] > d ) {
+                    
+                    distTo[w] = d;
+                    arcTo[w] = i;
+                    parent[w] = v;
+                    
+                    if ( pq.contains( w ) ) {
+                        pq.decreaseKey( w, d );
+                    } else {
+                        pq.insert( w, d );
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        
+    }
+
     // relaxamento da aresta e atualização da fila de prioridades se foi
     // alterada
     private void relax( Edge e ) {
@@ -142,6 +220,13 @@ public class DirectedDijkstraSP {
         
         Stack<Edge> path = new ResizingArrayStack<Edge>();
         
+        if ( csr != null ) {
+            for ( int x = v; parent[x] != -1; x = parent[x] ) {
+                path.push( new Edge( parent[x], x, csr.weight( arcTo[x] ) ) );
+            }
+            return path;
+        }
+        
         for ( Edge e = edgeTo[v]; e != null; e = edgeTo[e.from()] ) {
             path.push( e );
         }
@@ -0,0 +1,675 @@
+package aesd.algorithms.digraph.edgeweighted;
+
+import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import aesd.ds.interfaces.Stack;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão otimizada do algoritmo de Bellman-Ford baseado em fila para o
+ * problema do menor caminho a partir de um vértice fonte em digrafos
+ * ponderados com pesos negativos, com a mesma API de {@link BellmanFordSP}.
+ *
+ * No modo QUEUE, a fila de vértices a relaxar é um deque circular em um
+ * array de inteiros (sem nós nem Integers) com duas heurísticas de ordem:
+ *     - Small Label First (SLF): um vértice que entra com distância menor
+ *       que a do primeiro da fila é colocado no início, e não no fim;
+ *     - Large Label Last (LLL): enquanto o primeiro da fila tiver distância
+ *       maior que a média das distâncias da fila, ele é movido para o fim.
+ * Ambas aproximam a ordem de Dijkstra sem uma fila de prioridades, o que
+ * reduz a quantidade de vezes que cada vértice é relaxado.
+ *
+ * Em vez de construir um digrafo com as arestas predecessoras a cada V
+ * relaxamentos e procurar um ciclo nele, como em BellmanFordSP, a árvore de
+ * menores caminhos é mantida explicitamente (percurso em pré-ordem em uma
+ * lista duplamente encadeada em arrays, mais a profundidade de cada
+ * vértice) e usada na desmontagem de subárvores de Tarjan: quando a
+ * distância de w melhora por um arco v-w, toda a subárvore de w é
+ * desligada da árvore e os seus vértices saem da fila, pois as distâncias
+ * deles ficaram desatualizadas e serão melhoradas de novo a partir de w.
+ * Se v estiver nessa subárvore, o caminho w-v da árvore mais o arco v-w
+ * formam um ciclo negativo, encontrado assim que se fecha, sem nenhum
+ * trabalho extra. Além disso, os vértices desligados deixam de propagar
+ * distâncias que já se sabem desatualizadas.
+ *
+ * No modo PARALLEL_ROUNDS, indicado quando muitos vértices melhoram ao
+ * mesmo tempo, o algoritmo é executado em rodadas, como na versão clássica:
+ * em cada rodada, cada vértice examina em paralelo, por tarefas de um
+ * ForkJoinPool, os arcos que chegam a ele a partir dos vértices que
+ * melhoraram na rodada anterior (usando as distâncias do fim daquela
+ * rodada). Cada vértice é atualizado por uma única tarefa, então distância
+ * e predecessor nunca ficam inconsistentes. Se ainda houver melhoras após
+ * V rodadas, há um ciclo negativo, obtido seguindo os predecessores.
+ *
+ * Os digrafos com listas de adjacências são convertidos para o formato CSR
+ * (ver {@link CSRGraph}) antes do processamento. Complexidade O(V E) no
+ * pior caso em ambos os modos.
+ *
+ * Referência: CHERKASSKY, B. V.; GOLDBERG, A. V.; RADZIK, T. Shortest paths
+ * algorithms: theory and experimental evaluation. Mathematical
+ * Programming, v. 73, n. 2, p. 129-174, 1996.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class FastBellmanFordSP {
+
+    /**
+     * Modos de execução do algoritmo.
+     */
+    public static enum Mode {
+        QUEUE,
+        PARALLEL_ROUNDS
+    }
+
+    // para resolver problemas com precisão de ponto flutuante
+    private static final double EPSILON = 1E-14;
+
+    // quantidade de vértices processada sequencialmente por cada tarefa
+    private static final int GRAIN = 256;
+
+    private final CSRGraph graph;
+    private final int source;
+    private final Mode mode;
+
+    // distTo[v] = distância do menor caminho s->v
+    private final double[] distTo;
+
+    // parent[v] = vértice anterior a v no menor caminho s->v (-1 se não
+    // houver) e weightTo[v] = peso do arco parent[v]->v
+    private final int[] parent;
+    private final double[] weightTo;
+
+    // ciclo negativo ou null caso não exista
+    private Iterable<Edge> cycle;
+
+    // quantidade de arcos examinados
+    private final AtomicLong relaxations = new AtomicLong();
+
+    // estado do modo QUEUE: árvore em pré-ordem, fila e estatísticas da fila
+    private int[] nextPre;
+    private int[] prevPre;
+    private int[] depth;
+    private boolean[] inTree;
+    private boolean[] onQueue;
+    private int[] deque;
+    private int head;
+    private int entries;
+    private int live;
+    private double liveSum;
+
+    // estado do modo PARALLEL_ROUNDS
+    private ForkJoinPool pool;
+    private CSRGraph reverse;
+    private int[] stamp;
+    private double[] snapshot;
+    private int[] improved;
+    private final AtomicInteger improvedSize = new AtomicInteger();
+    private int round;
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte (source) para
+     * todos os outros vértices do digrafo ponderado, no modo QUEUE.
+     *
+     * @param digraph o digrafo ponderado, que pode conter ciclos
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     */
+    public FastBellmanFordSP( EdgeWeightedDigraph digraph, int source ) throws IllegalArgumentException {
+        this( new CSRGraph( digraph ), source, Mode.QUEUE, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte (source) para
+     * todos os outros vértices do digrafo ponderado, usando o pool comum do
+     * ForkJoin no modo PARALLEL_ROUNDS.
+     *
+     * @param digraph o digrafo ponderado, que pode conter ciclos
+     * @param source o vértice fonte
+     * @param mode o modo de execução
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se o modo for null
+     */
+    public FastBellmanFordSP( EdgeWeightedDigraph digraph, int source, Mode mode ) throws IllegalArgumentException {
+        this( new CSRGraph( digraph ), source, mode, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte (source) para
+     * todos os outros vértices de um digrafo ponderado no formato CSR, no
+     * modo QUEUE.
+     *
+     * @param digraph o digrafo ponderado CSR, que pode conter ciclos
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public FastBellmanFordSP( CSRGraph digraph, int source ) throws IllegalArgumentException {
+        this( digraph, source, Mode.QUEUE, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte (source) para
+     * todos os outros vértices de um digrafo ponderado no formato CSR.
+     *
+     * @param digraph o digrafo ponderado CSR, que pode conter ciclos
+     * @param source o vértice fonte
+     * @param mode o modo de execução
+     * @param pool o pool de threads que executará as tarefas no modo
+     * PARALLEL_ROUNDS
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se o modo ou o pool forem null
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public FastBellmanFordSP( CSRGraph digraph, int source, Mode mode, ForkJoinPool pool )
+            throws IllegalArgumentException {
+
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
+        if ( mode == null ) {
+            throw new IllegalArgumentException( "mode is null" );
+        }
+
+        if ( pool == null ) {
+            throw new IllegalArgumentException( "pool is null" );
+        }
+
+        int vertices = digraph.getNumberOfVertices();
+        this.graph = digraph;
+        this.source = source;
+        this.mode = mode;
+        distTo = new double[vertices];
+        parent = new int[vertices];
+        weightTo = new double[vertices];
+
+        validateVertex( source );
+
+        if ( mode == Mode.QUEUE ) {
+            runQueue();
+        } else {
+            this.pool = pool;
+            runRounds();
+        }
+
+        // libera o estado do cálculo
+        nextPre = null;
+        prevPre = null;
+        depth = null;
+        inTree = null;
+        onQueue = null;
+        deque = null;
+        this.pool = null;
+        reverse = null;
+        stamp = null;
+        snapshot = null;
+        improved = null;
+
+    }
+
+    private void reset() {
+        Arrays.fill( distTo, Double.POSITIVE_INFINITY );
+        Arrays.fill( parent, -1 );
+        distTo[source] = 0.0;
+    }
+
+    // modo QUEUE: Bellman-Ford com fila, SLF/LLL e desmontagem de subárvores
+    private void runQueue() {
+
+        int vertices = graph.getNumberOfVertices();
+        reset();
+
+        nextPre = new int[vertices];
+        prevPre = new int[vertices];
+        depth = new int[vertices];
+        inTree = new boolean[vertices];
+        onQueue = new boolean[vertices];
+        deque = new int[16];
+        head = 0;
+        entries = 0;
+        live = 0;
+        liveSum = 0;
+
+        Arrays.fill( nextPre, -1 );
+        Arrays.fill( prevPre, -1 );
+        inTree[source] = true;
+        offer( source );
+
+        long count = 0;
+
+        while ( live > 0 ) {
+
+            int v = poll();
+            double d = distTo[v];
+            int end = graph.end( v );
+
+            for ( int i = graph.begin( v ); i < end; i++ ) {
+
+                count++;
+                int w = graph.target( i );
+                double weight = graph.weight( i );
+
+                if ( distTo[w] > d + weight + EPSILON ) {
+
+                    if ( inTree[w] && !disassemble( w, v ) ) {
+                        cycle = treeCycle( w, v, weight );
+                        relaxations.addAndGet( count );
+                        return;
+                    }
+
+                    if ( onQueue[w] ) {
+                        liveSum += d + weight - distTo[w];
+                    }
+
+                    distTo[w] = d + weight;
+                    parent[w] = v;
+                    weightTo[w] = weight;
+                    attach( w, v );
+
+                    if ( !onQueue[w] ) {
+                        offer( w );
+                    }
+
+                }
+
+            }
+
+        }
+
+        relaxations.addAndGet( count );
+
+    }
+
+    /*
+     * Desliga da árvore a subárvore de w, que no percurso em pré-ordem é o
+     * próprio w seguido dos vértices mais profundos que ele. Retorna falso
+     * se v estiver na subárvore, ou seja, se o arco v-w fechar um ciclo
+     * negativo.
+     */
+    private boolean disassemble( int w, int v ) {
+
+        if ( w == v ) {
+            return false;
+        }
+
+        int d = depth[w];
+        int x = nextPre[w];
+
+        while ( x != -1 && depth[x] > d ) {
+            if ( x == v ) {
+                return false;
+            }
+            inTree[x] = false;
+            if ( onQueue[x] ) {
+                onQueue[x] = false;
+                live--;
+                liveSum -= distTo[x];
+            }
+            x = nextPre[x];
+        }
+
+        // w nunca é a fonte aqui: ela é ancestral de v
+        int before = prevPre[w];
+        nextPre[before] = x;
+        if ( x != -1 ) {
+            prevPre[x] = before;
+        }
+        inTree[w] = false;
+
+        return true;
+
+    }
+
+    // coloca w na árvore como filho de v, logo após v na pré-ordem
+    private void attach( int w, int v ) {
+
+        int after = nextPre[v];
+        nextPre[w] = after;
+        prevPre[w] = v;
+        if ( after != -1 ) {
+            prevPre[after] = w;
+        }
+        nextPre[v] = w;
+        depth[w] = depth[v] + 1;
+        inTree[w] = true;
+
+    }
+
+    // ciclo formado pelo caminho w-v da árvore mais o arco v-w
+    private Iterable<Edge> treeCycle( int w, int v, double weight ) {
+
+        Stack<Edge> c = new ResizingArrayStack<>();
+        c.push( new Edge( v, w, weight ) );
+
+        for ( int x = v; x != w; x = parent[x] ) {
+            c.push( new Edge( parent[x], x, weightTo[x] ) );
+        }
+
+        return c;
+
+    }
+
+    // insere w na fila: no início se a distância dele for menor que a do
+    // primeiro (SLF) e no fim caso contrário
+    private void offer( int w ) {
+
+        onQueue[w] = true;
+        live++;
+        liveSum += distTo[w];
+
+        if ( entries == deque.length ) {
+            int[] t = new int[2 * deque.length];
+            for ( int k = 0; k < entries; k++ ) {
+                t[k] = deque[( head + k ) % deque.length];
+            }
+            deque = t;
+            head = 0;
+        }
+
+        if ( entries > 0 && distTo[w] < distTo[deque[head]] ) {
+            head = ( head - 1 + deque.length ) % deque.length;
+            deque[head] = w;
+        } else {
+            deque[( head + entries ) % deque.length] = w;
+        }
+
+        entries++;
+
+    }
+
+    /*
+     * Remove o próximo vértice da fila. As entradas de vértices que saíram
+     * da fila na desmontagem de uma subárvore são descartadas, e o primeiro
+     * vértice vai para o fim enquanto a sua distância for maior que a média
+     * (LLL), no máximo uma vez para cada vértice da fila.
+     */
+    private int poll() {
+
+        int rotations = 0;
+
+        while ( true ) {
+
+            int v = deque[head];
+            head = ( head + 1 ) % deque.length;
+            entries--;
+
+            if ( !onQueue[v] ) {
+                continue;
+            }
+
+            if ( live > 1 && rotations < live && distTo[v] * live > liveSum ) {
+                deque[( head + entries ) % deque.length] = v;
+                entries++;
+                rotations++;
+                continue;
+            }
+
+            onQueue[v] = false;
+            live--;
+            liveSum -= distTo[v];
+
+            return v;
+
+        }
+
+    }
+
+    // modo PARALLEL_ROUNDS: rodadas de relaxamento em paralelo
+    private void runRounds() {
+
+        int vertices = graph.getNumberOfVertices();
+        reset();
+
+        reverse = graph.reverse();
+        stamp = new int[vertices];
+        snapshot = new double[vertices];
+        improved = new int[vertices];
+        Arrays.fill( stamp, -1 );
+
+        stamp[source] = 0;
+        snapshot[source] = 0.0;
+        int size = 1;
+        improved[0] = source;
+
+        for ( round = 0; size > 0; round++ ) {
+
+            // após V rodadas, só um ciclo negativo pode melhorar distâncias
+            if ( round == vertices ) {
+                cycle = parentCycle( improved[0] );
+                if ( cycle == null ) {
+                    runQueue();
+                }
+                return;
+            }
+
+            improvedSize.set( 0 );
+            pool.invoke( new Pull( 0, vertices ) );
+            size = improvedSize.get();
+
+            for ( int k = 0; k < size; k++ ) {
+                int w = improved[k];
+                stamp[w] = round + 1;
+                snapshot[w] = distTo[w];
+            }
+
+        }
+
+    }
+
+    // atualiza os vértices [lo, hi) a partir dos que melhoraram na rodada
+    // anterior
+    @SuppressWarnings( "serial" )
+    private class Pull extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+
+        Pull( int lo, int hi ) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > GRAIN ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new Pull( lo, mid ), new Pull( mid, hi ) );
+                return;
+            }
+
+            int[] found = new int[16];
+            int count = 0;
+            long examined = 0;
+
+            for ( int w = lo; w < hi; w++ ) {
+
+                double best = distTo[w];
+                boolean changed = false;
+                int end = reverse.end( w );
+
+                for ( int j = reverse.begin( w ); j < end; j++ ) {
+                    int v = reverse.target( j );
+                    if ( stamp[v] == round ) {
+                        examined++;
+                        double d = snapshot[v] + reverse.weight( j );
+                        if ( best > d + EPSILON ) {
+                            best = d;
+                            parent[w] = v;
+                            weightTo[w] = reverse.weight( j );
+                            changed = true;
+                        }
+                    }
+                }
+
+                if ( changed ) {
+                    distTo[w] = best;
+                    if ( count == found.length ) {
+                        found = Arrays.copyOf( found, 2 * count );
+                    }
+                    found[count++] = w;
+                }
+
+            }
+
+            relaxations.addAndGet( examined );
+
+            if ( count > 0 ) {
+                int position = improvedSize.getAndAdd( count );
+                System.arraycopy( found, 0, improved, position, count );
+            }
+
+        }
+
+    }
+
+    /*
+     * Ciclo do grafo de predecessores alcançado a partir de v: após V
+     * passos, o vértice atual está necessariamente em um ciclo. Retorna
+     * null se os predecessores chegarem à fonte ou se o ciclo não for
+     * negativo.
+     */
+    private Iterable<Edge> parentCycle( int v ) {
+
+        for ( int k = 0; k < distTo.length; k++ ) {
+            v = parent[v];
+            if ( v == -1 ) {
+                return null;
+            }
+        }
+
+        Stack<Edge> c = new ResizingArrayStack<>();
+        double weight = 0;
+        int x = v;
+
+        do {
+            c.push( new Edge( parent[x], x, weightTo[x] ) );
+            weight += weightTo[x];
+            x = parent[x];
+        } while ( x != v );
+
+        return weight < 0 ? c : null;
+
+    }
+
+    /**
+     * Há um ciclo negativo alcançável a partir do vértice fonte source?
+     *
+     * @return verdadeiro se houver um ciclo negativo alcançável a partir do
+     * vértice fonte, falso caso contrário
+     */
+    public boolean hasNegativeCycle() {
+        return cycle != null;
+    }
+
+    /**
+     * Retorna o ciclo negativo alcançável a partir do vértice fonte ou null
+     * caso não exista.
+     *
+     * @return o ciclo negativo alcançável a partir do vértice fonte como um
+     * iterável ou null caso não exista.
+     */
+    public Iterable<Edge> negativeCycle() {
+        return cycle;
+    }
+
+    /**
+     * Retorna o comprimento do menor caminho do vértice fonte ao vértice v.
+     *
+     * @param v o vértice de destino
+     * @return o comprimento do menor caminho do vértice fonte ao vértice v ou
+     * Double.POSITIVE_INFINITY caso não exista
+     * @throws UnsupportedOperationException se houver um ciclo negativo
+     * alcançável a partir do vértice fonte.
+     * @throws IllegalArgumentException caso o vértice seja inválido
+     */
+    public double distTo( int v ) throws UnsupportedOperationException, IllegalArgumentException {
+
+        validateVertex( v );
+
+        if ( hasNegativeCycle() ) {
+            throw new UnsupportedOperationException( "Negative cost cycle exists" );
+        }
+
+        return distTo[v];
+
+    }
+
+    /**
+     * Retorna verdadeiro se houver um caminho entre o vértice fonte e o vértice
+     * de destino.
+     *
+     * @param v o vértice de destino
+     * @return verdadeiro se houver um caminho entre o vértice fonte e o vértice
+     * de destino, falso caso contrário
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public boolean hasPathTo( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Retorna o menor caminho entre o vértice fonte e o vértice de destino.
+     *
+     * @param v o vértice de destino
+     * @return o menor caminho entre o vértice fonte e o vértice de destino como
+     * um iterável, ou null caso o caminho não exista
+     * @throws UnsupportedOperationException se houver um ciclo de custo negativo
+     * alcançável a partir do vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public Iterable<Edge> pathTo( int v ) throws UnsupportedOperationException, IllegalArgumentException {
+
+        validateVertex( v );
+
+        if ( hasNegativeCycle() ) {
+            throw new UnsupportedOperationException( "Negative cost cycle exists" );
+        }
+
+        if ( !hasPathTo( v ) ) {
+            return null;
+        }
+
+        Stack<Edge> path = new ResizingArrayStack<>();
+
+        for ( int x = v; parent[x] != -1; x = parent[x] ) {
+            path.push( new Edge( parent[x], x, weightTo[x] ) );
+        }
+
+        return path;
+
+    }
+
+    /**
+     * Retorna a quantidade de arcos examinados durante o cálculo.
+     *
+     * @return a quantidade de arcos examinados
+     */
+    public long getRelaxations() {
+        return relaxations.get();
+    }
+
+    /**
+     * Retorna o modo de execução usado.
+     *
+     * @return o modo de execução
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    private void validateVertex( int v ) {
+        int length = distTo.length;
+        if ( v < 0 || v >= length ) {
+            throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( length - 1 ) );
+        }
+    }
+
+}
@@ -0,0 +1,446 @@
+package aesd.algorithms.digraph.edgeweighted;
+
+import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.implementations.nonlinear.symtable.BoundedCache;
+import aesd.ds.implementations.nonlinear.symtable.BoundedCache.EvictionPolicy;
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
+import aesd.ds.interfaces.Stack;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Algoritmo de Johnson para os menores caminhos entre todos os pares de
+ * vértices de um digrafo ponderado esparso, aceitando pesos negativos.
+ *
+ * {@link DirectedDijkstraAllPairsSP} não aceita pesos negativos e
+ * {@link FloydWarshall} custa O(V^3) tempo e O(V^2) memória, mesmo quando o
+ * digrafo é esparso. O algoritmo de Johnson adiciona um vértice virtual com
+ * arestas de peso zero para todos os vértices e calcula, com
+ * {@link BellmanFordSP}, a distância h(v) dele até cada vértice v. Os pesos
+ * são então trocados por w'(u, v) = w(u, v) + h(u) - h(v), que nunca são
+ * negativos (h(v) <= h(u) + w(u, v)) e preservam os menores caminhos, pois
+ * o peso de todo caminho s-t muda pela mesma constante h(s) - h(t). Com
+ * isso, cada linha da matriz de distâncias (todas as distâncias a partir de
+ * uma fonte) é calculada por Dijkstra em tempo O(E log V), e o total é
+ * O(V E log V), contra O(V^3) de Floyd-Warshall. Se não houver pesos
+ * negativos, h é zero e Bellman-Ford não é executado; se houver um ciclo
+ * negativo, ele é detectado por Bellman-Ford e nenhuma distância é
+ * calculada.
+ *
+ * As linhas são calculadas sob demanda: a primeira consulta a partir de uma
+ * fonte executa Dijkstra e guarda a linha em uma cache LRU
+ * ({@link BoundedCache}) com uma quantidade máxima de linhas, então a
+ * memória fica limitada mesmo em digrafos com centenas de milhares de
+ * vértices, onde a matriz completa não caberia. Quando todas as linhas
+ * cabem na cache, elas são calculadas já na construção. Várias linhas
+ * podem ser calculadas de uma vez, em paralelo, por tarefas de um
+ * ForkJoinPool (prefetch); cada thread reutiliza a sua própria fila de
+ * prioridades, que sempre termina vazia, em vez de criar uma a cada
+ * execução de Dijkstra.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class JohnsonAllPairsSP {
+
+    // quantidade total de distâncias guardadas na cache por padrão
+    private static final long DEFAULT_CACHED_DISTANCES = 1L << 23;
+
+    // linha da matriz: distâncias a partir de uma fonte e, para cada vértice,
+    // a posição do último arco do menor caminho (-1 se não houver)
+    private static class Row {
+
+        private final double[] distTo;
+        private final int[] arcTo;
+
+        private Row( int vertices ) {
+            distTo = new double[vertices];
+            arcTo = new int[vertices];
+        }
+
+    }
+
+    // digrafo com os pesos modificados e as arestas originais, na ordem dos
+    // arcos
+    private final CSRGraph digraph;
+    private final Edge[] edges;
+
+    // h[v] = distância do vértice virtual até v
+    private final double[] h;
+
+    // ciclo negativo encontrado por Bellman-Ford, ou null
+    private final Iterable<Edge> negativeCycle;
+
+    // linhas já calculadas
+    private final BoundedCache<Integer, Row> rows;
+
+    // pool das tarefas e fila de prioridades reutilizada por cada thread
+    private final ForkJoinPool pool;
+    private final ThreadLocal<IndexedDoublePriorityQueue> queues;
+
+    // quantidade de execuções de Dijkstra
+    private final AtomicLong dijkstraRuns = new AtomicLong();
+
+    /**
+     * Calcula os menores caminhos entre todos os pares de vértices de um
+     * digrafo ponderado, com uma cache de até 2^23 distâncias (todas as
+     * linhas, se couberem) e o pool comum do ForkJoin.
+     *
+     * @param digraph o digrafo ponderado
+     */
+    public JohnsonAllPairsSP( EdgeWeightedDigraph digraph ) {
+        this( digraph,
+                (int) Math.max( 1, Math.min( digraph.getNumberOfVertices(),
+                        DEFAULT_CACHED_DISTANCES / Math.max( 1, digraph.getNumberOfVertices() ) ) ),
+                ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Calcula os menores caminhos entre todos os pares de vértices de um
+     * digrafo ponderado.
+     *
+     * @param digraph o digrafo ponderado
+     * @param cachedRows a quantidade máxima de linhas (fontes) guardadas na
+     * cache; se for maior ou igual à quantidade de vértices, todas as linhas
+     * são calculadas na construção
+     * @param pool o pool de threads que executará as tarefas
+     * @throws IllegalArgumentException se cachedRows não for positivo
+     * @throws IllegalArgumentException se o pool for null
+     */
+    public JohnsonAllPairsSP( EdgeWeightedDigraph digraph, int cachedRows, ForkJoinPool pool )
+            throws IllegalArgumentException {
+
+        if ( cachedRows <= 0 ) {
+            throw new IllegalArgumentException( "cachedRows must be positive" );
+        }
+
+        if ( pool == null ) {
+            throw new IllegalArgumentException( "pool is null" );
+        }
+
+        int vertices = digraph.getNumberOfVertices();
+        this.pool = pool;
+        rows = new BoundedCache<>( cachedRows, EvictionPolicy.LRU );
+        queues = ThreadLocal.withInitial( () -> new IndexedDaryDoubleMinPQ( Math.max( 1, vertices ) ) );
+
+        // as arestas são adicionadas em ordem de vértice de origem, então a
+        // posição de cada arco no digrafo CSR é a posição da aresta em edges
+        edges = new Edge[digraph.getNumberOfEdges()];
+        int n = 0;
+        boolean negative = false;
+        for ( int v = 0; v < vertices; v++ ) {
+            for ( Edge e : digraph.adj( v ) ) {
+                edges[n++] = e;
+                negative |= e.weight() < 0;
+            }
+        }
+
+        h = new double[vertices];
+
+        if ( negative ) {
+
+            EdgeWeightedDigraph augmented = new EdgeWeightedDigraph( vertices + 1 );
+            for ( Edge e : edges ) {
+                augmented.addEdge( e.from(), e.to(), e.weight() );
+            }
+            for ( int v = 0; v < vertices; v++ ) {
+                augmented.addEdge( vertices, v, 0.0 );
+            }
+
+            BellmanFordSP bf = new BellmanFordSP( augmented, vertices );
+            if ( bf.hasNegativeCycle() ) {
+                negativeCycle = bf.negativeCycle();
+                this.digraph = null;
+                return;
+            }
+
+            for ( int v = 0; v < vertices; v++ ) {
+                h[v] = bf.distTo( v );
+            }
+
+        }
+
+        negativeCycle = null;
+
+        // pesos modificados; erros de arredondamento podem gerar valores
+        // levemente negativos, que são tratados como zero
+        CSRGraph.Builder builder = new CSRGraph.Builder( vertices, true );
+        for ( Edge e : edges ) {
+            builder.addEdge( e.from(), e.to(), Math.max( 0.0, e.weight() + h[e.from()] - h[e.to()] ) );
+        }
+        this.digraph = builder.build();
+
+        if ( cachedRows >= vertices ) {
+            int[] sources = new int[vertices];
+            for ( int v = 0; v < vertices; v++ ) {
+                sources[v] = v;
+            }
+            prefetch( sources );
+        }
+
+    }
+
+    /**
+     * Calcula em paralelo as linhas (todas as distâncias a partir de cada
+     * fonte) das fontes passadas que ainda não estão na cache, guardando-as
+     * na cache. Se houver mais fontes do que linhas na cache, as primeiras
+     * são descartadas pelas últimas.
+     *
+     * @param sources as fontes
+     * @throws UnsupportedOperationException se houver um ciclo negativo
+     * @throws IllegalArgumentException se alguma fonte for inválida
+     */
+    public void prefetch( int... sources ) throws UnsupportedOperationException, IllegalArgumentException {
+
+        for ( int s : sources ) {
+            validateVertex( s );
+        }
+
+        if ( hasNegativeCycle() ) {
+            throw new UnsupportedOperationException( "Negative cost cycle exists" );
+        }
+
+        pool.invoke( new Rows( sources, 0, sources.length ) );
+
+    }
+
+    // calcula as linhas das fontes sources[lo, hi)
+    @SuppressWarnings( "serial" )
+    private class Rows extends RecursiveAction {
+
+        private final int[] sources;
+        private final int lo;
+        private final int hi;
+
+        Rows( int[] sources, int lo, int hi ) {
+            this.sources = sources;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > 1 ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new Rows( sources, lo, mid ), new Rows( sources, mid, hi ) );
+                return;
+            }
+
+            if ( lo < hi ) {
+                row( sources[lo] );
+            }
+
+        }
+
+    }
+
+    /*
+     * Retorna a linha da fonte s, calculando-a e guardando-a na cache caso
+     * não esteja lá. O cálculo é feito fora do bloqueio da cache, então
+     * threads diferentes podem calcular linhas ao mesmo tempo.
+     */
+    private Row row( int s ) {
+
+        Row row;
+        synchronized ( rows ) {
+            row = rows.get( s );
+        }
+
+        if ( row == null ) {
+            row = dijkstra( s );
+            synchronized ( rows ) {
+                rows.put( s, row );
+            }
+        }
+
+        return row;
+
+    }
+
+    /*
+     * Dijkstra a partir de s sobre os pesos modificados, usando a fila de
+     * prioridades da thread atual. Ao final, as distâncias são convertidas
+     * para os pesos originais: dist(s, t) = dist'(s, t) - h(s) + h(t).
+     */
+    private Row dijkstra( int s ) {
+
+        dijkstraRuns.incrementAndGet();
+
+        Row row = new Row( digraph.getNumberOfVertices() );
+        double[] distTo = row.distTo;
+        int[] arcTo = row.arcTo;
+        IndexedDoublePriorityQueue pq = queues.get();
+
+        Arrays.fill( distTo, Double.POSITIVE_INFINITY );
+        Arrays.fill( arcTo, -1 );
+        distTo[s] = 0.0;
+        pq.insert( s, 0.0 );
+
+        while ( !pq.isEmpty() ) {
+
+            int v = pq.delete();
+            int end = digraph.end( v );
+
+            for ( int i = digraph.begin( v ); i < end; i++ ) {
+
+                int w = digraph.target( i );
+                double d = distTo[v] + digraph.weight( i );
+
+                if ( distTo[w] > d ) {
+
+                    distTo[w] = d;
+                    arcTo[w] = i;
+
+                    if ( pq.contains( w ) ) {
+                        pq.decreaseKey( w, d );
+                    } else {
+                        pq.insert( w, d );
+                    }
+
+                }
+
+            }
+
+        }
+
+        for ( int t = 0; t < distTo.length; t++ ) {
+            if ( distTo[t] < Double.POSITIVE_INFINITY ) {
+                distTo[t] += h[t] - h[s];
+            }
+        }
+
+        return row;
+
+    }
+
+    /**
+     * Há um ciclo negativo?
+     *
+     * @return verdadeiro se houver um ciclo negativo, falso caso contrário
+     */
+    public boolean hasNegativeCycle() {
+        return negativeCycle != null;
+    }
+
+    /**
+     * Retorna um ciclo negativo ou null caso não haja.
+     *
+     * @return um ciclo negativo ou null caso não haja.
+     */
+    public Iterable<Edge> negativeCycle() {
+        return negativeCycle;
+    }
+
+    /**
+     * Há um caminho de source até target?
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @return verdadeiro caso haja um caminho entre os vértices source e target
+     * falso caso contrário
+     * @throws UnsupportedOperationException se houver um ciclo negativo
+     * @throws IllegalArgumentException se o vértice source ou o vértice target
+     * forem inválidos
+     */
+    public boolean hasPath( int source, int target )
+            throws UnsupportedOperationException, IllegalArgumentException {
+        return dist( source, target ) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Retorna o comprimento menor caminho entre o vértice source e o vértice
+     * target.
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @return o comprimento do menor caminho entre os vértices source e target
+     * ou Double.POSITIVE_INFINITY caso não exista
+     * @throws UnsupportedOperationException se houver um ciclo negativo
+     * @throws IllegalArgumentException se o vértice source ou o vértice target
+     * forem inválidos
+     */
+    public double dist( int source, int target )
+            throws UnsupportedOperationException, IllegalArgumentException {
+
+        validateVertex( source );
+        validateVertex( target );
+
+        if ( hasNegativeCycle() ) {
+            throw new UnsupportedOperationException( "Negative cost cycle exists" );
+        }
+
+        return row( source ).distTo[target];
+
+    }
+
+    /**
+     * Retorna o menor caminho entre o vértice source e o vértice target.
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @return o menor caminho entre os vértices source e target ou null caso
+     * não exista
+     * @throws UnsupportedOperationException se houver um ciclo negativo
+     * @throws IllegalArgumentException se o vértice source ou o vértice target
+     * forem inválidos
+     */
+    public Iterable<Edge> path( int source, int target )
+            throws UnsupportedOperationException, IllegalArgumentException {
+
+        validateVertex( source );
+        validateVertex( target );
+
+        if ( hasNegativeCycle() ) {
+            throw new UnsupportedOperationException( "Negative cost cycle exists" );
+        }
+
+        Row row = row( source );
+        if ( row.distTo[target] == Double.POSITIVE_INFINITY ) {
+            return null;
+        }
+
+        Stack<Edge> path = new ResizingArrayStack<>();
+        for ( int i = row.arcTo[target]; i != -1; i = row.arcTo[edges[i].from()] ) {
+            path.push( edges[i] );
+        }
+
+        return path;
+
+    }
+
+    /**
+     * Retorna a quantidade de execuções de Dijkstra feitas até o momento,
+     * ou seja, de linhas calculadas (incluindo as recalculadas após serem
+     * descartadas da cache).
+     *
+     * @return a quantidade de execuções de Dijkstra
+     */
+    public long getDijkstraRuns() {
+        return dijkstraRuns.get();
+    }
+
+    /**
+     * Retorna a quantidade de linhas guardadas na cache.
+     *
+     * @return a quantidade de linhas guardadas na cache
+     */
+    public int getCachedRows() {
+        synchronized ( rows ) {
+            return rows.getSize();
+        }
+    }
+
+    private void validateVertex( int v ) {
+        int length = h.length;
+        if ( v < 0 || v >= length ) {
+            throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( length - 1 ) );
+        }
+    }
+
+}
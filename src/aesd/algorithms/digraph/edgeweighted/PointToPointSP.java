@@ -0,0 +1,451 @@
+package aesd.algorithms.digraph.edgeweighted;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.Stack;
+import java.util.Arrays;
+
+/**
+ * Consultas de menor caminho entre um par de vértices (source-target) em um
+ * digrafo ponderado com pesos não negativos.
+ *
+ * Diferente de {@link DirectedDijkstraSP}, que sempre constrói a árvore de
+ * menores caminhos para todos os vértices, e de
+ * {@link DirectedDijkstraAllPairsSP}, que constrói V dessas árvores, cada
+ * consulta aqui para assim que o menor caminho até target é conhecido. Há
+ * duas estratégias:
+ *
+ *     - Dijkstra bidirecional: uma busca parte de source no digrafo e outra
+ *       de target no digrafo reverso, expandindo sempre o lado com a menor
+ *       fila. Ao relaxar um arco cuja outra ponta já foi alcançada pela
+ *       busca oposta, o comprimento do caminho que passa por ele atualiza o
+ *       melhor caminho conhecido (mu). A busca termina quando a soma das
+ *       menores prioridades das duas filas é maior ou igual a mu.
+ *     - A*: Dijkstra a partir de source com prioridade distTo[v] + h(v),
+ *       onde h é uma heurística que estima a distância de v até target
+ *       sem superestimá-la. A busca termina quando target é removido da
+ *       fila.
+ *
+ * Os arrays de trabalho (distâncias, arcos de chegada e filas de
+ * prioridades) são criados uma única vez e reaproveitados entre as
+ * consultas: em vez de reinicializá-los, cada consulta usa um novo número
+ * de versão (stamp) e uma posição só é considerada válida se a sua versão
+ * for a da consulta atual. Assim, o custo de uma consulta é proporcional à
+ * quantidade de vértices e arcos visitados, e não a V. As instâncias não
+ * são thread-safe; use uma instância por thread.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class PointToPointSP {
+
+    /**
+     * Heurística usada pelo A*: estima a distância de um vértice até o
+     * destino. Para que o A* devolva o menor caminho, a estimativa nunca
+     * pode ser maior que a distância real (heurística admissível); se, além
+     * disso, h(v) &lt;= peso(v-&gt;w) + h(w) para todo arco (heurística
+     * consistente), cada vértice é removido da fila no máximo uma vez.
+     */
+    @FunctionalInterface
+    public static interface Heuristic {
+
+        /**
+         * Estima a distância entre um vértice e o destino da consulta.
+         *
+         * @param v o vértice
+         * @param target o vértice de destino
+         * @return uma estimativa não negativa da distância entre v e target
+         */
+        public double estimate( int v, int target );
+
+    }
+
+    // digrafo e seu reverso, no formato CSR
+    private final CSRGraph digraph;
+    private final CSRGraph reverse;
+
+    // versão da consulta atual; posições com outra versão são inválidas
+    private int stamp;
+
+    // busca a partir da fonte: versão, distância, arco de chegada e vértice
+    // anterior (-1 para a fonte) de cada vértice
+    private final int[] stampF;
+    private final double[] distF;
+    private final int[] arcF;
+    private final int[] parentF;
+    private final IndexedDoublePriorityQueue pqF;
+
+    // busca a partir do destino, no digrafo reverso: parentB[v] é o vértice
+    // seguinte no caminho até o destino (-1 para o destino)
+    private final int[] stampB;
+    private final double[] distB;
+    private final int[] arcB;
+    private final int[] parentB;
+    private final IndexedDoublePriorityQueue pqB;
+
+    // resultado da última consulta: distância, vértices onde termina a parte
+    // da busca direta e começa a parte da busca reversa do caminho, peso do
+    // arco que liga as duas partes (NaN se não houver, como no A*) e
+    // quantidade de vértices removidos das filas
+    private double distance;
+    private int forwardEnd;
+    private int backwardStart;
+    private double bridgeWeight;
+    private int settled;
+
+    /**
+     * Prepara as consultas sobre um digrafo ponderado.
+     *
+     * @param digraph o digrafo ponderado
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     */
+    public PointToPointSP( EdgeWeightedDigraph digraph ) throws IllegalArgumentException {
+        this( new CSRGraph( digraph ) );
+    }
+
+    /**
+     * Prepara as consultas sobre um digrafo ponderado no formato CSR. Se o
+     * grafo não for direcionado, cada aresta pode ser percorrida nos dois
+     * sentidos.
+     *
+     * @param digraph o digrafo ponderado CSR
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o digrafo não for direcionado
+     */
+    public PointToPointSP( CSRGraph digraph ) throws IllegalArgumentException {
+
+        if ( !digraph.isDirected() ) {
+            throw new IllegalArgumentException( "digraph must be directed" );
+        }
+
+        for ( int i = 0; i < digraph.getNumberOfArcs(); i++ ) {
+            if ( digraph.weight( i ) < 0 ) {
+                throw new IllegalArgumentException( "edge " + i + " has negative weight" );
+            }
+        }
+
+        int vertices = digraph.getNumberOfVertices();
+
+        this.digraph = digraph;
+        reverse = digraph.reverse();
+
+        stampF = new int[vertices];
+        distF = new double[vertices];
+        arcF = new int[vertices];
+        parentF = new int[vertices];
+        pqF = new IndexedDaryDoubleMinPQ( vertices );
+
+        stampB = new int[vertices];
+        distB = new double[vertices];
+        arcB = new int[vertices];
+        parentB = new int[vertices];
+        pqB = new IndexedDaryDoubleMinPQ( vertices );
+
+        distance = Double.POSITIVE_INFINITY;
+        bridgeWeight = Double.NaN;
+
+    }
+
+    /**
+     * Calcula o menor caminho entre source e target usando Dijkstra
+     * bidirecional.
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @return o comprimento do menor caminho entre source e target ou
+     * Double.POSITIVE_INFINITY se não houver caminho entre eles
+     * @throws IllegalArgumentException se algum dos vértices for inválido
+     */
+    public double bidirectionalDijkstra( int source, int target ) throws IllegalArgumentException {
+
+        validateVertex( source );
+        validateVertex( target );
+        start();
+
+        reach( stampF, distF, parentF, source );
+        reach( stampB, distB, parentB, target );
+
+        if ( source == target ) {
+            distance = 0.0;
+            forwardEnd = source;
+            return distance;
+        }
+
+        pqF.insert( source, 0.0 );
+        pqB.insert( target, 0.0 );
+
+        while ( !pqF.isEmpty() && !pqB.isEmpty() ) {
+
+            // nenhum caminho ainda não examinado pode ser menor que mu
+            if ( pqF.peekKey() + pqB.peekKey() >= distance ) {
+                break;
+            }
+
+            if ( pqF.getSize() <= pqB.getSize() ) {
+                scanForward();
+            } else {
+                scanBackward();
+            }
+
+        }
+
+        pqF.clear();
+        pqB.clear();
+
+        return distance;
+
+    }
+
+    // remove da fila direta o vértice mais próximo da fonte e relaxa os seus
+    // arcos
+    private void scanForward() {
+
+        int v = pqF.delete();
+        int end = digraph.end( v );
+        settled++;
+
+        for ( int i = digraph.begin( v ); i < end; i++ ) {
+
+            int w = digraph.target( i );
+            double weight = digraph.weight( i );
+            double d = distF[v] + weight;
+
+            if ( stampF[w] != stamp || d < distF[w] ) {
+                relax( stampF, distF, arcF, parentF, pqF, v, w, i, d, d );
+            }
+
+            // v-w liga as duas buscas
+            if ( stampB[w] == stamp && d + distB[w] < distance ) {
+                distance = d + distB[w];
+                forwardEnd = v;
+                backwardStart = w;
+                bridgeWeight = weight;
+            }
+
+        }
+
+    }
+
+    // remove da fila reversa o vértice mais próximo do destino e relaxa os
+    // seus arcos de entrada
+    private void scanBackward() {
+
+        int v = pqB.delete();
+        int end = reverse.end( v );
+        settled++;
+
+        for ( int i = reverse.begin( v ); i < end; i++ ) {
+
+            int u = reverse.target( i );
+            double weight = reverse.weight( i );
+            double d = distB[v] + weight;
+
+            if ( stampB[u] != stamp || d < distB[u] ) {
+                relax( stampB, distB, arcB, parentB, pqB, v, u, i, d, d );
+            }
+
+            // u-v liga as duas buscas
+            if ( stampF[u] == stamp && distF[u] + d < distance ) {
+                distance = distF[u] + d;
+                forwardEnd = u;
+                backwardStart = v;
+                bridgeWeight = weight;
+            }
+
+        }
+
+    }
+
+    /**
+     * Calcula o menor caminho entre source e target usando A* com a
+     * heurística fornecida. Com uma heurística que sempre devolve 0 o
+     * resultado é o de Dijkstra interrompido ao alcançar target.
+     *
+     * @param source o vértice fonte
+     * @param target o vértice de destino
+     * @param heuristic a heurística admissível que estima a distância de cada
+     * vértice até target
+     * @return o comprimento do menor caminho entre source e target ou
+     * Double.POSITIVE_INFINITY se não houver caminho entre eles
+     * @throws IllegalArgumentException se algum dos vértices for inválido ou
+     * se a heurística for null
+     */
+    public double aStar( int source, int target, Heuristic heuristic ) throws IllegalArgumentException {
+
+        validateVertex( source );
+        validateVertex( target );
+
+        if ( heuristic == null ) {
+            throw new IllegalArgumentException( "argument is null" );
+        }
+
+        start();
+
+        reach( stampF, distF, parentF, source );
+        pqF.insert( source, heuristic.estimate( source, target ) );
+
+        while ( !pqF.isEmpty() ) {
+
+            int v = pqF.delete();
+            settled++;
+
+            if ( v == target ) {
+                distance = distF[target];
+                forwardEnd = target;
+                break;
+            }
+
+            int end = digraph.end( v );
+
+            for ( int i = digraph.begin( v ); i < end; i++ ) {
+                int w = digraph.target( i );
+                double d = distF[v] + digraph.weight( i );
+                if ( stampF[w] != stamp || d < distF[w] ) {
+                    relax( stampF, distF, arcF, parentF, pqF, v, w, i, d, d + heuristic.estimate( w, target ) );
+                }
+            }
+
+        }
+
+        pqF.clear();
+
+        return distance;
+
+    }
+
+    /**
+     * Cria uma heurística para o A* que devolve a distância euclidiana entre
+     * as coordenadas dos vértices. Só é admissível se o peso de cada arco
+     * for maior ou igual à distância euclidiana entre as suas pontas.
+     *
+     * @param x as abscissas dos vértices
+     * @param y as ordenadas dos vértices
+     * @return a heurística
+     */
+    public static Heuristic euclidean( double[] x, double[] y ) {
+        return ( v, target ) -> Math.hypot( x[v] - x[target], y[v] - y[target] );
+    }
+
+    // inicia uma nova consulta
+    private void start() {
+
+        // ao esgotar as versões, todas as posições são invalidadas de uma vez
+        if ( stamp == Integer.MAX_VALUE ) {
+            Arrays.fill( stampF, 0 );
+            Arrays.fill( stampB, 0 );
+            stamp = 0;
+        }
+
+        stamp++;
+        distance = Double.POSITIVE_INFINITY;
+        forwardEnd = -1;
+        backwardStart = -1;
+        bridgeWeight = Double.NaN;
+        settled = 0;
+
+    }
+
+    // marca a raiz de uma das buscas
+    private void reach( int[] stamps, double[] dist, int[] parent, int v ) {
+        stamps[v] = stamp;
+        dist[v] = 0.0;
+        parent[v] = -1;
+    }
+
+    // relaxa o arco i de v para w em uma das buscas, com nova distância d e
+    // prioridade key
+    private void relax( int[] stamps, double[] dist, int[] arc, int[] parent,
+            IndexedDoublePriorityQueue pq, int v, int w, int i, double d, double key ) {
+
+        stamps[w] = stamp;
+        dist[w] = d;
+        arc[w] = i;
+        parent[w] = v;
+
+        if ( pq.contains( w ) ) {
+            pq.changeKey( w, key );
+        } else {
+            pq.insert( w, key );
+        }
+
+    }
+
+    /**
+     * Retorna o comprimento do menor caminho encontrado pela última consulta.
+     *
+     * @return o comprimento do menor caminho ou Double.POSITIVE_INFINITY se
+     * não houver caminho ou se nenhuma consulta tiver sido feita
+     */
+    public double distance() {
+        return distance;
+    }
+
+    /**
+     * Retorna verdadeiro se a última consulta encontrou um caminho.
+     *
+     * @return verdadeiro se houver um caminho entre os vértices da última
+     * consulta, falso caso contrário
+     */
+    public boolean hasPath() {
+        return distance < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Retorna o menor caminho encontrado pela última consulta.
+     *
+     * @return o menor caminho como um iterável, ou null caso o caminho não
+     * exista
+     */
+    public Iterable<Edge> path() {
+
+        if ( !hasPath() ) {
+            return null;
+        }
+
+        // parte da busca direta, da fonte até forwardEnd
+        Stack<Edge> forward = new ResizingArrayStack<>();
+        for ( int x = forwardEnd; parentF[x] != -1; x = parentF[x] ) {
+            forward.push( new Edge( parentF[x], x, digraph.weight( arcF[x] ) ) );
+        }
+
+        Queue<Edge> path = new LinkedQueue<>();
+        for ( Edge e : forward ) {
+            path.enqueue( e );
+        }
+
+        // arco de ligação e parte da busca reversa, de backwardStart até o
+        // destino
+        if ( !Double.isNaN( bridgeWeight ) ) {
+            path.enqueue( new Edge( forwardEnd, backwardStart, bridgeWeight ) );
+            for ( int x = backwardStart; parentB[x] != -1; x = parentB[x] ) {
+                path.enqueue( new Edge( x, parentB[x], reverse.weight( arcB[x] ) ) );
+            }
+        }
+
+        return path;
+
+    }
+
+    /**
+     * Retorna a quantidade de vértices removidos das filas de prioridades na
+     * última consulta, uma medida do tamanho do espaço de busca.
+     *
+     * @return a quantidade de vértices examinados
+     */
+    public int getSettledVertices() {
+        return settled;
+    }
+
+    private void validateVertex( int v ) {
+        int length = stampF.length;
+        if ( v < 0 || v >= length ) {
+            throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( length - 1 ) );
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package aesd.algorithms.digraph.edgeweighted.tests;
+
+import aesd.algorithms.digraph.edgeweighted.BlockedFloydWarshall;
+import aesd.algorithms.digraph.edgeweighted.FloydWarshall;
+import aesd.ds.implementations.nonlinear.graph.AdjMatrixEdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Teste de uso da versão em blocos e paralela do algoritmo de
+ * Floyd-Warshall (BlockedFloydWarshall).
+ *
+ * Além do uso básico, compara distâncias e caminhos com os de FloydWarshall
+ * em digrafos aleatórios com pesos negativos (com e sem ciclos negativos),
+ * para vários tamanhos de bloco, e compara os tempos das duas
+ * implementações.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestBlockedFloydWarshall {
+
+    public static void main( String[] args ) {
+
+        AdjMatrixEdgeWeightedDigraph g = new AdjMatrixEdgeWeightedDigraph( 4 );
+        g.addEdge( 0, 1, 0.10 );
+        g.addEdge( 1, 2, 0.20 );
+        g.addEdge( 2, 3, 0.15 );
+        g.addEdge( 0, 3, 1.00 );
+
+        BlockedFloydWarshall fw = new BlockedFloydWarshall( g );
+
+        System.out.println( "Possui ciclo negativo? " + fw.hasNegativeCycle() );
+
+        System.out.println( "\nMenores caminhos a partir de 0:" );
+        for ( int v = 0; v < g.getNumberOfVertices(); v++ ) {
+
+            System.out.print( "0 -> " + v + " (" + fw.dist( 0, v ) + "): " );
+
+            if ( fw.hasPath( 0, v ) ) {
+                for ( Edge e : fw.path( 0, v ) ) {
+                    System.out.print( e + "   " );
+                }
+            }
+
+            System.out.println();
+
+        }
+
+        // digrafo com ciclo negativo
+        AdjMatrixEdgeWeightedDigraph withNegativeCycle = new AdjMatrixEdgeWeightedDigraph( 3 );
+        withNegativeCycle.addEdge( 0, 1, 1.0 );
+        withNegativeCycle.addEdge( 1, 2, -3.0 );
+        withNegativeCycle.addEdge( 2, 0, 1.0 );
+
+        BlockedFloydWarshall fwNeg = new BlockedFloydWarshall( withNegativeCycle );
+        System.out.println( "\nDigrafo com ciclo negativo -> possui ciclo negativo? " + fwNeg.hasNegativeCycle() );
+        System.out.println( "Ciclo negativo encontrado:" );
+        for ( Edge e : fwNeg.negativeCycle() ) {
+            System.out.println( e );
+        }
+        System.out.println();
+
+        Random random = new Random( 42 );
+        boolean ok = true;
+        for ( int round = 0; round < 30; round++ ) {
+            int vertices = 1 + random.nextInt( 150 );
+            int blockSize = 1 + random.nextInt( 40 );
+            AdjMatrixEdgeWeightedDigraph d = randomDigraph( vertices, random.nextInt( vertices * vertices / 4 + 1 ),
+                    round % 3 == 0, random );
+            ok &= same( d, blockSize );
+        }
+        System.out.println( ok ? "resultados iguais" : "resultados diferentes!" );
+        System.out.println();
+
+        for ( int vertices : new int[]{ 500, 1000, 1500 } ) {
+
+            AdjMatrixEdgeWeightedDigraph d = randomDigraph( vertices, 8 * vertices, false, random );
+
+            long start = System.nanoTime();
+            new FloydWarshall( d );
+            double plain = ( System.nanoTime() - start ) / 1e6;
+
+            start = System.nanoTime();
+            new BlockedFloydWarshall( d );
+            double blocked = ( System.nanoTime() - start ) / 1e6;
+
+            System.out.printf( "V = %5d: FloydWarshall %9.1f ms, BlockedFloydWarshall %9.1f ms (%d threads)\n",
+                    vertices, plain, blocked, ForkJoinPool.commonPool().getParallelism() );
+
+        }
+
+    }
+
+    /*
+     * Digrafo aleatório com pesos w(v, u) = c + p(u) - p(v), onde c >= 0 e p
+     * é um potencial aleatório: há pesos negativos, mas todo ciclo tem peso
+     * não negativo. Com negativeCycle, um ciclo de peso negativo é criado.
+     */
+    private static AdjMatrixEdgeWeightedDigraph randomDigraph( int vertices, int edges, boolean negativeCycle,
+            Random random ) {
+
+        AdjMatrixEdgeWeightedDigraph d = new AdjMatrixEdgeWeightedDigraph( vertices );
+        double[] potential = new double[vertices];
+        for ( int v = 0; v < vertices; v++ ) {
+            potential[v] = random.nextInt( 100 );
+        }
+
+        for ( int i = 0; i < edges; i++ ) {
+            int v = random.nextInt( vertices );
+            int w = random.nextInt( vertices );
+            d.addEdge( v, w, random.nextInt( 50 ) + potential[w] - potential[v] );
+        }
+
+        if ( negativeCycle && vertices > 2 ) {
+            int a = random.nextInt( vertices );
+            int b = random.nextInt( vertices );
+            d.addEdge( a, b, potential[b] - potential[a] - 5 );
+            d.addEdge( b, a, potential[a] - potential[b] );
+        }
+
+        return d;
+
+    }
+
+    private static boolean same( AdjMatrixEdgeWeightedDigraph d, int blockSize ) {
+
+        FloydWarshall expected = new FloydWarshall( d );
+        BlockedFloydWarshall fw = new BlockedFloydWarshall( d, blockSize, ForkJoinPool.commonPool() );
+
+        if ( expected.hasNegativeCycle() != fw.hasNegativeCycle() ) {
+            return false;
+        }
+
+        if ( fw.hasNegativeCycle() ) {
+
+            // o ciclo deve ser fechado e ter peso negativo
+            double weight = 0;
+            Edge firstEdge = null;
+            Edge last = null;
+            for ( Edge e : fw.negativeCycle() ) {
+                if ( firstEdge == null ) {
+                    firstEdge = e;
+                } else if ( last.to() != e.from() ) {
+                    return false;
+                }
+                last = e;
+                weight += e.weight();
+            }
+            return firstEdge != null && last.to() == firstEdge.from() && weight < 0;
+
+        }
+
+        int vertices = d.getNumberOfVertices();
+        for ( int v = 0; v < vertices; v++ ) {
+            for ( int w = 0; w < vertices; w++ ) {
+
+                if ( fw.hasPath( v, w ) != expected.hasPath( v, w )
+                        || Math.abs( fw.dist( v, w ) - expected.dist( v, w ) ) > 1e-9 ) {
+                    return false;
+                }
+
+                if ( fw.hasPath( v, w ) ) {
+                    double weight = 0;
+                    int at = v;
+                    for ( Edge e : fw.path( v, w ) ) {
+                        if ( e.from() != at ) {
+                            return false;
+                        }
+                        weight += e.weight();
+                        at = e.to();
+                    }
+                    if ( at != w || Math.abs( weight - fw.dist( v, w ) ) > 1e-9 ) {
+                        return false;
+                    }
+                }
+
+            }
+        }
+
+        return true;
+
+    }
+
+}
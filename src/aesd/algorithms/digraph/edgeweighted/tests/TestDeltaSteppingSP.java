@@ -0,0 +1,156 @@
+package aesd.algorithms.digraph.edgeweighted.tests;
+
+import aesd.algorithms.digraph.edgeweighted.DeltaSteppingSP;
+import aesd.algorithms.digraph.edgeweighted.DirectedDijkstraSP;
+import aesd.algorithms.graph.edgeweighted.DijkstraSP;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedGraph;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Teste de uso do algoritmo delta-stepping (DeltaSteppingSP).
+ *
+ * Além do uso básico, compara as distâncias e os caminhos com os do
+ * algoritmo de Dijkstra em grafos e digrafos aleatórios (incluindo arestas
+ * de peso zero) para várias larguras de balde, processa um caminho longo
+ * com delta pequeno e mede o tempo das duas versões em um digrafo grande.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestDeltaSteppingSP {
+
+    public static void main( String[] args ) {
+
+        // digrafo ponderado clássico (tinyEWD)
+        EdgeWeightedDigraph g = new EdgeWeightedDigraph( 8 );
+        g.addEdge( 4, 5, 0.35 );
+        g.addEdge( 5, 4, 0.35 );
+        g.addEdge( 4, 7, 0.37 );
+        g.addEdge( 5, 7, 0.28 );
+        g.addEdge( 7, 5, 0.28 );
+        g.addEdge( 5, 1, 0.32 );
+        g.addEdge( 0, 4, 0.38 );
+        g.addEdge( 0, 2, 0.26 );
+        g.addEdge( 7, 3, 0.39 );
+        g.addEdge( 1, 3, 0.29 );
+        g.addEdge( 2, 7, 0.34 );
+        g.addEdge( 6, 2, 0.40 );
+        g.addEdge( 3, 6, 0.52 );
+        g.addEdge( 6, 0, 0.58 );
+        g.addEdge( 6, 4, 0.93 );
+
+        DeltaSteppingSP sp = new DeltaSteppingSP( g, 0 );
+        System.out.println( "delta: " + sp.getDelta() );
+
+        for ( int v = 0; v < g.getNumberOfVertices(); v++ ) {
+            System.out.print( "0 -> " + v + " (" + sp.distTo( v ) + "): " );
+            for ( Edge e : sp.pathTo( v ) ) {
+                System.out.print( e + "   " );
+            }
+            System.out.println();
+        }
+        System.out.println();
+
+        // comparação com Dijkstra
+        Random random = new Random( 42 );
+        ForkJoinPool pool = new ForkJoinPool( 4 );
+        boolean ok = true;
+
+        for ( int round = 0; round < 20; round++ ) {
+
+            int vertices = 1 + random.nextInt( 3000 );
+            EdgeWeightedDigraph digraph = new EdgeWeightedDigraph( vertices );
+            EdgeWeightedGraph graph = new EdgeWeightedGraph( vertices );
+            for ( int i = 0; i < 4 * vertices; i++ ) {
+                int v = random.nextInt( vertices );
+                int w = random.nextInt( vertices );
+                double weight = random.nextInt( 10 ) == 0 ? 0.0 : random.nextDouble();
+                digraph.addEdge( v, w, weight );
+                graph.addEdge( v, w, weight );
+            }
+
+            int source = random.nextInt( vertices );
+            double delta = 0.01 + random.nextDouble() * 2;
+
+            DirectedDijkstraSP d1 = new DirectedDijkstraSP( digraph, source );
+            DeltaSteppingSP s1 = new DeltaSteppingSP( new CSRGraph( digraph ), source, delta, pool );
+            DijkstraSP d2 = new DijkstraSP( graph, source );
+            DeltaSteppingSP s2 = new DeltaSteppingSP( new CSRGraph( graph ), source, delta, pool );
+
+            for ( int v = 0; v < vertices; v++ ) {
+                ok = ok && d1.distTo( v ) == s1.distTo( v ) && validPath( s1, source, v )
+                        && d2.distTo( v ) == s2.distTo( v ) && validPath( s2, source, v );
+            }
+
+        }
+
+        System.out.println( "distâncias e caminhos: " + ( ok ? "corretos" : "incorretos!" ) + "\n" );
+
+        // caminho longo com pesos unitários e delta pequeno: a maior
+        // distância passa de 2^31 baldes, quase todos vazios
+        int pathLength = 100000;
+        EdgeWeightedDigraph path = new EdgeWeightedDigraph( pathLength );
+        for ( int v = 0; v + 1 < pathLength; v++ ) {
+            path.addEdge( v, v + 1, 1.0 );
+        }
+        long pathStart = System.nanoTime();
+        DeltaSteppingSP pathSP = new DeltaSteppingSP( path, 0, 1e-5 );
+        System.out.printf( "caminho com %d vértices e delta = 1e-5: distTo(%d) = %.1f em %.1f ms\n\n",
+                pathLength, pathLength - 1, pathSP.distTo( pathLength - 1 ),
+                ( System.nanoTime() - pathStart ) / 1e6 );
+        pool.shutdown();
+
+        // digrafo grande
+        System.out.println( "----- Digrafo grande -----" );
+        System.out.println( "threads: " + Runtime.getRuntime().availableProcessors() );
+        int vertices = 1000000;
+        EdgeWeightedDigraph large = new EdgeWeightedDigraph( vertices );
+        for ( int i = 0; i < 8 * vertices; i++ ) {
+            large.addEdge( random.nextInt( vertices ), random.nextInt( vertices ), random.nextDouble() );
+        }
+        CSRGraph csr = new CSRGraph( large );
+
+        for ( int round = 0; round < 3; round++ ) {
+
+            long start = System.nanoTime();
+            DirectedDijkstraSP dijkstra = new DirectedDijkstraSP( csr, 0 );
+            double dijkstraTime = ( System.nanoTime() - start ) / 1e6;
+
+            start = System.nanoTime();
+            DeltaSteppingSP deltaStepping = new DeltaSteppingSP( csr, 0 );
+            double deltaTime = ( System.nanoTime() - start ) / 1e6;
+
+            System.out.printf( "Dijkstra: %7.1f ms, delta-stepping: %7.1f ms, distTo iguais: %s\n",
+                    dijkstraTime, deltaTime, dijkstra.distTo( vertices - 1 ) == deltaStepping.distTo( vertices - 1 ) );
+
+        }
+
+    }
+
+    // o caminho precisa começar na fonte, terminar em v, ser contíguo e ter
+    // comprimento igual a distTo(v)
+    private static boolean validPath( DeltaSteppingSP sp, int source, int v ) {
+
+        if ( !sp.hasPathTo( v ) ) {
+            return true;
+        }
+
+        int current = source;
+        double length = 0;
+
+        for ( Edge e : sp.pathTo( v ) ) {
+            if ( e.from() != current ) {
+                return false;
+            }
+            length += e.weight();
+            current = e.to();
+        }
+
+        return current == v && length == sp.distTo( v );
+
+    }
+
+}
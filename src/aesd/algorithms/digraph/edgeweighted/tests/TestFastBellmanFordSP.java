@@ -0,0 +1,200 @@
+package aesd.algorithms.digraph.edgeweighted.tests;
+
+import aesd.algorithms.digraph.edgeweighted.BellmanFordSP;
+import aesd.algorithms.digraph.edgeweighted.FastBellmanFordSP;
+import aesd.algorithms.digraph.edgeweighted.FastBellmanFordSP.Mode;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Teste de uso da versão otimizada do algoritmo de Bellman-Ford
+ * (FastBellmanFordSP).
+ *
+ * Além do uso básico, compara os dois modos com BellmanFordSP em digrafos
+ * aleatórios com pesos negativos (com e sem ciclos negativos) e compara os
+ * tempos e a quantidade de arcos examinados em digrafos maiores.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestFastBellmanFordSP {
+
+    public static void main( String[] args ) {
+
+        // digrafo com aresta de peso negativo, mas sem ciclo negativo
+        EdgeWeightedDigraph g = new EdgeWeightedDigraph( 5 );
+        g.addEdge( 0, 1, 1.0 );
+        g.addEdge( 0, 2, 3.0 );
+        g.addEdge( 1, 2, -2.0 );
+        g.addEdge( 2, 3, 2.0 );
+        g.addEdge( 3, 4, 1.0 );
+
+        for ( Mode mode : Mode.values() ) {
+
+            FastBellmanFordSP sp = new FastBellmanFordSP( g, 0, mode );
+
+            System.out.println( mode + " -> possui ciclo negativo alcançável? " + sp.hasNegativeCycle() );
+
+            for ( int v = 0; v < g.getNumberOfVertices(); v++ ) {
+
+                System.out.print( "0 -> " + v + " (" + sp.distTo( v ) + "): " );
+
+                if ( sp.hasPathTo( v ) ) {
+                    for ( Edge e : sp.pathTo( v ) ) {
+                        System.out.print( e + "   " );
+                    }
+                }
+
+                System.out.println();
+
+            }
+
+            System.out.println();
+
+        }
+
+        // digrafo com ciclo negativo alcançável a partir da fonte
+        EdgeWeightedDigraph withNegativeCycle = new EdgeWeightedDigraph( 3 );
+        withNegativeCycle.addEdge( 0, 1, 1.0 );
+        withNegativeCycle.addEdge( 1, 2, -3.0 );
+        withNegativeCycle.addEdge( 2, 0, 1.0 );
+
+        for ( Mode mode : Mode.values() ) {
+            FastBellmanFordSP spNeg = new FastBellmanFordSP( withNegativeCycle, 0, mode );
+            System.out.println( mode + " -> digrafo com ciclo negativo -> possui ciclo negativo alcançável? "
+                    + spNeg.hasNegativeCycle() );
+            System.out.println( "Ciclo negativo encontrado:" );
+            for ( Edge e : spNeg.negativeCycle() ) {
+                System.out.println( e );
+            }
+            System.out.println();
+        }
+
+        Random random = new Random( 42 );
+        boolean ok = true;
+        for ( int round = 0; round < 200; round++ ) {
+            int vertices = 1 + random.nextInt( 300 );
+            EdgeWeightedDigraph d = randomDigraph( vertices, random.nextInt( 5 * vertices + 1 ),
+                    round % 3 == 0, random );
+            int source = random.nextInt( vertices );
+            for ( Mode mode : Mode.values() ) {
+                ok &= same( d, source, mode );
+            }
+        }
+        System.out.println( ok ? "resultados iguais" : "resultados diferentes!" );
+        System.out.println();
+
+        for ( int vertices : new int[]{ 100000, 1000000 } ) {
+
+            EdgeWeightedDigraph d = randomDigraph( vertices, 5 * vertices, false, random );
+            CSRGraph csr = new CSRGraph( d );
+
+            long start = System.nanoTime();
+            new BellmanFordSP( d, 0 );
+            double plain = ( System.nanoTime() - start ) / 1e6;
+
+            start = System.nanoTime();
+            FastBellmanFordSP queue = new FastBellmanFordSP( csr, 0, Mode.QUEUE, ForkJoinPool.commonPool() );
+            double fast = ( System.nanoTime() - start ) / 1e6;
+
+            start = System.nanoTime();
+            FastBellmanFordSP rounds = new FastBellmanFordSP( csr, 0, Mode.PARALLEL_ROUNDS, ForkJoinPool.commonPool() );
+            double parallel = ( System.nanoTime() - start ) / 1e6;
+
+            System.out.printf( "V = %7d: BellmanFordSP %8.1f ms, QUEUE %8.1f ms (%d arcos), "
+                    + "PARALLEL_ROUNDS %8.1f ms (%d arcos)\n",
+                    vertices, plain, fast, queue.getRelaxations(), parallel, rounds.getRelaxations() );
+
+        }
+
+    }
+
+    /*
+     * Digrafo aleatório com pesos w(v, u) = c + p(u) - p(v), onde c >= 0 e p
+     * é um potencial aleatório: há pesos negativos, mas todo ciclo tem peso
+     * não negativo. Com negativeCycle, um ciclo de peso negativo é criado.
+     */
+    private static EdgeWeightedDigraph randomDigraph( int vertices, int edges, boolean negativeCycle,
+            Random random ) {
+
+        EdgeWeightedDigraph d = new EdgeWeightedDigraph( vertices );
+        double[] potential = new double[vertices];
+        for ( int v = 0; v < vertices; v++ ) {
+            potential[v] = random.nextInt( 1000 );
+        }
+
+        for ( int i = 0; i < edges; i++ ) {
+            int v = random.nextInt( vertices );
+            int w = random.nextInt( vertices );
+            d.addEdge( v, w, random.nextInt( 100 ) + potential[w] - potential[v] );
+        }
+
+        if ( negativeCycle ) {
+            int a = random.nextInt( vertices );
+            int b = random.nextInt( vertices );
+            d.addEdge( a, b, potential[b] - potential[a] - 5 );
+            d.addEdge( b, a, potential[a] - potential[b] );
+        }
+
+        return d;
+
+    }
+
+    private static boolean same( EdgeWeightedDigraph d, int source, Mode mode ) {
+
+        BellmanFordSP expected = new BellmanFordSP( d, source );
+        FastBellmanFordSP sp = new FastBellmanFordSP( d, source, mode );
+
+        if ( expected.hasNegativeCycle() != sp.hasNegativeCycle() ) {
+            return false;
+        }
+
+        if ( sp.hasNegativeCycle() ) {
+
+            // o ciclo deve ser fechado e ter peso negativo
+            double weight = 0;
+            Edge firstEdge = null;
+            Edge last = null;
+            for ( Edge e : sp.negativeCycle() ) {
+                if ( firstEdge == null ) {
+                    firstEdge = e;
+                } else if ( last.to() != e.from() ) {
+                    return false;
+                }
+                last = e;
+                weight += e.weight();
+            }
+            return firstEdge != null && last.to() == firstEdge.from() && weight < 0;
+
+        }
+
+        for ( int v = 0; v < d.getNumberOfVertices(); v++ ) {
+
+            if ( sp.hasPathTo( v ) != expected.hasPathTo( v ) || sp.distTo( v ) != expected.distTo( v ) ) {
+                return false;
+            }
+
+            if ( sp.hasPathTo( v ) ) {
+                double weight = 0;
+                int at = source;
+                for ( Edge e : sp.pathTo( v ) ) {
+                    if ( e.from() != at ) {
+                        return false;
+                    }
+                    weight += e.weight();
+                    at = e.to();
+                }
+                if ( at != v || weight != sp.distTo( v ) ) {
+                    return false;
+                }
+            }
+
+        }
+
+        return true;
+
+    }
+
+}
@@ -0,0 +1,274 @@
+package aesd.algorithms.digraph.edgeweighted.tests;
+
+import aesd.algorithms.digraph.edgeweighted.DirectedDijkstraAllPairsSP;
+import aesd.algorithms.digraph.edgeweighted.FloydWarshall;
+import aesd.algorithms.digraph.edgeweighted.JohnsonAllPairsSP;
+import aesd.ds.implementations.nonlinear.graph.AdjMatrixEdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Teste de uso do algoritmo de Johnson (JohnsonAllPairsSP) para todos os
+ * pares de menores caminhos em um digrafo ponderado com pesos negativos.
+ *
+ * Além do uso básico, compara distâncias e caminhos com os de FloydWarshall
+ * em digrafos aleatórios (com e sem ciclos negativos), verifica o descarte
+ * de linhas da cache e mede os tempos em digrafos esparsos, inclusive um
+ * com 100000 vértices consultado sob demanda.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestJohnsonAllPairsSP {
+
+    public static void main( String[] args ) {
+
+        // tinyEWDn (com pesos negativos)
+        EdgeWeightedDigraph g = new EdgeWeightedDigraph( 8 );
+        g.addEdge( 4, 5, 0.35 );
+        g.addEdge( 5, 4, 0.35 );
+        g.addEdge( 4, 7, 0.37 );
+        g.addEdge( 5, 7, 0.28 );
+        g.addEdge( 7, 5, 0.28 );
+        g.addEdge( 5, 1, 0.32 );
+        g.addEdge( 0, 4, 0.38 );
+        g.addEdge( 0, 2, 0.26 );
+        g.addEdge( 7, 3, 0.39 );
+        g.addEdge( 1, 3, 0.29 );
+        g.addEdge( 2, 7, 0.34 );
+        g.addEdge( 6, 2, -1.20 );
+        g.addEdge( 3, 6, 0.52 );
+        g.addEdge( 6, 0, -1.40 );
+        g.addEdge( 6, 4, -1.25 );
+
+        JohnsonAllPairsSP sp = new JohnsonAllPairsSP( g );
+
+        System.out.println( "Possui ciclo negativo? " + sp.hasNegativeCycle() );
+
+        System.out.println( "\nMenores caminhos a partir de 0:" );
+        for ( int v = 0; v < g.getNumberOfVertices(); v++ ) {
+
+            System.out.printf( "0 -> %d (%.2f): ", v, sp.dist( 0, v ) );
+
+            if ( sp.hasPath( 0, v ) ) {
+                for ( Edge e : sp.path( 0, v ) ) {
+                    System.out.print( e + "   " );
+                }
+            }
+
+            System.out.println();
+
+        }
+
+        // digrafo com ciclo negativo
+        EdgeWeightedDigraph withNegativeCycle = new EdgeWeightedDigraph( 3 );
+        withNegativeCycle.addEdge( 0, 1, 1.0 );
+        withNegativeCycle.addEdge( 1, 2, -3.0 );
+        withNegativeCycle.addEdge( 2, 0, 1.0 );
+
+        JohnsonAllPairsSP spNeg = new JohnsonAllPairsSP( withNegativeCycle );
+        System.out.println( "\nDigrafo com ciclo negativo -> possui ciclo negativo? " + spNeg.hasNegativeCycle() );
+        System.out.println( "Ciclo negativo encontrado:" );
+        for ( Edge e : spNeg.negativeCycle() ) {
+            System.out.println( e );
+        }
+        System.out.println();
+
+        Random random = new Random( 42 );
+        boolean ok = true;
+        for ( int round = 0; round < 30; round++ ) {
+            int vertices = 1 + random.nextInt( 150 );
+            EdgeWeightedDigraph d = randomDigraph( vertices, random.nextInt( 4 * vertices + 1 ),
+                    round % 3 == 0, random );
+            ok &= same( d, 1 + random.nextInt( vertices + 5 ) );
+        }
+        System.out.println( ok ? "resultados iguais" : "resultados diferentes!" );
+
+        // cache LRU com 2 linhas
+        JohnsonAllPairsSP small = new JohnsonAllPairsSP( g, 2, ForkJoinPool.commonPool() );
+        small.dist( 0, 1 );
+        small.dist( 1, 2 );
+        small.dist( 0, 3 );
+        small.dist( 2, 3 );
+        small.dist( 1, 3 );
+        System.out.println( "cache com 2 linhas: " + small.getDijkstraRuns() + " execuções de Dijkstra, "
+                + small.getCachedRows() + " linhas guardadas" );   // 4 execuções, 2 linhas
+        System.out.println();
+
+        // pesos não negativos: comparação com DirectedDijkstraAllPairsSP
+        EdgeWeightedDigraph nonNegative = randomDigraph( 2000, 10000, false, random );
+        EdgeWeightedDigraph positive = new EdgeWeightedDigraph( 2000 );
+        for ( Edge e : nonNegative.edges() ) {
+            positive.addEdge( e.from(), e.to(), Math.abs( e.weight() ) );
+        }
+
+        long start = System.nanoTime();
+        new DirectedDijkstraAllPairsSP( positive );
+        double dijkstra = ( System.nanoTime() - start ) / 1e6;
+
+        start = System.nanoTime();
+        new JohnsonAllPairsSP( positive );
+        double johnson = ( System.nanoTime() - start ) / 1e6;
+
+        System.out.printf( "V = 2000, pesos positivos: DirectedDijkstraAllPairsSP %8.1f ms, JohnsonAllPairsSP %8.1f ms\n",
+                dijkstra, johnson );
+
+        // pesos negativos: comparação com FloydWarshall
+        start = System.nanoTime();
+        new FloydWarshall( toMatrix( nonNegative ) );
+        double floyd = ( System.nanoTime() - start ) / 1e6;
+
+        start = System.nanoTime();
+        new JohnsonAllPairsSP( nonNegative );
+        johnson = ( System.nanoTime() - start ) / 1e6;
+
+        System.out.printf( "V = 2000, pesos negativos: FloydWarshall %8.1f ms, JohnsonAllPairsSP %8.1f ms\n",
+                floyd, johnson );
+
+        // 100000 vértices: a matriz completa teria 80 GB
+        int vertices = 100000;
+        EdgeWeightedDigraph big = randomDigraph( vertices, 5 * vertices, false, random );
+
+        start = System.nanoTime();
+        JohnsonAllPairsSP bigSP = new JohnsonAllPairsSP( big, 64, ForkJoinPool.commonPool() );
+        double build = ( System.nanoTime() - start ) / 1e6;
+
+        int[] sources = new int[64];
+        for ( int i = 0; i < sources.length; i++ ) {
+            sources[i] = random.nextInt( vertices );
+        }
+
+        start = System.nanoTime();
+        bigSP.prefetch( sources );
+        double prefetch = ( System.nanoTime() - start ) / 1e6;
+
+        start = System.nanoTime();
+        double sum = 0;
+        for ( int i = 0; i < 100000; i++ ) {
+            double dist = bigSP.dist( sources[random.nextInt( sources.length )], random.nextInt( vertices ) );
+            if ( dist < Double.POSITIVE_INFINITY ) {
+                sum += dist;
+            }
+        }
+        double queries = ( System.nanoTime() - start ) / 1e6;
+
+        System.out.printf( "V = %d: reponderação %.1f ms, 64 linhas %.1f ms, 100000 consultas %.1f ms "
+                + "(%d execuções de Dijkstra, soma %.1f)\n",
+                vertices, build, prefetch, queries, bigSP.getDijkstraRuns(), sum );
+
+    }
+
+    /*
+     * Digrafo aleatório com pesos w(v, u) = c + p(u) - p(v), onde c >= 0 e p
+     * é um potencial aleatório: há pesos negativos, mas todo ciclo tem peso
+     * não negativo. Com negativeCycle, um ciclo de peso negativo é criado.
+     */
+    private static EdgeWeightedDigraph randomDigraph( int vertices, int edges, boolean negativeCycle,
+            Random random ) {
+
+        EdgeWeightedDigraph d = new EdgeWeightedDigraph( vertices );
+        double[] potential = new double[vertices];
+        for ( int v = 0; v < vertices; v++ ) {
+            potential[v] = random.nextInt( 100 );
+        }
+
+        for ( int i = 0; i < edges; i++ ) {
+            int v = random.nextInt( vertices );
+            int w = random.nextInt( vertices );
+            d.addEdge( v, w, random.nextInt( 50 ) + potential[w] - potential[v] );
+        }
+
+        if ( negativeCycle && vertices > 2 ) {
+            int a = random.nextInt( vertices );
+            int b = random.nextInt( vertices );
+            d.addEdge( a, b, potential[b] - potential[a] - 5 );
+            d.addEdge( b, a, potential[a] - potential[b] );
+        }
+
+        return d;
+
+    }
+
+    // a matriz guarda só a primeira aresta de cada par de vértices, então as
+    // arestas são adicionadas em ordem crescente de peso
+    private static AdjMatrixEdgeWeightedDigraph toMatrix( EdgeWeightedDigraph d ) {
+
+        List<Edge> edges = new ArrayList<>();
+        for ( Edge e : d.edges() ) {
+            edges.add( e );
+        }
+        edges.sort( Comparator.comparingDouble( Edge::weight ) );
+
+        AdjMatrixEdgeWeightedDigraph m = new AdjMatrixEdgeWeightedDigraph( d.getNumberOfVertices() );
+        for ( Edge e : edges ) {
+            m.addEdge( e.from(), e.to(), e.weight() );
+        }
+
+        return m;
+
+    }
+
+    private static boolean same( EdgeWeightedDigraph d, int cachedRows ) {
+
+        FloydWarshall expected = new FloydWarshall( toMatrix( d ) );
+        JohnsonAllPairsSP sp = new JohnsonAllPairsSP( d, cachedRows, ForkJoinPool.commonPool() );
+
+        if ( expected.hasNegativeCycle() != sp.hasNegativeCycle() ) {
+            return false;
+        }
+
+        if ( sp.hasNegativeCycle() ) {
+
+            // o ciclo deve ser fechado e ter peso negativo
+            double weight = 0;
+            Edge firstEdge = null;
+            Edge last = null;
+            for ( Edge e : sp.negativeCycle() ) {
+                if ( firstEdge == null ) {
+                    firstEdge = e;
+                } else if ( last.to() != e.from() ) {
+                    return false;
+                }
+                last = e;
+                weight += e.weight();
+            }
+            return firstEdge != null && last.to() == firstEdge.from() && weight < 0;
+
+        }
+
+        int vertices = d.getNumberOfVertices();
+        for ( int v = 0; v < vertices; v++ ) {
+            for ( int w = 0; w < vertices; w++ ) {
+
+                if ( sp.hasPath( v, w ) != expected.hasPath( v, w )
+                        || Math.abs( sp.dist( v, w ) - expected.dist( v, w ) ) > 1e-9 ) {
+                    return false;
+                }
+
+                if ( sp.hasPath( v, w ) ) {
+                    double weight = 0;
+                    int at = v;
+                    for ( Edge e : sp.path( v, w ) ) {
+                        if ( e.from() != at ) {
+                            return false;
+                        }
+                        weight += e.weight();
+                        at = e.to();
+                    }
+                    if ( at != w || Math.abs( weight - sp.dist( v, w ) ) > 1e-9 ) {
+                        return false;
+                    }
+                }
+
+            }
+        }
+
+        return true;
+
+    }
+
+}
@@ -0,0 +1,210 @@
+package aesd.algorithms.digraph.edgeweighted.tests;
+
+import aesd.algorithms.digraph.edgeweighted.DirectedDijkstraSP;
+import aesd.algorithms.digraph.edgeweighted.PointToPointSP;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import java.util.Random;
+
+/**
+ * Teste de uso das consultas de menor caminho entre pares de vértices
+ * (PointToPointSP).
+ *
+ * Além do uso básico, compara as distâncias e os caminhos do Dijkstra
+ * bidirecional e do A* com os de DirectedDijkstraSP em digrafos aleatórios
+ * e em um digrafo geométrico (onde a distância euclidiana é uma heurística
+ * admissível), e compara o tamanho dos espaços de busca e o tempo das
+ * consultas em um digrafo geométrico grande.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestPointToPointSP {
+
+    public static void main( String[] args ) {
+
+        // digrafo ponderado clássico (tinyEWD)
+        EdgeWeightedDigraph g = new EdgeWeightedDigraph( 8 );
+        g.addEdge( 4, 5, 0.35 );
+        g.addEdge( 5, 4, 0.35 );
+        g.addEdge( 4, 7, 0.37 );
+        g.addEdge( 5, 7, 0.28 );
+        g.addEdge( 7, 5, 0.28 );
+        g.addEdge( 5, 1, 0.32 );
+        g.addEdge( 0, 4, 0.38 );
+        g.addEdge( 0, 2, 0.26 );
+        g.addEdge( 7, 3, 0.39 );
+        g.addEdge( 1, 3, 0.29 );
+        g.addEdge( 2, 7, 0.34 );
+        g.addEdge( 6, 2, 0.40 );
+        g.addEdge( 3, 6, 0.52 );
+        g.addEdge( 6, 0, 0.58 );
+        g.addEdge( 6, 4, 0.93 );
+
+        PointToPointSP sp = new PointToPointSP( g );
+
+        for ( int t = 0; t < g.getNumberOfVertices(); t++ ) {
+            System.out.print( "0 -> " + t + " (" + sp.bidirectionalDijkstra( 0, t ) + "): " );
+            for ( Edge e : sp.path() ) {
+                System.out.print( e + "   " );
+            }
+            System.out.println();
+        }
+        System.out.println();
+
+        // comparação com Dijkstra em digrafos aleatórios
+        Random random = new Random( 42 );
+        boolean ok = true;
+
+        for ( int round = 0; round < 20; round++ ) {
+
+            int vertices = 1 + random.nextInt( 2000 );
+            EdgeWeightedDigraph digraph = new EdgeWeightedDigraph( vertices );
+            for ( int i = 0; i < 3 * vertices; i++ ) {
+                double weight = random.nextInt( 10 ) == 0 ? 0.0 : random.nextDouble();
+                digraph.addEdge( random.nextInt( vertices ), random.nextInt( vertices ), weight );
+            }
+
+            PointToPointSP p2p = new PointToPointSP( digraph );
+
+            for ( int query = 0; query < 20; query++ ) {
+                int s = random.nextInt( vertices );
+                int t = random.nextInt( vertices );
+                double expected = new DirectedDijkstraSP( digraph, s ).distTo( t );
+                ok = ok && same( expected, p2p.bidirectionalDijkstra( s, t ) ) && validPath( p2p, s, t );
+                ok = ok && same( expected, p2p.aStar( s, t, ( v, target ) -> 0.0 ) ) && validPath( p2p, s, t );
+            }
+
+        }
+
+        // digrafo geométrico, com heurística euclidiana
+        int vertices = 5000;
+        double[] x = new double[vertices];
+        double[] y = new double[vertices];
+        EdgeWeightedDigraph geometric = geometricDigraph( vertices, x, y, random );
+        PointToPointSP p2p = new PointToPointSP( geometric );
+        PointToPointSP.Heuristic euclidean = PointToPointSP.euclidean( x, y );
+
+        for ( int query = 0; query < 50; query++ ) {
+            int s = random.nextInt( vertices );
+            int t = random.nextInt( vertices );
+            double expected = new DirectedDijkstraSP( geometric, s ).distTo( t );
+            ok = ok && same( expected, p2p.aStar( s, t, euclidean ) ) && validPath( p2p, s, t );
+            ok = ok && same( expected, p2p.bidirectionalDijkstra( s, t ) ) && validPath( p2p, s, t );
+        }
+
+        System.out.println( "distâncias e caminhos: " + ( ok ? "corretos" : "incorretos!" ) + "\n" );
+
+        // digrafo geométrico grande
+        System.out.println( "----- Digrafo geométrico grande -----" );
+        vertices = 1000000;
+        x = new double[vertices];
+        y = new double[vertices];
+        CSRGraph large = new CSRGraph( geometricDigraph( vertices, x, y, random ) );
+        p2p = new PointToPointSP( large );
+        euclidean = PointToPointSP.euclidean( x, y );
+
+        int queries = 20;
+        long dijkstraTime = 0;
+        long bidirectionalTime = 0;
+        long aStarTime = 0;
+        long bidirectionalSettled = 0;
+        long aStarSettled = 0;
+
+        for ( int query = 0; query < queries; query++ ) {
+
+            int s = random.nextInt( vertices );
+            int t = random.nextInt( vertices );
+
+            long start = System.nanoTime();
+            double expected = new DirectedDijkstraSP( large, s ).distTo( t );
+            dijkstraTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ok = same( expected, p2p.bidirectionalDijkstra( s, t ) );
+            bidirectionalTime += System.nanoTime() - start;
+            bidirectionalSettled += p2p.getSettledVertices();
+
+            start = System.nanoTime();
+            ok = ok && same( expected, p2p.aStar( s, t, euclidean ) );
+            aStarTime += System.nanoTime() - start;
+            aStarSettled += p2p.getSettledVertices();
+
+            if ( !ok ) {
+                System.out.println( "distância incorreta entre " + s + " e " + t + "!" );
+            }
+
+        }
+
+        System.out.printf( "Dijkstra completo: %8.2f ms/consulta, %7d vértices\n",
+                dijkstraTime / 1e6 / queries, vertices );
+        System.out.printf( "bidirecional:      %8.2f ms/consulta, %7d vértices\n",
+                bidirectionalTime / 1e6 / queries, bidirectionalSettled / queries );
+        System.out.printf( "A* euclidiano:     %8.2f ms/consulta, %7d vértices\n",
+                aStarTime / 1e6 / queries, aStarSettled / queries );
+
+    }
+
+    /*
+     * Vértices espalhados no quadrado unitário, cada um ligado nos dois
+     * sentidos a vértices próximos, com peso igual à distância euclidiana
+     * multiplicada por um fator entre 1 e 1.5.
+     */
+    private static EdgeWeightedDigraph geometricDigraph( int vertices, double[] x, double[] y, Random random ) {
+
+        int side = (int) Math.ceil( Math.sqrt( vertices ) );
+
+        for ( int v = 0; v < vertices; v++ ) {
+            x[v] = ( v % side + random.nextDouble() ) / side;
+            y[v] = ( v / side + random.nextDouble() ) / side;
+        }
+
+        EdgeWeightedDigraph digraph = new EdgeWeightedDigraph( vertices );
+
+        for ( int v = 0; v < vertices; v++ ) {
+            int[] neighbors = { v + 1, v + side, v + side + 1, v + side - 1 };
+            for ( int w : neighbors ) {
+                if ( w < vertices && Math.abs( w % side - v % side ) <= 1 ) {
+                    double d = Math.hypot( x[v] - x[w], y[v] - y[w] );
+                    digraph.addEdge( v, w, d * ( 1 + random.nextDouble() / 2 ) );
+                    digraph.addEdge( w, v, d * ( 1 + random.nextDouble() / 2 ) );
+                }
+            }
+        }
+
+        return digraph;
+
+    }
+
+    // as duas buscas somam os pesos em ordens diferentes
+    private static boolean same( double expected, double actual ) {
+        if ( expected == Double.POSITIVE_INFINITY || actual == Double.POSITIVE_INFINITY ) {
+            return expected == actual;
+        }
+        return Math.abs( expected - actual ) <= 1e-9;
+    }
+
+    // o caminho precisa começar na fonte, terminar no destino, ser contíguo
+    // e ter comprimento igual à distância
+    private static boolean validPath( PointToPointSP sp, int source, int target ) {
+
+        if ( !sp.hasPath() ) {
+            return sp.path() == null;
+        }
+
+        int current = source;
+        double length = 0;
+
+        for ( Edge e : sp.path() ) {
+            if ( e.from() != current ) {
+                return false;
+            }
+            length += e.weight();
+            current = e.to();
+        }
+
+        return current == target && same( length, sp.distance() );
+
+    }
+
+}
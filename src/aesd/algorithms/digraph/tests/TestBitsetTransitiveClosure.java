@@ -0,0 +1,135 @@
+package aesd.algorithms.digraph.tests;
+
+import aesd.algorithms.digraph.BitsetTransitiveClosure;
+import aesd.algorithms.digraph.TransitiveClosure;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Digraph;
+import java.util.Random;
+
+/**
+ * Teste de uso do cálculo do fecho transitivo com condensação e conjuntos
+ * de bits (BitsetTransitiveClosure).
+ *
+ * Além do uso básico, compara os resultados com os de TransitiveClosure em
+ * digrafos aleatórios com e sem ciclos e compara os tempos de
+ * pré-processamento das duas implementações.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestBitsetTransitiveClosure {
+
+    public static void main( String[] args ) {
+
+        // digrafo com ciclos (tinyDG)
+        Digraph g = new Digraph( 13 );
+        int[][] edges = {
+            { 4, 2 }, { 2, 3 }, { 3, 2 }, { 6, 0 }, { 0, 1 }, { 2, 0 }, { 11, 12 },
+            { 12, 9 }, { 9, 10 }, { 9, 11 }, { 7, 9 }, { 10, 12 }, { 11, 4 },
+            { 4, 3 }, { 3, 5 }, { 6, 8 }, { 8, 6 }, { 5, 4 }, { 0, 5 }, { 6, 4 },
+            { 6, 9 }, { 7, 6 }
+        };
+        for ( int[] e : edges ) {
+            g.addEdge( e[0], e[1] );
+        }
+
+        BitsetTransitiveClosure tc = new BitsetTransitiveClosure( g );
+
+        System.out.println( "componentes: " + tc.getNumberOfComponents() );   // 5
+        System.out.println( "7 alcança 1? " + tc.reachable( 7, 1 ) );          // true
+        System.out.println( "1 alcança 7? " + tc.reachable( 1, 7 ) );          // false
+        System.out.println( "9 alcança 3? " + tc.reachable( 9, 3 ) );          // true
+        System.out.println( "2 alcança 12? " + tc.reachable( 2, 12 ) );        // false
+        System.out.println( "alcançáveis a partir de 6: " + tc.reachableCount( 6 ) );  // 12
+        System.out.println();
+
+        Random random = new Random( 42 );
+        boolean ok = true;
+        for ( int round = 0; round < 20; round++ ) {
+            int vertices = 1 + random.nextInt( 600 );
+            Digraph d = randomDigraph( vertices, random.nextInt( 3 * vertices + 1 ), random.nextInt( 20 ), random );
+            ok &= same( d );
+        }
+        System.out.println( ok ? "resultados iguais" : "resultados diferentes!" );
+        System.out.println();
+
+        for ( int vertices : new int[]{ 2000, 5000 } ) {
+
+            Digraph d = randomDigraph( vertices, 4 * vertices, vertices / 100, random );
+
+            long start = System.nanoTime();
+            new TransitiveClosure( d );
+            double plain = ( System.nanoTime() - start ) / 1e6;
+
+            start = System.nanoTime();
+            new BitsetTransitiveClosure( d );
+            double bitset = ( System.nanoTime() - start ) / 1e6;
+
+            System.out.printf( "V = %6d: TransitiveClosure %8.1f ms, BitsetTransitiveClosure %8.1f ms\n",
+                    vertices, plain, bitset );
+
+        }
+
+        // grande demais para TransitiveClosure (V^2 bytes = 2,5 GB)
+        int vertices = 50000;
+        CSRGraph d = new CSRGraph( randomDigraph( vertices, 4 * vertices, vertices / 100, random ) );
+        long start = System.nanoTime();
+        BitsetTransitiveClosure big = new BitsetTransitiveClosure( d );
+        double ms = ( System.nanoTime() - start ) / 1e6;
+
+        // o conjunto do componente c tem as palavras dos componentes 0 a c
+        long words = 0;
+        for ( int c = 0; c < big.getNumberOfComponents(); c++ ) {
+            words += ( c >>> 6 ) + 1;
+        }
+        System.out.printf( "V = %6d: BitsetTransitiveClosure %8.1f ms, %d componentes, %.1f MB de conjuntos\n",
+                vertices, ms, big.getNumberOfComponents(), words * 8 / 1e6 );
+
+    }
+
+    /*
+     * Digrafo com arcos aleatórios de vértices maiores para menores (que
+     * formam um DAG) mais alguns arcos no sentido oposto, que criam ciclos.
+     */
+    private static Digraph randomDigraph( int vertices, int edges, int backEdges, Random random ) {
+
+        Digraph d = new Digraph( vertices );
+
+        for ( int i = 0; i < edges; i++ ) {
+            int v = random.nextInt( vertices );
+            int w = random.nextInt( vertices );
+            d.addEdge( Math.max( v, w ), Math.min( v, w ) );
+        }
+
+        for ( int i = 0; i < backEdges; i++ ) {
+            d.addEdge( random.nextInt( vertices ), random.nextInt( vertices ) );
+        }
+
+        return d;
+
+    }
+
+    private static boolean same( Digraph d ) {
+
+        TransitiveClosure expected = new TransitiveClosure( d );
+        BitsetTransitiveClosure tc = new BitsetTransitiveClosure( d );
+
+        for ( int v = 0; v < d.getNumberOfVertices(); v++ ) {
+            int count = 0;
+            for ( int w = 0; w < d.getNumberOfVertices(); w++ ) {
+                if ( tc.reachable( v, w ) != expected.reachable( v, w ) ) {
+                    return false;
+                }
+                if ( expected.reachable( v, w ) ) {
+                    count++;
+                }
+            }
+            if ( tc.reachableCount( v ) != count ) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+}
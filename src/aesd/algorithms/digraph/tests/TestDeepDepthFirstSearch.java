@@ -0,0 +1,76 @@
+package aesd.algorithms.digraph.tests;
+
+import aesd.algorithms.digraph.DepthFirstOrder;
+import aesd.algorithms.digraph.DirectedCycle;
+import aesd.algorithms.digraph.DirectedDepthFirstSearch;
+import aesd.algorithms.digraph.GabowSCC;
+import aesd.algorithms.digraph.KosarajuSharirSCC;
+import aesd.algorithms.digraph.TarjanSCC;
+import aesd.algorithms.graph.Cycle;
+import aesd.algorithms.graph.DepthFirstSearch;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Digraph;
+import aesd.ds.implementations.nonlinear.graph.Graph;
+
+/**
+ * Teste das buscas em profundidade iterativas em grafos e digrafos com
+ * caminhos de milhões de vértices, que estourariam a pilha da JVM com o
+ * tamanho padrão se as buscas fossem recursivas.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestDeepDepthFirstSearch {
+
+    public static void main( String[] args ) {
+
+        int vertices = 2000000;
+
+        // caminho 0 -> 1 -> ... -> V-1 e o mesmo caminho fechado em ciclo
+        Digraph path = new Digraph( vertices );
+        Digraph ring = new Digraph( vertices );
+        Graph undirectedPath = new Graph( vertices );
+        Graph undirectedRing = new Graph( vertices );
+
+        for ( int v = 0; v < vertices - 1; v++ ) {
+            path.addEdge( v, v + 1 );
+            ring.addEdge( v, v + 1 );
+            undirectedPath.addEdge( v, v + 1 );
+            undirectedRing.addEdge( v, v + 1 );
+        }
+        ring.addEdge( vertices - 1, 0 );
+        undirectedRing.addEdge( vertices - 1, 0 );
+
+        long start = System.nanoTime();
+
+        DepthFirstSearch dfs = new DepthFirstSearch( undirectedPath, 0 );
+        System.out.println( "DepthFirstSearch: há caminho até " + ( vertices - 1 ) + "? "
+                + dfs.hasPathTo( vertices - 1 ) );
+
+        DirectedDepthFirstSearch ddfs = new DirectedDepthFirstSearch( path, 0 );
+        System.out.println( "DirectedDepthFirstSearch: há caminho até " + ( vertices - 1 ) + "? "
+                + ddfs.hasPathTo( vertices - 1 ) );
+
+        DepthFirstOrder order = new DepthFirstOrder( path );
+        System.out.println( "DepthFirstOrder: pós-ordem de 0 = " + order.post( 0 )
+                + ", pós-ordem de " + ( vertices - 1 ) + " = " + order.post( vertices - 1 ) );
+
+        CSRGraph csrPath = new CSRGraph( path );
+        CSRGraph csrRing = new CSRGraph( ring );
+
+        System.out.println( "TarjanSCC: " + new TarjanSCC( csrPath ).count() + " componentes no caminho, "
+                + new TarjanSCC( csrRing ).count() + " no ciclo" );
+        System.out.println( "GabowSCC: " + new GabowSCC( csrPath ).count() + " componentes no caminho, "
+                + new GabowSCC( csrRing ).count() + " no ciclo" );
+        System.out.println( "KosarajuSharirSCC: " + new KosarajuSharirSCC( csrPath ).count() + " componentes no caminho, "
+                + new KosarajuSharirSCC( csrRing ).count() + " no ciclo" );
+
+        System.out.println( "DirectedCycle: caminho possui ciclo? " + new DirectedCycle( csrPath ).hasCycle()
+                + ", ciclo possui ciclo? " + new DirectedCycle( csrRing ).hasCycle() );
+        System.out.println( "Cycle: caminho possui ciclo? " + new Cycle( undirectedPath ).hasCycle()
+                + ", ciclo possui ciclo? " + new Cycle( undirectedRing ).hasCycle() );
+
+        System.out.printf( "\nV = %d: %.1f ms\n", vertices, ( System.nanoTime() - start ) / 1e6 );
+
+    }
+
+}
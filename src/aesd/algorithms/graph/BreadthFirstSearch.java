@@ -2,6 +2,7 @@ package aesd.algorithms.graph;
 
 import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
 import aesd.ds.implementations.nonlinear.graph.Graph;
 import aesd.ds.interfaces.Queue;
 import aesd.ds.interfaces.Stack;
@@ -41,9 +42,6 @@ public class BreadthFirstSearch {
     // vértice fonte
     private final int source;
 
-    // o grafo
-    private final Graph graph;
-
     /**
      * Computa o menor caminho entre o vértice fonte s e todos os outros
      * vértices do grafo.
@@ -66,7 +64,38 @@ public class BreadthFirstSearch {
         }
         
         this.source = source;
-        this.graph = graph;
+        
+        bfs( graph, source );
+        
+    }
+
+    /**
+     * Computa o menor caminho entre o vértice fonte s e todos os outros
+     * vértices de um grafo no formato CSR.
+     *
+     * @param graph o grafo CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     * @throws IllegalArgumentException se o grafo for direcionado
+     */
+    public BreadthFirstSearch( CSRGraph graph, int source ) throws IllegalArgumentException {
+        
+        if ( graph.isDirected() ) {
+            throw new IllegalArgumentException( "graph must be undirected" );
+        }
+
+        marked = new boolean[graph.getNumberOfVertices()];
+        distTo = new int[graph.getNumberOfVertices()];
+        edgeTo = new int[graph.getNumberOfVertices()];
+
+        // validateVertex() depende de marked já estar inicializado
+        validateVertex( source );
+
+        for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
+            distTo[v] = INFINITY;
+        }
+        
+        this.source = source;
         
         bfs( graph, source );
         
@@ -98,6 +127,38 @@ public class BreadthFirstSearch {
         
     }
 
+    // implementação da busca em largura para uma fonte em um grafo CSR - como
+    // cada vértice entra na fila no máximo uma vez, um array de V posições
+    // substitui a fila encadeada
+    private void bfs( CSRGraph graph, int source ) {
+        
+        int[] queue = new int[graph.getNumberOfVertices()];
+        int head = 0;
+        int tail = 0;
+        
+        distTo[source] = 0;
+        marked[source] = true;
+        queue[tail++] = source;
+
+        while ( head < tail ) {
+            
+            int v = queue[head++];
+            int end = graph.end( v );
+            
+            for ( int i = graph.begin( v ); i < end; i++ ) {
+                int w = graph.target( i );
+                if ( !marked[w] ) {
+                    edgeTo[w] = v;
+                    distTo[w] = distTo[v] + 1;
+                    marked[w] = true;
+                    queue[tail++] = w;
+                }
+            }
+            
+        }
+        
+    }
+
     /**
      * Há um caminho entre o vértice fonte e v?
      *
@@ -166,7 +227,7 @@ public class BreadthFirstSearch {
         sb.append( "Breadth-First Search (source: vertex" ).append( source ).append( ")\n" );
         sb.append( "v\tmarked[v]\tedgeTo[v]\tdistTo[v]\n" );
         
-        for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
+        for ( int v = 0; v < marked.length; v++ ) {
             sb.append( String.format( "%d\t%s\t\t%s\t\t%s\n",
                     v,
                     marked[v] ? "T" : "F",
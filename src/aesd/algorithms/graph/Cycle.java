@@ -1,6 +1,8 @@
 package aesd.algorithms.graph;
 
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Graph;
 import aesd.ds.interfaces.Stack;
 
@@ -15,6 +17,10 @@ import aesd.ds.interfaces.Stack;
  * busca, pois formam ciclos triviais que a lógica pai/filho da DFS não
  * cobre diretamente.
  *
+ * A busca é iterativa e roda sobre o formato CSR: o pai u de cada vértice é
+ * o quadro logo abaixo do topo em {@link DepthFirstFrames}, e a busca para
+ * assim que o primeiro ciclo é encontrado, como na versão recursiva.
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -37,7 +43,22 @@ public class Cycle {
      * @param graph o grafo não direcionado
      */
     public Cycle( Graph graph ) {
+        this( new CSRGraph( graph ) );
+    }
+
+    /**
+     * Determina se um grafo no formato CSR possui ciclo e, caso tenha,
+     * encontra o mesmo.
+     *
+     * @param graph o grafo não direcionado CSR
+     * @throws IllegalArgumentException se o grafo for direcionado
+     */
+    public Cycle( CSRGraph graph ) throws IllegalArgumentException {
         
+        if ( graph.isDirected() ) {
+            throw new IllegalArgumentException( "graph must be undirected" );
+        }
+
         if ( hasSelfLoop( graph ) ) {
             return;
         }
@@ -49,21 +70,25 @@ public class Cycle {
         marked = new boolean[graph.getNumberOfVertices()];
         edgeTo = new int[graph.getNumberOfVertices()];
         
-        for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
+        DepthFirstFrames frames = DepthFirstFrames.acquire( graph );
+        
+        for ( int v = 0; v < graph.getNumberOfVertices() && cycle == null; v++ ) {
             if ( !marked[v] ) {
-                dfs( graph, -1, v );
+                dfs( frames, v );
             }
         }
         
+        frames.release();
+        
     }
 
     // esse grafo tem loop?
     // efeito colateral: inicializa o ciclo para ser o loop
-    private boolean hasSelfLoop( Graph graph ) {
+    private boolean hasSelfLoop( CSRGraph graph ) {
         
         for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
-            for ( int w : graph.adj( v ) ) {
-                if ( v == w ) {
+            for ( int i = graph.begin( v ); i < graph.end( v ); i++ ) {
+                if ( v == graph.target( i ) ) {
                     cycle = new ResizingArrayStack<>();
                     cycle.push( v );
                     cycle.push( v );
@@ -78,14 +103,15 @@ public class Cycle {
 
     // esse grafo tem arestas paralelas?
     // efeito colateral: inicializa o ciclo para ser as arestas paralelas
-    private boolean hasParallelEdges( Graph graph ) {
+    private boolean hasParallelEdges( CSRGraph graph ) {
         
         marked = new boolean[graph.getNumberOfVertices()];
 
         for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
 
             // procura por arestas paralelas que entram em v
-            for ( int w : graph.adj( v ) ) {
+            for ( int i = graph.begin( v ); i < graph.end( v ); i++ ) {
+                int w = graph.target( i );
                 if ( marked[w] ) {
                     cycle = new ResizingArrayStack<>();
                     cycle.push( v );
@@ -97,8 +123,8 @@ public class Cycle {
             }
 
             // reinicia, setando false em marked[v] para todos os v's
-            for ( int w : graph.adj( v ) ) {
-                marked[w] = false;
+            for ( int i = graph.begin( v ); i < graph.end( v ); i++ ) {
+                marked[graph.target( i )] = false;
             }
             
         }
@@ -126,27 +152,30 @@ public class Cycle {
         return cycle;
     }
 
-    // busca em profundidade
-    private void dfs( Graph graph, int u, int v ) {
+    // busca em profundidade iterativa a partir de s, que para assim que
+    // encontra um ciclo
+    private void dfs( DepthFirstFrames frames, int s ) {
         
-        marked[v] = true;
+        marked[s] = true;
+        frames.push( s );
         
-        for ( int w : graph.adj( v ) ) {
-
-            // para se já encontrou um ciclo
-            if ( cycle != null ) {
-                return;
-            }
-
-            if ( !marked[w] ) {
+        while ( !frames.isEmpty() ) {
+            
+            int w = frames.advance();
+            
+            if ( w == -1 ) {
+                frames.pop();
+            } else if ( !marked[w] ) {
                 
-                edgeTo[w] = v;
-                dfs( graph, v, w );
+                marked[w] = true;
+                edgeTo[w] = frames.peek();
+                frames.push( w );
                 
                 // verifica se há algum ciclo, desconsiderando o reverso da
                 // aresta que leva a v
-            } else if ( w != u ) {
+            } else if ( w != frames.parent() ) {
                 
+                int v = frames.peek();
                 cycle = new ResizingArrayStack<>();
                 
                 for ( int current = v; current != w; current = edgeTo[current] ) {
@@ -155,6 +184,7 @@ public class Cycle {
                 
                 cycle.push( w );
                 cycle.push( v );
+                return;
                 
             }
             
@@ -1,6 +1,8 @@
 package aesd.algorithms.graph;
 
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.DepthFirstFrames;
 import aesd.ds.implementations.nonlinear.graph.Graph;
 import aesd.ds.interfaces.Stack;
 
@@ -15,6 +17,11 @@ import aesd.ds.interfaces.Stack;
  * quando basta saber se existe um caminho, não o menor deles.
  * Complexidade O(V + E).
  *
+ * A busca é iterativa (ver {@link DepthFirstFrames}), então não há risco de
+ * estouro da pilha da JVM em grafos profundos. Grafos com listas de
+ * adjacências são convertidos para o formato CSR, que mantém a ordem das
+ * adjacências e portanto os mesmos caminhos da versão recursiva.
+ *
  * s é o vértice fonte (source).
  *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
@@ -34,9 +41,6 @@ public class DepthFirstSearch {
     // vértice fonte
     private final int source;
 
-    // o grafo
-    private final Graph graph;
-
     /**
      * Computa o caminho entre o vértice fonte s e todos os outros vértices do
      * grafo.
@@ -46,12 +50,28 @@ public class DepthFirstSearch {
      * @throws IllegalArgumentException se o vértice for inválido
      */
     public DepthFirstSearch( Graph graph, int source )  throws IllegalArgumentException {
+        this( new CSRGraph( graph ), source );
+    }
+
+    /**
+     * Computa o caminho entre o vértice fonte s e todos os outros vértices de
+     * um grafo no formato CSR.
+     *
+     * @param graph o grafo CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     * @throws IllegalArgumentException se o grafo for direcionado
+     */
+    public DepthFirstSearch( CSRGraph graph, int source ) throws IllegalArgumentException {
         
+        if ( graph.isDirected() ) {
+            throw new IllegalArgumentException( "graph must be undirected" );
+        }
+
         this.source = source;
-        this.graph = graph;
 
-        edgeTo = new int[graph.getNumberOfVertices()];
         marked = new boolean[graph.getNumberOfVertices()];
+        edgeTo = new int[graph.getNumberOfVertices()];
 
         // validateVertex() depende de marked já estar inicializado
         validateVertex( source );
@@ -60,18 +80,35 @@ public class DepthFirstSearch {
         
     }
 
-    // implementação da busca em profundidade a partir de v
-    private void dfs( Graph graph, int v ) {
+    // implementação iterativa da busca em profundidade a partir de source: a
+    // pilha de quadros faz o papel da pilha de chamadas (cada vértice é
+    // empilhado no máximo uma vez) e guarda, para cada vértice, a posição do
+    // próximo arco a explorar, permitindo retomá-lo exatamente de onde a
+    // chamada recursiva pararia, sem estourar a pilha da JVM em grafos
+    // grandes
+    private void dfs( CSRGraph graph, int source ) {
+        
+        DepthFirstFrames frames = DepthFirstFrames.acquire( graph );
         
-        marked[v] = true;
+        marked[source] = true;
+        frames.push( source );
         
-        for ( int w : graph.adj( v ) ) {
-            if ( !marked[w] ) {
-                dfs( graph, w );
-                edgeTo[w] = v;
+        while ( !frames.isEmpty() ) {
+            
+            int w = frames.advance();
+            
+            if ( w == -1 ) {
+                frames.pop();
+            } else if ( !marked[w] ) {
+                marked[w] = true;
+                edgeTo[w] = frames.peek();
+                frames.push( w );
             }
+            
         }
         
+        frames.release();
+        
     }
 
     /**
@@ -129,7 +166,7 @@ public class DepthFirstSearch {
         sb.append( "Depth-First Search (source: vertex " ).append( source ).append( ")\n" );
         sb.append( "v\tmarked[v]\tedgeTo[v]\n" );
         
-        for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
+        for ( int v = 0; v < marked.length; v++ ) {
             sb.append( String.format( "%d\t%s\t\t%s\n",
                     v,
                     marked[v] ? "T" : "F",
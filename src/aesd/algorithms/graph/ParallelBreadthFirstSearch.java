@@ -0,0 +1,492 @@
+package aesd.algorithms.graph;
+
+import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Digraph;
+import aesd.ds.implementations.nonlinear.graph.Graph;
+import aesd.ds.interfaces.Stack;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Realiza a busca em largura em paralelo para computar o menor caminho entre
+ * o vértice fonte e todos os outros vértices de um grafo ou de um digrafo.
+ *
+ * A busca é síncrona por níveis: todos os vértices da fronteira atual (os
+ * vértices a distância d da fonte) são processados concorrentemente por
+ * tarefas de um ForkJoinPool, que produzem juntas a fronteira do nível
+ * d + 1. Os vértices visitados são marcados em um mapa de bits atômico
+ * (AtomicLongArray, um bit por vértice): quando duas tarefas alcançam o
+ * mesmo vértice w, apenas a que conseguir ligar o seu bit com
+ * compareAndSet define distTo[w] e edgeTo[w] e o coloca na próxima
+ * fronteira.
+ *
+ * Cada nível é executado em uma de duas direções (direction-optimizing
+ * BFS, de Beamer, Asanović e Patterson):
+ *
+ * - top-down: cada vértice da fronteira percorre os seus arcos de saída e
+ * tenta marcar os vizinhos, como na busca sequencial. É a melhor opção
+ * quando a fronteira é pequena.
+ *
+ * - bottom-up: cada vértice ainda não visitado percorre os seus arcos de
+ * entrada procurando algum vértice da fronteira, parando no primeiro que
+ * encontrar. Quando a fronteira contém boa parte do grafo, quase todos os
+ * vértices não visitados encontram um pai logo nos primeiros arcos, e a
+ * maioria das arestas nem chega a ser examinada. Como as tarefas dividem
+ * os vértices em blocos de 64 (uma palavra do mapa de bits), cada palavra
+ * tem um único dono e não há necessidade de operações atômicas.
+ *
+ * A troca para bottom-up acontece quando a quantidade de arcos que saem da
+ * fronteira supera 1/ALPHA dos arcos dos vértices ainda não visitados, e a
+ * volta para top-down quando a fronteira encolhe para menos de V/BETA
+ * vértices. Em digrafos, os arcos de entrada são obtidos do digrafo
+ * inverso, construído apenas se a busca chegar a usar o modo bottom-up.
+ *
+ * Os grafos e digrafos com listas de adjacências são convertidos para o
+ * formato CSR (ver {@link CSRGraph}) antes da busca, o que permite dividir a
+ * fronteira e os arcos de cada vértice por posição. As distâncias são
+ * sempre iguais às da busca sequencial; já edgeTo[v] pode indicar qualquer
+ * um dos vértices do nível anterior ligados a v, dependendo de qual tarefa
+ * chegou primeiro. Complexidade O(V + E) de trabalho total.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class ParallelBreadthFirstSearch {
+
+    // maior valor possível do tipo inteiro
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    // parâmetros da troca de direção, com os valores sugeridos por Beamer
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // quantidade de vértices (top-down) ou de palavras de 64 vértices
+    // (bottom-up) processada sequencialmente por cada tarefa
+    private static final int GRAIN = 1024;
+    private static final int WORD_GRAIN = 64;
+
+    // marked[v] = há um caminho s-v? - mapa de bits, um bit por vértice
+    private final AtomicLongArray marked;
+
+    // edgeTo[v] = último vértice no menor caminho s-v
+    private int[] edgeTo;
+
+    // distTo[v] = número de arestas no menor caminho s-v
+    private int[] distTo;
+
+    // vértice fonte
+    private final int source;
+
+    // quantidade de níveis processados em cada direção
+    private int topDownLevels;
+    private int bottomUpLevels;
+
+    // estado da busca, usado pelas tarefas
+    private final CSRGraph graph;
+    private CSRGraph incoming;
+    private final ForkJoinPool pool;
+    private int level;
+    private int[] frontier;
+    private int[] next;
+    private long[] frontierBits;
+    private long[] nextBits;
+    private final AtomicInteger nextSize = new AtomicInteger();
+    private final AtomicLong nextArcs = new AtomicLong();
+
+    /**
+     * Computa o menor caminho entre o vértice fonte s e todos os outros
+     * vértices do grafo, usando o pool comum do ForkJoin.
+     *
+     * @param graph o grafo
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public ParallelBreadthFirstSearch( Graph graph, int source ) throws IllegalArgumentException {
+        this( new CSRGraph( graph ), source, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa o menor caminho direcionado entre o vértice fonte s e todos os
+     * outros vértices do digrafo, usando o pool comum do ForkJoin.
+     *
+     * @param digraph o digrafo
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public ParallelBreadthFirstSearch( Digraph digraph, int source ) throws IllegalArgumentException {
+        this( new CSRGraph( digraph ), source, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa o menor caminho entre o vértice fonte s e todos os outros
+     * vértices de um grafo ou digrafo CSR, usando o pool comum do ForkJoin.
+     *
+     * @param graph o grafo ou digrafo CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public ParallelBreadthFirstSearch( CSRGraph graph, int source ) throws IllegalArgumentException {
+        this( graph, source, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Computa o menor caminho entre o vértice fonte s e todos os outros
+     * vértices de um grafo ou digrafo CSR, usando o pool passado.
+     *
+     * @param graph o grafo ou digrafo CSR
+     * @param source o vértice fonte
+     * @param pool o pool de threads que executará as tarefas
+     * @throws IllegalArgumentException se o vértice for inválido
+     * @throws IllegalArgumentException se o pool for null
+     */
+    public ParallelBreadthFirstSearch( CSRGraph graph, int source, ForkJoinPool pool ) throws IllegalArgumentException {
+
+        if ( pool == null ) {
+            throw new IllegalArgumentException( "pool is null" );
+        }
+
+        int vertices = graph.getNumberOfVertices();
+        marked = new AtomicLongArray( ( vertices + 63 ) >>> 6 );
+        distTo = new int[vertices];
+        edgeTo = new int[vertices];
+
+        // validateVertex() depende de distTo já estar inicializado
+        validateVertex( source );
+
+        Arrays.fill( distTo, INFINITY );
+
+        this.source = source;
+        this.graph = graph;
+        this.pool = pool;
+
+        bfs();
+
+        // libera o estado da busca
+        incoming = null;
+        frontier = null;
+        next = null;
+        frontierBits = null;
+        nextBits = null;
+
+    }
+
+    // laço principal da busca, um nível por iteração
+    private void bfs() {
+
+        int vertices = graph.getNumberOfVertices();
+        int words = marked.length();
+
+        frontier = new int[vertices];
+        next = new int[vertices];
+
+        distTo[source] = 0;
+        marked.set( source >>> 6, 1L << source );
+        frontier[0] = source;
+
+        int size = 1;
+        long frontierArcs = graph.degree( source );
+        long unexploredArcs = graph.getNumberOfArcs() - frontierArcs;
+        boolean bottomUp = false;
+
+        while ( size > 0 ) {
+
+            // escolha da direção do nível
+            if ( !bottomUp && frontierArcs > unexploredArcs / ALPHA ) {
+                bottomUp = true;
+                if ( incoming == null ) {
+                    incoming = graph.reverse();
+                    frontierBits = new long[words];
+                    nextBits = new long[words];
+                }
+                Arrays.fill( frontierBits, 0 );
+                for ( int i = 0; i < size; i++ ) {
+                    frontierBits[frontier[i] >>> 6] |= 1L << frontier[i];
+                }
+            } else if ( bottomUp && size < vertices / BETA ) {
+                bottomUp = false;
+                size = 0;
+                for ( int i = 0; i < words; i++ ) {
+                    for ( long bits = frontierBits[i]; bits != 0; bits &= bits - 1 ) {
+                        frontier[size++] = ( i << 6 ) + Long.numberOfTrailingZeros( bits );
+                    }
+                }
+            }
+
+            nextSize.set( 0 );
+            nextArcs.set( 0 );
+
+            if ( bottomUp ) {
+                Arrays.fill( nextBits, 0 );
+                pool.invoke( new BottomUp( 0, words ) );
+                long[] t = frontierBits;
+                frontierBits = nextBits;
+                nextBits = t;
+                bottomUpLevels++;
+            } else {
+                pool.invoke( new TopDown( 0, size ) );
+                int[] t = frontier;
+                frontier = next;
+                next = t;
+                topDownLevels++;
+            }
+
+            level++;
+            size = nextSize.get();
+            frontierArcs = nextArcs.get();
+            unexploredArcs -= frontierArcs;
+
+        }
+
+    }
+
+    // tenta marcar o vértice w, retornando verdadeiro se esta chamada foi a
+    // responsável por ligar o seu bit
+    private boolean mark( int w ) {
+
+        int i = w >>> 6;
+        long bit = 1L << w;
+        long current;
+
+        do {
+            current = marked.get( i );
+            if ( ( current & bit ) != 0 ) {
+                return false;
+            }
+        } while ( !marked.compareAndSet( i, current, current | bit ) );
+
+        return true;
+
+    }
+
+    // processa as posições [lo, hi) da fronteira no modo top-down
+    @SuppressWarnings( "serial" )
+    private class TopDown extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+
+        TopDown( int lo, int hi ) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > GRAIN ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new TopDown( lo, mid ), new TopDown( mid, hi ) );
+                return;
+            }
+
+            // os vértices descobertos são acumulados localmente e copiados
+            // para a próxima fronteira de uma vez, reservando o espaço com
+            // uma única operação atômica
+            int[] found = new int[16];
+            int count = 0;
+            long arcs = 0;
+
+            for ( int k = lo; k < hi; k++ ) {
+
+                int v = frontier[k];
+                int end = graph.end( v );
+
+                for ( int i = graph.begin( v ); i < end; i++ ) {
+                    int w = graph.target( i );
+                    if ( mark( w ) ) {
+                        distTo[w] = level + 1;
+                        edgeTo[w] = v;
+                        if ( count == found.length ) {
+                            found = Arrays.copyOf( found, count * 2 );
+                        }
+                        found[count++] = w;
+                        arcs += graph.degree( w );
+                    }
+                }
+
+            }
+
+            if ( count > 0 ) {
+                int position = nextSize.getAndAdd( count );
+                System.arraycopy( found, 0, next, position, count );
+                nextArcs.addAndGet( arcs );
+            }
+
+        }
+
+    }
+
+    // processa as palavras [lo, hi) do mapa de bits no modo bottom-up
+    @SuppressWarnings( "serial" )
+    private class BottomUp extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+
+        BottomUp( int lo, int hi ) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+
+            if ( hi - lo > WORD_GRAIN ) {
+                int mid = ( lo + hi ) >>> 1;
+                invokeAll( new BottomUp( lo, mid ), new BottomUp( mid, hi ) );
+                return;
+            }
+
+            int vertices = graph.getNumberOfVertices();
+            int count = 0;
+            long arcs = 0;
+
+            for ( int i = lo; i < hi; i++ ) {
+
+                long visited = marked.get( i );
+                long found = 0;
+
+                // percorre apenas os bits desligados (vértices não visitados)
+                for ( long bits = ~visited; bits != 0; bits &= bits - 1 ) {
+
+                    int v = ( i << 6 ) + Long.numberOfTrailingZeros( bits );
+                    if ( v >= vertices ) {
+                        break;
+                    }
+
+                    int end = incoming.end( v );
+                    for ( int j = incoming.begin( v ); j < end; j++ ) {
+                        int u = incoming.target( j );
+                        if ( ( frontierBits[u >>> 6] & ( 1L << u ) ) != 0 ) {
+                            distTo[v] = level + 1;
+                            edgeTo[v] = u;
+                            found |= 1L << v;
+                            count++;
+                            arcs += graph.degree( v );
+                            break;
+                        }
+                    }
+
+                }
+
+                // esta tarefa é a única que altera a palavra i neste nível
+                if ( found != 0 ) {
+                    marked.set( i, visited | found );
+                    nextBits[i] = found;
+                }
+
+            }
+
+            if ( count > 0 ) {
+                nextSize.addAndGet( count );
+                nextArcs.addAndGet( arcs );
+            }
+
+        }
+
+    }
+
+    /**
+     * Há um caminho entre o vértice fonte e v?
+     *
+     * @param v o vértice
+     * @return verdadeiro se houver um caminho entre s-v, falso caso contrário
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public boolean hasPathTo( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return distTo[v] != INFINITY;
+    }
+
+    /**
+     * Retorna a quantidade de arestas do menor caminho entre o vértice fonte e
+     * o vértice passado.
+     *
+     * @param v o vértice
+     * @return a quantidade de aretas no caminho
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public int distTo( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return distTo[v];
+    }
+
+    /**
+     * Retorna o menor caminho entre o vértice fonte e o vértice passado ou
+     * null caso não exista tal caminho.
+     *
+     * @param v o vértice
+     * @return a sequência de vértices do menor caminho como um iterável
+     * @throws IllegalArgumentException se o vértice for inválido
+     */
+    public Iterable<Integer> pathTo( int v ) throws IllegalArgumentException {
+
+        validateVertex( v );
+
+        if ( !hasPathTo( v ) ) {
+            return null;
+        }
+
+        Stack<Integer> path = new ResizingArrayStack<>();
+        int current;
+
+        for ( current = v; distTo[current] != 0; current = edgeTo[current] ) {
+            path.push( current );
+        }
+        path.push( current );
+
+        return path;
+
+    }
+
+    /**
+     * Retorna a quantidade de níveis processados no modo top-down.
+     *
+     * @return a quantidade de níveis top-down
+     */
+    public int getTopDownLevels() {
+        return topDownLevels;
+    }
+
+    /**
+     * Retorna a quantidade de níveis processados no modo bottom-up.
+     *
+     * @return a quantidade de níveis bottom-up
+     */
+    public int getBottomUpLevels() {
+        return bottomUpLevels;
+    }
+
+    private void validateVertex( int v ) throws IllegalArgumentException {
+        int V = distTo.length;
+        if ( v < 0 || v >= V ) {
+            throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( V - 1 ) );
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append( "Parallel Breadth-First Search (source: vertex " ).append( source ).append( ")\n" );
+        sb.append( "v\tmarked[v]\tedgeTo[v]\tdistTo[v]\n" );
+
+        for ( int v = 0; v < distTo.length; v++ ) {
+            boolean m = distTo[v] != INFINITY;
+            sb.append( String.format( "%d\t%s\t\t%s\t\t%s\n",
+                    v,
+                    m ? "T" : "F",
+                    !m || v == source ? "-" : edgeTo[v],
+                    !m ? "-" : distTo[v] ) );
+        }
+
+        return sb.toString();
+
+    }
+
+}
@@ -1,10 +1,13 @@
 package aesd.algorithms.graph.edgeweighted;
 
 import aesd.ds.implementations.linear.ResizingArrayStack;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
 import aesd.ds.implementations.nonlinear.graph.Edge;
 import aesd.ds.implementations.nonlinear.graph.EdgeWeightedGraph;
-import aesd.ds.implementations.nonlinear.pq.IndexedMinPriorityQueue;
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
 import aesd.ds.interfaces.Stack;
+import java.util.Arrays;
 
 /**
  * Implementação do algoritmo de menor caminho de Dijksta para grafos
@@ -32,7 +35,15 @@ public class DijkstraSP {
     private Edge[] edgeTo;
     
     // fila de prioridades indexada dos vértices
-    private IndexedMinPriorityQueue<Double> pq;
+    private IndexedDoublePriorityQueue pq;
+    
+    // versão CSR: o grafo (null nas outras versões), arcTo[v] = posição do
+    // último arco no menor caminho entre source-v e parent[v] = vértice de
+    // origem desse arco (-1 para a fonte) - as arestas só são criadas em
+    // pathTo, e não a cada relaxamento
+    private CSRGraph csr;
+    private int[] arcTo;
+    private int[] parent;
 
     /**
      * Computa a árvore de menor caminho a partir do vértice fonte (source) para
@@ -62,7 +73,7 @@ public class DijkstraSP {
         distTo[source] = 0.0;
 
         // relaxamento dos vértices na ordem de distância ao vértice fonte
-        pq = new IndexedMinPriorityQueue<>( graph.getNumberOfVertices() );
+        pq = new IndexedDaryDoubleMinPQ( graph.getNumberOfVertices() );
         pq.insert( source, distTo[source] );
         
         while ( !pq.isEmpty() ) {
@@ -74,6 +85,73 @@ public class DijkstraSP {
         
     }
 
+    /**
+     * Computa a árvore de menor caminho a partir do vértice fonte (source) para
+     * todos os outros vértices de um grafo ponderado no formato CSR.
+     *
+     * @param graph o grafo ponderado CSR
+     * @param source o vértice fonte
+     * @throws IllegalArgumentException se o peso de alguma aresta for negativo
+     * @throws IllegalArgumentException se o vértice fonte for inválido
+     * @throws IllegalArgumentException se o grafo for direcionado
+     */
+    public DijkstraSP( CSRGraph graph, int source ) throws IllegalArgumentException {
+        
+        if ( graph.isDirected() ) {
+            throw new IllegalArgumentException( "graph must be undirected" );
+        }
+
+        for ( int i = 0; i < graph.getNumberOfArcs(); i++ ) {
+            if ( graph.weight( i ) < 0 ) {
+                throw new IllegalArgumentException( "edge " + i + " has negative weight" );
+            }
+        }
+
+        csr = graph;
+        distTo = new double[graph.getNumberOfVertices()];
+        arcTo = new int[graph.getNumberOfVertices()];
+        parent = new int[graph.getNumberOfVertices()];
+
+        validateVertex( source );
+
+        Arrays.fill( distTo, Double.POSITIVE_INFINITY );
+        Arrays.fill( parent, -1 );
+        distTo[source] = 0.0;
+
+        // relaxamento dos vértices na ordem de distância ao vértice fonte
+        pq = new IndexedDaryDoubleMinPQ( graph.getNumberOfVertices() );
+        pq.insert( source, distTo[source] );
+        
+        while ( !pq.isEmpty() ) {
+            
+            int v = pq.delete();
+            int end = graph.end( v );
+            
+            for ( int i = graph.begin( v ); i < end; i++ ) {
+                
+                int w = graph.target( i );
+                double d = distTo[v] + graph.weight( i );
+                
+                if ( distTo[w] > d ) {
+                    
+                    distTo[w] = d;
+                    arcTo[w] = i;
+                    parent[w] = v;
+                    
+                    if ( pq.contains( w ) ) {
+                        pq.decreaseKey( w, d );
+                    } else {
+                        pq.insert( w, d );
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        
+    }
+
     // relaxamento da aresta e atualização da fila de prioridades se foi
     // alterada
     private void relax( Edge e, int v ) {
@@ -141,6 +219,17 @@ public class DijkstraSP {
         }
         
         Stack<Edge> path = new ResizingArrayStack<>();
+        
+        if ( csr != null ) {
+            // as arestas mantêm a orientação com que foram adicionadas, como
+            // as de edgeTo na versão com listas de adjacências
+            for ( int x = v; parent[x] != -1; x = parent[x] ) {
+                double w = csr.weight( arcTo[x] );
+                path.push( csr.isReversed( arcTo[x] ) ? new Edge( x, parent[x], w ) : new Edge( parent[x], x, w ) );
+            }
+            return path;
+        }
+        
         int current = v;
         
         for ( Edge e = edgeTo[v]; e != null; e = edgeTo[current] ) {
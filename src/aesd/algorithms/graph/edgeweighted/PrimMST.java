@@ -3,7 +3,8 @@ package aesd.algorithms.graph.edgeweighted;
 import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.ds.implementations.nonlinear.graph.Edge;
 import aesd.ds.implementations.nonlinear.graph.EdgeWeightedGraph;
-import aesd.ds.implementations.nonlinear.pq.IndexedMinPriorityQueue;
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
 import aesd.ds.interfaces.Queue;
 
 /**
@@ -36,7 +37,7 @@ public class PrimMST {
     private boolean[] marked;
     
     // fila de prioridades indexada
-    private IndexedMinPriorityQueue<Double> pq;
+    private IndexedDoublePriorityQueue pq;
 
     /**
      * Computa uma árvore geradora mínima (ou floresta) de um grafo ponderado.
@@ -48,7 +49,7 @@ public class PrimMST {
         edgeTo = new Edge[graph.getNumberOfVertices()];
         distTo = new double[graph.getNumberOfVertices()];
         marked = new boolean[graph.getNumberOfVertices()];
-        pq = new IndexedMinPriorityQueue<>( graph.getNumberOfVertices() );
+        pq = new IndexedDaryDoubleMinPQ( graph.getNumberOfVertices() );
         
         for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
             distTo[v] = Double.POSITIVE_INFINITY;
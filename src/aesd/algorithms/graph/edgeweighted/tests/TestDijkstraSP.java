@@ -1,7 +1,9 @@
 package aesd.algorithms.graph.edgeweighted.tests;
 
 import aesd.algorithms.graph.edgeweighted.DijkstraSP;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
 import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
 import aesd.ds.implementations.nonlinear.graph.EdgeWeightedGraph;
 
 /**
@@ -49,6 +51,37 @@ public class TestDijkstraSP {
 
         }
 
+        // a versão CSR (criada a partir do grafo ou com o Builder) devolve
+        // as mesmas arestas, com a mesma orientação
+        CSRGraph.Builder builder = new CSRGraph.Builder( g.getNumberOfVertices(), false );
+        for ( Edge e : g.edges() ) {
+            int v = e.either();
+            builder.addEdge( v, e.other( v ), e.weight() );
+        }
+        boolean same = true;
+        for ( CSRGraph csr : new CSRGraph[]{ new CSRGraph( g ), builder.build() } ) {
+            DijkstraSP csrSp = new DijkstraSP( csr, 0 );
+            for ( int v = 0; v < g.getNumberOfVertices(); v++ ) {
+                same &= csrSp.distTo( v ) == sp.distTo( v ) && path( csrSp, v ).equals( path( sp, v ) );
+            }
+        }
+        System.out.println( "\nversão CSR: " + ( same ? "caminhos iguais" : "caminhos diferentes!" ) );
+
+        try {
+            new DijkstraSP( new CSRGraph( new EdgeWeightedDigraph( 8 ) ), 0 );
+            System.out.println( "digrafo CSR aceito!" );
+        } catch ( IllegalArgumentException exc ) {
+            System.out.println( "digrafo CSR rejeitado: " + exc.getMessage() );
+        }
+
+    }
+
+    private static String path( DijkstraSP sp, int v ) {
+        StringBuilder sb = new StringBuilder();
+        for ( Edge e : sp.pathTo( v ) ) {
+            sb.append( e.either() ).append( ' ' ).append( e ).append( "   " );
+        }
+        return sb.toString();
     }
 
 }
@@ -0,0 +1,144 @@
+package aesd.algorithms.graph.tests;
+
+import aesd.algorithms.digraph.DirectedBreadthFirstSearch;
+import aesd.algorithms.graph.BreadthFirstSearch;
+import aesd.algorithms.graph.ParallelBreadthFirstSearch;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Digraph;
+import aesd.ds.implementations.nonlinear.graph.Graph;
+import java.util.Random;
+
+/**
+ * Teste de uso da busca em largura paralela (ParallelBreadthFirstSearch).
+ *
+ * Além do uso básico, compara as distâncias com as das buscas sequenciais
+ * em um grafo e em um digrafo aleatórios, verifica se cada edgeTo[v] é um
+ * vizinho de v no nível anterior e mede o tempo das duas versões em um
+ * grafo grande.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestParallelBreadthFirstSearch {
+
+    public static void main( String[] args ) {
+
+        Graph g = new Graph( 6 );
+        g.addEdge( 0, 1 );
+        g.addEdge( 0, 2 );
+        g.addEdge( 1, 3 );
+        g.addEdge( 2, 3 );
+        g.addEdge( 3, 4 );
+        g.addEdge( 4, 5 );
+
+        ParallelBreadthFirstSearch bfs = new ParallelBreadthFirstSearch( g, 0 );
+
+        System.out.println( bfs );
+
+        System.out.println( "Há caminho até 5? " + bfs.hasPathTo( 5 ) );
+        System.out.println( "Distância até 5: " + bfs.distTo( 5 ) );
+        System.out.print( "Caminho até 5: " );
+        for ( int v : bfs.pathTo( 5 ) ) {
+            System.out.print( v + " " );
+        }
+        System.out.println( "\n" );
+
+        // comparação com as versões sequenciais
+        Random random = new Random( 42 );
+        int vertices = 50000;
+        Graph graph = new Graph( vertices );
+        Digraph digraph = new Digraph( vertices );
+        for ( int i = 0; i < 4 * vertices; i++ ) {
+            graph.addEdge( random.nextInt( vertices ), random.nextInt( vertices ) );
+            digraph.addEdge( random.nextInt( vertices ), random.nextInt( vertices ) );
+        }
+
+        BreadthFirstSearch s1 = new BreadthFirstSearch( graph, 0 );
+        ParallelBreadthFirstSearch p1 = new ParallelBreadthFirstSearch( graph, 0 );
+        DirectedBreadthFirstSearch s2 = new DirectedBreadthFirstSearch( digraph, 0 );
+        ParallelBreadthFirstSearch p2 = new ParallelBreadthFirstSearch( digraph, 0 );
+
+        System.out.println( "grafo:  " + ( check( graph, s1, p1 ) ? "correto" : "incorreto!" )
+                + " (" + p1.getTopDownLevels() + " níveis top-down, "
+                + p1.getBottomUpLevels() + " bottom-up)" );
+
+        boolean ok = true;
+        CSRGraph csr = new CSRGraph( digraph );
+        for ( int v = 0; v < vertices; v++ ) {
+            ok = ok && s2.distTo( v ) == p2.distTo( v ) && validParent( csr, p2, v );
+        }
+        System.out.println( "digrafo: " + ( ok ? "correto" : "incorreto!" )
+                + " (" + p2.getTopDownLevels() + " níveis top-down, "
+                + p2.getBottomUpLevels() + " bottom-up)\n" );
+
+        // grafo grande
+        System.out.println( "----- Grafo grande -----" );
+        System.out.println( "threads: " + Runtime.getRuntime().availableProcessors() );
+        vertices = 2000000;
+        CSRGraph.Builder builder = new CSRGraph.Builder( vertices, false );
+        for ( int i = 0; i < 8 * vertices; i++ ) {
+            builder.addEdge( random.nextInt( vertices ), random.nextInt( vertices ) );
+        }
+        CSRGraph large = builder.build();
+
+        for ( int round = 0; round < 3; round++ ) {
+
+            long start = System.nanoTime();
+            BreadthFirstSearch sequential = new BreadthFirstSearch( large, 0 );
+            double sequentialTime = ( System.nanoTime() - start ) / 1e6;
+
+            start = System.nanoTime();
+            ParallelBreadthFirstSearch parallel = new ParallelBreadthFirstSearch( large, 0 );
+            double parallelTime = ( System.nanoTime() - start ) / 1e6;
+
+            System.out.printf( "sequencial: %7.1f ms, paralela: %7.1f ms, distTo iguais: %s\n",
+                    sequentialTime, parallelTime,
+                    sequential.distTo( vertices - 1 ) == parallel.distTo( vertices - 1 ) );
+
+        }
+
+    }
+
+    private static boolean check( Graph graph, BreadthFirstSearch sequential, ParallelBreadthFirstSearch parallel ) {
+
+        CSRGraph csr = new CSRGraph( graph );
+
+        for ( int v = 0; v < graph.getNumberOfVertices(); v++ ) {
+            if ( sequential.distTo( v ) != parallel.distTo( v ) || !validParent( csr, parallel, v ) ) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    // o penúltimo vértice do caminho até v precisa estar um nível acima e
+    // ter um arco para v
+    private static boolean validParent( CSRGraph graph, ParallelBreadthFirstSearch bfs, int v ) {
+
+        if ( !bfs.hasPathTo( v ) || bfs.distTo( v ) == 0 ) {
+            return true;
+        }
+
+        int parent = -1;
+        int last = -1;
+        for ( int w : bfs.pathTo( v ) ) {
+            parent = last;
+            last = w;
+        }
+
+        if ( bfs.distTo( parent ) != bfs.distTo( v ) - 1 ) {
+            return false;
+        }
+
+        for ( int i = graph.begin( parent ); i < graph.end( parent ); i++ ) {
+            if ( graph.target( i ) == v ) {
+                return true;
+            }
+        }
+
+        return false;
+
+    }
+
+}
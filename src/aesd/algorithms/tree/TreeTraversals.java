@@ -1,13 +1,10 @@
-
 package aesd.algorithms.tree;
 
-import aesd.ds.implementations.linear.LinkedQueue;
-import aesd.ds.implementations.linear.ResizingArrayList;
-import aesd.ds.implementations.linear.ResizingArrayStack;
-import aesd.ds.interfaces.List;
-import aesd.ds.interfaces.Queue;
-import aesd.ds.interfaces.Stack;
 import aesd.ds.interfaces.BinaryTree;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiPredicate;
 
 /**
  * Implementação dos percursos das árvores binárias de busca.
@@ -19,8 +16,26 @@ import aesd.ds.interfaces.BinaryTree;
  * binária, produz as chaves em ordem crescente) ou depois de ambas
  * (pós-ordem). LEVEL_ORDER e sua variante inversa não são recursivos:
  * percorrem a árvore nível a nível usando uma fila (BFS), e a variante
- * inversa apenas empilha o resultado para inverter a ordem de saída ao
- * final. Todos os percursos são O(n).
+ * inversa apenas devolve o resultado da BFS de trás para frente. Todos os
+ * percursos são O(n).
+ *
+ * Os percursos são preguiçosos: nada é percorrido até que um iterador seja
+ * criado, e cada chamada a next() avança o percurso apenas até o próximo
+ * nó. Em vez da recursão, os percursos em profundidade usam uma pilha
+ * explícita (um array de nós, com no máximo h + 1 posições, onde h é a
+ * altura da árvore) e o percurso em nível usa uma fila circular, ambas
+ * alocadas uma vez por iterador e só realocadas ao dobrar de capacidade.
+ * Assim, interromper um percurso em ordem depois de k elementos custa
+ * O(k + h), e não O(n). A única exceção é INVERSE_LEVEL_ORDER, cujo
+ * primeiro elemento é o último da BFS: a BFS completa é feita na criação do
+ * iterador, guardando apenas as referências dos nós.
+ *
+ * Os iteráveis de nós (nodes) e de chaves (keys) não alocam nada por
+ * elemento; o de pares chave/valor (traverse) cria um Entry por elemento,
+ * já que quem percorre pode guardá-lo. Há também um percurso em ordem de
+ * Morris (morrisInOrder), que usa espaço O(1) ao custo de modificar a
+ * árvore temporariamente. A árvore não pode ser alterada enquanto um
+ * percurso estiver em andamento.
  *
  * @author Prof. Dr. David Buzatto
  */
@@ -37,159 +52,584 @@ public class TreeTraversals {
      * @return os pares chave/valor da árvore, na ordem do percurso especificado
      */
     public static <Key extends Comparable<Key>, Value> Iterable<BinaryTree.Entry<Key, Value>> traverse( BinaryTree.Node<Key, Value> node, TraversalTypes type ) {
-        
-        List<BinaryTree.Entry<Key, Value>> entries = new ResizingArrayList<>();
-        
+
+        return () -> entries( iterator( node, type ) );
+    }
+
+    /**
+     * Retorna um iterável contendo os nós das árvores na ordem do percurso
+     * especificado.
+     *
+     * @param <Key> Tipo da chave do par chave/valor da árvore
+     * @param <Value> Tipo do valor do par chave/valor da árvore
+     * @param node Árvore a ser percorrida
+     * @param type Tipo do percurso
+     * @return os nós da árvore, na ordem do percurso especificado
+     */
+    public static <Key extends Comparable<Key>, Value> Iterable<BinaryTree.Node<Key, Value>> nodes( BinaryTree.Node<Key, Value> node, TraversalTypes type ) {
+        return () -> iterator( node, type );
+    }
+
+    /**
+     * Retorna um iterável contendo as chaves das árvores na ordem do percurso
+     * especificado.
+     *
+     * @param <Key> Tipo da chave do par chave/valor da árvore
+     * @param <Value> Tipo do valor do par chave/valor da árvore
+     * @param node Árvore a ser percorrida
+     * @param type Tipo do percurso
+     * @return as chaves da árvore, na ordem do percurso especificado
+     */
+    public static <Key extends Comparable<Key>, Value> Iterable<Key> keys( BinaryTree.Node<Key, Value> node, TraversalTypes type ) {
+
+        return () -> new Iterator<Key>() {
+
+            private final Iterator<BinaryTree.Node<Key, Value>> nodes = iterator( node, type );
+
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public Key next() {
+                return nodes.next().key;
+            }
+
+        };
+
+    }
+
+    /**
+     * Retorna um iterável contendo os pares chave/valor de uma árvore binária
+     * de busca cujas chaves estão no intervalo fechado [lower, higher], em
+     * ordem crescente de chave.
+     *
+     * Como no percurso em ordem, a pilha guarda o caminho mais à esquerda
+     * ainda não visitado, mas a descida inicial ignora as subárvores
+     * esquerdas dos nós com chave menor que lower, e o percurso termina no
+     * primeiro nó com chave maior que higher. Assim, percorrer os k pares do
+     * intervalo custa O(h + k).
+     *
+     * @param <Key> Tipo da chave do par chave/valor da árvore
+     * @param <Value> Tipo do valor do par chave/valor da árvore
+     * @param node Árvore a ser percorrida
+     * @param lower Menor chave do intervalo
+     * @param higher Maior chave do intervalo
+     * @return os pares chave/valor do intervalo, em ordem crescente de chave
+     */
+    public static <Key extends Comparable<Key>, Value> Iterable<BinaryTree.Entry<Key, Value>> range( BinaryTree.Node<Key, Value> node, Key lower, Key higher ) {
+        return () -> entries( new RangeIterator<>( node, lower, higher ) );
+    }
+
+    /**
+     * Percorre a árvore em ordem usando o algoritmo de Morris, que não usa
+     * pilha nem recursão: antes de descer para a subárvore esquerda de um
+     * nó, o ponteiro right do seu predecessor (que é sempre null) passa a
+     * apontar para ele, permitindo voltar depois; ao voltar, o ponteiro é
+     * restaurado. Cada aresta é percorrida no máximo três vezes, então o
+     * percurso completo é O(n) com espaço O(1).
+     *
+     * O visitante recebe cada par chave/valor e retorna falso para
+     * interromper o percurso. A árvore é sempre restaurada antes do retorno,
+     * inclusive se o visitante lançar uma exceção; ao interromper, isso
+     * custa O(h^2) no pior caso, ou seja, O(log^2 n) em árvores balanceadas.
+     *
+     * @param <Key> Tipo da chave do par chave/valor da árvore
+     * @param <Value> Tipo do valor do par chave/valor da árvore
+     * @param node Árvore a ser percorrida
+     * @param visitor Visitante que recebe cada chave e valor e retorna
+     * verdadeiro para continuar o percurso
+     * @return verdadeiro se todos os nós foram visitados, falso se o visitante
+     * interrompeu o percurso
+     */
+    public static <Key extends Comparable<Key>, Value> boolean morrisInOrder( BinaryTree.Node<Key, Value> node, BiPredicate<Key, Value> visitor ) {
+
+        BinaryTree.Node<Key, Value> current = node;
+
+        try {
+
+            while ( current != null ) {
+
+                if ( current.left == null ) {
+
+                    if ( !visitor.test( current.key, current.value ) ) {
+                        return false;
+                    }
+                    current = current.right;
+
+                } else {
+
+                    BinaryTree.Node<Key, Value> pred = current.left;
+                    while ( pred.right != null && pred.right != current ) {
+                        pred = pred.right;
+                    }
+
+                    if ( pred.right == null ) {
+                        // primeira passagem: cria o caminho de volta
+                        pred.right = current;
+                        current = current.left;
+                    } else {
+                        // segunda passagem: a subárvore esquerda terminou
+                        pred.right = null;
+                        if ( !visitor.test( current.key, current.value ) ) {
+                            return false;
+                        }
+                        current = current.right;
+                    }
+
+                }
+
+            }
+
+            return true;
+
+        } finally {
+            unthread( node, current );
+        }
+
+    }
+
+    /*
+     * Remove os ponteiros de volta que ainda existem quando um percurso de
+     * Morris é interrompido no nó current. Os nós com ponteiro de volta são
+     * exatamente os nós x do caminho entre a raiz e current tais que current
+     * está na subárvore esquerda de x (ou o próprio current, se ele foi
+     * alcançado por um ponteiro de volta); por isso, descendo a partir da
+     * raiz, um nó com ponteiro de volta indica que current está à esquerda e
+     * um nó sem, que current está à direita.
+     */
+    private static <Key extends Comparable<Key>, Value> void unthread( BinaryTree.Node<Key, Value> node, BinaryTree.Node<Key, Value> current ) {
+
+        BinaryTree.Node<Key, Value> x = node;
+
+        while ( current != null && x != null ) {
+
+            boolean threaded = false;
+
+            if ( x.left != null ) {
+                BinaryTree.Node<Key, Value> pred = x.left;
+                while ( pred.right != null && pred.right != x ) {
+                    pred = pred.right;
+                }
+                if ( pred.right == x ) {
+                    pred.right = null;
+                    threaded = true;
+                }
+            }
+
+            if ( x == current ) {
+                break;
+            }
+
+            x = threaded ? x.left : x.right;
+
+        }
+
+    }
+
+    /*
+     * Converte um iterador de nós em um iterador de pares chave/valor.
+     */
+    private static <Key extends Comparable<Key>, Value> Iterator<BinaryTree.Entry<Key, Value>> entries( Iterator<BinaryTree.Node<Key, Value>> nodes ) {
+
+        return new Iterator<BinaryTree.Entry<Key, Value>>() {
+
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public BinaryTree.Entry<Key, Value> next() {
+                BinaryTree.Node<Key, Value> current = nodes.next();
+                return new BinaryTree.Entry<>( current.key, current.value );
+            }
+
+        };
+
+    }
+
+    /*
+     * Cria o iterador de nós do percurso.
+     */
+    private static <Key extends Comparable<Key>, Value> Iterator<BinaryTree.Node<Key, Value>> iterator( BinaryTree.Node<Key, Value> node, TraversalTypes type ) {
+
         switch ( type ) {
             case PREORDER:
-                preOrder( node, entries );
-                break;
+                return new PreOrderIterator<>( node, false );
             case INORDER:
-                inOrder( node, entries );
-                break;
+                return new InOrderIterator<>( node, false );
             case POSTORDER:
-                postOrder( node, entries );
-                break;
+                return new PostOrderIterator<>( node, false );
             case LEVEL_ORDER:
-                levelOrder( node, entries );
-                break;
+                return new LevelOrderIterator<>( node );
             case INVERSE_PREORDER:
-                inversePreOrder( node, entries );
-                break;
+                return new PreOrderIterator<>( node, true );
             case INVERSE_INORDER:
-                inverseInOrder( node, entries );
-                break;
+                return new InOrderIterator<>( node, true );
             case INVERSE_POSTORDER:
-                inversePostOrder( node, entries );
-                break;
+                return new PostOrderIterator<>( node, true );
             case INVERSE_LEVEL_ORDER:
-                inverseLevelOrder( node, entries );
-                break;
+                return new InverseLevelOrderIterator<>( node );
         }
-        
-        
-        return entries;
-        
+
+        throw new IllegalArgumentException( "unknown traversal type: " + type );
+
     }
-    
+
     /*
-     * Métodos privados para os percursos.
+     * Base dos iteradores em profundidade: pilha explícita de nós e a escolha
+     * dos filhos de acordo com o sentido do percurso (nas variantes inversas,
+     * o primeiro filho é o direito).
      */
-    private static <Key extends Comparable<Key>, Value> void preOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            entries.add( new BinaryTree.Entry<>( node.key, node.value ) );
-            preOrder( node.left, entries );
-            preOrder( node.right, entries );
-        }
-        
+    private static abstract class StackIterator<Key extends Comparable<Key>, Value> implements Iterator<BinaryTree.Node<Key, Value>> {
+
+        private final boolean inverse;
+        private BinaryTree.Node<Key, Value>[] stack;
+        private int size;
+
+        @SuppressWarnings( "unchecked" )
+        StackIterator( boolean inverse ) {
+            this.inverse = inverse;
+            stack = (BinaryTree.Node<Key, Value>[]) new BinaryTree.Node[16];
+        }
+
+        BinaryTree.Node<Key, Value> first( BinaryTree.Node<Key, Value> node ) {
+            return inverse ? node.right : node.left;
+        }
+
+        BinaryTree.Node<Key, Value> second( BinaryTree.Node<Key, Value> node ) {
+            return inverse ? node.left : node.right;
+        }
+
+        void push( BinaryTree.Node<Key, Value> node ) {
+            if ( size == stack.length ) {
+                stack = Arrays.copyOf( stack, 2 * size );
+            }
+            stack[size++] = node;
+        }
+
+        BinaryTree.Node<Key, Value> pop() {
+            BinaryTree.Node<Key, Value> node = stack[--size];
+            stack[size] = null;
+            return node;
+        }
+
+        BinaryTree.Node<Key, Value> peek() {
+            return stack[size - 1];
+        }
+
+        boolean isStackEmpty() {
+            return size == 0;
+        }
+
     }
-    
-    private static <Key extends Comparable<Key>, Value> void inOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            inOrder( node.left, entries );
-            entries.add( new BinaryTree.Entry<>( node.key, node.value ) );
-            inOrder( node.right, entries );
-        }
-        
+
+    /*
+     * Pré-ordem: o topo da pilha é sempre o próximo nó; ao visitá-lo, o
+     * segundo filho é empilhado antes do primeiro.
+     */
+    private static class PreOrderIterator<Key extends Comparable<Key>, Value> extends StackIterator<Key, Value> {
+
+        PreOrderIterator( BinaryTree.Node<Key, Value> node, boolean inverse ) {
+            super( inverse );
+            if ( node != null ) {
+                push( node );
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !isStackEmpty();
+        }
+
+        @Override
+        public BinaryTree.Node<Key, Value> next() {
+
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+
+            BinaryTree.Node<Key, Value> current = pop();
+
+            if ( second( current ) != null ) {
+                push( second( current ) );
+            }
+
+            if ( first( current ) != null ) {
+                push( first( current ) );
+            }
+
+            return current;
+
+        }
+
     }
-    
-    private static <Key extends Comparable<Key>, Value> void postOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            postOrder( node.left, entries );
-            postOrder( node.right, entries );
-            entries.add( new BinaryTree.Entry<>( node.key, node.value ) );
-        }
-        
+
+    /*
+     * Em ordem: a pilha guarda o caminho mais à esquerda (à direita, na
+     * variante inversa) ainda não visitado; ao visitar um nó, o caminho da
+     * sua segunda subárvore é empilhado.
+     */
+    private static class InOrderIterator<Key extends Comparable<Key>, Value> extends StackIterator<Key, Value> {
+
+        InOrderIterator( BinaryTree.Node<Key, Value> node, boolean inverse ) {
+            super( inverse );
+            pushSpine( node );
+        }
+
+        private void pushSpine( BinaryTree.Node<Key, Value> node ) {
+            while ( node != null ) {
+                push( node );
+                node = first( node );
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !isStackEmpty();
+        }
+
+        @Override
+        public BinaryTree.Node<Key, Value> next() {
+
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+
+            BinaryTree.Node<Key, Value> current = pop();
+            pushSpine( second( current ) );
+
+            return current;
+
+        }
+
     }
-    
-    private static <Key extends Comparable<Key>, Value> void levelOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            
-            Queue<BinaryTree.Node<Key, Value>> queue = new LinkedQueue<>();
-            queue.enqueue( node );
 
-            while ( !queue.isEmpty() ) {
+    /*
+     * Em ordem restrito ao intervalo [lower, higher].
+     */
+    private static class RangeIterator<Key extends Comparable<Key>, Value> extends StackIterator<Key, Value> {
+
+        private final Key higher;
 
-                BinaryTree.Node<Key, Value> current = queue.dequeue();
-                entries.add( new BinaryTree.Entry<>( current.key, current.value ) );
+        RangeIterator( BinaryTree.Node<Key, Value> node, Key lower, Key higher ) {
 
-                if ( current.left != null ) {
-                    queue.enqueue( current.left );
-                }
+            super( false );
+            this.higher = higher;
 
-                if ( current.right != null ) {
-                    queue.enqueue( current.right );
+            // os nós com chave menor que lower e suas subárvores esquerdas
+            // ficam fora do intervalo
+            while ( node != null ) {
+                if ( lower.compareTo( node.key ) <= 0 ) {
+                    push( node );
+                    node = node.left;
+                } else {
+                    node = node.right;
                 }
+            }
+
+        }
 
+        @Override
+        public boolean hasNext() {
+            return !isStackEmpty() && peek().key.compareTo( higher ) <= 0;
+        }
+
+        @Override
+        public BinaryTree.Node<Key, Value> next() {
+
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+
+            BinaryTree.Node<Key, Value> current = pop();
+
+            // todas as chaves da subárvore direita são maiores que lower
+            for ( BinaryTree.Node<Key, Value> x = current.right; x != null; x = x.left ) {
+                push( x );
             }
-            
+
+            return current;
+
         }
-        
-    }
-    
-    private static <Key extends Comparable<Key>, Value> void inversePreOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            entries.add( new BinaryTree.Entry<>( node.key, node.value ) );
-            inversePreOrder( node.right, entries );
-            inversePreOrder( node.left, entries );
-        }
-        
+
     }
-    
-    private static <Key extends Comparable<Key>, Value> void inverseInOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            inverseInOrder( node.right, entries );
-            entries.add( new BinaryTree.Entry<>( node.key, node.value ) );
-            inverseInOrder( node.left, entries );
-        }
-        
+
+    /*
+     * Pós-ordem com uma pilha: um nó só é visitado quando a sua segunda
+     * subárvore está vazia ou acabou de ser visitada (last).
+     */
+    private static class PostOrderIterator<Key extends Comparable<Key>, Value> extends StackIterator<Key, Value> {
+
+        private BinaryTree.Node<Key, Value> current;
+        private BinaryTree.Node<Key, Value> last;
+
+        PostOrderIterator( BinaryTree.Node<Key, Value> node, boolean inverse ) {
+            super( inverse );
+            current = node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null || !isStackEmpty();
+        }
+
+        @Override
+        public BinaryTree.Node<Key, Value> next() {
+
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+
+            while ( true ) {
+
+                if ( current != null ) {
+                    push( current );
+                    current = first( current );
+                } else {
+                    BinaryTree.Node<Key, Value> top = peek();
+                    BinaryTree.Node<Key, Value> second = second( top );
+                    if ( second != null && second != last ) {
+                        current = second;
+                    } else {
+                        last = pop();
+                        return last;
+                    }
+                }
+
+            }
+
+        }
+
     }
-    
-    private static <Key extends Comparable<Key>, Value> void inversePostOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            inversePostOrder( node.right, entries );
-            inversePostOrder( node.left, entries );
-            entries.add( new BinaryTree.Entry<>( node.key, node.value ) );
-        }
-        
+
+    /*
+     * Em nível: fila circular de nós, que dobra de capacidade quando cheia.
+     */
+    private static class LevelOrderIterator<Key extends Comparable<Key>, Value> implements Iterator<BinaryTree.Node<Key, Value>> {
+
+        private BinaryTree.Node<Key, Value>[] queue;
+        private int first;
+        private int size;
+
+        @SuppressWarnings( "unchecked" )
+        LevelOrderIterator( BinaryTree.Node<Key, Value> node ) {
+            queue = (BinaryTree.Node<Key, Value>[]) new BinaryTree.Node[16];
+            if ( node != null ) {
+                enqueue( node );
+            }
+        }
+
+        private void enqueue( BinaryTree.Node<Key, Value> node ) {
+
+            if ( size == queue.length ) {
+                @SuppressWarnings( "unchecked" )
+                BinaryTree.Node<Key, Value>[] temp = (BinaryTree.Node<Key, Value>[]) new BinaryTree.Node[2 * size];
+                for ( int i = 0; i < size; i++ ) {
+                    temp[i] = queue[( first + i ) % queue.length];
+                }
+                queue = temp;
+                first = 0;
+            }
+
+            queue[( first + size ) % queue.length] = node;
+            size++;
+
+        }
+
+        @Override
+        public boolean hasNext() {
+            return size > 0;
+        }
+
+        @Override
+        public BinaryTree.Node<Key, Value> next() {
+
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+
+            BinaryTree.Node<Key, Value> current = queue[first];
+            queue[first] = null;
+            first = ( first + 1 ) % queue.length;
+            size--;
+
+            if ( current.left != null ) {
+                enqueue( current.left );
+            }
+
+            if ( current.right != null ) {
+                enqueue( current.right );
+            }
+
+            return current;
+
+        }
+
     }
-    
-    private static <Key extends Comparable<Key>, Value> void inverseLevelOrder( BinaryTree.Node<Key, Value> node, List<BinaryTree.Entry<Key, Value>> entries ) {
-        
-        if ( node != null ) {
-            
-            Queue<BinaryTree.Node<Key, Value>> queue = new LinkedQueue<>();
-            Stack<BinaryTree.Entry<Key, Value>> stack = new ResizingArrayStack<>();
-            queue.enqueue( node );
 
-            while ( !queue.isEmpty() ) {
+    /*
+     * Em nível inverso: a BFS é feita sobre um array que funciona como fila
+     * sem remoções, e o array é então percorrido de trás para frente.
+     */
+    private static class InverseLevelOrderIterator<Key extends Comparable<Key>, Value> implements Iterator<BinaryTree.Node<Key, Value>> {
+
+        private BinaryTree.Node<Key, Value>[] order;
+        private int next;
+
+        @SuppressWarnings( "unchecked" )
+        InverseLevelOrderIterator( BinaryTree.Node<Key, Value> node ) {
 
-                BinaryTree.Node<Key, Value> current = queue.dequeue();
-                stack.push( new BinaryTree.Entry<>( current.key, current.value ) );
+            order = (BinaryTree.Node<Key, Value>[]) new BinaryTree.Node[16];
+            int size = 0;
+
+            if ( node != null ) {
+                order[size++] = node;
+            }
+
+            for ( int head = 0; head < size; head++ ) {
+
+                BinaryTree.Node<Key, Value> current = order[head];
+
+                if ( size + 2 > order.length ) {
+                    order = Arrays.copyOf( order, 2 * order.length );
+                }
 
                 if ( current.left != null ) {
-                    queue.enqueue( current.left );
+                    order[size++] = current.left;
                 }
 
                 if ( current.right != null ) {
-                    queue.enqueue( current.right );
+                    order[size++] = current.right;
                 }
 
             }
 
-            while ( !stack.isEmpty() ) {
-                entries.add( stack.pop() );
+            next = size - 1;
+
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public BinaryTree.Node<Key, Value> next() {
+
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
             }
-        
+
+            BinaryTree.Node<Key, Value> current = order[next];
+            order[next--] = null;
+
+            return current;
+
         }
-        
+
     }
-    
+
 }
@@ -2,11 +2,26 @@ package aesd.algorithms.tree.tests;
 
 import aesd.algorithms.tree.TraversalTypes;
 import aesd.algorithms.tree.TreeTraversals;
+import aesd.ds.implementations.nonlinear.symtable.AVLTree;
+import aesd.ds.implementations.nonlinear.symtable.BinarySearchTree;
+import aesd.ds.implementations.nonlinear.symtable.RedBlackTree;
 import aesd.ds.interfaces.BinaryTree;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
 
 /**
  * Teste de uso dos percursos de árvores binárias (TreeTraversals).
  *
+ * Além do uso básico, compara os percursos preguiçosos com versões
+ * recursivas em árvores aleatórias, verifica que o percurso de Morris
+ * restaura a árvore mesmo quando é interrompido, verifica que os iteradores
+ * das árvores de busca falham ao inserir ou remover chaves durante o
+ * percurso e mede o custo de ler apenas as primeiras chaves de uma árvore
+ * grande.
+ *
  * @author Prof. Dr. David Buzatto
  */
 public class TestTreeTraversals {
@@ -41,6 +56,182 @@ public class TestTreeTraversals {
         print( "Em nível", root, TraversalTypes.LEVEL_ORDER );
         print( "Em ordem inversa", root, TraversalTypes.INVERSE_INORDER );
 
+        System.out.print( "Morris, até a chave 5: " );
+        TreeTraversals.morrisInOrder( root, ( key, value ) -> {
+            System.out.print( key + " " );
+            return key < 5;
+        } );
+        System.out.println( "\n" );
+
+        // comparação com os percursos recursivos em árvores aleatórias
+        Random random = new Random( 42 );
+        boolean ok = true;
+
+        for ( int round = 0; round < 200; round++ ) {
+
+            BinaryTree.Node<Integer, String> tree = null;
+            int n = random.nextInt( 300 );
+            for ( int i = 0; i < n; i++ ) {
+                tree = insert( tree, random.nextInt( 1000 ) );
+            }
+
+            for ( TraversalTypes type : TraversalTypes.values() ) {
+                ok = ok && expected( tree, type ).equals( actual( tree, type ) );
+            }
+
+            // Morris completo e interrompido em uma posição aleatória
+            List<Integer> inOrder = expected( tree, TraversalTypes.INORDER );
+            List<Integer> morris = new ArrayList<>();
+            ok = ok && TreeTraversals.morrisInOrder( tree, ( key, value ) -> morris.add( key ) );
+            ok = ok && morris.equals( inOrder );
+
+            int stop = random.nextInt( inOrder.size() + 1 );
+            List<Integer> partial = new ArrayList<>();
+            TreeTraversals.morrisInOrder( tree, ( key, value ) -> partial.add( key ) && partial.size() <= stop );
+            ok = ok && partial.equals( inOrder.subList( 0, Math.min( stop + 1, inOrder.size() ) ) );
+            ok = ok && expected( tree, TraversalTypes.PREORDER ).equals( actual( tree, TraversalTypes.PREORDER ) );
+
+        }
+
+        System.out.println( "percursos: " + ( ok ? "corretos" : "incorretos!" ) + "\n" );
+
+        // getKeys() é uma visão da árvore: alterar valores durante o
+        // percurso é permitido, inserir ou remover chaves não
+        List<BinaryTree<Integer, Integer>> trees = new ArrayList<>();
+        trees.add( new BinarySearchTree<>() );
+        trees.add( new RedBlackTree<>() );
+        trees.add( new AVLTree<>() );
+        for ( BinaryTree<Integer, Integer> tree : trees ) {
+            for ( int i = 0; i < 100; i++ ) {
+                tree.put( i, i );
+            }
+            for ( int key : tree.getKeys() ) {
+                tree.put( key, -key );
+            }
+            boolean updated = tree.get( 50 ) == -50;
+            System.out.printf( "%s: valores alterados no percurso? %b, inserção no percurso: %s, "
+                    + "remoção no percurso: %s\n", tree.getClass().getSimpleName(), updated,
+                    modifyWhileIterating( tree, true ), modifyWhileIterating( tree, false ) );
+        }
+        System.out.println();
+
+        // primeiras chaves de uma árvore grande
+        RedBlackTree<Integer, Integer> large = new RedBlackTree<>();
+        for ( int i = 0; i < 1000000; i++ ) {
+            large.put( i, i );
+        }
+
+        for ( int round = 0; round < 3; round++ ) {
+
+            long start = System.nanoTime();
+            int sum = 0;
+            int count = 0;
+            for ( int key : large.getKeys() ) {
+                sum += key;
+                if ( ++count == 10 ) {
+                    break;
+                }
+            }
+            double firstTime = ( System.nanoTime() - start ) / 1e3;
+
+            start = System.nanoTime();
+            for ( int key : large.getKeys() ) {
+                sum += key;
+            }
+            double allTime = ( System.nanoTime() - start ) / 1e6;
+
+            System.out.printf( "10 primeiras chaves: %8.1f us, todas as chaves: %6.1f ms (%d)\n",
+                    firstTime, allTime, sum );
+
+        }
+
+    }
+
+    private static String modifyWhileIterating( BinaryTree<Integer, Integer> tree, boolean insert ) {
+        try {
+            for ( int key : tree.getKeys() ) {
+                if ( insert ) {
+                    tree.put( 1000 + key, key );
+                } else {
+                    tree.delete( key );
+                }
+            }
+            return "aceita!";
+        } catch ( ConcurrentModificationException exc ) {
+            return "ConcurrentModificationException";
+        }
+    }
+
+    private static BinaryTree.Node<Integer, String> insert( BinaryTree.Node<Integer, String> tree, int key ) {
+        if ( tree == null ) {
+            return node( key );
+        }
+        if ( key < tree.key ) {
+            tree.left = insert( tree.left, key );
+        } else if ( key > tree.key ) {
+            tree.right = insert( tree.right, key );
+        }
+        return tree;
+    }
+
+    private static List<Integer> actual( BinaryTree.Node<Integer, String> root, TraversalTypes type ) {
+        List<Integer> keys = new ArrayList<>();
+        for ( int key : TreeTraversals.keys( root, type ) ) {
+            keys.add( key );
+        }
+        return keys;
+    }
+
+    // versões recursivas dos percursos, usadas como referência
+    private static List<Integer> expected( BinaryTree.Node<Integer, String> root, TraversalTypes type ) {
+
+        List<Integer> keys = new ArrayList<>();
+
+        switch ( type ) {
+            case PREORDER: depthFirst( root, 0, false, keys ); break;
+            case INORDER: depthFirst( root, 1, false, keys ); break;
+            case POSTORDER: depthFirst( root, 2, false, keys ); break;
+            case INVERSE_PREORDER: depthFirst( root, 0, true, keys ); break;
+            case INVERSE_INORDER: depthFirst( root, 1, true, keys ); break;
+            case INVERSE_POSTORDER: depthFirst( root, 2, true, keys ); break;
+            default:
+                List<BinaryTree.Node<Integer, String>> level = new ArrayList<>();
+                if ( root != null ) {
+                    level.add( root );
+                }
+                for ( int i = 0; i < level.size(); i++ ) {
+                    BinaryTree.Node<Integer, String> n = level.get( i );
+                    keys.add( n.key );
+                    if ( n.left != null ) {
+                        level.add( n.left );
+                    }
+                    if ( n.right != null ) {
+                        level.add( n.right );
+                    }
+                }
+                if ( type == TraversalTypes.INVERSE_LEVEL_ORDER ) {
+                    Collections.reverse( keys );
+                }
+        }
+
+        return keys;
+
+    }
+
+    private static void depthFirst( BinaryTree.Node<Integer, String> node, int position, boolean inverse, List<Integer> keys ) {
+        if ( node != null ) {
+            if ( position == 0 ) {
+                keys.add( node.key );
+            }
+            depthFirst( inverse ? node.right : node.left, position, inverse, keys );
+            if ( position == 1 ) {
+                keys.add( node.key );
+            }
+            depthFirst( inverse ? node.left : node.right, position, inverse, keys );
+            if ( position == 2 ) {
+                keys.add( node.key );
+            }
+        }
     }
 
     private static BinaryTree.Node<Integer, String> node( int key ) {
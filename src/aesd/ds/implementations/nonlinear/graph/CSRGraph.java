@@ -0,0 +1,634 @@
+package aesd.ds.implementations.nonlinear.graph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação imutável de um grafo no formato CSR (Compressed Sparse Row),
+ * que pode representar grafos, digrafos e suas versões ponderadas.
+ *
+ * Todas as listas de adjacências são armazenadas contiguamente em um único
+ * array targets: os vizinhos do vértice v ocupam as posições
+ * [offsets[v], offsets[v+1]) e, se o grafo for ponderado, o peso de cada
+ * uma dessas arestas está na mesma posição do array weights. Em relação às
+ * listas de adjacências com Bags, não há um nó alocado por aresta nem
+ * Integers a desempacotar: percorrer os vizinhos de um vértice é uma
+ * varredura sequencial de um trecho de um array de inteiros, e o espaço
+ * ocupado cai para 4(V + 1) + 4E bytes (mais 8E se houver pesos). Em
+ * compensação, a estrutura não pode mais ser alterada depois de construída.
+ *
+ * Em grafos não direcionados cada aresta v-w é armazenada nos dois sentidos,
+ * v->w e w->v, assim como acontece em Graph e EdgeWeightedGraph. As
+ * posições do array targets são chamadas de arcos e, nesse caso, há duas
+ * vezes mais arcos do que arestas. Um bit por arco indica se ele percorre a
+ * aresta no sentido contrário ao que ela foi adicionada (w->v para a aresta
+ * v-w), para que os algoritmos possam devolver as arestas com a orientação
+ * original.
+ *
+ * Um CSRGraph pode ser criado a partir de qualquer uma das representações
+ * com listas de adjacências (preservando a ordem de iteração de adj(v), de
+ * modo que os algoritmos produzam exatamente os mesmos resultados) ou
+ * construído diretamente a partir de uma lista de arestas usando um
+ * {@link Builder}, sem a necessidade de materializar o grafo com Bags.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class CSRGraph {
+
+    // quantidade de vértices
+    private final int vertices;
+
+    // quantidade de arestas
+    private final int edges;
+
+    // o grafo é direcionado?
+    private final boolean directed;
+
+    // offsets[v] = posição do primeiro arco de v em targets
+    // offsets[vertices] = quantidade de arcos
+    private final int[] offsets;
+
+    // targets[i] = vértice de destino do arco i
+    private final int[] targets;
+
+    // weights[i] = peso do arco i (null se o grafo não for ponderado)
+    private final double[] weights;
+
+    // bit i ligado = o arco i é w->v para a aresta v-w (null em digrafos e
+    // em grafos criados a partir de um Graph, que não guarda a orientação
+    // das arestas)
+    private final long[] reversed;
+
+    private CSRGraph( int vertices, int edges, boolean directed, int[] offsets, int[] targets, double[] weights,
+                      long[] reversed ) {
+        this.vertices = vertices;
+        this.edges = edges;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.reversed = reversed;
+    }
+
+    /**
+     * Cria um grafo CSR não direcionado e não ponderado a partir de um grafo.
+     *
+     * @param graph o grafo
+     * @throws IllegalArgumentException se o grafo for null
+     */
+    public CSRGraph( Graph graph ) throws IllegalArgumentException {
+
+        if ( graph == null ) {
+            throw new IllegalArgumentException( "argument is null" );
+        }
+
+        this.vertices = graph.getNumberOfVertices();
+        this.edges = graph.getNumberOfEdges();
+        this.directed = false;
+        this.offsets = new int[vertices + 1];
+
+        for ( int v = 0; v < vertices; v++ ) {
+            offsets[v + 1] = offsets[v] + graph.degree( v );
+        }
+
+        this.targets = new int[offsets[vertices]];
+        this.weights = null;
+        this.reversed = null;
+
+        for ( int v = 0; v < vertices; v++ ) {
+            int i = offsets[v];
+            for ( int w : graph.adj( v ) ) {
+                targets[i++] = w;
+            }
+        }
+
+    }
+
+    /**
+     * Cria um grafo CSR direcionado e não ponderado a partir de um digrafo.
+     *
+     * @param digraph o digrafo
+     * @throws IllegalArgumentException se o digrafo for null
+     */
+    public CSRGraph( Digraph digraph ) throws IllegalArgumentException {
+
+        if ( digraph == null ) {
+            throw new IllegalArgumentException( "argument is null" );
+        }
+
+        this.vertices = digraph.getNumberOfVertices();
+        this.edges = digraph.getNumberOfEdges();
+        this.directed = true;
+        this.offsets = new int[vertices + 1];
+
+        for ( int v = 0; v < vertices; v++ ) {
+            offsets[v + 1] = offsets[v] + digraph.outdegree( v );
+        }
+
+        this.targets = new int[offsets[vertices]];
+        this.weights = null;
+        this.reversed = null;
+
+        for ( int v = 0; v < vertices; v++ ) {
+            int i = offsets[v];
+            for ( int w : digraph.adj( v ) ) {
+                targets[i++] = w;
+            }
+        }
+
+    }
+
+    /**
+     * Cria um grafo CSR não direcionado e ponderado a partir de um grafo
+     * ponderado.
+     *
+     * @param graph o grafo ponderado
+     * @throws IllegalArgumentException se o grafo for null
+     */
+    public CSRGraph( EdgeWeightedGraph graph ) throws IllegalArgumentException {
+
+        if ( graph == null ) {
+            throw new IllegalArgumentException( "argument is null" );
+        }
+
+        this.vertices = graph.getNumberOfVertices();
+        this.edges = graph.getNumberOfEdges();
+        this.directed = false;
+        this.offsets = new int[vertices + 1];
+
+        for ( int v = 0; v < vertices; v++ ) {
+            offsets[v + 1] = offsets[v] + graph.degree( v );
+        }
+
+        this.targets = new int[offsets[vertices]];
+        this.weights = new double[offsets[vertices]];
+        this.reversed = new long[( offsets[vertices] + 63 ) >>> 6];
+
+        for ( int v = 0; v < vertices; v++ ) {
+            int i = offsets[v];
+            for ( Edge e : graph.adj( v ) ) {
+                if ( e.either() != v ) {
+                    reversed[i >>> 6] |= 1L << i;
+                }
+                targets[i] = e.other( v );
+                weights[i++] = e.weight();
+            }
+        }
+
+    }
+
+    /**
+     * Cria um grafo CSR direcionado e ponderado a partir de um digrafo
+     * ponderado.
+     *
+     * @param digraph o digrafo ponderado
+     * @throws IllegalArgumentException se o digrafo for null
+     */
+    public CSRGraph( EdgeWeightedDigraph digraph ) throws IllegalArgumentException {
+
+        if ( digraph == null ) {
+            throw new IllegalArgumentException( "argument is null" );
+        }
+
+        this.vertices = digraph.getNumberOfVertices();
+        this.edges = digraph.getNumberOfEdges();
+        this.directed = true;
+        this.offsets = new int[vertices + 1];
+
+        for ( int v = 0; v < vertices; v++ ) {
+            offsets[v + 1] = offsets[v] + digraph.outdegree( v );
+        }
+
+        this.targets = new int[offsets[vertices]];
+        this.weights = new double[offsets[vertices]];
+        this.reversed = null;
+
+        for ( int v = 0; v < vertices; v++ ) {
+            int i = offsets[v];
+            for ( Edge e : digraph.adj( v ) ) {
+                targets[i] = e.to();
+                weights[i++] = e.weight();
+            }
+        }
+
+    }
+
+    /**
+     * Retorna a quantidade vértices desse grafo.
+     *
+     * @return o número de vértices do grafo
+     */
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    /**
+     * Retorna a quantidade arestas desse grafo.
+     *
+     * @return o número de arestas do grafo
+     */
+    public int getNumberOfEdges() {
+        return edges;
+    }
+
+    /**
+     * Retorna a quantidade de arcos armazenados, ou seja, o tamanho do array
+     * targets. Em um grafo não direcionado é o dobro da quantidade de arestas.
+     *
+     * @return o número de arcos
+     */
+    public int getNumberOfArcs() {
+        return targets.length;
+    }
+
+    /**
+     * O grafo é direcionado?
+     *
+     * @return verdadeiro se o grafo for direcionado, falso caso contrário
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * O grafo é ponderado?
+     *
+     * @return verdadeiro se o grafo for ponderado, falso caso contrário
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    private void validateVertex( int v ) throws IllegalArgumentException {
+
+        if ( v < 0 || v >= vertices ) {
+            throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( vertices - 1 ) );
+        }
+
+    }
+
+    /**
+     * Retorna a posição do primeiro arco que sai do vértice v.
+     *
+     * Os arcos de v são as posições i em [begin(v), end(v)), que devem ser
+     * consultadas com target(i) e weight(i):
+     *
+     * <pre>
+     * for ( int i = g.begin( v ); i &lt; g.end( v ); i++ ) {
+     *     int w = g.target( i );
+     *     ...
+     * }
+     * </pre>
+     *
+     * @param v o vértice
+     * @return a posição do primeiro arco de v
+     * @throws IllegalArgumentException se for um vértice inválido
+     */
+    public int begin( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return offsets[v];
+    }
+
+    /**
+     * Retorna a posição seguinte ao último arco que sai do vértice v.
+     *
+     * @param v o vértice
+     * @return a posição seguinte ao último arco de v
+     * @throws IllegalArgumentException se for um vértice inválido
+     */
+    public int end( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return offsets[v + 1];
+    }
+
+    /**
+     * Retorna o vértice de destino do arco i.
+     *
+     * @param i a posição do arco
+     * @return o vértice de destino
+     * @throws ArrayIndexOutOfBoundsException se a posição for inválida
+     */
+    public int target( int i ) {
+        return targets[i];
+    }
+
+    /**
+     * Retorna o peso do arco i, ou 1.0 se o grafo não for ponderado.
+     *
+     * @param i a posição do arco
+     * @return o peso do arco
+     * @throws ArrayIndexOutOfBoundsException se a posição for inválida
+     */
+    public double weight( int i ) {
+        return weights == null ? 1.0 : weights[i];
+    }
+
+    /**
+     * O arco i percorre a sua aresta no sentido contrário ao que ela foi
+     * adicionada? Em um grafo não direcionado, a aresta v-w dá origem aos
+     * arcos v->w e w->v, e o segundo é o contrário. Sempre falso em digrafos
+     * e em grafos criados a partir de um Graph, que não guarda a orientação
+     * das arestas.
+     *
+     * @param i a posição do arco
+     * @return verdadeiro se o arco for o sentido contrário da aresta
+     * @throws ArrayIndexOutOfBoundsException se a posição for inválida
+     */
+    public boolean isReversed( int i ) {
+        if ( i < 0 || i >= targets.length ) {
+            throw new ArrayIndexOutOfBoundsException( i );
+        }
+        return reversed != null && ( reversed[i >>> 6] & ( 1L << i ) ) != 0;
+    }
+
+    /**
+     * Retorna a quantidade de arcos que saem do vértice v, ou seja, o grau de
+     * v em um grafo não direcionado ou o seu grau de saída em um digrafo.
+     *
+     * @param v o vértice
+     * @return o grau (de saída) do vértice v
+     * @throws IllegalArgumentException se for um vértice inválido
+     */
+    public int degree( int v ) throws IllegalArgumentException {
+        validateVertex( v );
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Retorna os vértices adjacentes à v.
+     *
+     * Mantido por conveniência e compatibilidade com as outras
+     * representações; nos laços críticos prefira begin/end/target, que não
+     * empacotam os vértices em Integers.
+     *
+     * @param v o vértice
+     * @return os vértices adjacentes ao vértice v
+     * @throws IllegalArgumentException se for um vértice inválido
+     */
+    public Iterable<Integer> adj( int v ) throws IllegalArgumentException {
+
+        validateVertex( v );
+        int first = offsets[v];
+        int last = offsets[v + 1];
+
+        return () -> new Iterator<>() {
+
+            private int current = first;
+
+            @Override
+            public boolean hasNext() {
+                return current < last;
+            }
+
+            @Override
+            public Integer next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                return targets[current++];
+            }
+
+        };
+
+    }
+
+    /**
+     * Retorna o grafo inverso do grafo atual.
+     *
+     * Construído com uma ordenação por contagem dos arcos pelo vértice de
+     * destino, custando O(V + E). Em um grafo não direcionado o inverso é o
+     * próprio grafo.
+     *
+     * @return o grafo inverso
+     */
+    public CSRGraph reverse() {
+
+        if ( !directed ) {
+            return this;
+        }
+
+        int[] rOffsets = new int[vertices + 1];
+        int[] rTargets = new int[targets.length];
+        double[] rWeights = weights == null ? null : new double[weights.length];
+
+        for ( int i = 0; i < targets.length; i++ ) {
+            rOffsets[targets[i] + 1]++;
+        }
+        for ( int v = 0; v < vertices; v++ ) {
+            rOffsets[v + 1] += rOffsets[v];
+        }
+
+        // os arcos são percorridos de trás para frente, o que resulta na
+        // mesma ordem das listas de adjacências de Digraph.reverse()
+        int[] next = Arrays.copyOf( rOffsets, vertices );
+        for ( int v = vertices - 1; v >= 0; v-- ) {
+            for ( int i = offsets[v + 1] - 1; i >= offsets[v]; i-- ) {
+                int p = next[targets[i]]++;
+                rTargets[p] = v;
+                if ( rWeights != null ) {
+                    rWeights[p] = weights[i];
+                }
+            }
+        }
+
+        return new CSRGraph( vertices, edges, true, rOffsets, rTargets, rWeights, null );
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder s = new StringBuilder();
+        s.append( vertices ).append( " vertices, " ).append( edges ).append( " edges \n" );
+
+        for ( int v = 0; v < vertices; v++ ) {
+            s.append( String.format( "%d: ", v ) );
+            for ( int i = offsets[v]; i < offsets[v + 1]; i++ ) {
+                if ( weights == null ) {
+                    s.append( String.format( "%d ", targets[i] ) );
+                } else {
+                    s.append( String.format( "%d(%.2f) ", targets[i], weights[i] ) );
+                }
+            }
+            s.append( "\n" );
+        }
+
+        return s.toString();
+
+    }
+
+    /**
+     * Construtor de grafos CSR a partir de uma lista de arestas.
+     *
+     * As arestas são acumuladas em arrays de tipos primitivos que crescem
+     * conforme a necessidade e, em build(), são distribuídas nas listas de
+     * adjacências com uma ordenação por contagem estável pelo vértice de
+     * origem, de modo que os vizinhos de cada vértice aparecem na ordem em
+     * que as arestas foram adicionadas. Isso permite ler grafos muito grandes
+     * diretamente de um arquivo, aresta por aresta, sem criar um objeto por
+     * aresta.
+     *
+     * O grafo resultante é ponderado se alguma aresta tiver sido adicionada
+     * com peso; nesse caso, as arestas adicionadas sem peso recebem peso 1.0.
+     */
+    public static class Builder {
+
+        private final int vertices;
+        private final boolean directed;
+
+        private int[] from;
+        private int[] to;
+        private double[] weights;
+        private int size;
+
+        /**
+         * Cria um construtor para um grafo com uma quantidade específica de
+         * vértices.
+         *
+         * @param vertices quantidade de vértices
+         * @param directed se o grafo será direcionado
+         * @throws IllegalArgumentException se a quantidade de vértices for
+         * menor que zero
+         */
+        public Builder( int vertices, boolean directed ) throws IllegalArgumentException {
+
+            if ( vertices < 0 ) {
+                throw new IllegalArgumentException( "number of vertices must be nonnegative" );
+            }
+
+            this.vertices = vertices;
+            this.directed = directed;
+            this.from = new int[16];
+            this.to = new int[16];
+
+        }
+
+        private void validateVertex( int v ) throws IllegalArgumentException {
+
+            if ( v < 0 || v >= vertices ) {
+                throw new IllegalArgumentException( "vertex " + v + " is not between 0 and " + ( vertices - 1 ) );
+            }
+
+        }
+
+        /**
+         * Adiciona uma aresta v-w (ou v->w, se direcionado) sem peso.
+         *
+         * @param v o vértice de origem
+         * @param w o vértice de destino
+         * @return este construtor
+         * @throws IllegalArgumentException se os vértices forem inválidos
+         */
+        public Builder addEdge( int v, int w ) throws IllegalArgumentException {
+            return addEdge( v, w, 1.0, false );
+        }
+
+        /**
+         * Adiciona uma aresta v-w (ou v->w, se direcionado) com peso.
+         *
+         * @param v o vértice de origem
+         * @param w o vértice de destino
+         * @param weight o peso da aresta
+         * @return este construtor
+         * @throws IllegalArgumentException se os vértices forem inválidos
+         * @throws IllegalArgumentException se o peso não for um número
+         */
+        public Builder addEdge( int v, int w, double weight ) throws IllegalArgumentException {
+            return addEdge( v, w, weight, true );
+        }
+
+        private Builder addEdge( int v, int w, double weight, boolean weighted ) throws IllegalArgumentException {
+
+            validateVertex( v );
+            validateVertex( w );
+
+            if ( Double.isNaN( weight ) ) {
+                throw new IllegalArgumentException( "Weight is NaN" );
+            }
+
+            if ( size == from.length ) {
+                int capacity = (int) Math.min( Integer.MAX_VALUE - 8, 2L * size );
+                if ( capacity == size ) {
+                    throw new IllegalArgumentException( "too many edges" );
+                }
+                from = Arrays.copyOf( from, capacity );
+                to = Arrays.copyOf( to, capacity );
+                if ( weights != null ) {
+                    weights = Arrays.copyOf( weights, capacity );
+                }
+            }
+
+            if ( weighted && weights == null ) {
+                weights = new double[from.length];
+                Arrays.fill( weights, 0, size, 1.0 );
+            }
+
+            from[size] = v;
+            to[size] = w;
+            if ( weights != null ) {
+                weights[size] = weight;
+            }
+            size++;
+
+            return this;
+
+        }
+
+        /**
+         * Constrói o grafo CSR com as arestas adicionadas até o momento.
+         *
+         * @return o grafo CSR
+         * @throws IllegalArgumentException se a quantidade de arcos não couber
+         * em um array
+         */
+        public CSRGraph build() throws IllegalArgumentException {
+
+            long arcs = directed ? size : 2L * size;
+            if ( arcs > Integer.MAX_VALUE - 8 ) {
+                throw new IllegalArgumentException( "too many edges" );
+            }
+
+            int[] offsets = new int[vertices + 1];
+            int[] targets = new int[(int) arcs];
+            double[] w = weights == null ? null : new double[(int) arcs];
+            long[] reversed = directed ? null : new long[(int) ( ( arcs + 63 ) >>> 6 )];
+
+            // contagem dos graus de saída
+            for ( int i = 0; i < size; i++ ) {
+                offsets[from[i] + 1]++;
+                if ( !directed ) {
+                    offsets[to[i] + 1]++;
+                }
+            }
+            for ( int v = 0; v < vertices; v++ ) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            // distribuição estável dos arcos
+            int[] next = Arrays.copyOf( offsets, vertices );
+            for ( int i = 0; i < size; i++ ) {
+                int p = next[from[i]]++;
+                targets[p] = to[i];
+                if ( w != null ) {
+                    w[p] = weights[i];
+                }
+                if ( !directed ) {
+                    p = next[to[i]]++;
+                    if ( from[i] != to[i] ) {
+                        reversed[p >>> 6] |= 1L << p;
+                    }
+                    targets[p] = from[i];
+                    if ( w != null ) {
+                        w[p] = weights[i];
+                    }
+                }
+            }
+
+            return new CSRGraph( vertices, size, directed, offsets, targets, w, reversed );
+
+        }
+
+    }
+
+}
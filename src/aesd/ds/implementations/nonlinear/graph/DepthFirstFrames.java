@@ -0,0 +1,155 @@
+package aesd.ds.implementations.nonlinear.graph;
+
+/**
+ * Pilha de quadros (frames) para buscas em profundidade iterativas em
+ * grafos e digrafos no formato CSR.
+ *
+ * Cada quadro corresponde a uma chamada da versão recursiva da busca: o
+ * vértice sendo visitado e a posição do próximo arco dele a explorar, o
+ * que permite retomar o vértice exatamente de onde a chamada recursiva
+ * pararia. Os quadros ficam em dois arrays de inteiros indexados pela
+ * profundidade e, como cada vértice é empilhado no máximo uma vez por
+ * busca, V quadros sempre bastam: a busca usa uma quantidade constante da
+ * pilha da JVM, mesmo em grafos com milhões de vértices em um único
+ * caminho, e não cria nenhum objeto por vértice.
+ *
+ * Os arrays são reutilizados: cada thread guarda uma instância, obtida com
+ * acquire() e devolvida com release(), que só é realocada quando um grafo
+ * maior que todos os anteriores é processado. Assim, várias buscas
+ * seguidas (como as V buscas de {@link aesd.algorithms.digraph.TransitiveClosure})
+ * não alocam nada. Se a instância da thread já estiver em uso (buscas
+ * aninhadas), acquire() cria uma nova.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public final class DepthFirstFrames {
+
+    // instância livre de cada thread, ou null se estiver em uso
+    private static final ThreadLocal<DepthFirstFrames> FREE = new ThreadLocal<>();
+
+    // vertex[d] = vértice do quadro de profundidade d e next[d] = posição do
+    // próximo arco dele a explorar
+    private int[] vertex;
+    private int[] next;
+
+    // quantidade de quadros na pilha
+    private int size;
+
+    // grafo percorrido
+    private CSRGraph graph;
+
+    private DepthFirstFrames( int capacity ) {
+        vertex = new int[capacity];
+        next = new int[capacity];
+    }
+
+    /**
+     * Obtém uma pilha de quadros vazia para uma busca no grafo passado,
+     * reutilizando a da thread atual se ela estiver livre.
+     *
+     * @param graph o grafo ou digrafo CSR que será percorrido
+     * @return uma pilha de quadros vazia com capacidade para todos os
+     * vértices do grafo
+     */
+    public static DepthFirstFrames acquire( CSRGraph graph ) {
+
+        DepthFirstFrames frames = FREE.get();
+        int vertices = graph.getNumberOfVertices();
+
+        if ( frames == null ) {
+            frames = new DepthFirstFrames( vertices );
+        } else {
+            FREE.remove();
+            if ( frames.vertex.length < vertices ) {
+                frames.vertex = new int[vertices];
+                frames.next = new int[vertices];
+            }
+        }
+
+        frames.graph = graph;
+        frames.size = 0;
+
+        return frames;
+
+    }
+
+    /**
+     * Devolve a pilha de quadros para ser reutilizada por outras buscas da
+     * thread atual. A pilha não deve ser usada depois disso.
+     */
+    public void release() {
+        graph = null;
+        FREE.set( this );
+    }
+
+    /**
+     * Empilha o quadro de uma visita ao vértice v, começando pelo primeiro
+     * arco dele.
+     *
+     * @param v o vértice
+     */
+    public void push( int v ) {
+        vertex[size] = v;
+        next[size] = graph.begin( v );
+        size++;
+    }
+
+    /**
+     * Desempilha o quadro do topo.
+     *
+     * @return o vértice do quadro desempilhado
+     */
+    public int pop() {
+        return vertex[--size];
+    }
+
+    /**
+     * Retorna o vértice do quadro do topo.
+     *
+     * @return o vértice do quadro do topo
+     */
+    public int peek() {
+        return vertex[size - 1];
+    }
+
+    /**
+     * Retorna o vértice do quadro abaixo do topo, ou seja, o pai do vértice
+     * do topo na árvore da busca.
+     *
+     * @return o vértice do quadro abaixo do topo ou -1 se o topo for a raiz
+     */
+    public int parent() {
+        return size > 1 ? vertex[size - 2] : -1;
+    }
+
+    /**
+     * Avança para o próximo arco do vértice do topo.
+     *
+     * @return o vértice de destino do próximo arco do vértice do topo ou -1
+     * se todos os arcos dele já tiverem sido explorados
+     */
+    public int advance() {
+        int top = size - 1;
+        return next[top] < graph.end( vertex[top] ) ? graph.target( next[top]++ ) : -1;
+    }
+
+    /**
+     * A pilha está vazia?
+     *
+     * @return verdadeiro se não houver quadros na pilha, falso caso contrário
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retorna a quantidade de quadros na pilha, ou seja, a profundidade
+     * atual da busca.
+     *
+     * @return a quantidade de quadros na pilha
+     */
+    public int getSize() {
+        return size;
+    }
+
+}
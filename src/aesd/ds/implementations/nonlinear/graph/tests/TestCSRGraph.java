@@ -0,0 +1,169 @@
+package aesd.ds.implementations.nonlinear.graph.tests;
+
+import aesd.algorithms.digraph.DirectedBreadthFirstSearch;
+import aesd.algorithms.digraph.DirectedDepthFirstSearch;
+import aesd.algorithms.digraph.GabowSCC;
+import aesd.algorithms.digraph.KosarajuSharirSCC;
+import aesd.algorithms.digraph.TarjanSCC;
+import aesd.algorithms.digraph.edgeweighted.DirectedDijkstraSP;
+import aesd.algorithms.graph.BreadthFirstSearch;
+import aesd.algorithms.graph.DepthFirstSearch;
+import aesd.algorithms.graph.edgeweighted.DijkstraSP;
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.graph.Digraph;
+import aesd.ds.implementations.nonlinear.graph.Edge;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedDigraph;
+import aesd.ds.implementations.nonlinear.graph.EdgeWeightedGraph;
+import aesd.ds.implementations.nonlinear.graph.Graph;
+import java.util.Random;
+
+/**
+ * Teste de uso do grafo no formato CSR (CSRGraph).
+ *
+ * Além do uso básico, compara os resultados da BFS, da DFS, do algoritmo de
+ * Dijkstra e dos algoritmos de componentes fortes executados sobre as listas
+ * de adjacências e sobre a versão CSR do mesmo grafo aleatório, e mede o
+ * tempo de uma BFS em um digrafo grande construído diretamente de uma lista
+ * de arestas.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestCSRGraph {
+
+    public static void main( String[] args ) {
+
+        EdgeWeightedDigraph ewd = new EdgeWeightedDigraph( 6 );
+        ewd.addEdge( 0, 1, 0.5 );
+        ewd.addEdge( 0, 2, 0.2 );
+        ewd.addEdge( 1, 2, 0.1 );
+        ewd.addEdge( 2, 3, 0.7 );
+        ewd.addEdge( 3, 4, 0.3 );
+        ewd.addEdge( 4, 5, 0.4 );
+        ewd.addEdge( 5, 3, 0.9 );
+
+        CSRGraph g = new CSRGraph( ewd );
+        System.out.println( g );
+        System.out.println( "Vértices: " + g.getNumberOfVertices() );
+        System.out.println( "Arestas:  " + g.getNumberOfEdges() );
+        System.out.println( "Arcos:    " + g.getNumberOfArcs() );
+        System.out.println( "Grau de saída de 0: " + g.degree( 0 ) );
+
+        System.out.print( "Arcos de 0:" );
+        for ( int i = g.begin( 0 ); i < g.end( 0 ); i++ ) {
+            System.out.printf( " 0->%d (%.2f)", g.target( i ), g.weight( i ) );
+        }
+        System.out.println();
+
+        System.out.println( "\nDigrafo inverso:" );
+        System.out.println( g.reverse() );
+
+        DirectedDijkstraSP sp = new DirectedDijkstraSP( g, 0 );
+        System.out.print( "Menor caminho 0->5 (" + sp.distTo( 5 ) + "):" );
+        for ( Edge e : sp.pathTo( 5 ) ) {
+            System.out.print( " " + e );
+        }
+        System.out.println( "\nComponentes fortes: " + new TarjanSCC( g ).count() + "\n" );
+
+        CSRGraph b = new CSRGraph.Builder( 4, false )
+                .addEdge( 0, 1 )
+                .addEdge( 1, 2 )
+                .addEdge( 2, 3 )
+                .build();
+        System.out.println( "Construído a partir de uma lista de arestas:" );
+        System.out.println( b );
+
+        // comparação com as listas de adjacências
+        System.out.println( "----- Comparação com as listas de adjacências -----" );
+        Random random = new Random( 42 );
+        int vertices = 2000;
+        int edges = 8000;
+
+        Graph graph = new Graph( vertices );
+        Digraph digraph = new Digraph( vertices );
+        EdgeWeightedGraph weightedGraph = new EdgeWeightedGraph( vertices );
+        EdgeWeightedDigraph weightedDigraph = new EdgeWeightedDigraph( vertices );
+        for ( int i = 0; i < edges; i++ ) {
+            int v = random.nextInt( vertices );
+            int w = random.nextInt( vertices );
+            double weight = random.nextInt( 100 ) / 10.0;
+            graph.addEdge( v, w );
+            digraph.addEdge( v, w );
+            weightedGraph.addEdge( v, w, weight );
+            weightedDigraph.addEdge( v, w, weight );
+        }
+
+        CSRGraph csrGraph = new CSRGraph( graph );
+        CSRGraph csrDigraph = new CSRGraph( digraph );
+        CSRGraph csrWeightedGraph = new CSRGraph( weightedGraph );
+        CSRGraph csrWeightedDigraph = new CSRGraph( weightedDigraph );
+
+        BreadthFirstSearch bfs1 = new BreadthFirstSearch( graph, 0 );
+        BreadthFirstSearch bfs2 = new BreadthFirstSearch( csrGraph, 0 );
+        DirectedBreadthFirstSearch dbfs1 = new DirectedBreadthFirstSearch( digraph, 0 );
+        DirectedBreadthFirstSearch dbfs2 = new DirectedBreadthFirstSearch( csrDigraph, 0 );
+        DepthFirstSearch dfs1 = new DepthFirstSearch( graph, 0 );
+        DepthFirstSearch dfs2 = new DepthFirstSearch( csrGraph, 0 );
+        DirectedDepthFirstSearch ddfs1 = new DirectedDepthFirstSearch( digraph, 0 );
+        DirectedDepthFirstSearch ddfs2 = new DirectedDepthFirstSearch( csrDigraph, 0 );
+        DijkstraSP dij1 = new DijkstraSP( weightedGraph, 0 );
+        DijkstraSP dij2 = new DijkstraSP( csrWeightedGraph, 0 );
+        DirectedDijkstraSP ddij1 = new DirectedDijkstraSP( weightedDigraph, 0 );
+        DirectedDijkstraSP ddij2 = new DirectedDijkstraSP( csrWeightedDigraph, 0 );
+
+        boolean ok = true;
+        for ( int v = 0; v < vertices; v++ ) {
+            ok = ok && bfs1.distTo( v ) == bfs2.distTo( v )
+                    && dbfs1.distTo( v ) == dbfs2.distTo( v )
+                    && String.valueOf( dfs1.pathTo( v ) ).equals( String.valueOf( dfs2.pathTo( v ) ) )
+                    && String.valueOf( ddfs1.pathTo( v ) ).equals( String.valueOf( ddfs2.pathTo( v ) ) )
+                    && dij1.distTo( v ) == dij2.distTo( v )
+                    && ddij1.distTo( v ) == ddij2.distTo( v )
+                    && String.valueOf( ddij1.pathTo( v ) ).equals( String.valueOf( ddij2.pathTo( v ) ) );
+        }
+        System.out.println( "BFS, DFS e Dijkstra: " + ( ok ? "iguais" : "diferentes!" ) );
+
+        TarjanSCC t1 = new TarjanSCC( digraph );
+        TarjanSCC t2 = new TarjanSCC( csrDigraph );
+        GabowSCC g1 = new GabowSCC( digraph );
+        GabowSCC g2 = new GabowSCC( csrDigraph );
+        KosarajuSharirSCC k1 = new KosarajuSharirSCC( digraph );
+        KosarajuSharirSCC k2 = new KosarajuSharirSCC( csrDigraph );
+
+        ok = t1.count() == t2.count() && g1.count() == g2.count() && k1.count() == k2.count();
+        for ( int v = 0; v < vertices; v++ ) {
+            ok = ok && t1.id( v ) == t2.id( v ) && g1.id( v ) == g2.id( v ) && k1.id( v ) == k2.id( v );
+        }
+        System.out.println( "Componentes fortes (" + t1.count() + "): " + ( ok ? "iguais" : "diferentes!" ) );
+
+        // digrafo grande construído diretamente da lista de arestas
+        System.out.println( "\n----- Digrafo grande -----" );
+        vertices = 1000000;
+        edges = 10000000;
+        CSRGraph.Builder builder = new CSRGraph.Builder( vertices, true );
+        for ( int i = 0; i < edges; i++ ) {
+            builder.addEdge( random.nextInt( vertices ), random.nextInt( vertices ) );
+        }
+
+        long start = System.nanoTime();
+        CSRGraph large = builder.build();
+        System.out.printf( "construção: %.1f ms\n", ( System.nanoTime() - start ) / 1e6 );
+
+        start = System.nanoTime();
+        DirectedBreadthFirstSearch bfs = new DirectedBreadthFirstSearch( large, 0 );
+        System.out.printf( "BFS: %.1f ms\n", ( System.nanoTime() - start ) / 1e6 );
+
+        start = System.nanoTime();
+        TarjanSCC scc = new TarjanSCC( large );
+        System.out.printf( "Tarjan: %.1f ms (%d componentes)\n", ( System.nanoTime() - start ) / 1e6, scc.count() );
+
+        int reached = 0;
+        for ( int v = 0; v < vertices; v++ ) {
+            if ( bfs.hasPathTo( v ) ) {
+                reached++;
+            }
+        }
+        System.out.println( "vértices alcançáveis a partir de 0: " + reached );
+
+    }
+
+}
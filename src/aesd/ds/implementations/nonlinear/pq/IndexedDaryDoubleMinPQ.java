@@ -0,0 +1,463 @@
+package aesd.ds.implementations.nonlinear.pq;
+
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação de uma fila de prioridades mínima indexada com prioridades
+ * do tipo double, usando um heap d-ário mínimo (cada nó tem até d filhos,
+ * com d entre 2 e 8).
+ *
+ * Em relação ao heap binário de {@link IndexedDoubleMinPQ}, um heap d-ário
+ * tem altura log_d(n): swim, usado por insert e decreaseKey, fica mais
+ * barato, enquanto sink, usado por delete, precisa comparar d filhos por
+ * nível. Como no algoritmo de Dijkstra há em geral muito mais decreaseKey
+ * do que delete, valores de d como 4 costumam ser mais rápidos; os d filhos
+ * de um nó também ficam em posições consecutivas, muitas vezes na mesma
+ * linha de cache. O heap ocupa as posições 0 a n - 1, com os filhos da
+ * posição k nas posições d * k + 1 até d * k + d.
+ *
+ * Assim como em {@link IndexedDoubleMinPQ}:
+ *     - as prioridades são guardadas em um array double[] e comparadas com
+ *       os operadores relacionais, sem objetos Double nem chamadas a
+ *       compareTo;
+ *     - o array keys é paralelo ao heap (keys[k] é a prioridade do índice
+ *       que está na posição k), e não ao índice, de modo que as comparações
+ *       de swim e sink leem posições vizinhas de um único array. Além disso,
+ *       swim e sink deslocam os elementos para abrir um "buraco" e só gravam
+ *       o elemento em movimento na posição final, em vez de trocas
+ *       sucessivas.
+ *
+ * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
+ * Boston: Pearson Education, 2011. 955 p.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class IndexedDaryDoubleMinPQ implements IndexedDoublePriorityQueue {
+
+    // quantidade máxima de elementos na fila de prioridades
+    private final int maxN;
+
+    // quantidade de itens na fila de prioridades
+    private int n;
+
+    // aridade do heap
+    private final int d;
+
+    // heap d-ário dos índices da fila de prioridades, nas posições 0 até n - 1
+    private final int[] pq;
+
+    // keys[k] = prioridade do índice pq[k]
+    private final double[] keys;
+
+    // inverso de pq - qp[pq[k]] = k, ou -1 se o índice não estiver na fila
+    private final int[] qp;
+
+    /**
+     * Cria uma fila de prioridade mínima indexada com índices entre 0 e
+     * maxN - 1, usando um heap 4-ário.
+     *
+     * @param maxN a quantidade de chaves permitida
+     * @throws IllegalArgumentException se a quantidade for menor que 0
+     */
+    public IndexedDaryDoubleMinPQ( int maxN ) throws IllegalArgumentException {
+        this( maxN, 4 );
+    }
+
+    /**
+     * Cria uma fila de prioridade mínima indexada com índices entre 0 e
+     * maxN - 1, usando um heap d-ário.
+     *
+     * @param maxN a quantidade de chaves permitida
+     * @param d a quantidade de filhos de cada nó do heap
+     * @throws IllegalArgumentException se a quantidade for menor que 0
+     * @throws IllegalArgumentException se d não estiver entre 2 e 8
+     */
+    public IndexedDaryDoubleMinPQ( int maxN, int d ) throws IllegalArgumentException {
+
+        if ( maxN < 0 ) {
+            throw new IllegalArgumentException( "maxN must be nonnegative" );
+        }
+
+        if ( d < 2 || d > 8 ) {
+            throw new IllegalArgumentException( "d must be between 2 and 8" );
+        }
+
+        this.maxN = maxN;
+        this.d = d;
+
+        n = 0;
+        pq = new int[maxN];
+        keys = new double[maxN];
+        qp = new int[maxN];
+
+        for ( int i = 0; i < maxN; i++ ) {
+            qp[i] = -1;
+        }
+
+    }
+
+    @Override
+    public void insert( int index, double key ) throws IllegalArgumentException {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] != -1 ) {
+            throw new IllegalArgumentException( "index is already in the priority queue" );
+        }
+
+        swim( n++, index, key );
+
+    }
+
+    @Override
+    public int peekIndex() throws NoSuchElementException {
+
+        if ( n == 0 ) {
+            throw new NoSuchElementException( "Priority queue underflow" );
+        }
+
+        return pq[0];
+
+    }
+
+    @Override
+    public double peekKey() throws NoSuchElementException {
+
+        if ( n == 0 ) {
+            throw new NoSuchElementException( "Priority queue underflow" );
+        }
+
+        return keys[0];
+
+    }
+
+    @Override
+    public int delete() throws NoSuchElementException {
+
+        if ( n == 0 ) {
+            throw new NoSuchElementException( "Priority queue underflow" );
+        }
+
+        int min = pq[0];
+        qp[min] = -1;
+
+        // o último elemento do heap é afundado a partir da raiz
+        n--;
+        int last = pq[n];
+        double lastKey = keys[n];
+
+        if ( n > 0 ) {
+            sink( 0, last, lastKey );
+        }
+
+        return min;
+
+    }
+
+    @Override
+    public void delete( int index ) {
+
+        validateIndex( index );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+        qp[index] = -1;
+
+        n--;
+        int last = pq[n];
+        double lastKey = keys[n];
+
+        // o último elemento ocupa o lugar do removido e pode precisar subir
+        // ou descer
+        if ( k < n ) {
+            if ( k > 0 && keys[( k - 1 ) / d] > lastKey ) {
+                swim( k, last, lastKey );
+            } else {
+                sink( k, last, lastKey );
+            }
+        }
+
+    }
+
+    @Override
+    public boolean contains( int index ) throws IllegalArgumentException {
+        validateIndex( index );
+        return qp[index] != -1;
+    }
+
+    @Override
+    public double keyOf( int index ) {
+
+        validateIndex( index );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        return keys[qp[index]];
+
+    }
+
+    @Override
+    public void changeKey( int index, double key ) {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+
+        if ( key < keys[k] ) {
+            swim( k, index, key );
+        } else {
+            sink( k, index, key );
+        }
+
+    }
+
+    @Override
+    public void decreaseKey( int index, double key ) {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+
+        if ( keys[k] == key ) {
+            throw new IllegalArgumentException( "Calling decreaseKey() with a key equal to the key in the priority queue" );
+        }
+
+        if ( keys[k] < key ) {
+            throw new IllegalArgumentException( "Calling decreaseKey() with a key strictly greater than the key in the priority queue" );
+        }
+
+        swim( k, index, key );
+
+    }
+
+    @Override
+    public void increaseKey( int index, double key ) {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+
+        if ( keys[k] == key ) {
+            throw new IllegalArgumentException( "Calling increaseKey() with a key equal to the key in the priority queue" );
+        }
+
+        if ( keys[k] > key ) {
+            throw new IllegalArgumentException( "Calling increaseKey() with a key strictly less than the key in the priority queue" );
+        }
+
+        sink( k, index, key );
+
+    }
+
+    private void validateIndex( int index ) {
+
+        if ( index < 0 ) {
+            throw new IllegalArgumentException( "index is negative: " + index );
+        }
+
+        if ( index >= maxN ) {
+            throw new IllegalArgumentException( "index >= capacity: " + index );
+        }
+
+    }
+
+    private void validateKey( double key ) {
+        if ( Double.isNaN( key ) ) {
+            throw new IllegalArgumentException( "key is NaN" );
+        }
+    }
+
+    /**
+     * Flutua o índice index, com prioridade key, a partir da posição k do
+     * heap: os pais com prioridade maior descem uma posição e index é gravado
+     * na posição em que a invariante de heap mínimo é restaurada.
+     *
+     * @param k posição do buraco de onde flutuar.
+     * @param index o índice em movimento.
+     * @param key a prioridade do índice em movimento.
+     */
+    private void swim( int k, int index, double key ) {
+
+        while ( k > 0 ) {
+
+            int parent = ( k - 1 ) / d;
+            if ( keys[parent] <= key ) {
+                break;
+            }
+
+            pq[k] = pq[parent];
+            keys[k] = keys[parent];
+            qp[pq[k]] = k;
+            k = parent;
+
+        }
+
+        pq[k] = index;
+        keys[k] = key;
+        qp[index] = k;
+
+    }
+
+    /**
+     * Afunda o índice index, com prioridade key, a partir da posição k do
+     * heap: o menor dos até d filhos sobe uma posição enquanto tiver
+     * prioridade menor que key, e index é gravado na posição final.
+     *
+     * @param k posição do buraco de onde afundar.
+     * @param index o índice em movimento.
+     * @param key a prioridade do índice em movimento.
+     */
+    private void sink( int k, int index, double key ) {
+
+        while ( true ) {
+
+            int first = d * k + 1;
+            if ( first >= n ) {
+                break;
+            }
+
+            // menor filho
+            int j = first;
+            int last = Math.min( first + d, n );
+            for ( int c = first + 1; c < last; c++ ) {
+                if ( keys[c] < keys[j] ) {
+                    j = c;
+                }
+            }
+
+            if ( key <= keys[j] ) {
+                break;
+            }
+
+            pq[k] = pq[j];
+            keys[k] = keys[j];
+            qp[pq[k]] = k;
+            k = j;
+
+        }
+
+        pq[k] = index;
+        keys[k] = key;
+        qp[index] = k;
+
+    }
+
+    @Override
+    public void clear() {
+
+        for ( int k = 0; k < n; k++ ) {
+            qp[pq[k]] = -1;
+        }
+
+        n = 0;
+
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new HeapIterator();
+    }
+
+    private class HeapIterator implements Iterator<Integer> {
+
+        private IndexedDaryDoubleMinPQ copy;
+
+        public HeapIterator() {
+            copy = new IndexedDaryDoubleMinPQ( maxN, d );
+            for ( int k = 0; k < n; k++ ) {
+                copy.insert( pq[k], keys[k] );
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !copy.isEmpty();
+        }
+
+        @Override
+        public Integer next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            return copy.delete();
+        }
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        if ( !isEmpty() ) {
+            preOrder( 0, "", sb );
+        } else {
+            sb.append( "empty indexed min priority queue!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+    private void preOrder( int k, String ident, StringBuilder sb ) {
+
+        if ( k < n ) {
+
+            String rootIdent = "";
+            String leafIdent = "";
+
+            if ( k != 0 ) {
+                rootIdent = ident + "|--";
+                leafIdent = ident + "|  ";
+            }
+
+            sb.append( rootIdent );
+            sb.append( "(" ).append( pq[k] ).append( ") " ).append( keys[k] );
+
+            if ( k == 0 ) {
+                sb.append( " <- min (root)" );
+            }
+            sb.append( "\n" );
+
+            for ( int c = d * k + 1; c <= d * k + d; c++ ) {
+                preOrder( c, leafIdent, sb );
+            }
+
+        }
+
+    }
+
+}
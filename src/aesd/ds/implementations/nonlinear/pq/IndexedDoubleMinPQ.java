@@ -0,0 +1,425 @@
+package aesd.ds.implementations.nonlinear.pq;
+
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação de uma fila de prioridades mínima indexada com prioridades
+ * do tipo double, usando um heap binário mínimo.
+ *
+ * Tem o mesmo funcionamento de {@link IndexedMinPriorityQueue} (os arrays
+ * pq e qp continuam sendo o heap de índices e o seu inverso), com duas
+ * diferenças que a tornam bem mais rápida nos algoritmos de Dijkstra e de
+ * Prim:
+ *     - as prioridades são guardadas em um array double[] e comparadas com
+ *       os operadores relacionais, sem objetos Double nem chamadas a
+ *       compareTo;
+ *     - o array keys é paralelo ao heap (keys[k] é a prioridade do índice
+ *       que está na posição k), e não ao índice, de modo que as comparações
+ *       de swim e sink leem posições vizinhas de um único array. Além disso,
+ *       swim e sink deslocam os elementos para abrir um "buraco" e só gravam
+ *       o elemento em movimento na posição final, em vez de trocas
+ *       sucessivas.
+ *
+ * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
+ * Boston: Pearson Education, 2011. 955 p.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class IndexedDoubleMinPQ implements IndexedDoublePriorityQueue {
+
+    // quantidade máxima de elementos na fila de prioridades
+    private final int maxN;
+
+    // quantidade de itens na fila de prioridades
+    private int n;
+
+    // heap binário dos índices da fila de prioridades, nas posições 1 até n
+    private final int[] pq;
+
+    // keys[k] = prioridade do índice pq[k]
+    private final double[] keys;
+
+    // inverso de pq - qp[pq[k]] = k, ou -1 se o índice não estiver na fila
+    private final int[] qp;
+
+    /**
+     * Cria uma fila de prioridade mínima indexada com índices entre 0 e maxN - 1.
+     *
+     * @param maxN a quantidade de chaves permitida
+     * @throws IllegalArgumentException se a quantidade for menor que 0
+     */
+    public IndexedDoubleMinPQ( int maxN ) throws IllegalArgumentException {
+
+        if ( maxN < 0 ) {
+            throw new IllegalArgumentException( "maxN must be nonnegative" );
+        }
+
+        this.maxN = maxN;
+
+        n = 0;
+        pq = new int[maxN + 1];
+        keys = new double[maxN + 1];
+        qp = new int[maxN];
+
+        for ( int i = 0; i < maxN; i++ ) {
+            qp[i] = -1;
+        }
+
+    }
+
+    @Override
+    public void insert( int index, double key ) throws IllegalArgumentException {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] != -1 ) {
+            throw new IllegalArgumentException( "index is already in the priority queue" );
+        }
+
+        swim( ++n, index, key );
+
+    }
+
+    @Override
+    public int peekIndex() throws NoSuchElementException {
+
+        if ( n == 0 ) {
+            throw new NoSuchElementException( "Priority queue underflow" );
+        }
+
+        return pq[1];
+
+    }
+
+    @Override
+    public double peekKey() throws NoSuchElementException {
+
+        if ( n == 0 ) {
+            throw new NoSuchElementException( "Priority queue underflow" );
+        }
+
+        return keys[1];
+
+    }
+
+    @Override
+    public int delete() throws NoSuchElementException {
+
+        if ( n == 0 ) {
+            throw new NoSuchElementException( "Priority queue underflow" );
+        }
+
+        int min = pq[1];
+        qp[min] = -1;
+
+        // o último elemento do heap é afundado a partir da raiz
+        int last = pq[n];
+        double lastKey = keys[n];
+        n--;
+
+        if ( n > 0 ) {
+            sink( 1, last, lastKey );
+        }
+
+        return min;
+
+    }
+
+    @Override
+    public void delete( int index ) {
+
+        validateIndex( index );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+        qp[index] = -1;
+
+        int last = pq[n];
+        double lastKey = keys[n];
+        n--;
+
+        // o último elemento ocupa o lugar do removido e pode precisar subir
+        // ou descer
+        if ( k <= n ) {
+            if ( k > 1 && keys[k / 2] > lastKey ) {
+                swim( k, last, lastKey );
+            } else {
+                sink( k, last, lastKey );
+            }
+        }
+
+    }
+
+    @Override
+    public boolean contains( int index ) throws IllegalArgumentException {
+        validateIndex( index );
+        return qp[index] != -1;
+    }
+
+    @Override
+    public double keyOf( int index ) {
+
+        validateIndex( index );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        return keys[qp[index]];
+
+    }
+
+    @Override
+    public void changeKey( int index, double key ) {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+
+        if ( key < keys[k] ) {
+            swim( k, index, key );
+        } else {
+            sink( k, index, key );
+        }
+
+    }
+
+    @Override
+    public void decreaseKey( int index, double key ) {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+
+        if ( keys[k] == key ) {
+            throw new IllegalArgumentException( "Calling decreaseKey() with a key equal to the key in the priority queue" );
+        }
+
+        if ( keys[k] < key ) {
+            throw new IllegalArgumentException( "Calling decreaseKey() with a key strictly greater than the key in the priority queue" );
+        }
+
+        swim( k, index, key );
+
+    }
+
+    @Override
+    public void increaseKey( int index, double key ) {
+
+        validateIndex( index );
+        validateKey( key );
+
+        if ( qp[index] == -1 ) {
+            throw new NoSuchElementException( "index is not in the priority queue" );
+        }
+
+        int k = qp[index];
+
+        if ( keys[k] == key ) {
+            throw new IllegalArgumentException( "Calling increaseKey() with a key equal to the key in the priority queue" );
+        }
+
+        if ( keys[k] > key ) {
+            throw new IllegalArgumentException( "Calling increaseKey() with a key strictly less than the key in the priority queue" );
+        }
+
+        sink( k, index, key );
+
+    }
+
+    private void validateIndex( int index ) {
+
+        if ( index < 0 ) {
+            throw new IllegalArgumentException( "index is negative: " + index );
+        }
+
+        if ( index >= maxN ) {
+            throw new IllegalArgumentException( "index >= capacity: " + index );
+        }
+
+    }
+
+    private void validateKey( double key ) {
+        if ( Double.isNaN( key ) ) {
+            throw new IllegalArgumentException( "key is NaN" );
+        }
+    }
+
+    /**
+     * Flutua o índice index, com prioridade key, a partir da posição k do
+     * heap: os pais com prioridade maior descem uma posição e index é gravado
+     * na posição em que a invariante de heap mínimo é restaurada.
+     *
+     * @param k posição do buraco de onde flutuar.
+     * @param index o índice em movimento.
+     * @param key a prioridade do índice em movimento.
+     */
+    private void swim( int k, int index, double key ) {
+
+        while ( k > 1 ) {
+
+            int parent = k >>> 1;
+            if ( keys[parent] <= key ) {
+                break;
+            }
+
+            pq[k] = pq[parent];
+            keys[k] = keys[parent];
+            qp[pq[k]] = k;
+            k = parent;
+
+        }
+
+        pq[k] = index;
+        keys[k] = key;
+        qp[index] = k;
+
+    }
+
+    /**
+     * Afunda o índice index, com prioridade key, a partir da posição k do
+     * heap: o menor filho sobe uma posição enquanto tiver prioridade menor
+     * que key, e index é gravado na posição final.
+     *
+     * @param k posição do buraco de onde afundar.
+     * @param index o índice em movimento.
+     * @param key a prioridade do índice em movimento.
+     */
+    private void sink( int k, int index, double key ) {
+
+        while ( 2 * k <= n ) {
+
+            int j = 2 * k;
+
+            if ( j < n && keys[j + 1] < keys[j] ) {
+                j++;
+            }
+
+            if ( key <= keys[j] ) {
+                break;
+            }
+
+            pq[k] = pq[j];
+            keys[k] = keys[j];
+            qp[pq[k]] = k;
+            k = j;
+
+        }
+
+        pq[k] = index;
+        keys[k] = key;
+        qp[index] = k;
+
+    }
+
+    @Override
+    public void clear() {
+
+        for ( int k = 1; k <= n; k++ ) {
+            qp[pq[k]] = -1;
+        }
+
+        n = 0;
+
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new HeapIterator();
+    }
+
+    private class HeapIterator implements Iterator<Integer> {
+
+        private IndexedDoubleMinPQ copy;
+
+        public HeapIterator() {
+            copy = new IndexedDoubleMinPQ( maxN );
+            for ( int k = 1; k <= n; k++ ) {
+                copy.insert( pq[k], keys[k] );
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !copy.isEmpty();
+        }
+
+        @Override
+        public Integer next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            return copy.delete();
+        }
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        if ( !isEmpty() ) {
+            preOrder( 1, "", sb );
+        } else {
+            sb.append( "empty indexed min priority queue!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+    private void preOrder( int k, String ident, StringBuilder sb ) {
+
+        if ( k <= n ) {
+
+            String rootIdent = "";
+            String leafIdent = "";
+
+            if ( k != 1 ) {
+                rootIdent = ident + "|--";
+                leafIdent = ident + "|  ";
+            }
+
+            sb.append( rootIdent );
+            sb.append( "(" ).append( pq[k] ).append( ") " ).append( keys[k] );
+
+            if ( k == 1 ) {
+                sb.append( " <- min (root)" );
+            }
+            sb.append( "\n" );
+
+            preOrder( k * 2, leafIdent, sb );
+            preOrder( k * 2 + 1, leafIdent, sb );
+
+        }
+
+    }
+
+}
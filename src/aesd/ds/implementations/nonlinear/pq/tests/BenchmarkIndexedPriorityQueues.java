@@ -0,0 +1,191 @@
+package aesd.ds.implementations.nonlinear.pq.tests;
+
+import aesd.ds.implementations.nonlinear.graph.CSRGraph;
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.implementations.nonlinear.pq.IndexedDoubleMinPQ;
+import aesd.ds.implementations.nonlinear.pq.IndexedMinPriorityQueue;
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
+import aesd.utils.MicroBenchmark;
+import aesd.utils.MicroBenchmark.Result;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Benchmark das filas de prioridades mínimas indexadas usadas pelo algoritmo
+ * de Dijkstra: para cada implementação, executa Dijkstra a partir de várias
+ * fontes em um digrafo aleatório em representação CSR, de modo que o custo
+ * medido seja dominado pelas operações da fila (insert, delete e
+ * decreaseKey).
+ *
+ * Os parâmetros são passados no formato nome=valor, com listas separadas
+ * por vírgula, por exemplo:
+ *
+ *     impl=boxed,binary,d4 sizes=1000000 degree=8
+ *
+ * Parâmetros aceitos (e seus valores padrão):
+ *     impl       boxed,binary,d2,d3,d4,d5,d6,d7,d8
+ *     sizes      10000,100000,1000000
+ *     degree     8
+ *     sources    5
+ *     warmup     2
+ *     iterations 3
+ *
+ * Onde boxed é IndexedMinPriorityQueue&lt;Double&gt;, binary é
+ * IndexedDoubleMinPQ e dk é IndexedDaryDoubleMinPQ com d = k. Pelo build do
+ * Ant: ant benchmark
+ * -Dbenchmark.class=aesd.ds.implementations.nonlinear.pq.tests.BenchmarkIndexedPriorityQueues
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class BenchmarkIndexedPriorityQueues {
+
+    private static final long SEED = 42;
+
+    // distâncias da última execução, usadas para conferir as implementações
+    private static double[] distTo;
+
+    public static void main( String[] args ) {
+
+        String[] impls = { "boxed", "binary", "d2", "d3", "d4", "d5", "d6", "d7", "d8" };
+        String[] sizes = { "10000", "100000", "1000000" };
+        int degree = 8;
+        int sources = 5;
+        int warmup = 2;
+        int iterations = 3;
+
+        for ( String arg : args ) {
+            String[] kv = arg.split( "=", 2 );
+            switch ( kv[0] ) {
+                case "impl": impls = kv[1].split( "," ); break;
+                case "sizes": sizes = kv[1].split( "," ); break;
+                case "degree": degree = Integer.parseInt( kv[1] ); break;
+                case "sources": sources = Integer.parseInt( kv[1] ); break;
+                case "warmup": warmup = Integer.parseInt( kv[1] ); break;
+                case "iterations": iterations = Integer.parseInt( kv[1] ); break;
+                default: throw new IllegalArgumentException( "unknown parameter: " + kv[0] );
+            }
+        }
+
+        for ( String size : sizes ) {
+
+            int n = Integer.parseInt( size );
+            CSRGraph graph = randomDigraph( n, degree );
+            double[] expected = null;
+
+            for ( String impl : impls ) {
+
+                String name = String.format( "%s/dijkstra/%d", impl, n );
+                Result r;
+
+                if ( impl.equals( "boxed" ) ) {
+                    r = MicroBenchmark.measure( name, warmup, iterations, sources,
+                            () -> {},
+                            i -> boxedDijkstra( graph, MicroBenchmark.scatter( i, n ) ) );
+                } else {
+                    IntFunction<IndexedDoublePriorityQueue> factory = factory( impl );
+                    r = MicroBenchmark.measure( name, warmup, iterations, sources,
+                            () -> {},
+                            i -> dijkstra( graph, MicroBenchmark.scatter( i, n ), factory.apply( n ) ) );
+                }
+
+                // todas as implementações precisam chegar às mesmas
+                // distâncias a partir da última fonte
+                if ( expected == null ) {
+                    expected = distTo;
+                } else if ( !Arrays.equals( expected, distTo ) ) {
+                    throw new IllegalStateException( impl + " computed different distances" );
+                }
+
+                System.out.println( r );
+
+            }
+
+        }
+
+    }
+
+    private static IntFunction<IndexedDoublePriorityQueue> factory( String impl ) {
+
+        if ( impl.equals( "binary" ) ) {
+            return n -> new IndexedDoubleMinPQ( n );
+        }
+
+        if ( impl.startsWith( "d" ) ) {
+            int d = Integer.parseInt( impl.substring( 1 ) );
+            return n -> new IndexedDaryDoubleMinPQ( n, d );
+        }
+
+        throw new IllegalArgumentException( "unknown implementation: " + impl );
+
+    }
+
+    private static CSRGraph randomDigraph( int n, int degree ) {
+
+        Random random = new Random( SEED );
+        CSRGraph.Builder builder = new CSRGraph.Builder( n, true );
+
+        for ( long i = 0; i < (long) n * degree; i++ ) {
+            builder.addEdge( random.nextInt( n ), random.nextInt( n ), random.nextDouble() );
+        }
+
+        return builder.build();
+
+    }
+
+    private static void dijkstra( CSRGraph graph, int source, IndexedDoublePriorityQueue pq ) {
+
+        double[] dist = new double[graph.getNumberOfVertices()];
+        Arrays.fill( dist, Double.POSITIVE_INFINITY );
+        dist[source] = 0.0;
+        pq.insert( source, 0.0 );
+
+        while ( !pq.isEmpty() ) {
+            int v = pq.delete();
+            for ( int i = graph.begin( v ); i < graph.end( v ); i++ ) {
+                int w = graph.target( i );
+                double d = dist[v] + graph.weight( i );
+                if ( d < dist[w] ) {
+                    dist[w] = d;
+                    if ( pq.contains( w ) ) {
+                        pq.decreaseKey( w, d );
+                    } else {
+                        pq.insert( w, d );
+                    }
+                }
+            }
+        }
+
+        distTo = dist;
+
+    }
+
+    private static void boxedDijkstra( CSRGraph graph, int source ) {
+
+        IndexedMinPriorityQueue<Double> pq = new IndexedMinPriorityQueue<>( graph.getNumberOfVertices() );
+        double[] dist = new double[graph.getNumberOfVertices()];
+        Arrays.fill( dist, Double.POSITIVE_INFINITY );
+        dist[source] = 0.0;
+        pq.insert( source, 0.0 );
+
+        while ( !pq.isEmpty() ) {
+            int v = pq.delete();
+            for ( int i = graph.begin( v ); i < graph.end( v ); i++ ) {
+                int w = graph.target( i );
+                double d = dist[v] + graph.weight( i );
+                if ( d < dist[w] ) {
+                    dist[w] = d;
+                    if ( pq.contains( w ) ) {
+                        pq.decreaseKey( w, d );
+                    } else {
+                        pq.insert( w, d );
+                    }
+                }
+            }
+        }
+
+        distTo = dist;
+
+    }
+
+}
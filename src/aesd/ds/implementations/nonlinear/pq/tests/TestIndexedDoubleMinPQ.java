@@ -0,0 +1,145 @@
+package aesd.ds.implementations.nonlinear.pq.tests;
+
+import aesd.ds.implementations.nonlinear.pq.IndexedDaryDoubleMinPQ;
+import aesd.ds.implementations.nonlinear.pq.IndexedDoubleMinPQ;
+import aesd.ds.implementations.nonlinear.pq.IndexedMinPriorityQueue;
+import aesd.ds.interfaces.IndexedDoublePriorityQueue;
+import java.util.Random;
+
+/**
+ * Teste de uso das filas de prioridades mínimas indexadas com prioridades
+ * double (IndexedDoubleMinPQ e IndexedDaryDoubleMinPQ).
+ *
+ * Além do uso básico, executa sequências aleatórias de operações em
+ * paralelo com IndexedMinPriorityQueue&lt;Double&gt; e compara os resultados,
+ * para o heap binário e para os heaps d-ários com d de 2 a 8.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestIndexedDoubleMinPQ {
+
+    public static void main( String[] args ) {
+
+        IndexedDoublePriorityQueue pq = new IndexedDaryDoubleMinPQ( 100, 3 );
+
+        pq.insert( 1, 5.5 );
+        pq.insert( 2, 1.25 );
+        pq.insert( 3, 7.0 );
+        pq.insert( 4, 3.75 );
+        pq.insert( 5, 9.5 );
+        pq.insert( 6, 2.0 );
+        System.out.println( pq );
+
+        pq.decreaseKey( 5, 0.5 );
+        pq.increaseKey( 2, 8.0 );
+        System.out.println( pq );
+
+        System.out.println( "Dados da fila de prioridades mínima indexada através do iterador:" );
+        for ( int i : pq ) {
+            System.out.print( i + "(" + pq.keyOf( i ) + ") " );
+        }
+        System.out.println( "\n" );
+
+        while ( !pq.isEmpty() ) {
+            System.out.println( "Removeu mínimo: " + pq.delete() );
+        }
+        System.out.println();
+
+        // comparação com a fila de prioridades genérica
+        Random random = new Random( 42 );
+        boolean ok = check( new IndexedDoubleMinPQ( 500 ), random );
+        for ( int d = 2; d <= 8; d++ ) {
+            ok = ok && check( new IndexedDaryDoubleMinPQ( 500, d ), random );
+        }
+
+        System.out.println( "operações aleatórias: " + ( ok ? "corretas" : "incorretas!" ) );
+
+    }
+
+    private static boolean check( IndexedDoublePriorityQueue pq, Random random ) {
+
+        int maxN = 500;
+        IndexedMinPriorityQueue<Double> expected = new IndexedMinPriorityQueue<>( maxN );
+
+        for ( int op = 0; op < 200000; op++ ) {
+
+            int index = random.nextInt( maxN );
+            // poucas prioridades distintas, para exercitar empates
+            double key = random.nextInt( 1000 ) / 8.0;
+
+            switch ( random.nextInt( 6 ) ) {
+
+                case 0:
+                case 1:
+                    if ( !expected.contains( index ) ) {
+                        expected.insert( index, key );
+                        pq.insert( index, key );
+                    } else {
+                        expected.changeKey( index, key );
+                        pq.changeKey( index, key );
+                    }
+                    break;
+
+                case 2:
+                    // em empates o índice removido pode ser diferente, mas
+                    // a prioridade precisa ser a mesma
+                    if ( !expected.isEmpty() ) {
+                        if ( expected.peekKey() != pq.peekKey() ) {
+                            return false;
+                        }
+                        int removed = pq.delete();
+                        expected.delete( removed );
+                    }
+                    break;
+
+                case 3:
+                    if ( expected.contains( index ) ) {
+                        expected.delete( index );
+                        pq.delete( index );
+                    }
+                    break;
+
+                case 4:
+                    if ( expected.contains( index ) && key < expected.keyOf( index ) ) {
+                        expected.decreaseKey( index, key );
+                        pq.decreaseKey( index, key );
+                    }
+                    break;
+
+                default:
+                    if ( expected.contains( index ) && key > expected.keyOf( index ) ) {
+                        expected.increaseKey( index, key );
+                        pq.increaseKey( index, key );
+                    }
+                    break;
+
+            }
+
+            if ( expected.getSize() != pq.getSize() || expected.contains( index ) != pq.contains( index )
+                    || ( pq.contains( index ) && expected.keyOf( index ) != pq.keyOf( index ) ) ) {
+                return false;
+            }
+
+            if ( op % 50000 == 0 ) {
+                pq.clear();
+                expected = new IndexedMinPriorityQueue<>( maxN );
+            }
+
+        }
+
+        // o iterador precisa devolver as prioridades em ordem
+        double last = Double.NEGATIVE_INFINITY;
+        int count = 0;
+        for ( int i : pq ) {
+            if ( pq.keyOf( i ) < last ) {
+                return false;
+            }
+            last = pq.keyOf( i );
+            count++;
+        }
+
+        return count == pq.getSize();
+
+    }
+
+}
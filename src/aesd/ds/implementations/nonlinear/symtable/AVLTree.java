@@ -1,11 +1,10 @@
 package aesd.ds.implementations.nonlinear.symtable;
 
-import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.algorithms.tree.TraversalTypes;
 import aesd.algorithms.tree.TreeTraversals;
 import java.util.Iterator;
 import aesd.ds.interfaces.BinaryTree;
-import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.OrderedSymbolTable;
 
 /**
  * Implementação de uma árvore AVL (Adelson-Velsky e Landis).
@@ -26,7 +25,7 @@ import aesd.ds.interfaces.Queue;
  *
  * @author Prof. Dr. David Buzatto
  */
-public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<Key, Value> {
+public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<Key, Value>, OrderedSymbolTable<Key, Value> {
 
     /*
      * Classe interna estática que define os nós da árvore AVL.
@@ -35,6 +34,9 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         
         public int height;
         
+        // quantidade de nós na subárvore enraizada neste nó
+        public int size;
+        
         @Override
         public String toString() {
             return key + " -> " + value + " (" + height + ")";
@@ -48,6 +50,10 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
     // tamanho da árvore (quantidade de pares chave/valor)
     private int size;
     
+    // quantidade de inserções e remoções de chaves, usada pelos iteradores
+    // para detectar alterações durante o percurso
+    private int modCount;
+    
     // fator de balanceamento
     // valor máximo na diferença de alturas de duas subárvores
     private static final int ALLOWED_IMBALANCE = 1;
@@ -85,10 +91,12 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
             avlNode.left = null;
             avlNode.right = null;
             avlNode.height = 1;
+            avlNode.size = 1;
             
             node = avlNode;
             
             size++;
+            modCount++;
             
         } else {
 
@@ -150,6 +158,7 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         
         root = (AVLNode<Key, Value>) delete( root, key );
         size--;
+        modCount++;
         
     }
 
@@ -245,6 +254,160 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         
     }
 
+    @Override
+    public Key floor( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to floor() is null" );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+        Key floor = null;
+
+        while ( node != null ) {
+
+            int comp = key.compareTo( node.key );
+
+            if ( comp < 0 ) {
+                node = node.left;
+            } else if ( comp > 0 ) {
+                // node é candidato; algum nó à direita pode estar mais perto
+                floor = node.key;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+
+        }
+
+        return floor;
+
+    }
+
+    @Override
+    public Key ceiling( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to ceiling() is null" );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+        Key ceiling = null;
+
+        while ( node != null ) {
+
+            int comp = key.compareTo( node.key );
+
+            if ( comp > 0 ) {
+                node = node.right;
+            } else if ( comp < 0 ) {
+                // node é candidato; algum nó à esquerda pode estar mais perto
+                ceiling = node.key;
+                node = node.left;
+            } else {
+                return node.key;
+            }
+
+        }
+
+        return ceiling;
+
+    }
+
+    @Override
+    public int rank( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to rank() is null" );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+        int rank = 0;
+
+        while ( node != null ) {
+
+            int comp = key.compareTo( node.key );
+
+            if ( comp < 0 ) {
+                node = node.left;
+            } else if ( comp > 0 ) {
+                // node e toda a sua subárvore esquerda são menores que key
+                rank += nodeSize( node.left ) + 1;
+                node = node.right;
+            } else {
+                return rank + nodeSize( node.left );
+            }
+
+        }
+
+        return rank;
+
+    }
+
+    @Override
+    public Key select( int rank ) throws IllegalArgumentException {
+
+        if ( rank < 0 || rank >= getSize() ) {
+            throw new IllegalArgumentException( "argument to select() is invalid: " + rank );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+
+        while ( true ) {
+
+            int leftSize = nodeSize( node.left );
+
+            if ( rank < leftSize ) {
+                node = node.left;
+            } else if ( rank > leftSize ) {
+                rank -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+
+        }
+
+    }
+
+    @Override
+    public Iterable<Entry<Key, Value>> range( Key lower, Key higher ) throws IllegalArgumentException {
+
+        if ( lower == null ) {
+            throw new IllegalArgumentException( "first argument to range() is null" );
+        }
+
+        if ( higher == null ) {
+            throw new IllegalArgumentException( "second argument to range() is null" );
+        }
+
+        return new FailFastIterable<>( () -> TreeTraversals.range( root, lower, higher ), () -> modCount );
+
+    }
+
+    @Override
+    public int count( Key lower, Key higher ) throws IllegalArgumentException {
+
+        if ( lower == null ) {
+            throw new IllegalArgumentException( "first argument to count() is null" );
+        }
+
+        if ( higher == null ) {
+            throw new IllegalArgumentException( "second argument to count() is null" );
+        }
+
+        if ( lower.compareTo( higher ) > 0 ) {
+            return 0;
+        }
+
+        if ( contains( higher ) ) {
+            return rank( higher ) - rank( lower ) + 1;
+        }
+
+        return rank( higher ) - rank( lower );
+
+    }
+
     /**
      * Esvazia a árvore.
      */
@@ -252,6 +415,7 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
     public void clear() {
         root = (AVLNode<Key, Value>) clear( root );
         size = 0;
+        modCount++;
     }
 
     /*
@@ -312,6 +476,7 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         }
 
         ( (AVLNode<Key, Value>) node ).height = Math.max( height( node.left ), height( node.right ) ) + 1;
+        ( (AVLNode<Key, Value>) node ).size = nodeSize( node.left ) + nodeSize( node.right ) + 1;
         
         return node;
         
@@ -324,6 +489,14 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         return node == null ? 0 : ( (AVLNode<Key, Value>) node ).height;
     }
 
+    /**
+     * Retorna a quantidade de nós da subárvore enraizada em um nó ou 0 caso
+     * o nó seja nulo.
+     */
+    private int nodeSize( BinaryTree.Node<Key, Value> node ) {
+        return node == null ? 0 : ( (AVLNode<Key, Value>) node ).size;
+    }
+
     /**
      * Rotação EE/LL - simétrica à DD/RR
      * 
@@ -349,6 +522,8 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         
         aAvl.height = Math.max( height( a.left ), height( a.right ) ) + 1;
         bAvl.height = Math.max( height( b.left ), height( b.right ) ) + 1;
+        aAvl.size = nodeSize( a.left ) + nodeSize( a.right ) + 1;
+        bAvl.size = nodeSize( b.left ) + nodeSize( b.right ) + 1;
         
         return b;
         
@@ -379,6 +554,8 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         
         aAvl.height = Math.max( height( a.left ), height( a.right ) ) + 1;
         bAvl.height = Math.max( height( b.left ), height( b.right ) ) + 1;
+        aAvl.size = nodeSize( a.left ) + nodeSize( a.right ) + 1;
+        bAvl.size = nodeSize( b.left ) + nodeSize( b.right ) + 1;
         
         return b;
         
@@ -430,7 +607,7 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
     
     @Override
     public Iterable<Entry<Key, Value>> traverse( TraversalTypes type ) {
-        return TreeTraversals.traverse( root, type );
+        return new FailFastIterable<>( () -> TreeTraversals.traverse( root, type ), () -> modCount );
     }
     
     @Override
@@ -438,13 +615,19 @@ public class AVLTree<Key extends Comparable<Key>, Value> implements BinaryTree<K
         return traverse(TraversalTypes.INORDER ).iterator();
     }
     
+    /**
+     * Retorna as chaves em ordem. O iterável não é uma cópia: cada iterador
+     * percorre a árvore no momento em que é criado, e inserir ou remover
+     * chaves durante o percurso faz o iterador lançar
+     * ConcurrentModificationException (alterar o valor de uma chave
+     * existente é permitido). Para alterar a árvore enquanto as chaves são
+     * percorridas, copie-as antes.
+     *
+     * @return As chaves da árvore, em ordem.
+     */
     @Override
     public Iterable<Key> getKeys() {
-        Queue<Key> keys = new LinkedQueue<>();
-        for ( BinaryTree.Entry<Key, Value> e : traverse(TraversalTypes.INORDER ) ) {
-            keys.enqueue( e.getKey() );
-        }
-        return keys;
+        return new FailFastIterable<>( () -> TreeTraversals.keys( root, TraversalTypes.INORDER ), () -> modCount );
     }
     
     /*@Override
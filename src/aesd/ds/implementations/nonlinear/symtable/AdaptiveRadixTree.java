@@ -0,0 +1,1047 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.ResizingArrayList;
+import aesd.ds.implementations.linear.ResizingArrayQueue;
+import aesd.ds.interfaces.List;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.Iterator;
+
+/**
+ * Implementação de uma árvore radix adaptativa (Adaptive Radix Tree - ART)
+ * que funciona como uma tabela de símbolos para Strings.
+ *
+ * Assim como na Trie (ver), cada nível da árvore consome um caractere da
+ * chave (aqui, os caracteres são tratados como bytes, entre 0 e 255, como
+ * no alfabeto de R = 256 da Trie) e as operações custam tempo proporcional
+ * ao tamanho da chave. A diferença está no tamanho dos nós, que se adapta
+ * à quantidade de filhos:
+ *     - Node4 e Node16: até 4 ou 16 filhos, com os bytes ordenados em um
+ *       array pequeno e os filhos nas mesmas posições de um array paralelo;
+ *     - Node48: até 48 filhos, com um índice de 256 bytes que guarda, para
+ *       cada byte, a posição do filho (mais um) em um array de 48 posições;
+ *     - Node256: um array de 256 filhos, como os nós da Trie, só usado
+ *       quando o nó é realmente denso.
+ * Um nó cresce para o tipo seguinte quando fica cheio e encolhe quando a
+ * quantidade de filhos cai bem abaixo da capacidade do tipo anterior.
+ *
+ * Além disso, a árvore usa compressão de caminhos e expansão preguiçosa:
+ *     - uma cadeia de nós com um único filho é substituída por um único nó
+ *       que guarda apenas a quantidade de bytes pulados (prefixLength), e
+ *       não os bytes em si (compressão otimista). Os bytes pulados são os
+ *       mesmos para todas as chaves abaixo do nó e, quando precisam ser
+ *       conhecidos (na inserção), são lidos de qualquer uma dessas chaves;
+ *     - uma chave que é a única de uma subárvore é guardada diretamente no
+ *       nó em que ela se separa das outras: o filho é a própria String da
+ *       chave e o valor fica em um array paralelo ao de filhos, sem nenhum
+ *       objeto intermediário. Uma chave que termina exatamente em um nó
+ *       interno (prefixo de outras chaves) fica nos campos key/value do nó.
+ * Como os bytes pulados não são comparados durante a descida, as buscas
+ * sempre terminam comparando a chave inteira com a chave encontrada.
+ *
+ * Implementação baseada no artigo: LEIS, V.; KEMPER, A.; NEUMANN, T. The
+ * Adaptive Radix Tree: ARTful Indexing for Main-Memory Databases. In: IEEE
+ * 29th International Conference on Data Engineering (ICDE), 2013.
+ *
+ * @param <Value> Tipo dos valores armazenados na árvore.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class AdaptiveRadixTree<Value> implements SymbolTable<String, Value> {
+
+    // maior byte permitido nas chaves
+    private static final int R = 256;
+
+    // raiz (nunca é comprimida nem removida)
+    private Node root;
+
+    // número de chaves da árvore
+    private int n;
+
+    /*
+     * Nó interno. Os filhos são nós internos ou Strings (as próprias chaves,
+     * com o valor associado guardado na mesma posição de um array
+     * paralelo). As posições (slots) dependem do tipo do nó.
+     */
+    private static abstract class Node {
+
+        // quantidade de bytes da chave pulados antes deste nó
+        int prefixLength;
+
+        // chave que termina neste nó e seu valor, ou null
+        String key;
+        Object value;
+
+        // quantidade de filhos
+        int count;
+
+        // posição do filho associado ao byte b ou -1 se não existir
+        abstract int find( int b );
+
+        abstract Object child( int slot );
+
+        abstract Object value( int slot );
+
+        abstract void set( int slot, Object child, Object value );
+
+        // insere um filho para o byte b, que ainda não existe; exige que o
+        // nó não esteja cheio
+        abstract void add( int b, Object child, Object value );
+
+        // remove o filho associado ao byte b, que precisa existir
+        abstract void remove( int b );
+
+        abstract boolean isFull();
+
+        // menor byte com filho que seja maior que after, ou -1
+        abstract int nextByte( int after );
+
+        // nó do tipo seguinte com o mesmo conteúdo
+        abstract Node grow();
+
+        // nó do tipo anterior com o mesmo conteúdo, se o nó estiver esparso
+        // o suficiente, ou o próprio nó
+        abstract Node shrink();
+
+        // copia os dados comuns a todos os tipos de nó
+        <T extends Node> T copyHeader( T node ) {
+            node.prefixLength = prefixLength;
+            node.key = key;
+            node.value = value;
+            return node;
+        }
+
+    }
+
+    /*
+     * Nó com até 4 (Node4) ou 16 (Node16) filhos: os bytes ficam ordenados
+     * em keys e o filho do byte keys[i] fica em children[i].
+     */
+    private static class SmallNode extends Node {
+
+        byte[] keys;
+        Object[] children;
+        Object[] values;
+
+        SmallNode( int capacity ) {
+            keys = new byte[capacity];
+            children = new Object[capacity];
+            values = new Object[capacity];
+        }
+
+        @Override
+        int find( int b ) {
+            for ( int i = 0; i < count; i++ ) {
+                int k = keys[i] & 0xFF;
+                if ( k == b ) {
+                    return i;
+                }
+                if ( k > b ) {
+                    break;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object child( int slot ) {
+            return children[slot];
+        }
+
+        @Override
+        Object value( int slot ) {
+            return values[slot];
+        }
+
+        @Override
+        void set( int slot, Object child, Object value ) {
+            children[slot] = child;
+            values[slot] = value;
+        }
+
+        @Override
+        void add( int b, Object child, Object value ) {
+
+            // desloca os bytes maiores para manter a ordem
+            int i = count;
+            while ( i > 0 && ( keys[i - 1] & 0xFF ) > b ) {
+                keys[i] = keys[i - 1];
+                children[i] = children[i - 1];
+                values[i] = values[i - 1];
+                i--;
+            }
+
+            keys[i] = (byte) b;
+            children[i] = child;
+            values[i] = value;
+            count++;
+
+        }
+
+        @Override
+        void remove( int b ) {
+
+            int i = find( b );
+            count--;
+
+            for ( ; i < count; i++ ) {
+                keys[i] = keys[i + 1];
+                children[i] = children[i + 1];
+                values[i] = values[i + 1];
+            }
+
+            children[count] = null;
+            values[count] = null;
+
+        }
+
+        @Override
+        boolean isFull() {
+            return count == keys.length;
+        }
+
+        @Override
+        int nextByte( int after ) {
+            for ( int i = 0; i < count; i++ ) {
+                if ( ( keys[i] & 0xFF ) > after ) {
+                    return keys[i] & 0xFF;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Node grow() {
+
+            if ( keys.length == 4 ) {
+                SmallNode node = copyHeader( new SmallNode( 16 ) );
+                System.arraycopy( keys, 0, node.keys, 0, count );
+                System.arraycopy( children, 0, node.children, 0, count );
+                System.arraycopy( values, 0, node.values, 0, count );
+                node.count = count;
+                return node;
+            }
+
+            Node48 node = copyHeader( new Node48() );
+            for ( int i = 0; i < count; i++ ) {
+                node.add( keys[i] & 0xFF, children[i], values[i] );
+            }
+            return node;
+
+        }
+
+        @Override
+        Node shrink() {
+
+            if ( keys.length == 4 || count > 3 ) {
+                return this;
+            }
+
+            SmallNode node = copyHeader( new SmallNode( 4 ) );
+            System.arraycopy( keys, 0, node.keys, 0, count );
+            System.arraycopy( children, 0, node.children, 0, count );
+            System.arraycopy( values, 0, node.values, 0, count );
+            node.count = count;
+            return node;
+
+        }
+
+    }
+
+    /*
+     * Nó com até 48 filhos: index[b] é a posição do filho do byte b mais um
+     * (0 se não houver filho).
+     */
+    private static class Node48 extends Node {
+
+        byte[] index = new byte[R];
+        Object[] children = new Object[48];
+        Object[] values = new Object[48];
+
+        @Override
+        int find( int b ) {
+            return b < R ? ( index[b] & 0xFF ) - 1 : -1;
+        }
+
+        @Override
+        Object child( int slot ) {
+            return children[slot];
+        }
+
+        @Override
+        Object value( int slot ) {
+            return values[slot];
+        }
+
+        @Override
+        void set( int slot, Object child, Object value ) {
+            children[slot] = child;
+            values[slot] = value;
+        }
+
+        @Override
+        void add( int b, Object child, Object value ) {
+            int slot = 0;
+            while ( children[slot] != null ) {
+                slot++;
+            }
+            index[b] = (byte) ( slot + 1 );
+            children[slot] = child;
+            values[slot] = value;
+            count++;
+        }
+
+        @Override
+        void remove( int b ) {
+            int slot = find( b );
+            index[b] = 0;
+            children[slot] = null;
+            values[slot] = null;
+            count--;
+        }
+
+        @Override
+        boolean isFull() {
+            return count == 48;
+        }
+
+        @Override
+        int nextByte( int after ) {
+            for ( int b = after + 1; b < R; b++ ) {
+                if ( index[b] != 0 ) {
+                    return b;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Node grow() {
+            Node256 node = copyHeader( new Node256() );
+            for ( int b = 0; b < R; b++ ) {
+                if ( index[b] != 0 ) {
+                    node.add( b, children[index[b] - 1], values[index[b] - 1] );
+                }
+            }
+            return node;
+        }
+
+        @Override
+        Node shrink() {
+
+            if ( count > 12 ) {
+                return this;
+            }
+
+            SmallNode node = copyHeader( new SmallNode( 16 ) );
+            for ( int b = nextByte( -1 ); b != -1; b = nextByte( b ) ) {
+                node.add( b, children[index[b] - 1], values[index[b] - 1] );
+            }
+            return node;
+
+        }
+
+    }
+
+    /*
+     * Nó com até 256 filhos: a posição é o próprio byte.
+     */
+    private static class Node256 extends Node {
+
+        Object[] children = new Object[R];
+        Object[] values = new Object[R];
+
+        @Override
+        int find( int b ) {
+            return b < R && children[b] != null ? b : -1;
+        }
+
+        @Override
+        Object child( int slot ) {
+            return children[slot];
+        }
+
+        @Override
+        Object value( int slot ) {
+            return values[slot];
+        }
+
+        @Override
+        void set( int slot, Object child, Object value ) {
+            children[slot] = child;
+            values[slot] = value;
+        }
+
+        @Override
+        void add( int b, Object child, Object value ) {
+            children[b] = child;
+            values[b] = value;
+            count++;
+        }
+
+        @Override
+        void remove( int b ) {
+            children[b] = null;
+            values[b] = null;
+            count--;
+        }
+
+        @Override
+        boolean isFull() {
+            return false;
+        }
+
+        @Override
+        int nextByte( int after ) {
+            for ( int b = after + 1; b < R; b++ ) {
+                if ( children[b] != null ) {
+                    return b;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Node grow() {
+            throw new IllegalStateException( "Node256 cannot grow" );
+        }
+
+        @Override
+        Node shrink() {
+
+            if ( count > 37 ) {
+                return this;
+            }
+
+            Node48 node = copyHeader( new Node48() );
+            for ( int b = 0; b < R; b++ ) {
+                if ( children[b] != null ) {
+                    node.add( b, children[b], values[b] );
+                }
+            }
+            return node;
+
+        }
+
+    }
+
+    /**
+     * Constrói uma árvore radix adaptativa vazia.
+     */
+    public AdaptiveRadixTree() {
+        root = new SmallNode( 4 );
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public Value get( String key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        int length = key.length();
+        Node node = root;
+        int depth = 0;
+
+        while ( true ) {
+
+            depth += node.prefixLength;
+
+            if ( depth > length ) {
+                return null;
+            }
+
+            if ( depth == length ) {
+                return key.equals( node.key ) ? (Value) node.value : null;
+            }
+
+            int slot = node.find( key.charAt( depth ) );
+            if ( slot == -1 ) {
+                return null;
+            }
+
+            Object child = node.child( slot );
+            if ( child instanceof String ) {
+                return key.equals( child ) ? (Value) node.value( slot ) : null;
+            }
+
+            node = (Node) child;
+            depth++;
+
+        }
+
+    }
+
+    @Override
+    public boolean contains( String key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return get( key ) != null;
+
+    }
+
+    @Override
+    public void put( String key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        int length = key.length();
+        for ( int i = 0; i < length; i++ ) {
+            if ( key.charAt( i ) >= R ) {
+                throw new IllegalArgumentException( "key contains a character greater than " + ( R - 1 ) );
+            }
+        }
+
+        Node parent = null;
+        int parentSlot = -1;
+        Node node = root;
+        int depth = 0;
+
+        while ( true ) {
+
+            if ( node.prefixLength > 0 ) {
+
+                // os bytes pulados são lidos de uma chave qualquer da subárvore
+                String other = anyKey( node );
+                int p = 0;
+                while ( p < node.prefixLength && depth + p < length
+                        && key.charAt( depth + p ) == other.charAt( depth + p ) ) {
+                    p++;
+                }
+
+                // a chave diverge dentro do prefixo: um novo Node4 passa a
+                // ocupar o lugar do nó, com os p bytes em comum como prefixo
+                if ( p < node.prefixLength ) {
+
+                    SmallNode split = new SmallNode( 4 );
+                    split.prefixLength = p;
+                    node.prefixLength -= p + 1;
+                    split.add( other.charAt( depth + p ), node, null );
+
+                    if ( depth + p == length ) {
+                        split.key = key;
+                        split.value = value;
+                    } else {
+                        split.add( key.charAt( depth + p ), key, value );
+                    }
+
+                    replace( parent, parentSlot, split );
+                    n++;
+                    return;
+
+                }
+
+                depth += node.prefixLength;
+
+            }
+
+            // a chave termina neste nó
+            if ( depth == length ) {
+                if ( node.key == null ) {
+                    node.key = key;
+                    n++;
+                }
+                node.value = value;
+                return;
+            }
+
+            int b = key.charAt( depth );
+            int slot = node.find( b );
+
+            // não há filho para o byte: a chave é inserida como folha
+            if ( slot == -1 ) {
+                if ( node.isFull() ) {
+                    node = node.grow();
+                    replace( parent, parentSlot, node );
+                }
+                node.add( b, key, value );
+                n++;
+                return;
+            }
+
+            Object child = node.child( slot );
+
+            // a folha encontrada é substituída por um Node4 que separa as
+            // duas chaves a partir do primeiro byte em que elas diferem
+            if ( child instanceof String ) {
+
+                String other = (String) child;
+
+                if ( other.equals( key ) ) {
+                    node.set( slot, other, value );
+                    return;
+                }
+
+                int start = depth + 1;
+                int p = 0;
+                while ( start + p < length && start + p < other.length()
+                        && key.charAt( start + p ) == other.charAt( start + p ) ) {
+                    p++;
+                }
+
+                SmallNode inner = new SmallNode( 4 );
+                inner.prefixLength = p;
+                int split = start + p;
+
+                if ( split == other.length() ) {
+                    inner.key = other;
+                    inner.value = node.value( slot );
+                } else {
+                    inner.add( other.charAt( split ), other, node.value( slot ) );
+                }
+
+                if ( split == length ) {
+                    inner.key = key;
+                    inner.value = value;
+                } else {
+                    inner.add( key.charAt( split ), key, value );
+                }
+
+                node.set( slot, inner, null );
+                n++;
+                return;
+
+            }
+
+            parent = node;
+            parentSlot = slot;
+            node = (Node) child;
+            depth++;
+
+        }
+
+    }
+
+    @Override
+    public void delete( String key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        int length = key.length();
+        Node parent = null;
+        int parentSlot = -1;
+        Node node = root;
+        int depth = 0;
+
+        while ( true ) {
+
+            depth += node.prefixLength;
+
+            if ( depth > length ) {
+                return;
+            }
+
+            if ( depth == length ) {
+                if ( !key.equals( node.key ) ) {
+                    return;
+                }
+                node.key = null;
+                node.value = null;
+                break;
+            }
+
+            int b = key.charAt( depth );
+            int slot = node.find( b );
+            if ( slot == -1 ) {
+                return;
+            }
+
+            Object child = node.child( slot );
+
+            if ( child instanceof String ) {
+                if ( !key.equals( child ) ) {
+                    return;
+                }
+                node.remove( b );
+                break;
+            }
+
+            parent = node;
+            parentSlot = slot;
+            node = (Node) child;
+            depth++;
+
+        }
+
+        n--;
+        compact( parent, parentSlot, node );
+
+    }
+
+    /*
+     * Depois de uma remoção em node, que é filho de parent na posição
+     * parentSlot: um nó que não é a raiz tem sempre ao menos duas chaves ou
+     * filhos, então, se restou apenas um, o nó é substituído por ele no pai
+     * (uma folha sobe como está; um nó interno absorve o prefixo do nó
+     * removido e o byte que os ligava). Caso contrário, o nó encolhe se
+     * estiver esparso.
+     */
+    private void compact( Node parent, int parentSlot, Node node ) {
+
+        if ( node != root && node.count + ( node.key == null ? 0 : 1 ) == 1 ) {
+
+            if ( node.key != null ) {
+                parent.set( parentSlot, node.key, node.value );
+                return;
+            }
+
+            int b = node.nextByte( -1 );
+            int slot = node.find( b );
+            Object child = node.child( slot );
+
+            if ( child instanceof Node ) {
+                ( (Node) child ).prefixLength += node.prefixLength + 1;
+            }
+
+            parent.set( parentSlot, child, node.value( slot ) );
+            return;
+
+        }
+
+        Node smaller = node.shrink();
+        if ( smaller != node ) {
+            replace( parent, parentSlot, smaller );
+        }
+
+    }
+
+    // coloca node no lugar do filho parentSlot de parent (ou da raiz)
+    private void replace( Node parent, int parentSlot, Node node ) {
+        if ( parent == null ) {
+            root = node;
+        } else {
+            parent.set( parentSlot, node, null );
+        }
+    }
+
+    // uma chave qualquer da subárvore de node, ou null se ela estiver vazia
+    private static String anyKey( Node node ) {
+
+        while ( true ) {
+
+            if ( node.key != null ) {
+                return node.key;
+            }
+
+            int b = node.nextByte( -1 );
+            if ( b == -1 ) {
+                return null;
+            }
+
+            Object child = node.child( node.find( b ) );
+            if ( child instanceof String ) {
+                return (String) child;
+            }
+
+            node = (Node) child;
+
+        }
+
+    }
+
+    @Override
+    public void clear() {
+        root = new SmallNode( 4 );
+        n = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+
+    @Override
+    public Iterable<String> getKeys() {
+        return getKeysWithPrefix( "" );
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public Iterator<Entry<String, Value>> iterator() {
+
+        List<Entry<String, Value>> entries = new ResizingArrayList<>();
+        collectEntries( root, entries );
+
+        return entries.iterator();
+
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void collectEntries( Node node, List<Entry<String, Value>> entries ) {
+
+        if ( node.key != null ) {
+            entries.add( new Entry<>( node.key, (Value) node.value ) );
+        }
+
+        for ( int b = node.nextByte( -1 ); b != -1; b = node.nextByte( b ) ) {
+            int slot = node.find( b );
+            Object child = node.child( slot );
+            if ( child instanceof String ) {
+                entries.add( new Entry<>( (String) child, (Value) node.value( slot ) ) );
+            } else {
+                collectEntries( (Node) child, entries );
+            }
+        }
+
+    }
+
+    /**
+     * Retorna todas as chaves da árvore que começam com o prefixo informado,
+     * em ordem. Localiza o nó em que o prefixo termina e coleta todas as
+     * chaves da subárvore a partir dele; como os bytes pulados pela
+     * compressão de caminhos não são comparados na descida, o prefixo é
+     * conferido em uma das chaves da subárvore antes da coleta.
+     *
+     * @param prefix O prefixo a ser buscado.
+     * @return As chaves da árvore que começam com prefix.
+     */
+    public Iterable<String> getKeysWithPrefix( String prefix ) {
+
+        Queue<String> results = new ResizingArrayQueue<>();
+        int length = prefix.length();
+        Node node = root;
+        int depth = 0;
+
+        while ( true ) {
+
+            depth += node.prefixLength;
+
+            if ( depth >= length ) {
+                String some = anyKey( node );
+                if ( some != null && some.startsWith( prefix ) ) {
+                    collect( node, results );
+                }
+                return results;
+            }
+
+            int slot = node.find( prefix.charAt( depth ) );
+            if ( slot == -1 ) {
+                return results;
+            }
+
+            Object child = node.child( slot );
+            if ( child instanceof String ) {
+                if ( ( (String) child ).startsWith( prefix ) ) {
+                    results.enqueue( (String) child );
+                }
+                return results;
+            }
+
+            node = (Node) child;
+            depth++;
+
+        }
+
+    }
+
+    // coleta as chaves da subárvore em ordem: a chave que termina no nó
+    // (prefixo de todas as outras) e então os filhos em ordem de byte
+    private void collect( Node node, Queue<String> results ) {
+
+        if ( node.key != null ) {
+            results.enqueue( node.key );
+        }
+
+        for ( int b = node.nextByte( -1 ); b != -1; b = node.nextByte( b ) ) {
+            Object child = node.child( node.find( b ) );
+            if ( child instanceof String ) {
+                results.enqueue( (String) child );
+            } else {
+                collect( (Node) child, results );
+            }
+        }
+
+    }
+
+    /**
+     * Retorna todas as chaves da árvore que casam com o padrão informado, em
+     * ordem, onde o caractere '.' casa com qualquer caractere.
+     *
+     * @param pattern O padrão.
+     * @return As chaves da árvore que casam com o padrão.
+     */
+    public Iterable<String> getKeysThatMatch( String pattern ) {
+        Queue<String> results = new ResizingArrayQueue<>();
+        collect( root, 0, pattern, results );
+        return results;
+    }
+
+    // os bytes pulados pela compressão de caminhos não são conferidos na
+    // descida, apenas o tamanho; por isso cada chave candidata é comparada
+    // com o padrão inteiro
+    private void collect( Object x, int depth, String pattern, Queue<String> results ) {
+
+        if ( x instanceof String ) {
+            if ( matches( (String) x, pattern ) ) {
+                results.enqueue( (String) x );
+            }
+            return;
+        }
+
+        Node node = (Node) x;
+        depth += node.prefixLength;
+
+        if ( depth > pattern.length() ) {
+            return;
+        }
+
+        if ( depth == pattern.length() ) {
+            if ( node.key != null && matches( node.key, pattern ) ) {
+                results.enqueue( node.key );
+            }
+            return;
+        }
+
+        char c = pattern.charAt( depth );
+
+        if ( c == '.' ) {
+            for ( int b = node.nextByte( -1 ); b != -1; b = node.nextByte( b ) ) {
+                collect( node.child( node.find( b ) ), depth + 1, pattern, results );
+            }
+        } else {
+            int slot = node.find( c );
+            if ( slot != -1 ) {
+                collect( node.child( slot ), depth + 1, pattern, results );
+            }
+        }
+
+    }
+
+    private static boolean matches( String key, String pattern ) {
+
+        if ( key.length() != pattern.length() ) {
+            return false;
+        }
+
+        for ( int i = 0; i < key.length(); i++ ) {
+            char c = pattern.charAt( i );
+            if ( c != '.' && c != key.charAt( i ) ) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Retorna o maior prefixo de query que é uma chave presente na árvore.
+     * Desce pela árvore seguindo os caracteres de query e, a cada chave
+     * encontrada no caminho que seja prefixo de query, atualiza o maior
+     * prefixo encontrado até então.
+     *
+     * @param query A string cujo maior prefixo será buscado.
+     * @return O maior prefixo de query presente na árvore, ou null caso
+     * nenhum prefixo esteja presente.
+     */
+    public String getLongestPrefixOf( String query ) {
+
+        if ( query == null ) {
+            throw new IllegalArgumentException( "argument to longestPrefixOf() is null" );
+        }
+
+        int length = query.length();
+        String longest = null;
+        Node node = root;
+        int depth = 0;
+
+        while ( true ) {
+
+            depth += node.prefixLength;
+
+            if ( depth > length ) {
+                return longest;
+            }
+
+            if ( node.key != null && query.startsWith( node.key ) ) {
+                longest = node.key;
+            }
+
+            if ( depth == length ) {
+                return longest;
+            }
+
+            int slot = node.find( query.charAt( depth ) );
+            if ( slot == -1 ) {
+                return longest;
+            }
+
+            Object child = node.child( slot );
+            if ( child instanceof String ) {
+                return query.startsWith( (String) child ) ? (String) child : longest;
+            }
+
+            node = (Node) child;
+            depth++;
+
+        }
+
+    }
+
+    /**
+     * Retorna a quantidade de nós internos de cada tipo (Node4, Node16,
+     * Node48 e Node256), útil para avaliar o uso de memória.
+     *
+     * @return um array com as quantidades de nós de cada tipo.
+     */
+    public int[] getNodeCounts() {
+        int[] counts = new int[4];
+        countNodes( root, counts );
+        return counts;
+    }
+
+    private void countNodes( Node node, int[] counts ) {
+
+        if ( node instanceof SmallNode ) {
+            counts[( (SmallNode) node ).keys.length == 4 ? 0 : 1]++;
+        } else if ( node instanceof Node48 ) {
+            counts[2]++;
+        } else {
+            counts[3]++;
+        }
+
+        for ( int b = node.nextByte( -1 ); b != -1; b = node.nextByte( b ) ) {
+            Object child = node.child( node.find( b ) );
+            if ( child instanceof Node ) {
+                countNodes( (Node) child, counts );
+            }
+        }
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        if ( !isEmpty() ) {
+            for ( Entry<String, Value> e : this ) {
+                sb.append( e ).append( "\n" );
+            }
+        } else {
+            sb.append( "empty adaptive radix tree!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+}
@@ -6,6 +6,9 @@
 package aesd.ds.implementations.nonlinear.symtable;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.interfaces.Queue;
 import aesd.ds.interfaces.SymbolTable;
 
 /**
@@ -18,26 +21,42 @@ import aesd.ds.interfaces.SymbolTable;
  * bancos de dados e sistemas de arquivos, cenários em que cada acesso a um
  * nó é uma operação de E/S cara.
  *
- * M (constante privada) é a quantidade máxima de filhos por nó; todo nó,
- * exceto a raiz, deve ter entre M/2 e M filhos — manter essa ocupação
- * mínima é o que garante que a árvore permaneça balanceada.
+ * M (a ordem, definida no construtor) é a quantidade máxima de filhos por
+ * nó; todo nó, exceto a raiz, deve ter entre M/2 e M filhos — manter essa
+ * ocupação mínima é o que garante que a árvore permaneça balanceada. Em
+ * memória, o mesmo argumento vale para a hierarquia de caches do
+ * processador: quanto maior M, menor a altura e menos nós (linhas de
+ * cache) precisam ser visitados por busca.
  *
- * Cada nó (BNode) guarda um array de Entry, mas o significado de uma Entry
- * muda de acordo com o nível do nó:
- *     - em um nó externo (folha, ht == 0), a Entry representa um par
- *       chave/valor de fato armazenado na árvore;
- *     - em um nó interno (ht > 0), a Entry funciona como separador/
- *       roteador: sua chave é a menor chave presente na subárvore apontada
- *       por next, usada para decidir por qual filho descer durante a busca.
+ * Cada nó (BNode) guarda as suas chaves em um único array contíguo, e não
+ * em objetos de entrada separados, mas o significado de cada posição muda
+ * de acordo com o nível do nó:
+ *     - em um nó externo (folha, ht == 0), a posição j representa um par
+ *       chave/valor de fato armazenado na árvore (keys[j] e values[j]);
+ *     - em um nó interno (ht > 0), a posição j funciona como separador/
+ *       roteador: keys[j] é um limite inferior das chaves da subárvore
+ *       apontada por next[j] (a menor delas, ou algo entre ela e as
+ *       chaves do filho anterior), usado para decidir por qual filho
+ *       descer durante a busca.
+ *
+ * Quando as chaves são Integer ou Long (detectado na primeira inserção),
+ * elas são armazenadas em um array long[] (nkeys), e a comparação passa a
+ * ser entre primitivos, sem seguir ponteiros nem chamar compareTo(). Nos
+ * dois casos, a posição dentro de um nó é encontrada com uma busca binária
+ * sem desvios (branch-free): o laço sempre executa a mesma quantidade de
+ * iterações e a escolha da metade é feita com uma expressão condicional,
+ * que o JIT consegue transformar em uma movimentação condicional (cmov),
+ * evitando erros de predição de desvio.
  *
  * A variável height (e o parâmetro ht usado nos métodos recursivos) conta
  * quantos níveis internos faltam percorrer até alcançar os nós externos;
  * ht chega a 0 exatamente quando o método está operando sobre um nó
  * externo.
  *
- * Esta implementação didática cobre apenas inserção e busca; delete(),
- * contains(), clear(), getKeys() e iterator() lançam
- * UnsupportedOperationException de propósito, não por estarem incompletos.
+ * A remoção retira a chave da sua folha e, caso algum nó fique com menos
+ * de M/2 filhos, toma emprestadas entradas de um irmão (redistribuição) ou
+ * funde o nó com ele, propagando a correção para cima; se a raiz interna
+ * ficar com um único filho, esse filho passa a ser a raiz.
  *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms.
  * 4. ed. Boston: Pearson Education, 2011. 955 p.
@@ -49,55 +68,50 @@ import aesd.ds.interfaces.SymbolTable;
  */
 public class BTree<Key extends Comparable<Key>, Value> implements SymbolTable<Key, Value> {
 
-    // máximo de filhos por nó = M-1
-    // precisa ser par e maior que 2
-    private static final int M = 4;
+    // ordem padrão (máximo de filhos por nó)
+    private static final int DEFAULT_M = 4;
+
+    // tipos de armazenamento das chaves
+    private static final int GENERIC = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
 
     /*
-     * Classe interna estática que define os nós da árvore b.
+     * Classe interna estática que define os nós da árvore b. Apenas um dos
+     * arrays de chaves é usado (keys ou nkeys), e apenas um dos arrays
+     * values (nós externos) ou next (nós internos).
      */
-    @SuppressWarnings( "unchecked" )
-    private static final class BNode<Key extends Comparable<Key>, Value> {
-        
+    private static final class BNode {
+
         // quantidade de filhos
         private int m;
-        
-        // array de filhos
-        private Entry<Key, Value>[] children = (Entry<Key, Value>[]) new Entry[M];
 
-        // cria um nó com m filhos
-        private BNode( int m ) {
-            this.m = m;
-        }
-        
+        // chaves genéricas
+        private Object[] keys;
+
+        // chaves numéricas
+        private long[] nkeys;
+
+        // valores (nós externos)
+        private Object[] values;
+
+        // filhos (nós internos)
+        private BNode[] next;
+
     }
 
-    /*
-     * Classe interna estática que define as entradas dos nós da árvore b.
-     * Nós internos usam apenas key e next (chave e próximo): key é a menor
-     * chave da subárvore apontada por next, funcionando como separador.
-     * Nós externos usam apenas key e value (chave e valor).
-     */
-    private static final class Entry<Key extends Comparable<Key>, Value> {
-        
-        private Key key;
-        private Value value;
-        private BNode next;
-        
-        public Entry( Key key, Value value, BNode<Key, Value> next ) {
-            this.key = key;
-            this.value = value;
-            this.next = next;
-        }
-        
-    }
-    
+    // máximo de filhos por nó
+    private final int M;
+
+    // tipo de armazenamento das chaves
+    private int keyKind;
+
     // raiz da árvore
-    private BNode<Key, Value> root;
-    
+    private BNode root;
+
     // altura da árvore
     private int height;
-    
+
     // quantidade de pares chave-valor contidos na árvore
     private int n;
 
@@ -105,11 +119,31 @@ public class BTree<Key extends Comparable<Key>, Value> implements SymbolTable<Ke
     // (não apenas atualizou o valor de uma chave já existente)
     private boolean added;
 
+    // true se a última chamada a remove() removeu uma chave
+    private boolean removed;
+
     /**
-     * Constrói uma Árvore b vazia.
+     * Constrói uma Árvore b vazia de ordem 4.
      */
     public BTree() {
-        root = new BNode<>( 0 );
+        this( DEFAULT_M );
+    }
+
+    /**
+     * Constrói uma Árvore b vazia com a ordem fornecida.
+     *
+     * @param m Quantidade máxima de filhos por nó.
+     * @throws IllegalArgumentException se m não for par e maior que 2.
+     */
+    public BTree( int m ) throws IllegalArgumentException {
+
+        if ( m < 4 || m % 2 != 0 ) {
+            throw new IllegalArgumentException( "order must be even and greater than 2" );
+        }
+
+        M = m;
+        root = newNode( true );
+
     }
 
     @Override
@@ -121,59 +155,121 @@ public class BTree<Key extends Comparable<Key>, Value> implements SymbolTable<Ke
     public int getSize() {
         return n;
     }
-    
+
     public int getHeight() {
         return height;
     }
 
+    /**
+     * Retorna a ordem da árvore.
+     *
+     * @return A quantidade máxima de filhos por nó.
+     */
+    public int getOrder() {
+        return M;
+    }
+
     @Override
-    public Value get(Key key) {
-        
+    public Value get( Key key ) {
+
         if ( key == null ) {
             throw new IllegalArgumentException( "argument to get() is null" );
         }
-        
+
+        if ( n == 0 ) {
+            return null;
+        }
+
         return search( root, key, height );
-        
+
     }
 
     @SuppressWarnings( "unchecked" )
-    private Value search( BNode<Key, Value> x, Key key, int ht ) {
-        
-        Entry<Key, Value>[] children = x.children;
+    private Value search( BNode x, Key key, int ht ) {
 
-        // nó externo
-        if ( ht == 0 ) {
-            for ( int j = 0; j < x.m; j++ ) {
-                if ( eq( key, children[j].key ) ) {
-                    return children[j].value;
-                }
-            }
-        } else { // nó interno
-            // a chave de cada entrada interna é a menor chave de sua
-            // subárvore, então basta achar o primeiro filho cuja chave é
-            // maior que key (ou o último filho, se nenhum for) para saber
-            // que key, se existir, está na subárvore do filho anterior
-            for ( int j = 0; j < x.m; j++ ) {
-                if ( j+1 == x.m || less( key, (Key) children[j+1].key ) ) {
-                    return (Value) search( children[j].next, key, ht-1 );
-                }
+        if ( keyKind != GENERIC ) {
+
+            long k = toLong( key );
+
+            // a chave de cada posição interna é um limite inferior de sua
+            // subárvore, então key, se existir, está no último filho cuja
+            // chave é menor ou igual a ela
+            for ( ; ht > 0; ht-- ) {
+                x = x.next[floor( x, k )];
             }
+
+            int j = floor( x, k );
+            return x.nkeys[j] == k ? (Value) x.values[j] : null;
+
+        }
+
+        for ( ; ht > 0; ht-- ) {
+            x = x.next[floor( x, key )];
+        }
+
+        int j = floor( x, key );
+        return eq( key, (Key) x.keys[j] ) ? (Value) x.values[j] : null;
+
+    }
+
+    /*
+     * Busca binária sem desvios: retorna o maior j em [0, m) tal que
+     * keys[j] <= key, ou 0 caso não exista.
+     */
+    private int floor( BNode x, long key ) {
+
+        long[] keys = x.nkeys;
+        int base = 0;
+
+        for ( int len = x.m; len > 1; ) {
+            int half = len >>> 1;
+            base = keys[base + half] <= key ? base + half : base;
+            len -= half;
         }
-        
-        return null;
-        
+
+        return base;
+
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private int floor( BNode x, Key key ) {
+
+        Object[] keys = x.keys;
+        int base = 0;
+
+        for ( int len = x.m; len > 1; ) {
+            int half = len >>> 1;
+            base = ( (Key) keys[base + half] ).compareTo( key ) <= 0 ? base + half : base;
+            len -= half;
+        }
+
+        return base;
+
     }
 
     @Override
     public void put( Key key, Value val ) {
-        
+
         if ( key == null ) {
             throw new IllegalArgumentException( "argument key to put() is null" );
         }
 
+        if ( val == null ) {
+            delete( key );
+            return;
+        }
+
+        // a forma de armazenar as chaves é escolhida pela primeira chave
+        if ( n == 0 && height == 0 ) {
+            int kind = key instanceof Integer ? INT : key instanceof Long ? LONG : GENERIC;
+            if ( kind != keyKind ) {
+                keyKind = kind;
+                root = newNode( true );
+            }
+        }
+
         added = false;
-        BNode<Key, Value> u = insert( root, key, val, height );
+        BNode u = insert( root, key, val, height );
 
         if ( added ) {
             n++;
@@ -184,67 +280,68 @@ public class BTree<Key extends Comparable<Key>, Value> implements SymbolTable<Ke
         }
 
         // precisa dividir a raiz
-        BNode<Key, Value> t = new BNode<>( 2 );
-        t.children[0] = new Entry<>( root.children[0].key, null, root );
-        t.children[1] = new Entry<>( u.children[0].key, null, u );
-        
+        BNode t = newNode( false );
+        t.m = 2;
+        copyKey( root, 0, t, 0 );
+        copyKey( u, 0, t, 1 );
+        t.next[0] = root;
+        t.next[1] = u;
+
         root = t;
         height++;
-        
+
     }
 
-    @SuppressWarnings( "unchecked" )
-    private BNode<Key, Value> insert( BNode<Key, Value> h, Key key, Value val, int ht ) {
-        
+    private BNode insert( BNode h, Key key, Value val, int ht ) {
+
         int j;
-        Entry<Key, Value> t = new Entry<>( key, val, null );
 
         // nó externo
         if ( ht == 0 ) {
-            for ( j = 0; j < h.m; j++ ) {
-                if ( eq( key, h.children[j].key ) ) {
+
+            j = h.m == 0 ? 0 : floorOf( h, key );
+
+            if ( h.m > 0 ) {
+                int comp = compare( key, h, j );
+                if ( comp == 0 ) {
                     // chave já existe: apenas atualiza o valor associado,
                     // sem crescer o nó nem disparar split
-                    h.children[j].value = val;
+                    h.values[j] = val;
                     return null;
                 }
-                if ( less( key, h.children[j].key ) ) {
-                    break;
+                if ( comp > 0 ) {
+                    j++;
                 }
             }
-            added = true;
-        } else { // nó interno
-            for ( j = 0; j < h.m; j++ ) {
-                if ( ( j+1 == h.m ) || less( key, h.children[j+1].key ) ) {
 
-                    // desce recursivamente pela subárvore correta; se a
-                    // inserção lá embaixo causar um split, u é o novo nó
-                    // irmão à direita que precisa ser inserido neste nível
-                    BNode<Key, Value> u = insert( h.children[j++].next, key, val, ht-1 );
+            added = true;
+            shiftRight( h, j );
+            setKey( h, j, key );
+            h.values[j] = val;
 
-                    if ( u == null ) {
-                        return null;
-                    }
+        } else { // nó interno
 
-                    // a chave roteadora da nova entrada é a menor chave do
-                    // nó dividido (u), mantendo a invariante de que toda
-                    // entrada interna aponta para sua subárvore usando a
-                    // menor chave dela como separador
-                    t.key = u.children[0].key;
-                    t.value = null;
-                    t.next = u;
+            j = floorOf( h, key );
 
-                    break;
+            // desce recursivamente pela subárvore correta; se a inserção
+            // lá embaixo causar um split, u é o novo nó irmão à direita que
+            // precisa ser inserido neste nível
+            BNode u = insert( h.next[j++], key, val, ht-1 );
 
-                }
+            if ( u == null ) {
+                return null;
             }
-        }
 
-        for ( int i = h.m; i > j; i-- ) {
-            h.children[i] = h.children[i-1];
+            // a chave roteadora da nova posição é a menor chave do nó
+            // dividido (u), mantendo a invariante de que toda posição
+            // interna aponta para sua subárvore usando um limite inferior
+            // dela como separador
+            shiftRight( h, j );
+            copyKey( u, 0, h, j );
+            h.next[j] = u;
+
         }
 
-        h.children[j] = t;
         h.m++;
 
         // se o nó ainda não atingiu a capacidade máxima M, a inserção
@@ -254,25 +351,242 @@ public class BTree<Key extends Comparable<Key>, Value> implements SymbolTable<Ke
         if ( h.m < M ) {
             return null;
         } else {
-            return split(h);
+            return split( h, ht == 0 );
         }
 
     }
 
     // divide o nó em dois: a metade da esquerda continua em h, e a metade
     // da direita é devolvida como um novo nó irmão, que caberá ao chamador
-    // (insert() ou put()) inserir no nível acima como uma nova entrada
+    // (insert() ou put()) inserir no nível acima como uma nova posição
     // roteadora
-    private BNode<Key, Value> split( BNode<Key, Value> h ) {
+    private BNode split( BNode h, boolean leaf ) {
 
-        BNode<Key, Value> t = new BNode<>( M / 2 );
+        BNode t = newNode( leaf );
+        move( h, M / 2, t, 0, M / 2 );
+        t.m = M / 2;
         h.m = M / 2;
+        clearFrom( h, M / 2, M );
+
+        return t;
+
+    }
+
+    @Override
+    public void delete( Key key ) throws IllegalArgumentException {
 
-        for ( int j = 0; j < M/2; j++ ) {
-            t.children[j] = h.children[M/2+j];
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
         }
 
-        return t;
+        if ( n == 0 ) {
+            return;
+        }
+
+        removed = false;
+        remove( root, key, height );
+
+        if ( removed ) {
+            n--;
+        }
+
+        // a raiz interna ficou com um único filho: ele passa a ser a raiz
+        while ( height > 0 && root.m == 1 ) {
+            root = root.next[0];
+            height--;
+        }
+
+    }
+
+    /*
+     * Remove key da subárvore enraizada em h, de altura ht. Retorna true se
+     * h ficou com menos de M/2 filhos, para que o chamador o corrija.
+     */
+    private boolean remove( BNode h, Key key, int ht ) {
+
+        int j = floorOf( h, key );
+
+        if ( ht == 0 ) {
+
+            if ( h.m == 0 || compare( key, h, j ) != 0 ) {
+                return false;
+            }
+
+            move( h, j + 1, h, j, h.m - j - 1 );
+            h.m--;
+            clearFrom( h, h.m, h.m + 1 );
+            removed = true;
+
+        } else if ( remove( h.next[j], key, ht-1 ) ) {
+            fix( h, j, ht-1 );
+        }
+
+        return h.m < M / 2;
+
+    }
+
+    /*
+     * Corrige o filho j de h, que ficou com menos de M/2 filhos, usando um
+     * irmão adjacente: se os dois juntos tiverem ao menos M entradas, elas
+     * são redistribuídas igualmente; senão, os dois são fundidos.
+     */
+    private void fix( BNode h, int j, int childHt ) {
+
+        int i = j + 1 < h.m ? j : j - 1;
+        BNode left = h.next[i];
+        BNode right = h.next[i+1];
+
+        // em nós internos, a primeira chave do irmão da direita passará a
+        // ser um separador interno; o separador do pai é um limite válido
+        // entre as duas subárvores
+        if ( childHt > 0 ) {
+            copyKey( h, i+1, right, 0 );
+        }
+
+        int total = left.m + right.m;
+
+        if ( total >= M ) {
+
+            int leftSize = total / 2;
+
+            if ( left.m < leftSize ) {
+                // move as primeiras entradas da direita para o fim da esquerda
+                int k = leftSize - left.m;
+                move( right, 0, left, left.m, k );
+                move( right, k, right, 0, right.m - k );
+                clearFrom( right, right.m - k, right.m );
+                left.m += k;
+                right.m -= k;
+            } else {
+                // move as últimas entradas da esquerda para o começo da direita
+                int k = left.m - leftSize;
+                move( right, 0, right, k, right.m );
+                move( left, leftSize, right, 0, k );
+                clearFrom( left, leftSize, left.m );
+                left.m -= k;
+                right.m += k;
+            }
+
+            copyKey( right, 0, h, i+1 );
+
+        } else {
+
+            move( right, 0, left, left.m, right.m );
+            left.m = total;
+
+            move( h, i+2, h, i+1, h.m - i - 2 );
+            h.m--;
+            clearFrom( h, h.m, h.m + 1 );
+
+        }
+
+    }
+
+    @Override
+    public boolean contains( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return get( key ) != null;
+
+    }
+
+    @Override
+    public void clear() {
+        root = newNode( true );
+        height = 0;
+        n = 0;
+    }
+
+    @Override
+    public Iterable<Key> getKeys() {
+
+        Queue<Key> keys = new LinkedQueue<>();
+
+        for ( SymbolTable.Entry<Key, Value> e : this ) {
+            keys.enqueue( e.getKey() );
+        }
+
+        return keys;
+
+    }
+
+    /**
+     * Iterador em ordem crescente de chaves, que desce pela árvore usando
+     * uma pilha explícita com um nível por altura, sem copiar as entradas
+     * para uma estrutura auxiliar.
+     */
+    @Override
+    public Iterator<SymbolTable.Entry<Key, Value>> iterator() {
+
+        return new Iterator<SymbolTable.Entry<Key, Value>>() {
+
+            // nó e posição atuais de cada nível: nas folhas, a próxima
+            // entrada; nos nós internos, o filho sendo percorrido
+            private final BNode[] nodes = new BNode[height + 1];
+            private final int[] positions = new int[height + 1];
+            private boolean done;
+
+            {
+                // desce até a folha mais à esquerda
+                nodes[height] = root;
+                for ( int ht = height; ht > 0; ht-- ) {
+                    nodes[ht-1] = nodes[ht].next[0];
+                }
+                settle();
+            }
+
+            // se a folha atual estiver esgotada, sobe até o primeiro nível
+            // com um próximo filho e desce por ele até a folha seguinte
+            private void settle() {
+
+                while ( positions[0] >= nodes[0].m ) {
+
+                    int ht = 1;
+                    while ( ht <= height && positions[ht] + 1 >= nodes[ht].m ) {
+                        ht++;
+                    }
+
+                    if ( ht > height ) {
+                        done = true;
+                        return;
+                    }
+
+                    positions[ht]++;
+
+                    for ( ; ht > 0; ht-- ) {
+                        nodes[ht-1] = nodes[ht].next[positions[ht]];
+                        positions[ht-1] = 0;
+                    }
+
+                }
+
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !done;
+            }
+
+            @Override
+            @SuppressWarnings( "unchecked" )
+            public SymbolTable.Entry<Key, Value> next() {
+
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+
+                BNode leaf = nodes[0];
+                int j = positions[0]++;
+                settle();
+
+                return new SymbolTable.Entry<>( keyAt( leaf, j ), (Value) leaf.values[j] );
+
+            }
+
+        };
 
     }
 
@@ -281,18 +595,16 @@ public class BTree<Key extends Comparable<Key>, Value> implements SymbolTable<Ke
         return toString( root, height, "" ) + "\n";
     }
 
-    @SuppressWarnings( "unchecked" )
-    private String toString( BNode<Key, Value> h, int ht, String indent ) {
-        
+    private String toString( BNode h, int ht, String indent ) {
+
         StringBuilder s = new StringBuilder();
-        Entry<Key, Value>[] children = h.children;
 
         if ( ht == 0 ) {
             for (int j = 0; j < h.m; j++) {
                 s.append( indent )
-                        .append( children[j].key )
+                        .append( keyAt( h, j ) )
                         .append( " " )
-                        .append( children[j].value )
+                        .append( h.values[j] )
                         .append("\n");
             }
         } else {
@@ -300,84 +612,112 @@ public class BTree<Key extends Comparable<Key>, Value> implements SymbolTable<Ke
                 if ( j > 0 ) {
                     s.append( indent )
                             .append( "(" )
-                            .append( children[j].key )
+                            .append( keyAt( h, j ) )
                             .append( ")\n" );
                 }
-                s.append( toString( children[j].next, ht-1, indent + "     " ) );
+                s.append( toString( h.next[j], ht-1, indent + "     " ) );
             }
         }
-        
-        return s.toString();
-        
-    }
 
+        return s.toString();
 
-    private boolean less( Key k1, Key k2 ) {
-        return k1.compareTo(k2) < 0;
     }
 
     private boolean eq( Key k1, Key k2 ) {
         return k1.compareTo(k2) == 0;
     }
 
-    /**
-     * Não implementado nesta árvore b: escopo desta implementação didática
-     * é apenas inserção e busca.
-     *
-     * @param key Chave usada na busca.
-     * @throws UnsupportedOperationException sempre, de propósito.
+    /*
+     * Métodos auxiliares que escondem a forma de armazenamento das chaves.
      */
-    @Override
-    public void delete( Key key ) throws IllegalArgumentException {
-        throw new UnsupportedOperationException( "Not supported yet." );
+
+    private BNode newNode( boolean leaf ) {
+        BNode x = new BNode();
+        if ( keyKind == GENERIC ) {
+            x.keys = new Object[M];
+        } else {
+            x.nkeys = new long[M];
+        }
+        if ( leaf ) {
+            x.values = new Object[M];
+        } else {
+            x.next = new BNode[M];
+        }
+        return x;
     }
 
-    /**
-     * Não implementado nesta árvore b: escopo desta implementação didática
-     * é apenas inserção e busca.
-     *
-     * @param key Chave usada na busca.
-     * @return nunca retorna.
-     * @throws UnsupportedOperationException sempre, de propósito.
-     */
-    @Override
-    public boolean contains( Key key ) throws IllegalArgumentException {
-        throw new UnsupportedOperationException( "Not supported yet." );
+    private long toLong( Key key ) {
+        return ( (Number) key ).longValue();
     }
 
-    /**
-     * Não implementado nesta árvore b: escopo desta implementação didática
-     * é apenas inserção e busca.
-     *
-     * @throws UnsupportedOperationException sempre, de propósito.
-     */
-    @Override
-    public void clear() {
-        throw new UnsupportedOperationException( "Not supported yet." );
+    @SuppressWarnings( "unchecked" )
+    private Key keyAt( BNode x, int j ) {
+        switch ( keyKind ) {
+            case INT: return (Key) Integer.valueOf( (int) x.nkeys[j] );
+            case LONG: return (Key) Long.valueOf( x.nkeys[j] );
+            default: return (Key) x.keys[j];
+        }
     }
 
-    /**
-     * Não implementado nesta árvore b: escopo desta implementação didática
-     * é apenas inserção e busca.
-     *
-     * @return nunca retorna.
-     * @throws UnsupportedOperationException sempre, de propósito.
-     */
-    @Override
-    public Iterable<Key> getKeys() {
-        throw new UnsupportedOperationException( "Not supported yet." );
+    private void setKey( BNode x, int j, Key key ) {
+        if ( keyKind == GENERIC ) {
+            x.keys[j] = key;
+        } else {
+            x.nkeys[j] = toLong( key );
+        }
     }
 
-    /**
-     * Não implementado nesta árvore b: escopo desta implementação didática
-     * é apenas inserção e busca.
-     *
-     * @return nunca retorna.
-     * @throws UnsupportedOperationException sempre, de propósito.
-     */
-    @Override
-    public Iterator<SymbolTable.Entry<Key, Value>> iterator() {
-        throw new UnsupportedOperationException( "Not supported yet." );
+    private void copyKey( BNode from, int i, BNode to, int j ) {
+        if ( keyKind == GENERIC ) {
+            to.keys[j] = from.keys[i];
+        } else {
+            to.nkeys[j] = from.nkeys[i];
+        }
+    }
+
+    private int floorOf( BNode x, Key key ) {
+        return keyKind == GENERIC ? floor( x, key ) : floor( x, toLong( key ) );
     }
-    
+
+    @SuppressWarnings( "unchecked" )
+    private int compare( Key key, BNode x, int j ) {
+        if ( keyKind == GENERIC ) {
+            return key.compareTo( (Key) x.keys[j] );
+        }
+        return Long.compare( toLong( key ), x.nkeys[j] );
+    }
+
+    // abre espaço na posição j de um nó com m filhos
+    private void shiftRight( BNode x, int j ) {
+        move( x, j, x, j + 1, x.m - j );
+    }
+
+    // copia count posições (chaves e valores ou filhos) de from para to
+    private void move( BNode from, int i, BNode to, int j, int count ) {
+        if ( keyKind == GENERIC ) {
+            System.arraycopy( from.keys, i, to.keys, j, count );
+        } else {
+            System.arraycopy( from.nkeys, i, to.nkeys, j, count );
+        }
+        if ( from.values != null ) {
+            System.arraycopy( from.values, i, to.values, j, count );
+        } else {
+            System.arraycopy( from.next, i, to.next, j, count );
+        }
+    }
+
+    // limpa as referências das posições [from, to), para não reter objetos
+    private void clearFrom( BNode x, int from, int to ) {
+        for ( int j = from; j < to; j++ ) {
+            if ( x.keys != null ) {
+                x.keys[j] = null;
+            }
+            if ( x.values != null ) {
+                x.values[j] = null;
+            } else {
+                x.next[j] = null;
+            }
+        }
+    }
+
 }
@@ -3,8 +3,8 @@ package aesd.ds.implementations.nonlinear.symtable;
 import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.ds.implementations.linear.ResizingArrayList;
 import aesd.ds.interfaces.List;
+import aesd.ds.interfaces.OrderedSymbolTable;
 import aesd.ds.interfaces.Queue;
-import aesd.ds.interfaces.SymbolTable;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -21,7 +21,7 @@ import java.util.NoSuchElementException;
  * 
  * @author Prof. Dr. David Buzatto
  */
-public class BinarySearchSymbolTable<Key extends Comparable<Key>, Value> implements SymbolTable<Key, Value> {
+public class BinarySearchSymbolTable<Key extends Comparable<Key>, Value> implements OrderedSymbolTable<Key, Value> {
 
     // capacidade inicial
     private static final int INIT_CAPACITY = 2;
@@ -201,6 +201,7 @@ public class BinarySearchSymbolTable<Key extends Comparable<Key>, Value> impleme
      * @return O ranque da chave.
      * @throws IllegalArgumentException se a chave for nula.
      */
+    @Override
     public int rank( Key key ) throws IllegalArgumentException {
 
         if ( key == null ) {
@@ -249,6 +250,106 @@ public class BinarySearchSymbolTable<Key extends Comparable<Key>, Value> impleme
 
     }
 
+    @Override
+    public Key floor( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to floor() is null" );
+        }
+
+        int i = rank( key );
+
+        if ( i < size && key.compareTo( keys[i] ) == 0 ) {
+            return keys[i];
+        }
+
+        return i == 0 ? null : keys[i - 1];
+
+    }
+
+    @Override
+    public Key ceiling( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to ceiling() is null" );
+        }
+
+        int i = rank( key );
+
+        return i == size ? null : keys[i];
+
+    }
+
+    @Override
+    public Key select( int rank ) throws IllegalArgumentException {
+
+        if ( rank < 0 || rank >= size ) {
+            throw new IllegalArgumentException( "argument to select() is invalid: " + rank );
+        }
+
+        return keys[rank];
+
+    }
+
+    @Override
+    public Iterable<Entry<Key, Value>> range( Key lower, Key higher ) throws IllegalArgumentException {
+
+        if ( lower == null ) {
+            throw new IllegalArgumentException( "first argument to range() is null" );
+        }
+
+        if ( higher == null ) {
+            throw new IllegalArgumentException( "second argument to range() is null" );
+        }
+
+        // os pares são lidos diretamente dos arrays, a partir do ranque de
+        // lower, à medida que o iterador avança
+        return () -> new Iterator<Entry<Key, Value>>() {
+
+            private int current = rank( lower );
+
+            @Override
+            public boolean hasNext() {
+                return current < size && keys[current].compareTo( higher ) <= 0;
+            }
+
+            @Override
+            public Entry<Key, Value> next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                Entry<Key, Value> entry = new Entry<>( keys[current], values[current] );
+                current++;
+                return entry;
+            }
+
+        };
+
+    }
+
+    @Override
+    public int count( Key lower, Key higher ) throws IllegalArgumentException {
+
+        if ( lower == null ) {
+            throw new IllegalArgumentException( "first argument to count() is null" );
+        }
+
+        if ( higher == null ) {
+            throw new IllegalArgumentException( "second argument to count() is null" );
+        }
+
+        if ( lower.compareTo( higher ) > 0 ) {
+            return 0;
+        }
+
+        if ( contains( higher ) ) {
+            return rank( higher ) - rank( lower ) + 1;
+        }
+
+        return rank( higher ) - rank( lower );
+
+    }
+
     @Override
     public Iterable<Key> getKeys() {
         return getKeys( min(), max() );
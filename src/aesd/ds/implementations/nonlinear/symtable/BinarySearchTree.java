@@ -1,12 +1,10 @@
 
 package aesd.ds.implementations.nonlinear.symtable;
 
-import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.algorithms.tree.TraversalTypes;
 import aesd.algorithms.tree.TreeTraversals;
 import java.util.Iterator;
 import aesd.ds.interfaces.BinaryTree;
-import aesd.ds.interfaces.Queue;
 
 /**
  * Implementação de uma árvore binária de busca fundamental (Binary Search Tree).
@@ -32,6 +30,10 @@ public class BinarySearchTree<Key extends Comparable<Key>, Value> implements Bin
     // tamanho da árvore (quantidade de pares chave/valor)
     private int size;
     
+    // quantidade de inserções e remoções de chaves, usada pelos iteradores
+    // para detectar alterações durante o percurso
+    private int modCount;
+    
     /**
      * Constrói uma árvore binária de busca vazia.
      */
@@ -123,6 +125,7 @@ public class BinarySearchTree<Key extends Comparable<Key>, Value> implements Bin
             node.right = null;
             
             size++;
+            modCount++;
 
         } else {
             
@@ -330,6 +333,7 @@ public class BinarySearchTree<Key extends Comparable<Key>, Value> implements Bin
             if ( comp == 0 ) {
                 
                 size--;
+                modCount++;
                 
                 // o nó não tem filhos
                 if ( node.left == node.right ) {
@@ -398,6 +402,7 @@ public class BinarySearchTree<Key extends Comparable<Key>, Value> implements Bin
     public void clear() {
         root = clear( root );
         size = 0;
+        modCount++;
     }
     
     /*
@@ -426,7 +431,7 @@ public class BinarySearchTree<Key extends Comparable<Key>, Value> implements Bin
     
     @Override
     public Iterable<Entry<Key, Value>> traverse( TraversalTypes type ) {
-        return TreeTraversals.traverse( root, type );
+        return new FailFastIterable<>( () -> TreeTraversals.traverse( root, type ), () -> modCount );
     }
     
     @Override
@@ -434,13 +439,19 @@ public class BinarySearchTree<Key extends Comparable<Key>, Value> implements Bin
         return traverse(TraversalTypes.INORDER ).iterator();
     }
     
+    /**
+     * Retorna as chaves em ordem. O iterável não é uma cópia: cada iterador
+     * percorre a árvore no momento em que é criado, e inserir ou remover
+     * chaves durante o percurso faz o iterador lançar
+     * ConcurrentModificationException (alterar o valor de uma chave
+     * existente é permitido). Para alterar a árvore enquanto as chaves são
+     * percorridas, copie-as antes.
+     *
+     * @return As chaves da árvore, em ordem.
+     */
     @Override
     public Iterable<Key> getKeys() {
-        Queue<Key> keys = new LinkedQueue<>();
-        for ( BinaryTree.Entry<Key, Value> e : traverse(TraversalTypes.INORDER ) ) {
-            keys.enqueue( e.getKey() );
-        }
-        return keys;
+        return new FailFastIterable<>( () -> TreeTraversals.keys( root, TraversalTypes.INORDER ), () -> modCount );
     }
     
     /**
@@ -0,0 +1,780 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Implementação de uma cache limitada: uma tabela de símbolos com um peso
+ * máximo que, ao ser ultrapassado, descarta as entradas com menor chance
+ * de serem usadas novamente.
+ *
+ * As entradas ficam em nós que são, ao mesmo tempo, valores de uma
+ * SeparateChainingHashTable (o índice por chave) e elementos de listas
+ * duplamente encadeadas intrusivas (os ponteiros anterior/próximo ficam no
+ * próprio nó, como em DoublyLinkedList, mas sem nós auxiliares). Mover uma
+ * entrada para o início de uma lista ou remover a última são operações
+ * O(1) que apenas trocam ponteiros, então get e put custam O(1) e uma
+ * busca bem sucedida não cria nenhum objeto.
+ *
+ * Há duas políticas de descarte:
+ *     - LRU (least recently used): uma única lista em ordem de uso; ao
+ *       exceder o peso máximo, descarta a entrada usada há mais tempo.
+ *     - W-TinyLFU: uma janela LRU pequena (1% do peso) recebe as entradas
+ *       novas; as que saem da janela disputam um lugar na região principal
+ *       com a vítima da região principal, e fica a que foi acessada mais
+ *       vezes segundo um sketch count-min de frequências (contadores de 4
+ *       bits que são divididos por dois periodicamente, para que a
+ *       frequência reflita o passado recente). A região principal é uma
+ *       LRU segmentada: uma entrada entra em período de experiência
+ *       (probation) e, se for acessada de novo, passa para a região
+ *       protegida (80% da região principal). Isso resiste a varreduras,
+ *       que na LRU expulsam todas as entradas populares, e mantém as
+ *       entradas acessadas com frequência, mesmo que não recentemente.
+ *
+ * O peso de cada entrada é dado por uma função fornecida na construção (por
+ * padrão, toda entrada pesa 1 e o peso máximo é a quantidade máxima de
+ * entradas). A cache também conta os acertos, as faltas e os descartes.
+ *
+ * Referência: EINZIGER, G.; FRIEDMAN, R.; MANES, B. TinyLFU: A Highly
+ * Efficient Cache Admission Policy. ACM Transactions on Storage, v. 13,
+ * n. 4, 2017.
+ *
+ * @param <Key> Tipo das chaves armazenadas na cache.
+ * @param <Value> Tipo dos valores associados às chaves.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class BoundedCache<Key, Value> implements SymbolTable<Key, Value> {
+
+    /**
+     * Políticas de descarte da cache.
+     */
+    public static enum EvictionPolicy {
+        LRU,
+        W_TINY_LFU
+    }
+
+    // listas em que um nó pode estar
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    // nó da cache, elemento de uma das listas duplamente encadeadas
+    private static class Node<Key, Value> {
+
+        private Key key;
+        private Value value;
+        private int weight;
+        private byte list;
+        private Node<Key, Value> prev;
+        private Node<Key, Value> next;
+
+        private Node( Key key, Value value, int weight ) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+    }
+
+    private final EvictionPolicy policy;
+    private final ToIntBiFunction<? super Key, ? super Value> weigher;
+
+    // índice dos nós pelas chaves
+    private final SeparateChainingHashTable<Key, Node<Key, Value>> index;
+
+    // sentinelas das listas circulares: sentinela.next é a entrada usada
+    // mais recentemente e sentinela.prev a usada há mais tempo; na política
+    // LRU todas as entradas ficam na janela
+    private final Node<Key, Value> window;
+    private final Node<Key, Value> probation;
+    private final Node<Key, Value> protect;
+
+    // pesos máximos e atuais
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long weight;
+    private long windowWeight;
+    private long protectedWeight;
+
+    private final FrequencySketch sketch;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constrói uma cache W-TinyLFU vazia com a quantidade máxima de
+     * entradas fornecida.
+     *
+     * @param maximumSize A quantidade máxima de entradas.
+     * @throws IllegalArgumentException se a quantidade máxima não for
+     * positiva.
+     */
+    public BoundedCache( long maximumSize ) throws IllegalArgumentException {
+        this( maximumSize, EvictionPolicy.W_TINY_LFU );
+    }
+
+    /**
+     * Constrói uma cache vazia com a quantidade máxima de entradas e a
+     * política de descarte fornecidas.
+     *
+     * @param maximumSize A quantidade máxima de entradas.
+     * @param policy A política de descarte.
+     * @throws IllegalArgumentException se a quantidade máxima não for
+     * positiva ou a política for nula.
+     */
+    public BoundedCache( long maximumSize, EvictionPolicy policy ) throws IllegalArgumentException {
+        this( maximumSize, policy, ( k, v ) -> 1 );
+    }
+
+    /**
+     * Constrói uma cache vazia com o peso máximo, a política de descarte e
+     * a função de peso das entradas fornecidos.
+     *
+     * @param maximumWeight O peso máximo da cache.
+     * @param policy A política de descarte.
+     * @param weigher Função que calcula o peso (não negativo) de cada
+     * entrada.
+     * @throws IllegalArgumentException se o peso máximo não for positivo ou
+     * a política ou a função de peso forem nulas.
+     */
+    public BoundedCache( long maximumWeight, EvictionPolicy policy,
+                         ToIntBiFunction<? super Key, ? super Value> weigher ) throws IllegalArgumentException {
+
+        if ( maximumWeight <= 0 ) {
+            throw new IllegalArgumentException( "maximum weight must be greater than zero" );
+        }
+
+        if ( policy == null || weigher == null ) {
+            throw new IllegalArgumentException( "policy and weigher must not be null" );
+        }
+
+        this.policy = policy;
+        this.weigher = weigher;
+        this.maximum = maximumWeight;
+        this.index = new SeparateChainingHashTable<>();
+        this.window = sentinel();
+        this.probation = sentinel();
+        this.protect = sentinel();
+
+        if ( policy == EvictionPolicy.LRU ) {
+            windowMaximum = maximumWeight;
+            protectedMaximum = 0;
+            sketch = null;
+        } else {
+            windowMaximum = Math.max( 1, maximumWeight / 100 );
+            protectedMaximum = ( maximumWeight - windowMaximum ) * 8 / 10;
+            sketch = new FrequencySketch();
+        }
+
+    }
+
+    private static <Key, Value> Node<Key, Value> sentinel() {
+        Node<Key, Value> s = new Node<>( null, null, 0 );
+        s.prev = s;
+        s.next = s;
+        return s;
+    }
+
+    /**
+     * Insere ou substitui uma entrada. Caso o valor seja null, remove a
+     * chave. Se a cache passar do peso máximo, entradas são descartadas
+     * segundo a política de descarte; uma entrada mais pesada que o peso
+     * máximo é descartada imediatamente.
+     *
+     * @param key A chave.
+     * @param value O valor associado à chave.
+     * @throws IllegalArgumentException se a chave for nula ou o peso da
+     * entrada for negativo.
+     */
+    @Override
+    public void put( Key key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        int w = weigher.applyAsInt( key, value );
+
+        if ( w < 0 ) {
+            throw new IllegalArgumentException( "weight must be non-negative" );
+        }
+
+        if ( sketch != null ) {
+            sketch.increment( key );
+        }
+
+        Node<Key, Value> x = index.get( key );
+
+        if ( w > maximum ) {
+            if ( x != null ) {
+                remove( x );
+            }
+            evictionCount++;
+            return;
+        }
+
+        if ( x != null ) {
+            // o peso novo precisa estar na entrada antes de ser somado ao da
+            // sua região, pois a região protegida pode rebaixá-la
+            int delta = w - x.weight;
+            x.value = value;
+            x.weight = w;
+            addWeight( x, delta );
+            onAccess( x );
+        } else {
+            x = new Node<>( key, value, w );
+            index.put( key, x );
+            if ( sketch != null ) {
+                sketch.ensureCapacity( index.getSize() );
+            }
+            x.list = WINDOW;
+            linkFirst( window, x );
+            addWeight( x, w );
+        }
+
+        evict();
+
+    }
+
+    /**
+     * Obtém o valor associado a uma chave, contando um acerto ou uma falta.
+     *
+     * @param key A chave.
+     * @return O valor associado à chave ou null caso ela não esteja na
+     * cache.
+     * @throws IllegalArgumentException se a chave for nula.
+     */
+    @Override
+    public Value get( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        if ( sketch != null ) {
+            sketch.increment( key );
+        }
+
+        Node<Key, Value> x = index.get( key );
+
+        if ( x == null ) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        onAccess( x );
+
+        return x.value;
+
+    }
+
+    /**
+     * Obtém o valor associado a uma chave ou, caso ela não esteja na
+     * cache, calcula o valor com loader, insere-o e o retorna. Um valor
+     * null calculado não é inserido.
+     *
+     * @param key A chave.
+     * @param loader Função que calcula o valor de uma chave ausente.
+     * @return O valor associado à chave.
+     * @throws IllegalArgumentException se a chave ou loader forem nulos.
+     */
+    public Value getOrCompute( Key key, Function<? super Key, ? extends Value> loader ) throws IllegalArgumentException {
+
+        if ( loader == null ) {
+            throw new IllegalArgumentException( "loader must not be null" );
+        }
+
+        Value value = get( key );
+
+        if ( value == null ) {
+            value = loader.apply( key );
+            if ( value != null ) {
+                put( key, value );
+            }
+        }
+
+        return value;
+
+    }
+
+    @Override
+    public void delete( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        Node<Key, Value> x = index.get( key );
+
+        if ( x != null ) {
+            remove( x );
+        }
+
+    }
+
+    /**
+     * Verifica se uma chave está na cache, sem contar acerto ou falta e
+     * sem alterar a ordem de descarte.
+     */
+    @Override
+    public boolean contains( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return index.contains( key );
+
+    }
+
+    /*
+     * Registra o uso de uma entrada. Na janela e na região protegida, ela
+     * passa para o início da lista; em período de experiência, é promovida
+     * para a região protegida, que devolve as suas entradas mais antigas
+     * para o período de experiência caso ultrapasse o seu peso máximo.
+     */
+    private void onAccess( Node<Key, Value> x ) {
+
+        if ( x.list == WINDOW ) {
+            moveToFront( window, x );
+        } else if ( x.list == PROTECTED ) {
+            moveToFront( protect, x );
+        } else {
+            unlink( x );
+            x.list = PROTECTED;
+            linkFirst( protect, x );
+            protectedWeight += x.weight;
+            demoteProtected();
+        }
+
+    }
+
+    private void demoteProtected() {
+
+        while ( protectedWeight > protectedMaximum && protect.prev != protect ) {
+            Node<Key, Value> y = protect.prev;
+            unlink( y );
+            protectedWeight -= y.weight;
+            y.list = PROBATION;
+            linkFirst( probation, y );
+        }
+
+    }
+
+    /*
+     * Descarta entradas até que o peso total não passe do máximo.
+     *
+     * Na W-TinyLFU, as entradas mais antigas da janela que excedem o peso
+     * da janela são candidatas à região principal: enquanto não houver
+     * espaço, a candidata é comparada com a vítima (a entrada mais antiga
+     * em período de experiência ou, na falta dela, da região protegida) e
+     * é descartada a que tiver menor frequência estimada, favorecendo a
+     * vítima nos empates.
+     */
+    private void evict() {
+
+        if ( policy == EvictionPolicy.W_TINY_LFU ) {
+
+            while ( windowWeight > windowMaximum ) {
+
+                Node<Key, Value> candidate = window.prev;
+                unlink( candidate );
+                windowWeight -= candidate.weight;
+                candidate.list = PROBATION;
+
+                while ( weight > maximum ) {
+
+                    Node<Key, Value> victim = probation.prev != probation ? probation.prev : protect.prev;
+
+                    if ( victim == protect
+                            || sketch.frequency( candidate.key ) <= sketch.frequency( victim.key ) ) {
+                        evict( candidate );
+                        candidate = null;
+                        break;
+                    }
+
+                    evict( victim );
+
+                }
+
+                if ( candidate != null ) {
+                    linkFirst( probation, candidate );
+                }
+
+            }
+
+        }
+
+        // entradas que ficaram mais pesadas ao serem substituídas, ou todas
+        // as entradas na política LRU
+        while ( weight > maximum ) {
+            if ( probation.prev != probation ) {
+                evict( probation.prev );
+            } else if ( protect.prev != protect ) {
+                evict( protect.prev );
+            } else {
+                evict( window.prev );
+            }
+        }
+
+    }
+
+    private void evict( Node<Key, Value> x ) {
+        remove( x );
+        evictionCount++;
+    }
+
+    // remove a entrada do índice e da sua lista (se estiver em uma)
+    private void remove( Node<Key, Value> x ) {
+
+        index.delete( x.key );
+
+        if ( x.prev != null ) {
+            unlink( x );
+            addWeight( x, -x.weight );
+        } else {
+            weight -= x.weight;
+        }
+
+    }
+
+    private void addWeight( Node<Key, Value> x, int delta ) {
+
+        weight += delta;
+
+        if ( x.list == WINDOW ) {
+            windowWeight += delta;
+        } else if ( x.list == PROTECTED ) {
+            protectedWeight += delta;
+            demoteProtected();
+        }
+
+    }
+
+    private static <Key, Value> void linkFirst( Node<Key, Value> sentinel, Node<Key, Value> x ) {
+        x.prev = sentinel;
+        x.next = sentinel.next;
+        sentinel.next.prev = x;
+        sentinel.next = x;
+    }
+
+    private static <Key, Value> void unlink( Node<Key, Value> x ) {
+        x.prev.next = x.next;
+        x.next.prev = x.prev;
+        x.prev = null;
+        x.next = null;
+    }
+
+    private static <Key, Value> void moveToFront( Node<Key, Value> sentinel, Node<Key, Value> x ) {
+        if ( sentinel.next != x ) {
+            unlink( x );
+            linkFirst( sentinel, x );
+        }
+    }
+
+    /**
+     * Retorna a quantidade de buscas (get e getOrCompute) que encontraram a
+     * chave na cache.
+     *
+     * @return A quantidade de acertos.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Retorna a quantidade de buscas (get e getOrCompute) que não
+     * encontraram a chave na cache.
+     *
+     * @return A quantidade de faltas.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Retorna a quantidade de entradas descartadas pela política de
+     * descarte.
+     *
+     * @return A quantidade de descartes.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Retorna a fração das buscas que encontraram a chave na cache.
+     *
+     * @return A taxa de acertos, ou 1 se nenhuma busca foi feita.
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Zera os contadores de acertos, faltas e descartes.
+     */
+    public void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * Retorna a soma dos pesos das entradas da cache.
+     *
+     * @return O peso atual.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Retorna o peso máximo da cache.
+     *
+     * @return O peso máximo.
+     */
+    public long getMaximumWeight() {
+        return maximum;
+    }
+
+    /**
+     * Retorna a política de descarte da cache.
+     *
+     * @return A política de descarte.
+     */
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void clear() {
+
+        for ( Key key : getKeys() ) {
+            delete( key );
+        }
+
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public int getSize() {
+        return index.getSize();
+    }
+
+    /**
+     * Retorna as chaves da cache: primeiro as da região protegida, depois
+     * as em período de experiência e por fim as da janela, cada grupo da
+     * usada mais recentemente para a usada há mais tempo.
+     */
+    @Override
+    public Iterable<Key> getKeys() {
+
+        Queue<Key> queue = new LinkedQueue<>();
+
+        for ( Node<Key, Value> sentinel : sentinels() ) {
+            for ( Node<Key, Value> x = sentinel.next; x != sentinel; x = x.next ) {
+                queue.enqueue( x.key );
+            }
+        }
+
+        return queue;
+
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Node<Key, Value>[] sentinels() {
+        return new Node[]{ protect, probation, window };
+    }
+
+    /**
+     * Iterador que percorre as listas diretamente, na mesma ordem de
+     * getKeys(). Não deve ser usado enquanto a cache é modificada.
+     */
+    @Override
+    public Iterator<Entry<Key, Value>> iterator() {
+
+        return new Iterator<Entry<Key, Value>>() {
+
+            private final Node<Key, Value>[] lists = sentinels();
+            private int list = 0;
+            private Node<Key, Value> current = advance( lists[0].next );
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public Entry<Key, Value> next() {
+
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<Key, Value> e = new Entry<>( current.key, current.value );
+                current = advance( current.next );
+
+                return e;
+
+            }
+
+            private Node<Key, Value> advance( Node<Key, Value> x ) {
+                while ( x == lists[list] ) {
+                    if ( ++list == lists.length ) {
+                        return null;
+                    }
+                    x = lists[list].next;
+                }
+                return x;
+            }
+
+        };
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        for ( Entry<Key, Value> e : this ) {
+            sb.append( e ).append( "\n" );
+        }
+
+        if ( sb.length() == 0 ) {
+            sb.append( "empty bounded cache!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+    /*
+     * Sketch count-min com contadores de 4 bits (cada long guarda 16
+     * contadores) e 4 funções de dispersão; a frequência estimada é o menor
+     * dos 4 contadores da chave. Os 4 contadores de uma chave ficam no
+     * mesmo bloco de 8 longs (64 bytes, uma linha de cache), escolhido pelo
+     * hash, então cada operação acessa a memória uma única vez. Depois de
+     * uma quantidade de incrementos proporcional ao tamanho da tabela,
+     * todos os contadores são divididos por dois (envelhecimento). A
+     * tabela cresce junto com a quantidade de entradas da cache, o que só
+     * acontece em inserções de chaves novas.
+     */
+    private static class FrequencySketch {
+
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private long[] table;
+        private int blockMask;
+        private int sampleSize;
+        private int samples;
+
+        private FrequencySketch() {
+            resize( 16 );
+        }
+
+        private void resize( int length ) {
+            table = new long[length];
+            blockMask = ( length >>> 3 ) - 1;
+            sampleSize = 10 * length;
+            samples = 0;
+        }
+
+        // dobra a tabela (zerando os contadores) enquanto ela tiver menos
+        // longs que a cache tem entradas
+        private void ensureCapacity( int size ) {
+            if ( size > table.length && table.length < ( 1 << 26 ) ) {
+                resize( 2 * table.length );
+            }
+        }
+
+        private void increment( Object key ) {
+
+            int hash = spread( key.hashCode() );
+            int h = rehash( hash );
+            int block = ( hash & blockMask ) << 3;
+            boolean added = false;
+
+            for ( int i = 0; i < 4; i++ ) {
+
+                // cada função usa 8 bits de h: 1 escolhe um dos seus 2
+                // longs no bloco e 4 escolhem o contador nesse long
+                int bits = h >>> ( i << 3 );
+                int j = block + ( i << 1 ) + ( bits & 1 );
+                int shift = ( ( bits >>> 1 ) & 15 ) << 2;
+
+                if ( ( ( table[j] >>> shift ) & 0xfL ) != 0xfL ) {
+                    table[j] += 1L << shift;
+                    added = true;
+                }
+
+            }
+
+            if ( added && ++samples == sampleSize ) {
+                for ( int i = 0; i < table.length; i++ ) {
+                    table[i] = ( table[i] >>> 1 ) & RESET_MASK;
+                }
+                samples /= 2;
+            }
+
+        }
+
+        private int frequency( Object key ) {
+
+            int hash = spread( key.hashCode() );
+            int h = rehash( hash );
+            int block = ( hash & blockMask ) << 3;
+            int frequency = 15;
+
+            for ( int i = 0; i < 4; i++ ) {
+                int bits = h >>> ( i << 3 );
+                int j = block + ( i << 1 ) + ( bits & 1 );
+                int shift = ( ( bits >>> 1 ) & 15 ) << 2;
+                frequency = Math.min( frequency, (int) ( ( table[j] >>> shift ) & 0xfL ) );
+            }
+
+            return frequency;
+
+        }
+
+        // segundo hash, independente dos bits que escolhem o bloco
+        private static int rehash( int hash ) {
+            long h = ( hash + 0x9e3779b97f4a7c15L ) * 0xbf58476d1ce4e5b9L;
+            return (int) ( h >>> 32 );
+        }
+
+        /*
+         * Espalha os bits do hashCode() (finalização do MurmurHash3).
+         */
+        private static int spread( int h ) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
+
+    }
+
+}
@@ -0,0 +1,452 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementação de uma tabela de dispersão com encadeamento segura para uso
+ * por várias threads ao mesmo tempo, usando particionamento de travas (lock
+ * striping).
+ *
+ * Envolver uma SeparateChainingHashTable em uma única trava global
+ * serializa todas as threads, mesmo as que só fazem buscas. Aqui, a tabela
+ * é dividida em segmentos independentes, cada um com a sua própria trava e
+ * o seu próprio array de encadeamentos; os bits altos do hash escolhem o
+ * segmento e os bits baixos escolhem a lista dentro dele. Assim:
+ *     - get() e contains() não usam trava alguma: os encadeamentos são
+ *       lidos através de um AtomicReferenceArray (leituras voláteis), os
+ *       nós têm chave e próximo imutáveis (final) e o valor é volátil,
+ *       então uma leitura sempre enxerga uma lista consistente;
+ *     - put() e delete() travam apenas o segmento da chave, de modo que
+ *       escritas em segmentos diferentes acontecem em paralelo;
+ *     - cada segmento é redimensionado sozinho, quando a sua própria
+ *       ocupação passa do limite, sem parar a tabela inteira: as demais
+ *       threads continuam lendo e escrevendo nos outros segmentos, e os
+ *       leitores do próprio segmento continuam usando o array antigo até
+ *       que o novo seja publicado.
+ *
+ * Como o próximo de um nó é imutável, a remoção não pode simplesmente
+ * "pular" o nó removido: os nós anteriores a ele na lista são copiados,
+ * formando um novo começo de lista que aponta diretamente para o sucessor
+ * do nó removido. Leitores que já estavam percorrendo a lista antiga
+ * continuam vendo uma lista válida.
+ *
+ * Os iteradores (e getKeys()) são fracamente consistentes: nunca lançam
+ * ConcurrentModificationException, refletem todas as chaves presentes
+ * durante todo o percurso e podem ou não refletir modificações feitas
+ * depois que o percurso começou. Do mesmo modo, getSize() soma os
+ * contadores dos segmentos sem travá-los, então é exato apenas quando não
+ * há escritas em andamento.
+ *
+ * Baseada no projeto do ConcurrentHashMap do Java 5 a 7 (Doug Lea).
+ *
+ * @param <Key> Tipo das chaves que serão armazenadas na tabela de dispersão.
+ * @param <Value> Tipo dos valores associados às chaves armazenadas na tabela de
+ * dispersão.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class ConcurrentHashSymbolTable<Key, Value> implements SymbolTable<Key, Value> {
+
+    // quantidade padrão de segmentos, deve ser potência de 2
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+
+    // capacidade inicial de cada segmento, deve ser potência de 2
+    private static final int SEGMENT_INIT_CAPACITY = 4;
+
+    // comprimento médio das listas que dispara o redimensionamento de um
+    // segmento (mais rigoroso que o de SeparateChainingHashTable, pois
+    // listas curtas reduzem o tempo em que a trava fica retida)
+    private static final int MAX_AVERAGE_CHAIN = 2;
+
+    /*
+     * Classe interna estática que define os nós das listas encadeadas.
+     */
+    private static final class Node<Key, Value> {
+
+        private final int hash;
+        private final Key key;
+        private volatile Value value;
+        private final Node<Key, Value> next;
+
+        private Node( int hash, Key key, Value value, Node<Key, Value> next ) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+    }
+
+    /*
+     * Classe interna estática que define os segmentos. Cada segmento é uma
+     * pequena tabela de dispersão com encadeamento protegida pela sua
+     * própria trava (o próprio segmento).
+     */
+    @SuppressWarnings( "serial" )
+    private static final class Segment<Key, Value> extends ReentrantLock {
+
+        // quantidade de pares chave/valor do segmento
+        private volatile int count;
+
+        // array de encadeamentos
+        private volatile AtomicReferenceArray<Node<Key, Value>> table;
+
+        private Segment() {
+            table = new AtomicReferenceArray<>( SEGMENT_INIT_CAPACITY );
+        }
+
+        private Value get( Key key, int hash ) {
+
+            AtomicReferenceArray<Node<Key, Value>> tab = table;
+            Node<Key, Value> e = tab.get( hash & ( tab.length() - 1 ) );
+
+            while ( e != null ) {
+                if ( e.hash == hash && key.equals( e.key ) ) {
+                    return e.value;
+                }
+                e = e.next;
+            }
+
+            return null;
+
+        }
+
+        private void put( Key key, int hash, Value value ) {
+
+            lock();
+
+            try {
+
+                AtomicReferenceArray<Node<Key, Value>> tab = table;
+                int i = hash & ( tab.length() - 1 );
+                Node<Key, Value> first = tab.get( i );
+
+                for ( Node<Key, Value> e = first; e != null; e = e.next ) {
+                    if ( e.hash == hash && key.equals( e.key ) ) {
+                        e.value = value;
+                        return;
+                    }
+                }
+
+                tab.set( i, new Node<>( hash, key, value, first ) );
+                count++;
+
+                if ( count > MAX_AVERAGE_CHAIN * tab.length() ) {
+                    resize();
+                }
+
+            } finally {
+                unlock();
+            }
+
+        }
+
+        private void delete( Key key, int hash ) {
+
+            lock();
+
+            try {
+
+                AtomicReferenceArray<Node<Key, Value>> tab = table;
+                int i = hash & ( tab.length() - 1 );
+                Node<Key, Value> first = tab.get( i );
+                Node<Key, Value> e = first;
+
+                while ( e != null && ( e.hash != hash || !key.equals( e.key ) ) ) {
+                    e = e.next;
+                }
+
+                if ( e == null ) {
+                    return;
+                }
+
+                // copia os nós anteriores ao removido, pois o próximo de
+                // cada nó é imutável
+                Node<Key, Value> newFirst = e.next;
+                for ( Node<Key, Value> p = first; p != e; p = p.next ) {
+                    newFirst = new Node<>( p.hash, p.key, p.value, newFirst );
+                }
+
+                tab.set( i, newFirst );
+                count--;
+
+            } finally {
+                unlock();
+            }
+
+        }
+
+        /*
+         * Dobra a quantidade de encadeamentos do segmento. Executado com a
+         * trava do segmento retida: os escritores deste segmento esperam,
+         * mas os leitores continuam usando o array antigo, que não é
+         * modificado, até que o novo seja publicado na escrita volátil de
+         * table.
+         */
+        private void resize() {
+
+            AtomicReferenceArray<Node<Key, Value>> oldTab = table;
+            int newCapacity = oldTab.length() * 2;
+            AtomicReferenceArray<Node<Key, Value>> newTab = new AtomicReferenceArray<>( newCapacity );
+
+            for ( int i = 0; i < oldTab.length(); i++ ) {
+                for ( Node<Key, Value> e = oldTab.get( i ); e != null; e = e.next ) {
+                    int j = e.hash & ( newCapacity - 1 );
+                    newTab.set( j, new Node<>( e.hash, e.key, e.value, newTab.get( j ) ) );
+                }
+            }
+
+            table = newTab;
+
+        }
+
+        private void clear() {
+            lock();
+            try {
+                table = new AtomicReferenceArray<>( SEGMENT_INIT_CAPACITY );
+                count = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+    }
+
+    // segmentos
+    private final Segment<Key, Value>[] segments;
+
+    // deslocamento usado para obter o índice do segmento a partir dos bits
+    // altos do hash
+    private final int segmentShift;
+
+    /**
+     * Constrói uma tabela de dispersão vazia com o nível de concorrência
+     * padrão (64 segmentos).
+     */
+    public ConcurrentHashSymbolTable() {
+        this( DEFAULT_CONCURRENCY_LEVEL );
+    }
+
+    /**
+     * Constrói uma tabela de dispersão vazia com a quantidade de segmentos
+     * fornecida, arredondada para a próxima potência de 2. Deve ser ao
+     * menos a quantidade de threads que escreverão na tabela ao mesmo tempo.
+     *
+     * @param concurrencyLevel Quantidade de segmentos.
+     * @throws IllegalArgumentException se a quantidade não for positiva.
+     */
+    @SuppressWarnings( "unchecked" )
+    public ConcurrentHashSymbolTable( int concurrencyLevel ) throws IllegalArgumentException {
+
+        if ( concurrencyLevel <= 0 ) {
+            throw new IllegalArgumentException( "concurrency level must be greater than zero" );
+        }
+
+        int n = 1;
+        int bits = 0;
+        while ( n < concurrencyLevel && n < ( 1 << 16 ) ) {
+            n <<= 1;
+            bits++;
+        }
+
+        segmentShift = 32 - bits;
+        segments = new Segment[n];
+
+        for ( int i = 0; i < n; i++ ) {
+            segments[i] = new Segment<>();
+        }
+
+    }
+
+    @Override
+    public void put( Key key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        int h = hash( key );
+        segmentFor( h ).put( key, h, value );
+
+    }
+
+    @Override
+    public Value get( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        int h = hash( key );
+        return segmentFor( h ).get( key, h );
+
+    }
+
+    @Override
+    public void delete( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        int h = hash( key );
+        segmentFor( h ).delete( key, h );
+
+    }
+
+    @Override
+    public boolean contains( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return get( key ) != null;
+
+    }
+
+    /*
+     * Espalha os bits do hashCode() (finalização do MurmurHash3), pois tanto
+     * os bits altos (segmento) quanto os baixos (encadeamento) são usados.
+     */
+    private int hash( Key key ) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private Segment<Key, Value> segmentFor( int hash ) {
+        // com um único segmento, segmentShift é 32 e o deslocamento não
+        // teria efeito em Java (o deslocamento é tomado módulo 32)
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    @Override
+    public Iterable<Key> getKeys() {
+
+        Queue<Key> keys = new LinkedQueue<>();
+
+        for ( Entry<Key, Value> e : this ) {
+            keys.enqueue( e.getKey() );
+        }
+
+        return keys;
+
+    }
+
+    @Override
+    public void clear() {
+        for ( Segment<Key, Value> s : segments ) {
+            s.clear();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        long size = 0;
+        for ( Segment<Key, Value> s : segments ) {
+            size += s.count;
+        }
+        return (int) Math.min( size, Integer.MAX_VALUE );
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for ( Segment<Key, Value> s : segments ) {
+            if ( s.count != 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Iterador fracamente consistente: percorre os segmentos um a um, usando
+     * o array de encadeamentos vigente no momento em que cada segmento é
+     * alcançado.
+     */
+    @Override
+    public Iterator<Entry<Key, Value>> iterator() {
+
+        return new Iterator<Entry<Key, Value>>() {
+
+            private int segmentIndex = -1;
+            private AtomicReferenceArray<Node<Key, Value>> tab;
+            private int bin;
+            private Node<Key, Value> next = advance( null );
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry<Key, Value> next() {
+
+                if ( next == null ) {
+                    throw new NoSuchElementException();
+                }
+
+                Node<Key, Value> e = next;
+                next = advance( e.next );
+
+                return new Entry<>( e.key, e.value );
+
+            }
+
+            private Node<Key, Value> advance( Node<Key, Value> e ) {
+
+                while ( e == null ) {
+
+                    if ( tab != null && bin < tab.length() ) {
+                        e = tab.get( bin++ );
+                    } else if ( segmentIndex + 1 < segments.length ) {
+                        tab = segments[++segmentIndex].table;
+                        bin = 0;
+                    } else {
+                        return null;
+                    }
+
+                }
+
+                return e;
+
+            }
+
+        };
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        for ( Entry<Key, Value> e : this ) {
+            sb.append( e ).append( "\n" );
+        }
+
+        if ( sb.length() == 0 ) {
+            sb.append( "empty concurrent hash table!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+}
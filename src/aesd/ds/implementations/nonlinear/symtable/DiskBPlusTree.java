@@ -0,0 +1,1117 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.ResizingArrayList;
+import aesd.ds.interfaces.Codec;
+import aesd.ds.interfaces.List;
+import aesd.ds.interfaces.SymbolTable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação de uma árvore B+ persistente, armazenada em um arquivo de
+ * páginas de tamanho fixo.
+ *
+ * Assim como em BTree, cada nó tem vários filhos, mas aqui:
+ *     - todos os pares chave/valor ficam nas folhas; os nós internos guardam
+ *       apenas chaves separadoras e números de páginas dos filhos;
+ *     - cada folha aponta para a folha seguinte (irmã à direita), de modo
+ *       que percursos em ordem e consultas por intervalo descem uma única
+ *       vez até a primeira folha e depois só seguem esses apontadores;
+ *     - cada nó ocupa exatamente uma página do arquivo, e "seguir um
+ *       ponteiro" significa ler a página de número correspondente.
+ *
+ * A ordem M (configurável) é a quantidade máxima de chaves em um nó: uma
+ * folha guarda até M pares chave/valor e um nó interno guarda até M chaves
+ * e M+1 filhos. O filho i de um nó interno contém as chaves maiores ou
+ * iguais à chave i-1 e menores que a chave i. Para que o tamanho de cada
+ * elemento seja conhecido, chaves e valores são gravados através de
+ * codificadores de tamanho fixo (Codec).
+ *
+ * As páginas lidas são mantidas em memória por um buffer pool com
+ * capacidade configurável e política de substituição LRU (a página usada
+ * há mais tempo é descartada, sendo gravada antes, caso tenha sido
+ * modificada). As páginas em uso por uma operação ficam "presas" (pinned)
+ * e nunca são descartadas no meio dela.
+ *
+ * Layout do arquivo:
+ *     - página 0: cabeçalho (tamanho da página, ordem, tamanhos da chave e
+ *       do valor, raiz, altura, quantidade de pares, primeira folha e
+ *       quantidade de páginas);
+ *     - demais páginas: nós, com o formato [tipo][quantidade][próxima
+ *       folha][chaves][valores ou filhos]. Cada página reserva espaço para
+ *       M+1 chaves, pois o nó pode transbordar momentaneamente antes de
+ *       ser dividido.
+ *
+ * A remoção apenas retira o par da sua folha, sem fundir ou redistribuir
+ * nós (como fazem muitos sistemas gerenciadores de bancos de dados), então
+ * as páginas nunca são liberadas; uma nova carga em massa sobre um arquivo
+ * novo recompacta o índice.
+ *
+ * As operações de SymbolTable não declaram exceções de E/S, então erros
+ * de leitura ou escrita são relançados como UncheckedIOException. As
+ * modificações só são garantidas no arquivo após flush() ou close().
+ *
+ * @param <Key> Tipo das chaves que serão armazenadas na árvore.
+ * @param <Value> Tipo dos valores associados às chaves armazenadas na árvore.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class DiskBPlusTree<Key extends Comparable<Key>, Value> implements SymbolTable<Key, Value>, Closeable {
+
+    // tamanho padrão das páginas, em bytes
+    private static final int DEFAULT_PAGE_SIZE = 4096;
+
+    // capacidade padrão do buffer pool, em páginas
+    private static final int DEFAULT_CACHE_PAGES = 1024;
+
+    // identificador do formato do arquivo ("BPT1")
+    private static final int MAGIC = 0x42505431;
+
+    // tipos de nós
+    private static final byte LEAF = 0;
+    private static final byte INTERNAL = 1;
+
+    // posições dos campos de um nó
+    private static final int TYPE = 0;
+    private static final int COUNT = 1;
+    private static final int NEXT = 5;
+    private static final int DATA = 9;
+
+    // página sem número (fim da lista de folhas)
+    private static final int NIL = -1;
+
+    /*
+     * Classe interna estática que define as páginas mantidas em memória
+     * pelo buffer pool. prev e next formam a lista LRU.
+     */
+    private static final class Page {
+
+        private int id;
+        private final ByteBuffer buffer;
+        private boolean dirty;
+        private int pins;
+        private Page prev;
+        private Page next;
+
+        private Page( int pageSize ) {
+            buffer = ByteBuffer.allocate( pageSize );
+        }
+
+    }
+
+    /*
+     * Buffer pool com substituição LRU: a lista duplamente encadeada mantém
+     * as páginas da mais recentemente usada (head) para a menos
+     * recentemente usada (tail), e a tabela de dispersão localiza uma página
+     * pelo seu número em O(1).
+     */
+    private final class BufferPool {
+
+        private final int capacity;
+        private final IntLinearProbingHashTable<Page> pages;
+        private Page head;
+        private Page tail;
+
+        private BufferPool( int capacity ) {
+            this.capacity = capacity;
+            this.pages = new IntLinearProbingHashTable<>( 2 * capacity );
+        }
+
+        // obtém e prende uma página, lendo-a do arquivo se necessário
+        private Page fetch( int id ) {
+
+            Page p = pages.get( id );
+
+            if ( p == null ) {
+                p = frame( id );
+                p.buffer.clear();
+                read( p );
+                pages.put( id, p );
+                linkFirst( p );
+            } else if ( p != head ) {
+                unlink( p );
+                linkFirst( p );
+            }
+
+            p.pins++;
+            return p;
+
+        }
+
+        // cria e prende uma página nova, no final do arquivo
+        private Page allocate() {
+
+            Page p = frame( pageCount++ );
+            byte[] data = p.buffer.array();
+            for ( int i = 0; i < data.length; i++ ) {
+                data[i] = 0;
+            }
+
+            p.dirty = true;
+            p.pins = 1;
+            pages.put( p.id, p );
+            linkFirst( p );
+
+            return p;
+
+        }
+
+        private void unpin( Page p ) {
+            p.pins--;
+        }
+
+        // obtém uma moldura para a página id, reaproveitando a página menos
+        // recentemente usada que não esteja presa, caso o pool esteja cheio
+        private Page frame( int id ) {
+
+            Page p = null;
+
+            if ( pages.getSize() >= capacity ) {
+                for ( Page v = tail; v != null; v = v.prev ) {
+                    if ( v.pins == 0 ) {
+                        p = v;
+                        break;
+                    }
+                }
+            }
+
+            if ( p == null ) {
+                // pool vazio ou todas as páginas presas: cresce
+                p = new Page( pageSize );
+            } else {
+                if ( p.dirty ) {
+                    write( p );
+                }
+                pages.delete( p.id );
+                unlink( p );
+            }
+
+            p.id = id;
+            p.dirty = false;
+            p.pins = 0;
+
+            return p;
+
+        }
+
+        private void flush() {
+            for ( Page p = head; p != null; p = p.next ) {
+                if ( p.dirty ) {
+                    write( p );
+                }
+            }
+        }
+
+        private void clear() {
+            pages.clear();
+            head = null;
+            tail = null;
+        }
+
+        private void linkFirst( Page p ) {
+            p.prev = null;
+            p.next = head;
+            if ( head != null ) {
+                head.prev = p;
+            }
+            head = p;
+            if ( tail == null ) {
+                tail = p;
+            }
+        }
+
+        private void unlink( Page p ) {
+            if ( p.prev != null ) {
+                p.prev.next = p.next;
+            } else {
+                head = p.next;
+            }
+            if ( p.next != null ) {
+                p.next.prev = p.prev;
+            } else {
+                tail = p.prev;
+            }
+            p.prev = null;
+            p.next = null;
+        }
+
+    }
+
+    private final FileChannel channel;
+    private final Codec<Key> keyCodec;
+    private final Codec<Value> valueCodec;
+    private final BufferPool pool;
+
+    // dados do cabeçalho
+    private final int pageSize;
+    private final int order;
+    private int root;
+    private int height;
+    private int size;
+    private int firstLeaf;
+    private int pageCount;
+
+    // posições das áreas de valores (folhas) e filhos (nós internos)
+    private final int valuesOffset;
+    private final int childrenOffset;
+
+    // resultado da última divisão de nó feita por insert()
+    private Key splitKey;
+    private int splitPage;
+
+    /**
+     * Abre (ou cria, caso não exista ou esteja vazio) o arquivo da árvore,
+     * usando páginas de 4 KiB, a maior ordem que cabe em uma página e um
+     * buffer pool de 1024 páginas.
+     *
+     * @param file O arquivo.
+     * @param keyCodec Codificador das chaves.
+     * @param valueCodec Codificador dos valores.
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public DiskBPlusTree( Path file, Codec<Key> keyCodec, Codec<Value> valueCodec ) {
+        this( file, keyCodec, valueCodec, DEFAULT_PAGE_SIZE,
+                maxOrder( DEFAULT_PAGE_SIZE, keyCodec, valueCodec ), DEFAULT_CACHE_PAGES );
+    }
+
+    /**
+     * Abre (ou cria, caso não exista ou esteja vazio) o arquivo da árvore.
+     * Caso o arquivo já exista, o tamanho da página e a ordem gravados no
+     * cabeçalho prevalecem sobre os parâmetros.
+     *
+     * @param file O arquivo.
+     * @param keyCodec Codificador das chaves.
+     * @param valueCodec Codificador dos valores.
+     * @param pageSize Tamanho das páginas, em bytes.
+     * @param order Ordem da árvore (quantidade máxima de chaves por nó).
+     * @param cachePages Capacidade do buffer pool, em páginas.
+     * @throws IllegalArgumentException se a ordem não couber na página, se
+     * for menor que 3, se cachePages for menor que 8 ou se o arquivo
+     * existente for incompatível com os codificadores.
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public DiskBPlusTree( Path file, Codec<Key> keyCodec, Codec<Value> valueCodec,
+            int pageSize, int order, int cachePages ) throws IllegalArgumentException {
+
+        if ( order < 3 ) {
+            throw new IllegalArgumentException( "order must be at least 3" );
+        }
+
+        if ( cachePages < 8 ) {
+            throw new IllegalArgumentException( "cachePages must be at least 8" );
+        }
+
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+
+        try {
+
+            channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE );
+
+            if ( channel.size() > 0 ) {
+
+                ByteBuffer header = ByteBuffer.allocate( 40 );
+                channel.read( header, 0 );
+
+                if ( header.getInt( 0 ) != MAGIC ) {
+                    throw new IllegalArgumentException( "not a B+ tree file: " + file );
+                }
+
+                if ( header.getInt( 12 ) != keyCodec.getSize() || header.getInt( 16 ) != valueCodec.getSize() ) {
+                    throw new IllegalArgumentException( "codecs do not match the file: " + file );
+                }
+
+                pageSize = header.getInt( 4 );
+                order = header.getInt( 8 );
+                root = header.getInt( 20 );
+                height = header.getInt( 24 );
+                size = header.getInt( 28 );
+                firstLeaf = header.getInt( 32 );
+                pageCount = header.getInt( 36 );
+
+            } else if ( order > maxOrder( pageSize, keyCodec, valueCodec ) ) {
+                throw new IllegalArgumentException( "order " + order + " does not fit in a page of " + pageSize + " bytes" );
+            }
+
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+        this.pageSize = pageSize;
+        this.order = order;
+        this.valuesOffset = DATA + ( order + 1 ) * keyCodec.getSize();
+        this.childrenOffset = valuesOffset;
+        this.pool = new BufferPool( cachePages );
+
+        if ( pageCount == 0 ) {
+            initialize();
+        }
+
+    }
+
+    /**
+     * Calcula a maior ordem cujos nós cabem em uma página do tamanho
+     * fornecido.
+     *
+     * @param pageSize Tamanho da página, em bytes.
+     * @param keyCodec Codificador das chaves.
+     * @param valueCodec Codificador dos valores.
+     * @return A maior ordem possível.
+     */
+    public static int maxOrder( int pageSize, Codec<?> keyCodec, Codec<?> valueCodec ) {
+
+        // folha: M+1 chaves e M+1 valores; nó interno: M+1 chaves e M+2 filhos
+        int k = keyCodec.getSize();
+        int leaf = ( pageSize - DATA ) / ( k + valueCodec.getSize() ) - 1;
+        int internal = ( pageSize - DATA - 4 ) / ( k + 4 ) - 1;
+
+        return Math.min( leaf, internal );
+
+    }
+
+    // cria a página de cabeçalho e uma raiz folha vazia
+    private void initialize() {
+
+        pageCount = 1;
+        Page r = pool.allocate();
+        r.buffer.put( TYPE, LEAF );
+        r.buffer.putInt( NEXT, NIL );
+        pool.unpin( r );
+
+        root = r.id;
+        firstLeaf = r.id;
+        height = 0;
+        size = 0;
+
+    }
+
+    @Override
+    public Value get( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        Page leaf = findLeaf( key );
+
+        try {
+            int i = search( leaf, key );
+            return i >= 0 ? valueAt( leaf, i ) : null;
+        } finally {
+            pool.unpin( leaf );
+        }
+
+    }
+
+    // desce da raiz até a folha que contém (ou conteria) key; a folha é
+    // devolvida presa
+    private Page findLeaf( Key key ) {
+
+        int id = root;
+
+        for ( int ht = height; ht > 0; ht-- ) {
+            Page p = pool.fetch( id );
+            id = childAt( p, childIndex( p, key ) );
+            pool.unpin( p );
+        }
+
+        return pool.fetch( id );
+
+    }
+
+    @Override
+    public void put( Key key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        if ( !insert( root, height, key, value ) ) {
+            return;
+        }
+
+        // a raiz foi dividida: cria uma nova raiz com os dois nós
+        Page r = pool.allocate();
+        r.buffer.put( TYPE, INTERNAL );
+        r.buffer.putInt( NEXT, NIL );
+        r.buffer.putInt( COUNT, 1 );
+        setKeyAt( r, 0, splitKey );
+        setChildAt( r, 0, root );
+        setChildAt( r, 1, splitPage );
+        pool.unpin( r );
+
+        root = r.id;
+        height++;
+
+    }
+
+    /*
+     * Insere o par na subárvore enraizada na página id, de altura ht.
+     * Retorna true caso a página tenha sido dividida; nesse caso, splitKey e
+     * splitPage contêm a chave separadora e o novo nó irmão à direita, que
+     * o chamador deve inserir no nível acima.
+     */
+    private boolean insert( int id, int ht, Key key, Value value ) {
+
+        Page p = pool.fetch( id );
+
+        try {
+
+            if ( ht == 0 ) {
+
+                int i = search( p, key );
+
+                if ( i >= 0 ) {
+                    setValueAt( p, i, value );
+                    return false;
+                }
+
+                i = -i - 1;
+                int n = countOf( p );
+                shift( p, DATA, keyCodec.getSize(), i, n );
+                shift( p, valuesOffset, valueCodec.getSize(), i, n );
+                setKeyAt( p, i, key );
+                setValueAt( p, i, value );
+                setCount( p, n + 1 );
+                size++;
+
+                if ( n + 1 <= order ) {
+                    return false;
+                }
+
+                splitLeaf( p );
+                return true;
+
+            }
+
+            int i = childIndex( p, key );
+
+            if ( !insert( childAt( p, i ), ht - 1, key, value ) ) {
+                return false;
+            }
+
+            // insere a chave separadora na posição i e o novo filho à
+            // direita dela, na posição i+1
+            int n = countOf( p );
+            shift( p, DATA, keyCodec.getSize(), i, n );
+            shift( p, childrenOffset, 4, i + 1, n + 1 );
+            setKeyAt( p, i, splitKey );
+            setChildAt( p, i + 1, splitPage );
+            setCount( p, n + 1 );
+
+            if ( n + 1 <= order ) {
+                return false;
+            }
+
+            splitInternal( p );
+            return true;
+
+        } finally {
+            pool.unpin( p );
+        }
+
+    }
+
+    // divide uma folha: a metade da direita vai para uma nova folha, que
+    // passa a ser a irmã seguinte de p; a menor chave dela é a separadora
+    private void splitLeaf( Page p ) {
+
+        int n = countOf( p );
+        int mid = n / 2;
+        Page q = pool.allocate();
+
+        q.buffer.put( TYPE, LEAF );
+        copy( p, q, DATA, keyCodec.getSize(), mid, n - mid );
+        copy( p, q, valuesOffset, valueCodec.getSize(), mid, n - mid );
+        setCount( q, n - mid );
+        setCount( p, mid );
+        q.buffer.putInt( NEXT, p.buffer.getInt( NEXT ) );
+        p.buffer.putInt( NEXT, q.id );
+
+        splitKey = keyAt( q, 0 );
+        splitPage = q.id;
+        pool.unpin( q );
+
+    }
+
+    // divide um nó interno: a chave do meio sobe para o nível acima e as
+    // chaves e filhos à direita dela vão para um novo nó
+    private void splitInternal( Page p ) {
+
+        int n = countOf( p );
+        int mid = n / 2;
+        Page q = pool.allocate();
+
+        q.buffer.put( TYPE, INTERNAL );
+        q.buffer.putInt( NEXT, NIL );
+        copy( p, q, DATA, keyCodec.getSize(), mid + 1, n - mid - 1 );
+        copy( p, q, childrenOffset, 4, mid + 1, n - mid );
+        setCount( q, n - mid - 1 );
+        setCount( p, mid );
+
+        splitKey = keyAt( p, mid );
+        splitPage = q.id;
+        pool.unpin( q );
+
+    }
+
+    /**
+     * Remove uma chave e seu valor associado da árvore. A folha não é
+     * fundida com as vizinhas, mesmo que fique vazia.
+     *
+     * @param key Chave usada na busca.
+     * @throws IllegalArgumentException se a chave for nula.
+     */
+    @Override
+    public void delete( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        Page leaf = findLeaf( key );
+
+        try {
+
+            int i = search( leaf, key );
+
+            if ( i < 0 ) {
+                return;
+            }
+
+            int n = countOf( leaf );
+            unshift( leaf, DATA, keyCodec.getSize(), i, n );
+            unshift( leaf, valuesOffset, valueCodec.getSize(), i, n );
+            setCount( leaf, n - 1 );
+            size--;
+
+        } finally {
+            pool.unpin( leaf );
+        }
+
+    }
+
+    @Override
+    public boolean contains( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return get( key ) != null;
+
+    }
+
+    /**
+     * Constrói a árvore a partir de pares chave/valor em ordem estritamente
+     * crescente de chaves, sem passar pelas inserções individuais: as
+     * folhas são preenchidas por completo, uma após a outra, e em seguida
+     * cada nível de nós internos é montado a partir do primeiro elemento de
+     * cada nó do nível abaixo. Todas as páginas são criadas em sequência no
+     * final do arquivo, então a construção custa O(n) com E/S sequencial.
+     * Uma árvore esvaziada por remoções mantém a sua altura e as suas
+     * páginas, então o arquivo é truncado antes da construção. Os pares
+     * são validados enquanto são gravados; se algum for inválido, o
+     * arquivo é truncado de novo e a árvore fica vazia.
+     *
+     * @param entries Os pares, ordenados pelas chaves.
+     * @throws IllegalStateException se a árvore não estiver vazia.
+     * @throws IllegalArgumentException se as chaves não estiverem em ordem
+     * estritamente crescente ou se algum par for nulo.
+     */
+    public void bulkLoad( Iterable<SymbolTable.Entry<Key, Value>> entries )
+            throws IllegalStateException, IllegalArgumentException {
+
+        if ( !isEmpty() ) {
+            throw new IllegalStateException( "bulk load requires an empty tree" );
+        }
+
+        // recomeça com a raiz folha vazia de um arquivo novo
+        clear();
+
+        // primeira chave e página de cada nó do nível sendo construído
+        List<Key> firstKeys = new ResizingArrayList<>();
+        List<Integer> pages = new ResizingArrayList<>();
+
+        Page leaf = pool.fetch( firstLeaf );
+        firstKeys.add( null );
+        pages.add( leaf.id );
+        Key last = null;
+
+        // um par inválido só é descoberto depois de gravados os anteriores,
+        // então as folhas já gravadas são descartadas
+        try {
+
+            for ( SymbolTable.Entry<Key, Value> e : entries ) {
+
+                if ( e == null || e.getKey() == null || e.getValue() == null ) {
+                    throw new IllegalArgumentException( "null entry, key or value in bulk load" );
+                }
+
+                if ( last != null && last.compareTo( e.getKey() ) >= 0 ) {
+                    throw new IllegalArgumentException( "keys must be strictly increasing in bulk load" );
+                }
+
+                int n = countOf( leaf );
+
+                if ( n == order ) {
+                    Page next = pool.allocate();
+                    next.buffer.put( TYPE, LEAF );
+                    next.buffer.putInt( NEXT, NIL );
+                    leaf.buffer.putInt( NEXT, next.id );
+                    pool.unpin( leaf );
+                    leaf = next;
+                    n = 0;
+                    firstKeys.add( e.getKey() );
+                    pages.add( leaf.id );
+                }
+
+                if ( n == 0 && firstKeys.getSize() == 1 ) {
+                    firstKeys.set( 0, e.getKey() );
+                }
+
+                setKeyAt( leaf, n, e.getKey() );
+                setValueAt( leaf, n, e.getValue() );
+                setCount( leaf, n + 1 );
+                size++;
+                last = e.getKey();
+
+            }
+
+        } catch ( RuntimeException exc ) {
+            pool.unpin( leaf );
+            clear();
+            throw exc;
+        }
+
+        pool.unpin( leaf );
+
+        // constrói os níveis internos até restar um único nó
+        while ( pages.getSize() > 1 ) {
+
+            int children = pages.getSize();
+            int nodes = ( children + order ) / ( order + 1 );
+            List<Key> upperKeys = new ResizingArrayList<>();
+            List<Integer> upperPages = new ResizingArrayList<>();
+            int c = 0;
+
+            // distribui os filhos igualmente entre os nós, para que nenhum
+            // nó fique com um único filho
+            for ( int j = 0; j < nodes; j++ ) {
+
+                int count = children / nodes + ( j < children % nodes ? 1 : 0 );
+                Page p = pool.allocate();
+                p.buffer.put( TYPE, INTERNAL );
+                p.buffer.putInt( NEXT, NIL );
+
+                upperKeys.add( firstKeys.get( c ) );
+                upperPages.add( p.id );
+
+                for ( int k = 0; k < count; k++, c++ ) {
+                    setChildAt( p, k, pages.get( c ) );
+                    if ( k > 0 ) {
+                        setKeyAt( p, k - 1, firstKeys.get( c ) );
+                    }
+                }
+
+                setCount( p, count - 1 );
+                pool.unpin( p );
+
+            }
+
+            firstKeys = upperKeys;
+            pages = upperPages;
+            height++;
+
+        }
+
+        root = pages.get( 0 );
+
+    }
+
+    /**
+     * Retorna, em ordem, os pares cujas chaves estão no intervalo [lo, hi].
+     * O percurso é preguiçoso: desce uma única vez até a folha de lo e
+     * depois segue os apontadores entre folhas, lendo cada página apenas
+     * quando ela é alcançada.
+     *
+     * @param lo Menor chave do intervalo.
+     * @param hi Maior chave do intervalo.
+     * @return Os pares do intervalo.
+     * @throws IllegalArgumentException se alguma das chaves for nula.
+     */
+    public Iterable<SymbolTable.Entry<Key, Value>> range( Key lo, Key hi ) throws IllegalArgumentException {
+
+        if ( lo == null || hi == null ) {
+            throw new IllegalArgumentException( "argument to range() is null" );
+        }
+
+        return () -> {
+            Page leaf = findLeaf( lo );
+            int i = search( leaf, lo );
+            int id = leaf.id;
+            pool.unpin( leaf );
+            return new LeafIterator( id, i >= 0 ? i : -i - 1, hi );
+        };
+
+    }
+
+    /*
+     * Iterador que percorre as folhas a partir da posição fornecida até a
+     * chave hi (inclusive) ou até o fim, caso hi seja null.
+     */
+    private final class LeafIterator implements Iterator<SymbolTable.Entry<Key, Value>> {
+
+        private int leaf;
+        private int index;
+        private final Key hi;
+        private SymbolTable.Entry<Key, Value> next;
+
+        private LeafIterator( int leaf, int index, Key hi ) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public SymbolTable.Entry<Key, Value> next() {
+
+            if ( next == null ) {
+                throw new NoSuchElementException();
+            }
+
+            SymbolTable.Entry<Key, Value> e = next;
+            advance();
+
+            return e;
+
+        }
+
+        private void advance() {
+
+            next = null;
+
+            while ( leaf != NIL ) {
+
+                Page p = pool.fetch( leaf );
+
+                try {
+
+                    if ( index < countOf( p ) ) {
+                        Key key = keyAt( p, index );
+                        if ( hi == null || key.compareTo( hi ) <= 0 ) {
+                            next = new SymbolTable.Entry<>( key, valueAt( p, index ) );
+                            index++;
+                        } else {
+                            leaf = NIL;
+                        }
+                        return;
+                    }
+
+                    leaf = p.buffer.getInt( NEXT );
+                    index = 0;
+
+                } finally {
+                    pool.unpin( p );
+                }
+
+            }
+
+        }
+
+    }
+
+    @Override
+    public Iterator<SymbolTable.Entry<Key, Value>> iterator() {
+        return new LeafIterator( firstLeaf, 0, null );
+    }
+
+    @Override
+    public Iterable<Key> getKeys() {
+
+        return () -> new Iterator<Key>() {
+
+            private final Iterator<SymbolTable.Entry<Key, Value>> it = iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Key next() {
+                return it.next().getKey();
+            }
+
+        };
+
+    }
+
+    /**
+     * Remove todos os pares, truncando o arquivo.
+     *
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    @Override
+    public void clear() {
+
+        try {
+            channel.truncate( 0 );
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+        pool.clear();
+        initialize();
+
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retorna a altura da árvore (0 quando a raiz é uma folha).
+     *
+     * @return A altura.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retorna a ordem da árvore.
+     *
+     * @return A quantidade máxima de chaves por nó.
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Grava no arquivo todas as páginas modificadas e o cabeçalho.
+     *
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public void flush() {
+
+        pool.flush();
+
+        ByteBuffer header = ByteBuffer.allocate( 40 );
+        header.putInt( 0, MAGIC );
+        header.putInt( 4, pageSize );
+        header.putInt( 8, order );
+        header.putInt( 12, keyCodec.getSize() );
+        header.putInt( 16, valueCodec.getSize() );
+        header.putInt( 20, root );
+        header.putInt( 24, height );
+        header.putInt( 28, size );
+        header.putInt( 32, firstLeaf );
+        header.putInt( 36, pageCount );
+
+        try {
+            channel.write( header, 0 );
+            channel.force( false );
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+    }
+
+    /**
+     * Grava as modificações pendentes e fecha o arquivo.
+     *
+     * @throws IOException se ocorrer um erro de E/S.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch ( UncheckedIOException exc ) {
+            throw exc.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void read( Page p ) {
+
+        try {
+            ByteBuffer b = p.buffer;
+            long position = (long) p.id * pageSize;
+            while ( b.hasRemaining() ) {
+                int r = channel.read( b, position + b.position() );
+                if ( r < 0 ) {
+                    // página além do fim do arquivo: completa com zeros
+                    while ( b.hasRemaining() ) {
+                        b.put( (byte) 0 );
+                    }
+                }
+            }
+            b.clear();
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+    }
+
+    private void write( Page p ) {
+
+        try {
+            ByteBuffer b = p.buffer;
+            b.clear();
+            long position = (long) p.id * pageSize;
+            while ( b.hasRemaining() ) {
+                channel.write( b, position + b.position() );
+            }
+            b.clear();
+            p.dirty = false;
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+    }
+
+    /*
+     * Busca binária pela chave em uma folha. Retorna o índice da chave, caso
+     * exista, ou -(ponto de inserção) - 1, como Arrays.binarySearch().
+     */
+    private int search( Page p, Key key ) {
+
+        int lo = 0;
+        int hi = countOf( p ) - 1;
+
+        while ( lo <= hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            int comp = key.compareTo( keyAt( p, mid ) );
+            if ( comp < 0 ) {
+                hi = mid - 1;
+            } else if ( comp > 0 ) {
+                lo = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -lo - 1;
+
+    }
+
+    // índice do filho de um nó interno por onde key deve descer: a
+    // quantidade de chaves separadoras menores ou iguais a key
+    private int childIndex( Page p, Key key ) {
+
+        int lo = 0;
+        int hi = countOf( p );
+
+        while ( lo < hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if ( key.compareTo( keyAt( p, mid ) ) < 0 ) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+
+        return lo;
+
+    }
+
+    private int countOf( Page p ) {
+        return p.buffer.getInt( COUNT );
+    }
+
+    private void setCount( Page p, int count ) {
+        p.buffer.putInt( COUNT, count );
+        p.dirty = true;
+    }
+
+    private Key keyAt( Page p, int i ) {
+        return keyCodec.read( p.buffer, DATA + i * keyCodec.getSize() );
+    }
+
+    private void setKeyAt( Page p, int i, Key key ) {
+        keyCodec.write( p.buffer, DATA + i * keyCodec.getSize(), key );
+        p.dirty = true;
+    }
+
+    private Value valueAt( Page p, int i ) {
+        return valueCodec.read( p.buffer, valuesOffset + i * valueCodec.getSize() );
+    }
+
+    private void setValueAt( Page p, int i, Value value ) {
+        valueCodec.write( p.buffer, valuesOffset + i * valueCodec.getSize(), value );
+        p.dirty = true;
+    }
+
+    private int childAt( Page p, int i ) {
+        return p.buffer.getInt( childrenOffset + i * 4 );
+    }
+
+    private void setChildAt( Page p, int i, int child ) {
+        p.buffer.putInt( childrenOffset + i * 4, child );
+        p.dirty = true;
+    }
+
+    // abre espaço na posição i de uma área com n elementos de tamanho width
+    private void shift( Page p, int area, int width, int i, int n ) {
+        byte[] data = p.buffer.array();
+        System.arraycopy( data, area + i * width, data, area + ( i + 1 ) * width, ( n - i ) * width );
+    }
+
+    // fecha o espaço da posição i de uma área com n elementos
+    private void unshift( Page p, int area, int width, int i, int n ) {
+        byte[] data = p.buffer.array();
+        System.arraycopy( data, area + ( i + 1 ) * width, data, area + i * width, ( n - i - 1 ) * width );
+    }
+
+    // copia count elementos de uma área de p, a partir de from, para o
+    // começo da mesma área de q
+    private void copy( Page p, Page q, int area, int width, int from, int count ) {
+        System.arraycopy( p.buffer.array(), area + from * width, q.buffer.array(), area, count * width );
+        q.dirty = true;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        if ( !isEmpty() ) {
+            for ( SymbolTable.Entry<Key, Value> e : this ) {
+                sb.append( e ).append( "\n" );
+            }
+        } else {
+            sb.append( "empty disk B+ tree!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import java.util.Arrays;
+
+/**
+ * Linhas da tabela de distância de edição (Levenshtein) usadas pelas buscas
+ * aproximadas das tries ({@link Trie} e {@link TernarySearchTrie}), que
+ * calculam uma linha por caractere do caminho percorrido.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+final class EditDistanceRows {
+
+    /*
+     * Maior distância máxima usada nas buscas. Nenhuma distância de edição
+     * passa do comprimento da maior string envolvida, e com k limitado a
+     * este valor k + 1 e i + k não estouram.
+     */
+    static final int MAX_DISTANCE = Integer.MAX_VALUE / 2;
+
+    // não instanciar
+    private EditDistanceRows() {
+    }
+
+    /*
+     * Cria a tabela com a linha 0 (a distância entre a string vazia e cada
+     * prefixo de query). As demais linhas são alocadas por ensureRow()
+     * conforme a busca desce, então a tabela acompanha a profundidade
+     * percorrida e não o limite m + k + 1, que é enorme para k grande.
+     */
+    static int[][] firstRows( String query, int k ) {
+
+        int m = query.length();
+        int[][] rows = new int[m + 2][];
+
+        rows[0] = new int[m + 1];
+        for ( int j = 0; j <= m; j++ ) {
+            rows[0][j] = Math.min( j, k + 1 );
+        }
+
+        return rows;
+
+    }
+
+    /*
+     * Garante que a linha i exista, dobrando a tabela se necessário, e
+     * retorna a tabela (que pode ter sido trocada por uma maior).
+     */
+    static int[][] ensureRow( int[][] rows, int i, int m ) {
+
+        if ( i == rows.length ) {
+            rows = Arrays.copyOf( rows, 2 * rows.length );
+        }
+
+        if ( rows[i] == null ) {
+            rows[i] = new int[m + 1];
+        }
+
+        return rows;
+
+    }
+
+    /*
+     * Calcula a linha i da tabela de distância de edição (o caminho até o
+     * nó tem i caracteres, sendo c o último) a partir da linha anterior e
+     * retorna o menor valor da linha. Os valores são limitados a k + 1 e só
+     * a faixa [i - k, i + k] é calculada; as posições logo fora da faixa
+     * recebem k + 1, que é o que a linha seguinte lê nas bordas.
+     */
+    static int nextRow( int[] prev, int[] cur, int i, char c, String query, int k ) {
+
+        int m = query.length();
+        int lo = Math.max( 1, i - k );
+        int hi = Math.min( m, i + k );
+
+        cur[0] = Math.min( i, k + 1 );
+        int min = cur[0];
+        if ( lo > 1 ) {
+            cur[lo - 1] = k + 1;
+        }
+
+        for ( int j = lo; j <= hi; j++ ) {
+            int v = prev[j - 1] + ( query.charAt( j - 1 ) == c ? 0 : 1 );
+            v = Math.min( v, prev[j] + 1 );
+            v = Math.min( v, cur[j - 1] + 1 );
+            cur[j] = Math.min( v, k + 1 );
+            if ( cur[j] < min ) {
+                min = cur[j];
+            }
+        }
+
+        // cur[m] também é lido para saber se o caminho é uma chave a
+        // distância no máximo k
+        if ( hi < m ) {
+            cur[hi + 1] = k + 1;
+            cur[m] = k + 1;
+        }
+
+        return min;
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Visão iterável das árvores de busca ({@link BinarySearchTree},
+ * {@link RedBlackTree} e {@link AVLTree}) sobre os percursos preguiçosos de
+ * TreeTraversals. Cada iterador começa um percurso novo a partir da raiz
+ * atual e falha rapidamente: se a árvore for alterada estruturalmente
+ * (inserção ou remoção de uma chave) depois de criado o iterador, a próxima
+ * chamada de hasNext() ou next() lança ConcurrentModificationException, em
+ * vez de continuar por nós que podem ter sido rotacionados ou removidos.
+ *
+ * @param <T> Tipo dos itens percorridos.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+final class FailFastIterable<T> implements Iterable<T> {
+
+    // cria o percurso a partir da raiz atual
+    private final Supplier<Iterable<T>> traversal;
+
+    // contador de alterações estruturais da árvore
+    private final IntSupplier modCount;
+
+    FailFastIterable( Supplier<Iterable<T>> traversal, IntSupplier modCount ) {
+        this.traversal = traversal;
+        this.modCount = modCount;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+
+        int expected = modCount.getAsInt();
+        Iterator<T> it = traversal.get().iterator();
+
+        return new Iterator<T>() {
+
+            @Override
+            public boolean hasNext() {
+                check();
+                return it.hasNext();
+            }
+
+            @Override
+            public T next() {
+                check();
+                return it.next();
+            }
+
+            private void check() {
+                if ( modCount.getAsInt() != expected ) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+
+        };
+
+    }
+
+}
@@ -0,0 +1,396 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação de uma tabela de dispersão com sondagem linear especializada
+ * para chaves do tipo int.
+ *
+ * Diferente de LinearProbingHashTable, as chaves ficam em um array int[],
+ * e não em um array de referências: put(int, Value), get(int),
+ * contains(int) e delete(int) não criam nenhum objeto Integer e nem chamam
+ * hashCode()/equals(), e cada posição sondada é lida diretamente do array,
+ * sem seguir um ponteiro. Os métodos da interface SymbolTable, que recebem
+ * Integer, apenas delegam para as versões primitivas.
+ *
+ * Como qualquer valor int pode ser uma chave válida, não há como reservar
+ * uma chave para marcar as posições vazias; uma posição está ocupada se, e
+ * somente se, o valor armazenado nela não é null (a tabela não armazena
+ * valores null, pois put com valor null remove a chave).
+ *
+ * Outras diferenças em relação a LinearProbingHashTable:
+ *     - o tamanho da tabela é sempre uma potência de 2, e a posição inicial
+ *       é obtida com uma máscara de bits, em vez do resto da divisão;
+ *     - a chave passa por uma função de mistura (a finalização do
+ *       MurmurHash3) antes de ser mascarada, o que espalha chaves
+ *       sequenciais ou que diferem apenas nos bits altos, muito comuns para
+ *       identificadores de vértices e registros;
+ *     - a remoção usa deslocamento para trás (backward-shift deletion): em
+ *       vez de reinserir todo o resto do cluster, apenas as chaves que
+ *       deixariam de ser encontradas são movidas para a posição que foi
+ *       aberta, sem lápides (tombstones) e sem alocação.
+ *
+ * @param <Value> Tipo dos valores associados às chaves armazenadas na tabela
+ * de dispersão.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class IntLinearProbingHashTable<Value> implements SymbolTable<Integer, Value> {
+
+    // capacidade inicial, deve ser potência de 2
+    private static final int INIT_CAPACITY = 4;
+
+    // tamanho da tabela de dispersão (quantidade de pares chave/valor)
+    private int size;
+
+    // tamanho da tabela de sondagem linear (sempre potência de 2)
+    private int lptSize;
+
+    // máscara usada para calcular as posições (lptSize - 1)
+    private int mask;
+
+    // array de chaves
+    private int[] keys;
+
+    // array de valores, null indica uma posição vazia
+    private Value[] values;
+
+    /**
+     * Constrói uma tabela de dispersão vazia.
+     */
+    public IntLinearProbingHashTable() {
+        this( INIT_CAPACITY );
+    }
+
+    /**
+     * Constrói uma tabela de dispersão com a capacidade inicial fornecida,
+     * arredondada para a próxima potência de 2.
+     *
+     * @param capacity A capacidade inicial.
+     * @throws IllegalArgumentException se a capacidade não for positiva.
+     */
+    @SuppressWarnings( "unchecked" )
+    public IntLinearProbingHashTable( int capacity ) throws IllegalArgumentException {
+
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException( "capacity must be greater than zero" );
+        }
+
+        lptSize = Integer.highestOneBit( capacity );
+        if ( lptSize < capacity ) {
+            lptSize <<= 1;
+        }
+
+        mask = lptSize - 1;
+        size = 0;
+        keys = new int[lptSize];
+        values = (Value[]) new Object[lptSize];
+
+    }
+
+    /**
+     * Insere um par chave/valor na tabela. Caso a chave já exista,
+     * sobrescreve o valor antigo. Caso o valor seja null, remove a chave.
+     *
+     * @param key Chave usada na inserção.
+     * @param value Valor associado à chave.
+     */
+    public void put( int key, Value value ) {
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        // dobra o tamanho se estiver 50% cheia
+        if ( size >= lptSize / 2 ) {
+            resize( 2 * lptSize );
+        }
+
+        int i;
+
+        for ( i = hash( key ); values[i] != null; i = ( i + 1 ) & mask ) {
+            if ( keys[i] == key ) {
+                values[i] = value;
+                return;
+            }
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+
+    }
+
+    /**
+     * Obtém o valor associado à uma chave.
+     *
+     * @param key Chave usada na busca.
+     * @return O valor associado à chave ou null caso ela não exista.
+     */
+    public Value get( int key ) {
+
+        for ( int i = hash( key ); values[i] != null; i = ( i + 1 ) & mask ) {
+            if ( keys[i] == key ) {
+                return values[i];
+            }
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Remove uma chave e seu valor associado da tabela.
+     *
+     * @param key Chave usada na busca.
+     */
+    public void delete( int key ) {
+
+        int i = hash( key );
+
+        while ( values[i] != null && keys[i] != key ) {
+            i = ( i + 1 ) & mask;
+        }
+
+        // a chave não existe
+        if ( values[i] == null ) {
+            return;
+        }
+
+        // deslocamento para trás: percorre o restante do cluster e, para
+        // cada chave cuja posição inicial não está no intervalo circular
+        // (i, j], move-a para a posição i que foi aberta (senão get()
+        // pararia na posição vazia antes de alcançá-la); a posição de onde
+        // ela saiu passa a ser a nova posição aberta
+        int j = i;
+
+        while ( true ) {
+
+            j = ( j + 1 ) & mask;
+
+            if ( values[j] == null ) {
+                break;
+            }
+
+            int home = hash( keys[j] );
+
+            if ( ( ( j - home ) & mask ) >= ( ( j - i ) & mask ) ) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+
+        }
+
+        values[i] = null;
+        size--;
+
+        // diminui o tamanho do array se tiver 12,5% ou menos cheio
+        if ( size > 0 && size <= lptSize / 8 ) {
+            resize( lptSize / 2 );
+        }
+
+    }
+
+    /**
+     * Verifica se uma chave está contida na tabela.
+     *
+     * @param key Chave usada na busca.
+     * @return Verdadeiro, caso a chave exista na tabela, falso caso contrário.
+     */
+    public boolean contains( int key ) {
+        return get( key ) != null;
+    }
+
+    @Override
+    public void put( Integer key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        put( key.intValue(), value );
+
+    }
+
+    @Override
+    public Value get( Integer key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        return get( key.intValue() );
+
+    }
+
+    @Override
+    public void delete( Integer key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        delete( key.intValue() );
+
+    }
+
+    @Override
+    public boolean contains( Integer key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return contains( key.intValue() );
+
+    }
+
+    /**
+     * Redimensiona a tabela para a capacidade fornecida, realizando o
+     * rehashing de todas as chaves diretamente nos novos arrays.
+     *
+     * @param capacity Tamanho a ser redimensionado (potência de 2).
+     */
+    @SuppressWarnings( "unchecked" )
+    private void resize( int capacity ) {
+
+        int[] oldKeys = keys;
+        Value[] oldValues = values;
+
+        lptSize = capacity;
+        mask = capacity - 1;
+        keys = new int[capacity];
+        values = (Value[]) new Object[capacity];
+
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldValues[i] != null ) {
+                int j = hash( oldKeys[i] );
+                while ( values[j] != null ) {
+                    j = ( j + 1 ) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+
+    }
+
+    /*
+     * Função de mistura da finalização do MurmurHash3 (fmix32), seguida da
+     * máscara da tabela.
+     */
+    private int hash( int key ) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    @Override
+    public Iterable<Integer> getKeys() {
+
+        Queue<Integer> queue = new LinkedQueue<>();
+
+        for ( int i = 0; i < lptSize; i++ ) {
+            if ( values[i] != null ) {
+                queue.enqueue( keys[i] );
+            }
+        }
+
+        return queue;
+
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public void clear() {
+        keys = new int[INIT_CAPACITY];
+        values = (Value[]) new Object[INIT_CAPACITY];
+        lptSize = INIT_CAPACITY;
+        mask = lptSize - 1;
+        size = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Iterador que percorre os arrays diretamente, sem copiar as entradas
+     * para uma lista auxiliar. Não deve ser usado enquanto a tabela é
+     * modificada.
+     */
+    @Override
+    public Iterator<Entry<Integer, Value>> iterator() {
+
+        return new Iterator<Entry<Integer, Value>>() {
+
+            private int current = advance( 0 );
+
+            @Override
+            public boolean hasNext() {
+                return current < lptSize;
+            }
+
+            @Override
+            public Entry<Integer, Value> next() {
+
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<Integer, Value> e = new Entry<>( keys[current], values[current] );
+                current = advance( current + 1 );
+
+                return e;
+
+            }
+
+            private int advance( int i ) {
+                while ( i < lptSize && values[i] == null ) {
+                    i++;
+                }
+                return i;
+            }
+
+        };
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        if ( !isEmpty() ) {
+
+            for ( int i = 0; i < lptSize; i++ ) {
+                if ( values[i] != null ) {
+                    sb.append( keys[i] ).append( " -> " ).append( values[i] ).append( "\n" );
+                }
+            }
+
+        } else {
+            sb.append( "empty int linear probing hash table!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+}
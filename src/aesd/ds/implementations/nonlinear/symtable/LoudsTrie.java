@@ -0,0 +1,1001 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.implementations.linear.ResizingArrayList;
+import aesd.ds.implementations.linear.ResizingArrayQueue;
+import aesd.ds.interfaces.Codec;
+import aesd.ds.interfaces.List;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Implementação de uma trie estática e sucinta, construída ("congelada") a
+ * partir de uma tabela de símbolos de Strings já preenchida, como uma Trie,
+ * uma TernarySearchTrie ou uma AdaptiveRadixTree, para dicionários que são
+ * criados uma vez e depois apenas consultados.
+ *
+ * Em vez de um grafo de objetos, a trie é codificada com LOUDS (Level-Order
+ * Unary Degree Sequence), na variante "esparsa" usada pelo SuRF: as arestas
+ * são numeradas em ordem de nível (todas as arestas da raiz, depois as de
+ * cada nó do nível seguinte, da esquerda para a direita) e descritas por:
+ *     - labels: o primeiro caractere (byte) de cada aresta;
+ *     - louds: um bit por aresta, 1 se ela é a primeira do seu nó;
+ *     - hasChild: um bit por aresta, 1 se ela leva a um nó com filhos, 0 se
+ *       ela leva a uma folha, ou seja, se apenas uma chave passa por ela;
+ *     - terminal: um bit por aresta, 1 se ela é a primeira de um nó em que
+ *       uma chave termina (uma chave que é prefixo de outras);
+ *     - hasTail: um bit por aresta, 1 se ela tem mais caracteres além do
+ *       rótulo.
+ * Os nós com filhos são numerados em ordem de nível, com a raiz sendo o nó
+ * 0. Assim, o filho pela aresta pos é o nó rank1(hasChild, pos) (contando
+ * a própria posição) e as arestas do nó x começam na posição
+ * select1(louds, x). Os valores têm tamanho fixo (Codec) e ficam em um
+ * único array: os das folhas na ordem das arestas (o índice é
+ * rank0(hasChild, pos)) e, depois deles, os dos nós terminais, em ordem de
+ * nó.
+ *
+ * Como na Patricia trie e em outras tries sucintas (MARISA, SuRF), cadeias
+ * de nós com um único filho não são representadas nó a nó: os caracteres
+ * seguintes ao rótulo da aresta que levam ao próximo nó com mais de um
+ * filho (ou, numa folha, o resto da única chave) são guardados como um
+ * sufixo (tail) da aresta, em um array de bytes indexado por
+ * rank1(hasTail, pos). Assim, a busca faz um select e um rank apenas onde
+ * as chaves realmente se separam, e compara os trechos sem ramificação
+ * byte a byte.
+ *
+ * Os bits e os rótulos são guardados em blocos de 64 arestas, cada um com
+ * as quatro palavras de bits, os contadores de bits 1 anteriores ao bloco
+ * (o que torna rank O(1)) e os 64 rótulos, de modo que cada nível da
+ * descida acessa, em geral, uma única região da memória. select é
+ * praticamente O(1) com uma amostra a cada 64 bits 1 de louds.
+ *
+ * Tudo fica em um único ByteBuffer, no mesmo formato do arquivo gravado
+ * por save(Path), então load(Path) apenas mapeia o arquivo em memória
+ * (FileChannel.map) e a trie pode ser usada imediatamente, sem
+ * desserialização e sem ocupar o heap.
+ *
+ * Assim como na Trie, os caracteres das chaves precisam estar entre 0 e
+ * 255.
+ *
+ * Layout do arquivo (inteiros em little-endian): cabeçalho de 40 bytes
+ * (marca, versão, tamanho do valor, quantidade de chaves, de nós com
+ * filhos, de arestas, de folhas e de sufixos, tamanho dos sufixos e se a
+ * chave vazia está presente em uma trie sem arestas), blocos de 112 bytes
+ * ([louds][hasChild][terminal][hasTail] como longs, os quatro contadores
+ * como ints e os 64 rótulos), amostras de select, posições dos sufixos,
+ * sufixos e valores.
+ *
+ * @param <Value> Tipo dos valores associados às chaves.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class LoudsTrie<Value> implements Iterable<SymbolTable.Entry<String, Value>> {
+
+    // "LOUD"
+    private static final int MAGIC = 0x4C4F5544;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+
+    // tamanho do alfabeto
+    private static final int R = 256;
+
+    // bloco de 64 arestas: posições das palavras de bits, dos contadores e
+    // dos rótulos dentro do bloco
+    private static final int BLOCK_SIZE = 112;
+    private static final int LOUDS = 0;
+    private static final int HAS_CHILD = 8;
+    private static final int TERMINAL = 16;
+    private static final int HAS_TAIL = 24;
+    private static final int RANKS = 32;
+    private static final int LABELS = 48;
+
+    // acima desta quantidade de arestas, os rótulos de um nó são buscados
+    // por busca binária
+    private static final int LINEAR_SEARCH_LIMIT = 16;
+
+    // SELECT_IN_BYTE[8 * b + r] = posição do bit 1 de número r no byte b
+    private static final byte[] SELECT_IN_BYTE = new byte[R * 8];
+
+    static {
+        for ( int b = 0; b < R; b++ ) {
+            int r = 0;
+            for ( int i = 0; i < 8; i++ ) {
+                if ( ( b & ( 1 << i ) ) != 0 ) {
+                    SELECT_IN_BYTE[8 * b + r++] = (byte) i;
+                }
+            }
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final Codec<Value> codec;
+    private final int valueSize;
+
+    private final int n;
+    private final int nodeCount;
+    private final int labelCount;
+    private final int leafCount;
+
+    // a chave vazia, quando é a única chave (trie sem arestas)
+    private final boolean rootTerminal;
+
+    private final int samplesOffset;
+    private final int tailOffsetsOffset;
+    private final int tailsOffset;
+    private final int valuesOffset;
+
+    /*
+     * Vetor de bits em construção.
+     */
+    private static final class BitsBuilder {
+
+        long[] words = new long[16];
+        int size;
+
+        void add( boolean bit ) {
+            if ( ( size >>> 6 ) == words.length ) {
+                words = Arrays.copyOf( words, words.length * 2 );
+            }
+            if ( bit ) {
+                words[size >>> 6] |= 1L << size;
+            }
+            size++;
+        }
+
+    }
+
+    private LoudsTrie( ByteBuffer buffer, Codec<Value> codec ) throws IllegalArgumentException {
+
+        if ( buffer.capacity() < HEADER_SIZE
+                || buffer.getInt( 0 ) != MAGIC
+                || buffer.getInt( 4 ) != VERSION ) {
+            throw new IllegalArgumentException( "not a LOUDS trie" );
+        }
+
+        valueSize = buffer.getInt( 8 );
+        n = buffer.getInt( 12 );
+        nodeCount = buffer.getInt( 16 );
+        labelCount = buffer.getInt( 20 );
+        leafCount = buffer.getInt( 24 );
+        int tailCount = buffer.getInt( 28 );
+        int tailBytes = buffer.getInt( 32 );
+        rootTerminal = buffer.getInt( 36 ) != 0;
+
+        if ( valueSize != codec.getSize() ) {
+            throw new IllegalArgumentException( "codec size " + codec.getSize()
+                    + " does not match the stored value size " + valueSize );
+        }
+
+        int[] layout = layout( n, nodeCount, labelCount, tailCount, tailBytes, valueSize );
+        if ( layout[4] != buffer.capacity() ) {
+            throw new IllegalArgumentException( "corrupted LOUDS trie" );
+        }
+
+        this.buffer = buffer;
+        this.codec = codec;
+        samplesOffset = layout[0];
+        tailOffsetsOffset = layout[1];
+        tailsOffset = layout[2];
+        valuesOffset = layout[3];
+
+    }
+
+    /*
+     * Posições das amostras de select, das posições dos sufixos, dos
+     * sufixos e dos valores e o tamanho total (os blocos começam logo após
+     * o cabeçalho).
+     */
+    private static int[] layout( int n, int nodeCount, int labelCount, int tailCount, int tailBytes, int valueSize ) {
+
+        long samples = HEADER_SIZE + (long) BLOCK_SIZE * ( ( labelCount + 63 ) >>> 6 );
+        long tailOffsets = samples + 4L * ( ( nodeCount + 63 ) >>> 6 );
+        long tails = tailOffsets + 4L * ( tailCount + 1 );
+        long values = ( tails + tailBytes + 7 ) & ~7L;
+        long total = values + (long) n * valueSize;
+
+        if ( total > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException( "trie too large" );
+        }
+
+        return new int[]{ (int) samples, (int) tailOffsets, (int) tails, (int) values, (int) total };
+
+    }
+
+    /**
+     * Constrói uma trie sucinta com as chaves e os valores de uma tabela de
+     * símbolos de Strings (por exemplo, uma Trie ou uma TernarySearchTrie).
+     * A tabela não é modificada e pode ser descartada depois.
+     *
+     * @param <Value> Tipo dos valores.
+     * @param st A tabela de símbolos.
+     * @param codec O codificador dos valores.
+     * @return A trie sucinta.
+     * @throws IllegalArgumentException se algum argumento for nulo ou se
+     * alguma chave tiver caracteres maiores que 255.
+     */
+    public static <Value> LoudsTrie<Value> freeze( SymbolTable<String, Value> st, Codec<Value> codec )
+            throws IllegalArgumentException {
+
+        if ( st == null || codec == null ) {
+            throw new IllegalArgumentException( "argument to freeze() is null" );
+        }
+
+        String[] keys = new String[st.getSize()];
+        int n = 0;
+        for ( String key : st.getKeys() ) {
+            for ( int i = 0; i < key.length(); i++ ) {
+                if ( key.charAt( i ) >= R ) {
+                    throw new IllegalArgumentException( "key contains a character greater than " + ( R - 1 ) );
+                }
+            }
+            keys[n++] = key;
+        }
+
+        // para chars menores que 256, a ordem de String é a ordem dos bytes
+        Arrays.sort( keys );
+
+        BitsBuilder louds = new BitsBuilder();
+        BitsBuilder hasChild = new BitsBuilder();
+        BitsBuilder terminal = new BitsBuilder();
+        BitsBuilder hasTail = new BitsBuilder();
+        byte[] labels = new byte[64];
+        int labelCount = 0;
+        boolean rootTerminal = false;
+
+        // sufixos das arestas, em ordem de aresta
+        byte[] tails = new byte[64];
+        int tailBytes = 0;
+        int[] tailOffsets = new int[64];
+        int tailCount = 0;
+
+        // chaves das folhas (em ordem de aresta) e dos nós terminais
+        // (em ordem de nó)
+        int[] leafKeys = new int[Math.max( n, 1 )];
+        int leafCount = 0;
+        int[] terminalKeys = new int[Math.max( n, 1 )];
+        int terminalCount = 0;
+
+        // cada nó é o intervalo [lo, hi) das chaves ordenadas que começam
+        // com os mesmos depth caracteres
+        Queue<int[]> queue = new LinkedQueue<>();
+        queue.enqueue( new int[]{ 0, n, 0 } );
+        int nodeCount = 0;
+
+        while ( !queue.isEmpty() ) {
+
+            int[] node = queue.dequeue();
+            int lo = node[0];
+            int hi = node[1];
+            int depth = node[2];
+            nodeCount++;
+
+            boolean isTerminal = lo < hi && keys[lo].length() == depth;
+            if ( isTerminal ) {
+                terminalKeys[terminalCount++] = lo++;
+            }
+
+            // só a raiz pode não ter arestas
+            if ( lo == hi ) {
+                rootTerminal = isTerminal;
+            }
+
+            boolean first = true;
+
+            // uma aresta por caractere na posição depth
+            for ( int i = lo; i < hi; ) {
+
+                char c = keys[i].charAt( depth );
+                int j = i + 1;
+                while ( j < hi && keys[j].charAt( depth ) == c ) {
+                    j++;
+                }
+
+                if ( labelCount == labels.length ) {
+                    labels = Arrays.copyOf( labels, labels.length * 2 );
+                }
+                labels[labelCount++] = (byte) c;
+                louds.add( first );
+                terminal.add( first && isTerminal );
+                first = false;
+
+                // o sufixo vai até o fim da chave, numa folha, ou até o
+                // maior prefixo comum do grupo (a primeira e a última
+                // chaves, já que estão ordenadas)
+                int tailEnd;
+
+                if ( j - i == 1 ) {
+                    tailEnd = keys[i].length();
+                    hasChild.add( false );
+                    leafKeys[leafCount++] = i;
+                } else {
+                    String a = keys[i];
+                    String b = keys[j - 1];
+                    tailEnd = depth + 1;
+                    while ( tailEnd < a.length() && tailEnd < b.length() && a.charAt( tailEnd ) == b.charAt( tailEnd ) ) {
+                        tailEnd++;
+                    }
+                    hasChild.add( true );
+                    queue.enqueue( new int[]{ i, j, tailEnd } );
+                }
+
+                hasTail.add( tailEnd > depth + 1 );
+
+                if ( tailEnd > depth + 1 ) {
+                    if ( tailCount == tailOffsets.length ) {
+                        tailOffsets = Arrays.copyOf( tailOffsets, tailOffsets.length * 2 );
+                    }
+                    tailOffsets[tailCount++] = tailBytes;
+                    for ( int d = depth + 1; d < tailEnd; d++ ) {
+                        if ( tailBytes == tails.length ) {
+                            tails = Arrays.copyOf( tails, tails.length * 2 );
+                        }
+                        tails[tailBytes++] = (byte) keys[i].charAt( d );
+                    }
+                }
+
+                i = j;
+
+            }
+
+        }
+
+        int valueSize = codec.getSize();
+        int[] layout = layout( n, nodeCount, labelCount, tailCount, tailBytes, valueSize );
+        ByteBuffer buffer = ByteBuffer.allocate( layout[4] ).order( ByteOrder.LITTLE_ENDIAN );
+
+        buffer.putInt( 0, MAGIC );
+        buffer.putInt( 4, VERSION );
+        buffer.putInt( 8, valueSize );
+        buffer.putInt( 12, n );
+        buffer.putInt( 16, nodeCount );
+        buffer.putInt( 20, labelCount );
+        buffer.putInt( 24, leafCount );
+        buffer.putInt( 28, tailCount );
+        buffer.putInt( 32, tailBytes );
+        buffer.putInt( 36, rootTerminal ? 1 : 0 );
+
+        BitsBuilder[] vectors = { louds, hasChild, terminal, hasTail };
+        int[] ranks = new int[vectors.length];
+        int blocks = ( labelCount + 63 ) >>> 6;
+
+        for ( int b = 0; b < blocks; b++ ) {
+
+            int block = HEADER_SIZE + b * BLOCK_SIZE;
+
+            // amostras dos bits 1 de louds de número múltiplo de 64
+            int c = Long.bitCount( louds.words[b] );
+            for ( int k = ( ranks[0] + 63 ) & ~63; k < ranks[0] + c; k += 64 ) {
+                buffer.putInt( layout[0] + ( ( k >>> 6 ) << 2 ), b );
+            }
+
+            for ( int v = 0; v < vectors.length; v++ ) {
+                buffer.putLong( block + 8 * v, vectors[v].words[b] );
+                buffer.putInt( block + RANKS + 4 * v, ranks[v] );
+                ranks[v] += Long.bitCount( vectors[v].words[b] );
+            }
+
+            buffer.put( block + LABELS, labels, b << 6, Math.min( 64, labelCount - ( b << 6 ) ) );
+
+        }
+
+        for ( int i = 0; i < tailCount; i++ ) {
+            buffer.putInt( layout[1] + ( i << 2 ), tailOffsets[i] );
+        }
+        buffer.putInt( layout[1] + ( tailCount << 2 ), tailBytes );
+        buffer.put( layout[2], tails, 0, tailBytes );
+
+        for ( int i = 0; i < leafCount; i++ ) {
+            codec.write( buffer, layout[3] + i * valueSize, st.get( keys[leafKeys[i]] ) );
+        }
+        for ( int i = 0; i < terminalCount; i++ ) {
+            codec.write( buffer, layout[3] + ( leafCount + i ) * valueSize, st.get( keys[terminalKeys[i]] ) );
+        }
+
+        return new LoudsTrie<>( buffer, codec );
+
+    }
+
+    /**
+     * Carrega uma trie sucinta gravada por save(Path), mapeando o arquivo em
+     * memória. O arquivo não é lido por inteiro: as páginas são carregadas
+     * pelo sistema operacional à medida que são acessadas.
+     *
+     * @param <Value> Tipo dos valores.
+     * @param file O arquivo.
+     * @param codec O codificador dos valores, o mesmo usado na construção.
+     * @return A trie sucinta.
+     * @throws IllegalArgumentException se o arquivo não contiver uma trie
+     * sucinta ou se o tamanho dos valores for diferente do do codificador.
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public static <Value> LoudsTrie<Value> load( Path file, Codec<Value> codec ) throws IllegalArgumentException {
+
+        if ( file == null || codec == null ) {
+            throw new IllegalArgumentException( "argument to load() is null" );
+        }
+
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+            ByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            return new LoudsTrie<>( buffer.order( ByteOrder.LITTLE_ENDIAN ), codec );
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+    }
+
+    /**
+     * Grava a trie em um arquivo, que pode ser mapeado depois por
+     * load(Path).
+     *
+     * @param file O arquivo.
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public void save( Path file ) {
+
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+            ByteBuffer b = buffer.duplicate();
+            b.clear();
+            while ( b.hasRemaining() ) {
+                channel.write( b );
+            }
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+    }
+
+    // posição do bloco da aresta pos
+    private static int block( int pos ) {
+        return HEADER_SIZE + ( pos >>> 6 ) * BLOCK_SIZE;
+    }
+
+    private boolean bit( int pos, int vector ) {
+        return ( buffer.getLong( block( pos ) + vector ) & ( 1L << pos ) ) != 0;
+    }
+
+    // quantidade de bits 1 nas posições [0, pos] do vetor
+    private int rank( int pos, int vector ) {
+        int block = block( pos );
+        return buffer.getInt( block + RANKS + ( vector >>> 1 ) )
+                + Long.bitCount( buffer.getLong( block + vector ) & ( -1L >>> ( 63 - ( pos & 63 ) ) ) );
+    }
+
+    private int label( int pos ) {
+        return buffer.get( block( pos ) + LABELS + ( pos & 63 ) ) & 0xFF;
+    }
+
+    // posição da primeira aresta do nó (o bit 1 de número node em louds)
+    private int firstEdge( int node ) {
+
+        int b = buffer.getInt( samplesOffset + ( ( node >>> 6 ) << 2 ) );
+
+        while ( true ) {
+
+            int block = HEADER_SIZE + b * BLOCK_SIZE;
+            int r = node - buffer.getInt( block + RANKS );
+            long x = buffer.getLong( block + LOUDS );
+
+            if ( r < Long.bitCount( x ) ) {
+
+                // pula bytes inteiros e usa a tabela no byte que contém o bit
+                int shift = 0;
+                int c;
+                while ( r >= ( c = Long.bitCount( ( x >>> shift ) & 0xFF ) ) ) {
+                    r -= c;
+                    shift += 8;
+                }
+
+                return ( b << 6 ) + shift + SELECT_IN_BYTE[( ( (int) ( x >>> shift ) & 0xFF ) << 3 ) + r];
+
+            }
+
+            b++;
+
+        }
+
+    }
+
+    // posição seguinte à última aresta do nó que começa em start
+    private int endOfNode( int start ) {
+
+        int pos = start + 1;
+        if ( pos >= labelCount ) {
+            return labelCount;
+        }
+
+        long x = buffer.getLong( block( pos ) + LOUDS ) & ( -1L << pos );
+
+        while ( x == 0 ) {
+            pos = ( pos | 63 ) + 1;
+            if ( pos >= labelCount ) {
+                return labelCount;
+            }
+            x = buffer.getLong( block( pos ) + LOUDS );
+        }
+
+        return Math.min( ( pos & ~63 ) + Long.numberOfTrailingZeros( x ), labelCount );
+
+    }
+
+    // índice do valor do nó cuja primeira aresta é start, ou -1
+    private int terminalValue( int start ) {
+        return bit( start, TERMINAL ) ? leafCount + rank( start, TERMINAL ) - 1 : -1;
+    }
+
+    // índice da folha na aresta pos (também o índice do seu valor)
+    private int leaf( int pos ) {
+        return pos - rank( pos, HAS_CHILD );
+    }
+
+    // índice do sufixo da aresta pos, que precisa ter sufixo
+    private int tail( int pos ) {
+        return rank( pos, HAS_TAIL ) - 1;
+    }
+
+    private int tailStart( int tail ) {
+        return tailsOffset + buffer.getInt( tailOffsetsOffset + ( tail << 2 ) );
+    }
+
+    private int tailLength( int tail ) {
+        return buffer.getInt( tailOffsetsOffset + ( ( tail + 1 ) << 2 ) )
+                - buffer.getInt( tailOffsetsOffset + ( tail << 2 ) );
+    }
+
+    // verifica se s[from, from + tamanho do sufixo) é igual ao sufixo
+    private boolean tailMatches( int tail, String s, int from ) {
+
+        int start = tailStart( tail );
+        int length = tailLength( tail );
+
+        if ( s.length() - from < length ) {
+            return false;
+        }
+
+        for ( int i = 0; i < length; i++ ) {
+            if ( ( buffer.get( start + i ) & 0xFF ) != s.charAt( from + i ) ) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    // acrescenta o rótulo e o sufixo da aresta pos
+    private void appendEdge( int pos, StringBuilder sb ) {
+
+        sb.append( (char) label( pos ) );
+
+        if ( bit( pos, HAS_TAIL ) ) {
+            int tail = tail( pos );
+            int start = tailStart( tail );
+            int length = tailLength( tail );
+            for ( int i = 0; i < length; i++ ) {
+                sb.append( (char) ( buffer.get( start + i ) & 0xFF ) );
+            }
+        }
+
+    }
+
+    // posição da aresta de rótulo c entre start e end, ou -1
+    private int findLabel( int start, int end, int c ) {
+
+        if ( c >= R ) {
+            return -1;
+        }
+
+        if ( end - start > LINEAR_SEARCH_LIMIT ) {
+
+            int lo = start;
+            int hi = end - 1;
+
+            while ( lo <= hi ) {
+                int mid = ( lo + hi ) >>> 1;
+                int label = label( mid );
+                if ( label < c ) {
+                    lo = mid + 1;
+                } else if ( label > c ) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+
+            return -1;
+
+        }
+
+        for ( int pos = start; pos < end; pos++ ) {
+            int label = label( pos );
+            if ( label == c ) {
+                return pos;
+            }
+            if ( label > c ) {
+                break;
+            }
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * Retorna o valor associado a uma chave.
+     *
+     * @param key A chave.
+     * @return O valor associado à chave ou null caso a chave não exista.
+     * @throws IllegalArgumentException se a chave for nula.
+     */
+    public Value get( String key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        int id = find( key );
+        return id == -1 ? null : value( id );
+
+    }
+
+    /**
+     * Verifica se uma chave está presente na trie.
+     *
+     * @param key A chave.
+     * @return true caso a chave exista, false caso contrário.
+     * @throws IllegalArgumentException se a chave for nula.
+     */
+    public boolean contains( String key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return find( key ) != -1;
+
+    }
+
+    // índice do valor da chave ou -1
+    private int find( String key ) {
+
+        int length = key.length();
+
+        if ( labelCount == 0 ) {
+            return length == 0 && rootTerminal ? leafCount : -1;
+        }
+
+        int node = 0;
+        int depth = 0;
+
+        while ( true ) {
+
+            int start = firstEdge( node );
+
+            if ( depth == length ) {
+                return terminalValue( start );
+            }
+
+            int pos = findLabel( start, endOfNode( start ), key.charAt( depth++ ) );
+            if ( pos == -1 ) {
+                return -1;
+            }
+
+            if ( bit( pos, HAS_TAIL ) ) {
+                int tail = tail( pos );
+                if ( !tailMatches( tail, key, depth ) ) {
+                    return -1;
+                }
+                depth += tailLength( tail );
+            }
+
+            if ( bit( pos, HAS_CHILD ) ) {
+                node = rank( pos, HAS_CHILD );
+            } else {
+                return depth == length ? leaf( pos ) : -1;
+            }
+
+        }
+
+    }
+
+    private Value value( int id ) {
+        return codec.read( buffer, valuesOffset + id * valueSize );
+    }
+
+    /**
+     * Retorna todas as chaves da trie, em ordem.
+     *
+     * @return As chaves da trie.
+     */
+    public Iterable<String> getKeys() {
+        return getKeysWithPrefix( "" );
+    }
+
+    /**
+     * Retorna todas as chaves da trie que começam com o prefixo informado,
+     * em ordem.
+     *
+     * @param prefix O prefixo a ser buscado.
+     * @return As chaves da trie que começam com prefix.
+     */
+    public Iterable<String> getKeysWithPrefix( String prefix ) {
+
+        Queue<String> results = new ResizingArrayQueue<>();
+        int length = prefix.length();
+
+        if ( labelCount == 0 ) {
+            if ( length == 0 && rootTerminal ) {
+                results.enqueue( prefix );
+            }
+            return results;
+        }
+
+        // path acumula os caracteres das arestas percorridas, que podem ir
+        // além do prefixo se ele terminar no meio de um sufixo
+        StringBuilder path = new StringBuilder();
+        int node = 0;
+
+        while ( path.length() < length ) {
+
+            int start = firstEdge( node );
+            int depth = path.length();
+            int pos = findLabel( start, endOfNode( start ), prefix.charAt( depth ) );
+
+            if ( pos == -1 ) {
+                return results;
+            }
+
+            appendEdge( pos, path );
+            for ( int i = depth + 1; i < length && i < path.length(); i++ ) {
+                if ( path.charAt( i ) != prefix.charAt( i ) ) {
+                    return results;
+                }
+            }
+
+            if ( !bit( pos, HAS_CHILD ) ) {
+                if ( path.length() >= length ) {
+                    results.enqueue( path.toString() );
+                }
+                return results;
+            }
+
+            node = rank( pos, HAS_CHILD );
+
+        }
+
+        collect( node, path, ( key, id ) -> results.enqueue( key ) );
+        return results;
+
+    }
+
+    // visita as chaves da subárvore do nó em ordem, com o índice do valor
+    private void collect( int node, StringBuilder prefix, ObjIntConsumer<String> action ) {
+
+        if ( labelCount == 0 ) {
+            if ( rootTerminal ) {
+                action.accept( prefix.toString(), leafCount );
+            }
+            return;
+        }
+
+        int start = firstEdge( node );
+        int end = endOfNode( start );
+        int length = prefix.length();
+
+        int id = terminalValue( start );
+        if ( id != -1 ) {
+            action.accept( prefix.toString(), id );
+        }
+
+        for ( int pos = start; pos < end; pos++ ) {
+            appendEdge( pos, prefix );
+            if ( bit( pos, HAS_CHILD ) ) {
+                collect( rank( pos, HAS_CHILD ), prefix, action );
+            } else {
+                action.accept( prefix.toString(), leaf( pos ) );
+            }
+            prefix.setLength( length );
+        }
+
+    }
+
+    /**
+     * Retorna todas as chaves da trie que casam com o padrão informado, em
+     * ordem, onde o caractere '.' casa com qualquer caractere.
+     *
+     * @param pattern O padrão.
+     * @return As chaves da trie que casam com o padrão.
+     */
+    public Iterable<String> getKeysThatMatch( String pattern ) {
+
+        Queue<String> results = new ResizingArrayQueue<>();
+
+        if ( labelCount == 0 ) {
+            if ( pattern.isEmpty() && rootTerminal ) {
+                results.enqueue( pattern );
+            }
+        } else {
+            collect( 0, new StringBuilder(), pattern, results );
+        }
+
+        return results;
+
+    }
+
+    private void collect( int node, StringBuilder prefix, String pattern, Queue<String> results ) {
+
+        int depth = prefix.length();
+        int start = firstEdge( node );
+
+        if ( depth == pattern.length() ) {
+            if ( bit( start, TERMINAL ) ) {
+                results.enqueue( prefix.toString() );
+            }
+            return;
+        }
+
+        int end = endOfNode( start );
+        char c = pattern.charAt( depth );
+
+        if ( c != '.' ) {
+            start = findLabel( start, end, c );
+            if ( start == -1 ) {
+                return;
+            }
+            end = start + 1;
+        }
+
+        for ( int pos = start; pos < end; pos++ ) {
+
+            appendEdge( pos, prefix );
+
+            if ( prefix.length() <= pattern.length() && matches( prefix, pattern, depth + 1 ) ) {
+                if ( bit( pos, HAS_CHILD ) ) {
+                    collect( rank( pos, HAS_CHILD ), prefix, pattern, results );
+                } else if ( prefix.length() == pattern.length() ) {
+                    results.enqueue( prefix.toString() );
+                }
+            }
+
+            prefix.setLength( depth );
+
+        }
+
+    }
+
+    // verifica se key[from, key.length()) casa com o padrão nas mesmas
+    // posições
+    private static boolean matches( CharSequence key, String pattern, int from ) {
+        for ( int i = from; i < key.length(); i++ ) {
+            char c = pattern.charAt( i );
+            if ( c != '.' && c != key.charAt( i ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retorna o maior prefixo de query que é uma chave presente na trie.
+     *
+     * @param query A string cujo maior prefixo será buscado.
+     * @return O maior prefixo de query presente na trie, ou null caso
+     * nenhum prefixo esteja presente.
+     * @throws IllegalArgumentException se query for nula.
+     */
+    public String getLongestPrefixOf( String query ) throws IllegalArgumentException {
+
+        if ( query == null ) {
+            throw new IllegalArgumentException( "argument to longestPrefixOf() is null" );
+        }
+
+        if ( labelCount == 0 ) {
+            return rootTerminal ? "" : null;
+        }
+
+        int length = query.length();
+        int longest = -1;
+        int node = 0;
+        int depth = 0;
+
+        while ( true ) {
+
+            int start = firstEdge( node );
+
+            if ( bit( start, TERMINAL ) ) {
+                longest = depth;
+            }
+
+            if ( depth == length ) {
+                break;
+            }
+
+            int pos = findLabel( start, endOfNode( start ), query.charAt( depth++ ) );
+            if ( pos == -1 ) {
+                break;
+            }
+
+            if ( bit( pos, HAS_TAIL ) ) {
+                int tail = tail( pos );
+                if ( !tailMatches( tail, query, depth ) ) {
+                    break;
+                }
+                depth += tailLength( tail );
+            }
+
+            if ( bit( pos, HAS_CHILD ) ) {
+                node = rank( pos, HAS_CHILD );
+            } else {
+                longest = depth;
+                break;
+            }
+
+        }
+
+        return longest == -1 ? null : query.substring( 0, longest );
+
+    }
+
+    /**
+     * Retorna a quantidade de chaves da trie.
+     *
+     * @return A quantidade de chaves.
+     */
+    public int getSize() {
+        return n;
+    }
+
+    /**
+     * Verifica se a trie está vazia.
+     *
+     * @return true caso a trie esteja vazia, false caso contrário.
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Retorna a quantidade de bytes ocupada pela trie (o tamanho do arquivo
+     * gravado por save(Path)).
+     *
+     * @return A quantidade de bytes.
+     */
+    public long getSizeInBytes() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public Iterator<SymbolTable.Entry<String, Value>> iterator() {
+        List<SymbolTable.Entry<String, Value>> entries = new ResizingArrayList<>();
+        collect( 0, new StringBuilder(), ( key, id ) -> entries.add( new SymbolTable.Entry<>( key, value( id ) ) ) );
+        return entries.iterator();
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        if ( !isEmpty() ) {
+            for ( SymbolTable.Entry<String, Value> e : this ) {
+                sb.append( e ).append( "\n" );
+            }
+        } else {
+            sb.append( "empty LOUDS trie!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+}
@@ -0,0 +1,2281 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.implementations.linear.ResizingArrayList;
+import aesd.ds.implementations.nonlinear.pq.IndexedMinPriorityQueue;
+import aesd.ds.interfaces.Codec;
+import aesd.ds.interfaces.List;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Implementação de uma árvore LSM (log-structured merge tree): uma tabela
+ * de símbolos persistente em que todas as escritas em disco são
+ * sequenciais.
+ *
+ * Ao contrário da DiskBPlusTree, que atualiza páginas no lugar (escritas
+ * aleatórias), aqui nada que já foi gravado é modificado:
+ *     - cada inserção ou remoção é acrescentada ao final de um log de
+ *       escrita antecipada (write-ahead log) e aplicada em uma árvore
+ *       rubro-negra em memória (a memtable);
+ *     - quando a memtable atinge o tamanho configurado, ela se torna
+ *       imutável, uma nova memtable (com um novo log) passa a receber as
+ *       escritas e uma thread em segundo plano grava a memtable imutável,
+ *       em ordem, em um arquivo imutável (SSTable, sorted string table);
+ *     - as remoções são gravadas como lápides (tombstones), que escondem
+ *       as versões mais antigas da chave;
+ *     - a mesma thread funde (compacta) SSTables em segundo plano, para
+ *       limitar a quantidade de arquivos consultados nas buscas e
+ *       descartar versões antigas e lápides.
+ *
+ * Uma busca consulta a memtable, a memtable imutável e depois as SSTables,
+ * da mais nova para a mais antiga, parando na primeira versão encontrada.
+ * Cada SSTable mantém em memória um índice esparso (a primeira chave de
+ * cada bloco de 4 KiB) e um filtro de Bloom com 10 bits por chave, então
+ * uma SSTable que não contém a chave quase nunca é lida (cerca de 1% de
+ * falsos positivos) e uma que contém custa a leitura de um único bloco.
+ * Consultas por intervalo e os percursos fazem uma intercalação de k vias
+ * (com uma fila de prioridades indexada) entre a memtable e as SSTables,
+ * lendo os arquivos sequencialmente.
+ *
+ * Há duas estratégias de compactação:
+ *     - SIZE_TIERED: as SSTables formam uma única lista, da mais nova para
+ *       a mais antiga, e são agrupadas em faixas de tamanho (cada faixa
+ *       tem tabelas até 4 vezes maiores que as da anterior); quando houver
+ *       4 ou mais tabelas consecutivas da mesma faixa, elas são fundidas em
+ *       uma só. Cada par é regravado poucas vezes (baixa amplificação de
+ *       escrita), mas uma busca pode consultar muitas tabelas;
+ *     - LEVELED: as SSTables gravadas a partir da memtable ficam no nível
+ *       0 e, quando houver 4 delas, são fundidas com o nível 1. Cada nível
+ *       i maior que 0 é uma sequência de tabelas sem sobreposição de
+ *       chaves, com capacidade 10 vezes maior que a do nível i-1; quando
+ *       um nível passa da capacidade, uma de suas tabelas (em rodízio) é
+ *       fundida com as tabelas do nível seguinte que se sobrepõem a ela.
+ *       Uma busca consulta no máximo uma tabela por nível a partir do 1,
+ *       ao custo de uma amplificação de escrita maior.
+ *
+ * Como todas as escritas (log, SSTables e compactações) são sequenciais e
+ * feitas em blocos de 64 KiB, a vazão sustentada de escrita é limitada
+ * pela largura de banda sequencial do disco, dividida pela amplificação
+ * de escrita da estratégia (getWriteAmplification()).
+ *
+ * Layout do diretório:
+ *     - MANIFEST: identificador do formato, tamanhos da chave e do valor,
+ *       próximo número de arquivo, número do log mais antigo ainda
+ *       necessário e os números das SSTables de cada nível. É regravado
+ *       em um arquivo temporário e renomeado atomicamente a cada mudança;
+ *     - NNNNNN.log: logs, com registros [CRC32][tipo][chave][valor];
+ *     - NNNNNN.sst: SSTables, com o formato [registros
+ *       [tipo][chave][valor] em ordem de chave][índice: primeira chave de
+ *       cada bloco e a maior chave][filtro de Bloom][rodapé de 48 bytes].
+ *
+ * Na abertura, os logs posteriores ao MANIFEST são reaplicados (até o
+ * primeiro registro incompleto ou com CRC inválido, que indica uma escrita
+ * interrompida por uma queda) e gravados em uma nova SSTable, e os
+ * arquivos que não constam no MANIFEST (restos de uma compactação
+ * interrompida) são apagados. O log é mantido em um buffer de 64 KiB e
+ * gravado quando ele enche, então as escritas sobrevivem ao término
+ * abrupto do processo após flush() ou close() e, no máximo, perde-se o
+ * último buffer; flush() também força a gravação física (fsync).
+ *
+ * Assim como na DiskBPlusTree, chaves e valores são gravados por
+ * codificadores de tamanho fixo (Codec), erros de E/S são relançados como
+ * UncheckedIOException e a estrutura não deve ser usada por várias threads
+ * ao mesmo tempo (a sincronização interna existe apenas entre quem usa a
+ * árvore e a thread de segundo plano). getSize() não é mantido a cada
+ * escrita, pois isso exigiria uma busca (leitura aleatória) por escrita:
+ * ele é calculado por um percurso completo e guardado até a próxima
+ * modificação. Um percurso interrompido antes do fim mantém abertos os
+ * arquivos que está lendo até o fechamento da árvore.
+ *
+ * @param <Key> Tipo das chaves que serão armazenadas na árvore.
+ * @param <Value> Tipo dos valores associados às chaves armazenadas na árvore.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class LsmTree<Key extends Comparable<Key>, Value> implements SymbolTable<Key, Value>, Closeable {
+
+    /**
+     * Estratégias de compactação das SSTables.
+     */
+    public static enum CompactionStrategy {
+        SIZE_TIERED,
+        LEVELED
+    }
+
+    // quantidade padrão de pares na memtable
+    private static final int DEFAULT_MEMTABLE_SIZE = 1 << 16;
+
+    // tamanho (máximo) dos blocos indexados das SSTables, em bytes
+    private static final int BLOCK_SIZE = 4096;
+
+    // tamanho dos buffers de leitura e escrita sequenciais, em bytes
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    // filtros de Bloom: bits por chave e quantidade de funções de dispersão
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    // quantidade de tabelas do nível 0 (ou de uma faixa, em SIZE_TIERED)
+    // que dispara uma compactação
+    private static final int COMPACTION_TRIGGER = 4;
+
+    // quantidade de tabelas do nível 0 a partir da qual as compactações
+    // passam à frente da gravação da memtable imutável, segurando as escritas
+    private static final int L0_STOP_TRIGGER = 12;
+
+    // quantidade máxima de tabelas fundidas de uma vez em SIZE_TIERED
+    private static final int MAX_MERGE_WIDTH = 32;
+
+    // razão entre as capacidades de níveis consecutivos em LEVELED
+    private static final int LEVEL_MULTIPLIER = 10;
+
+    // identificadores dos formatos ("SST1" e "LSM1")
+    private static final int TABLE_MAGIC = 0x53535431;
+    private static final int MANIFEST_MAGIC = 0x4C534D31;
+
+    // tamanho do rodapé das SSTables
+    private static final int FOOTER_SIZE = 48;
+
+    // tipos de registros
+    private static final byte PUT = 0;
+    private static final byte DELETE = 1;
+
+    // marcador das remoções nas memtables e nos resultados das buscas
+    private static final Object TOMBSTONE = new Object();
+
+    // trabalhos da thread de segundo plano
+    private static final int IDLE = 0;
+    private static final int FLUSH = 1;
+    private static final int COMPACT = 2;
+
+    /*
+     * Classe interna estática que define uma SSTable aberta: o índice
+     * esparso, a menor e a maior chave e o filtro de Bloom ficam em
+     * memória. refs conta as versões que contêm a tabela; quando chega a
+     * zero, a tabela é obsoleta e o arquivo é fechado e apagado.
+     */
+    private static final class Table<Key extends Comparable<Key>, Value> {
+
+        private final long number;
+        private final Path file;
+        private final FileChannel channel;
+        private final long count;
+        private final int blockRecords;
+        private final Key[] index;
+        private final Key min;
+        private final Key max;
+        private final long[] bloom;
+        private int refs;
+
+        private Table( long number, Path file, FileChannel channel, long count,
+                int blockRecords, Key[] index, Key max, long[] bloom ) {
+            this.number = number;
+            this.file = file;
+            this.channel = channel;
+            this.count = count;
+            this.blockRecords = blockRecords;
+            this.index = index;
+            this.min = index[0];
+            this.max = max;
+            this.bloom = bloom;
+        }
+
+    }
+
+    /*
+     * Classe interna estática que define uma versão imutável da estrutura:
+     * a memtable imutável (ou null) e as tabelas de cada nível (o nível 0
+     * da mais nova para a mais antiga e os demais em ordem de chave).
+     * Buscas e percursos "prendem" a versão atual enquanto a usam, para
+     * que as tabelas substituídas por uma compactação só sejam apagadas
+     * depois. refs começa em 1, que representa a versão ser a atual.
+     */
+    private static final class Version<Key extends Comparable<Key>, Value> {
+
+        private final RedBlackTree<Key, Object> immutable;
+        private final Table<Key, Value>[][] levels;
+        private int refs = 1;
+
+        private Version( RedBlackTree<Key, Object> immutable, Table<Key, Value>[][] levels ) {
+            this.immutable = immutable;
+            this.levels = levels;
+        }
+
+    }
+
+    /*
+     * Classe interna estática que define uma compactação a ser feita:
+     * as tabelas de entrada do nível level (das mais novas para as mais
+     * antigas), as tabelas do nível output que se sobrepõem a elas (em
+     * ordem de chave) e a posição, no nível 0, das entradas fundidas em
+     * SIZE_TIERED.
+     */
+    private static final class Compaction<Key extends Comparable<Key>, Value> {
+
+        private int level;
+        private int output;
+        private int start;
+        private Table<Key, Value>[] inputs;
+        private Table<Key, Value>[] overlaps;
+        private boolean dropTombstones;
+
+    }
+
+    /*
+     * Cursor sobre uma sequência ordenada de registros, sem chaves
+     * repetidas. advance() posiciona o cursor no próximo registro,
+     * preenchendo key e value (TOMBSTONE nas remoções), e retorna falso no
+     * fim da sequência.
+     */
+    private static abstract class Cursor<Key> {
+
+        protected Key key;
+        protected Object value;
+
+        protected abstract boolean advance() throws IOException;
+
+    }
+
+    /*
+     * Cursor sobre os pares de uma memtable.
+     */
+    private static final class MemtableCursor<Key> extends Cursor<Key> {
+
+        private final Iterator<? extends SymbolTable.Entry<Key, Object>> it;
+
+        private MemtableCursor( Iterator<? extends SymbolTable.Entry<Key, Object>> it ) {
+            this.it = it;
+        }
+
+        @Override
+        protected boolean advance() {
+
+            if ( !it.hasNext() ) {
+                return false;
+            }
+
+            SymbolTable.Entry<Key, Object> e = it.next();
+            key = e.getKey();
+            value = e.getValue();
+
+            return true;
+
+        }
+
+    }
+
+    /*
+     * Intercalação de k vias: a fila de prioridades indexada guarda a chave
+     * atual de cada cursor (índice). Quando vários cursores estão na mesma
+     * chave, vence o de menor índice (o mais novo) e todos avançam.
+     */
+    private static final class MergeCursor<Key extends Comparable<Key>> extends Cursor<Key> {
+
+        private final Cursor<Key>[] sources;
+        private final IndexedMinPriorityQueue<Key> pq;
+
+        private MergeCursor( Cursor<Key>[] sources ) throws IOException {
+
+            this.sources = sources;
+            this.pq = new IndexedMinPriorityQueue<>( Math.max( 1, sources.length ) );
+
+            for ( int i = 0; i < sources.length; i++ ) {
+                if ( sources[i].advance() ) {
+                    pq.insert( i, sources[i].key );
+                }
+            }
+
+        }
+
+        @Override
+        protected boolean advance() throws IOException {
+
+            if ( pq.isEmpty() ) {
+                return false;
+            }
+
+            Key k = pq.peekKey();
+            int best = Integer.MAX_VALUE;
+
+            while ( !pq.isEmpty() && pq.peekKey().compareTo( k ) == 0 ) {
+
+                int i = pq.peekIndex();
+                Cursor<Key> c = sources[i];
+
+                if ( i < best ) {
+                    best = i;
+                    key = c.key;
+                    value = c.value;
+                }
+
+                if ( c.advance() ) {
+                    pq.changeKey( i, c.key );
+                } else {
+                    pq.delete();
+                }
+
+            }
+
+            return true;
+
+        }
+
+    }
+
+    private final Path directory;
+    private final Codec<Key> keyCodec;
+    private final Codec<Value> valueCodec;
+    private final int keySize;
+    private final int recordSize;
+    private final int memtableSize;
+    private final CompactionStrategy strategy;
+
+    // memtable atual, usada apenas por quem usa a árvore
+    private RedBlackTree<Key, Object> memtable;
+
+    // log atual e o seu buffer
+    private FileChannel log;
+    private final ByteBuffer logBuffer;
+    private final byte[] logRecord;
+    private final CRC32 crc = new CRC32();
+
+    // estado compartilhado com a thread de segundo plano, protegido por this
+    private Version<Key, Value> current;
+    private long nextFileNumber;
+    private long logNumber;
+    private long activeLogNumber;
+    private long immutableLogNumber = -1;
+    private boolean busy;
+    private volatile boolean closed;
+    private volatile Exception backgroundError;
+
+    // próximas tabelas de cada nível a serem compactadas em LEVELED
+    // (usado apenas pela thread de segundo plano)
+    private Key[] compactPointers;
+
+    private final Thread background;
+
+    // quantidade de pares calculada por getSize() (-1 quando desatualizada)
+    private int size = -1;
+
+    // bytes enviados pelo usuário e bytes gravados em disco
+    private final AtomicLong userBytes = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+
+    /**
+     * Abre (ou cria, caso não exista) a árvore no diretório fornecido, com
+     * memtables de 65536 pares e compactação LEVELED.
+     *
+     * @param directory O diretório.
+     * @param keyCodec Codificador das chaves.
+     * @param valueCodec Codificador dos valores.
+     * @throws IllegalArgumentException se o diretório existente for
+     * incompatível com os codificadores.
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public LsmTree( Path directory, Codec<Key> keyCodec, Codec<Value> valueCodec ) throws IllegalArgumentException {
+        this( directory, keyCodec, valueCodec, DEFAULT_MEMTABLE_SIZE, CompactionStrategy.LEVELED );
+    }
+
+    /**
+     * Abre (ou cria, caso não exista) a árvore no diretório fornecido,
+     * reaplicando os logs que não chegaram a ser gravados em SSTables.
+     *
+     * @param directory O diretório.
+     * @param keyCodec Codificador das chaves.
+     * @param valueCodec Codificador dos valores.
+     * @param memtableSize Quantidade de pares que torna a memtable imutável.
+     * @param strategy Estratégia de compactação.
+     * @throws IllegalArgumentException se memtableSize não for positivo ou
+     * se o diretório existente for incompatível com os codificadores.
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public LsmTree( Path directory, Codec<Key> keyCodec, Codec<Value> valueCodec,
+            int memtableSize, CompactionStrategy strategy ) throws IllegalArgumentException {
+
+        if ( memtableSize <= 0 ) {
+            throw new IllegalArgumentException( "memtableSize must be positive" );
+        }
+
+        if ( strategy == null ) {
+            throw new IllegalArgumentException( "strategy is null" );
+        }
+
+        this.directory = directory;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.keySize = keyCodec.getSize();
+        this.recordSize = 1 + keySize + valueCodec.getSize();
+        this.memtableSize = memtableSize;
+        this.strategy = strategy;
+        this.memtable = new RedBlackTree<>();
+        this.logRecord = new byte[recordSize];
+        this.logBuffer = ByteBuffer.allocate( Math.max( 1, IO_BUFFER_SIZE / ( 4 + recordSize ) ) * ( 4 + recordSize ) );
+        this.compactPointers = newKeys( 0 );
+
+        try {
+            open();
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+        background = new Thread( this::runBackground, "lsm-tree-" + directory.getFileName() );
+        background.setDaemon( true );
+        background.start();
+
+    }
+
+    /*
+     * Lê o MANIFEST, abre as tabelas, apaga os arquivos que não constam
+     * nele e reaplica os logs restantes, gravando-os em uma nova SSTable.
+     */
+    private void open() throws IOException {
+
+        Files.createDirectories( directory );
+
+        Table<Key, Value>[][] levels = newLevels( 1 );
+        levels[0] = newTables( 0 );
+        Path manifest = directory.resolve( "MANIFEST" );
+
+        if ( Files.exists( manifest ) ) {
+
+            ByteBuffer b = ByteBuffer.wrap( Files.readAllBytes( manifest ) );
+
+            if ( b.remaining() < 32 || b.getInt() != MANIFEST_MAGIC ) {
+                throw new IllegalArgumentException( "not an LSM tree directory: " + directory );
+            }
+
+            if ( b.getInt() != keySize || b.getInt() != valueCodec.getSize() ) {
+                throw new IllegalArgumentException( "codecs do not match the directory: " + directory );
+            }
+
+            nextFileNumber = b.getLong();
+            logNumber = b.getLong();
+            levels = newLevels( b.getInt() );
+
+            for ( int i = 0; i < levels.length; i++ ) {
+                levels[i] = newTables( b.getInt() );
+                for ( int j = 0; j < levels[i].length; j++ ) {
+                    levels[i][j] = readTable( b.getLong() );
+                }
+            }
+
+        }
+
+        // separa os arquivos do diretório em tabelas vivas, logs a reaplicar
+        // e restos a apagar
+        List<Long> live = new ResizingArrayList<>();
+        for ( Table<Key, Value>[] level : levels ) {
+            for ( Table<Key, Value> t : level ) {
+                live.add( t.number );
+            }
+        }
+
+        List<Long> logs = new ResizingArrayList<>();
+
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( directory ) ) {
+
+            for ( Path file : files ) {
+
+                String name = file.getFileName().toString();
+                long number = fileNumber( name );
+
+                if ( name.equals( "MANIFEST.tmp" ) ) {
+                    Files.delete( file );
+                } else if ( number >= 0 ) {
+                    nextFileNumber = Math.max( nextFileNumber, number + 1 );
+                    if ( name.endsWith( ".log" ) && number >= logNumber ) {
+                        logs.add( number );
+                    } else if ( !contains( live, number ) ) {
+                        Files.delete( file );
+                    }
+                }
+
+            }
+
+        }
+
+        // reaplica os logs em ordem
+        long[] sorted = new long[logs.getSize()];
+        for ( int i = 0; i < sorted.length; i++ ) {
+            sorted[i] = logs.get( i );
+        }
+        Arrays.sort( sorted );
+
+        RedBlackTree<Key, Object> recovered = new RedBlackTree<>();
+        for ( long number : sorted ) {
+            replay( logPath( number ), recovered );
+        }
+
+        if ( !recovered.isEmpty() ) {
+            TableBuilder builder = new TableBuilder( nextFileNumber++, recovered.getSize() );
+            for ( SymbolTable.Entry<Key, Object> e : recovered ) {
+                builder.add( e.getKey(), e.getValue() );
+            }
+            levels[0] = prepend( levels[0], builder.finish() );
+        }
+
+        for ( Table<Key, Value>[] level : levels ) {
+            for ( Table<Key, Value> t : level ) {
+                t.refs++;
+            }
+        }
+
+        current = new Version<>( null, levels );
+        compactPointers = Arrays.copyOf( compactPointers, levels.length );
+
+        activeLogNumber = nextFileNumber++;
+        logNumber = activeLogNumber;
+        log = openLog( activeLogNumber );
+        writeManifest( levels );
+
+        for ( long number : sorted ) {
+            Files.deleteIfExists( logPath( number ) );
+        }
+
+    }
+
+    // reaplica um log na memtable, até o primeiro registro inválido
+    private void replay( Path file, RedBlackTree<Key, Object> target ) throws IOException {
+
+        int walRecord = 4 + recordSize;
+        ByteBuffer b = ByteBuffer.allocate( logBuffer.capacity() );
+        byte[] record = new byte[recordSize];
+        CRC32 check = new CRC32();
+
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+
+            long position = 0;
+
+            while ( true ) {
+
+                b.clear();
+                while ( b.hasRemaining() && channel.read( b, position + b.position() ) >= 0 ) {
+                }
+                b.flip();
+                position += b.limit();
+
+                while ( b.remaining() >= walRecord ) {
+
+                    int expected = b.getInt();
+                    b.get( record );
+                    check.reset();
+                    check.update( record, 0, recordSize );
+
+                    if ( (int) check.getValue() != expected || record[0] > DELETE ) {
+                        return;
+                    }
+
+                    ByteBuffer r = ByteBuffer.wrap( record );
+                    Key key = keyCodec.read( r, 1 );
+                    target.put( key, record[0] == DELETE ? TOMBSTONE : valueCodec.read( r, 1 + keySize ) );
+
+                }
+
+                if ( b.limit() < b.capacity() ) {
+                    return;
+                }
+
+            }
+
+        }
+
+    }
+
+    @Override
+    public void put( Key key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        write( key, value );
+
+    }
+
+    @Override
+    public Value get( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        checkBackgroundError();
+        Object value = memtable.get( key );
+
+        if ( value == null ) {
+            Version<Key, Value> v = acquire();
+            try {
+                value = lookup( v, key );
+            } catch ( IOException exc ) {
+                throw new UncheckedIOException( exc );
+            } finally {
+                release( v );
+            }
+        }
+
+        return value == TOMBSTONE ? null : valueOf( value );
+
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Value valueOf( Object value ) {
+        return (Value) value;
+    }
+
+    /*
+     * Procura a chave na memtable imutável e nas tabelas da versão,
+     * retornando o valor, TOMBSTONE ou null, caso ela não exista.
+     */
+    private Object lookup( Version<Key, Value> v, Key key ) throws IOException {
+
+        if ( v.immutable != null ) {
+            Object value = v.immutable.get( key );
+            if ( value != null ) {
+                return value;
+            }
+        }
+
+        long hash = 0;
+        boolean hashed = false;
+
+        for ( int i = 0; i < v.levels.length; i++ ) {
+
+            Table<Key, Value>[] level = v.levels[i];
+
+            // no nível 0 as tabelas se sobrepõem; nos demais, no máximo uma
+            // tabela pode conter a chave
+            int from = 0;
+            int to = level.length;
+            if ( i > 0 ) {
+                from = tableFor( level, key );
+                to = Math.min( from + 1, level.length );
+            }
+
+            for ( int j = from; j < to; j++ ) {
+
+                Table<Key, Value> t = level[j];
+
+                if ( key.compareTo( t.min ) < 0 || key.compareTo( t.max ) > 0 ) {
+                    continue;
+                }
+
+                if ( !hashed ) {
+                    ByteBuffer b = ByteBuffer.allocate( keySize );
+                    keyCodec.write( b, 0, key );
+                    hash = hash( b, 0, keySize );
+                    hashed = true;
+                }
+
+                if ( mightContain( t.bloom, hash ) ) {
+                    Object value = find( t, key );
+                    if ( value != null ) {
+                        return value;
+                    }
+                }
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+    // índice da primeira tabela (de um nível ordenado) cuja maior chave não
+    // é menor que key
+    private static <Key extends Comparable<Key>> int tableFor( Table<Key, ?>[] level, Key key ) {
+
+        int lo = 0;
+        int hi = level.length;
+
+        while ( lo < hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if ( level[mid].max.compareTo( key ) < 0 ) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+
+    }
+
+    /*
+     * Procura a chave em uma tabela lendo um único bloco, escolhido pelo
+     * índice esparso. Retorna o valor, TOMBSTONE ou null.
+     */
+    private Object find( Table<Key, Value> t, Key key ) throws IOException {
+
+        int block = floorBlock( t, key );
+        long first = (long) block * t.blockRecords;
+        int n = (int) Math.min( t.blockRecords, t.count - first );
+
+        ByteBuffer b = ByteBuffer.allocate( n * recordSize );
+        readFully( t.channel, b, first * recordSize );
+
+        int i = search( b, n, key );
+        if ( i < 0 ) {
+            return null;
+        }
+
+        int offset = i * recordSize;
+        return b.get( offset ) == DELETE ? TOMBSTONE : valueCodec.read( b, offset + 1 + keySize );
+
+    }
+
+    // último bloco cuja primeira chave não é maior que key
+    private int floorBlock( Table<Key, Value> t, Key key ) {
+
+        int lo = 0;
+        int hi = t.index.length - 1;
+
+        while ( lo < hi ) {
+            int mid = ( lo + hi + 1 ) >>> 1;
+            if ( t.index[mid].compareTo( key ) <= 0 ) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return lo;
+
+    }
+
+    /*
+     * Busca binária pela chave entre os n registros do buffer. Retorna o
+     * índice do registro, caso exista, ou -(ponto de inserção) - 1, como
+     * Arrays.binarySearch().
+     */
+    private int search( ByteBuffer b, int n, Key key ) {
+
+        int lo = 0;
+        int hi = n - 1;
+
+        while ( lo <= hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            int comp = key.compareTo( keyCodec.read( b, mid * recordSize + 1 ) );
+            if ( comp < 0 ) {
+                hi = mid - 1;
+            } else if ( comp > 0 ) {
+                lo = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -lo - 1;
+
+    }
+
+    @Override
+    public void delete( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        write( key, TOMBSTONE );
+
+    }
+
+    @Override
+    public boolean contains( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return get( key ) != null;
+
+    }
+
+    /*
+     * Acrescenta a escrita ao log e à memtable e, caso a memtable esteja
+     * cheia, passa-a para a thread de segundo plano.
+     */
+    private void write( Key key, Object value ) {
+
+        checkBackgroundError();
+
+        ByteBuffer r = ByteBuffer.wrap( logRecord );
+        if ( value == TOMBSTONE ) {
+            Arrays.fill( logRecord, (byte) 0 );
+            logRecord[0] = DELETE;
+            keyCodec.write( r, 1, key );
+        } else {
+            logRecord[0] = PUT;
+            keyCodec.write( r, 1, key );
+            valueCodec.write( r, 1 + keySize, valueOf( value ) );
+        }
+
+        crc.reset();
+        crc.update( logRecord, 0, recordSize );
+
+        try {
+            if ( logBuffer.remaining() < 4 + recordSize ) {
+                drainLog();
+            }
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+        logBuffer.putInt( (int) crc.getValue() );
+        logBuffer.put( logRecord );
+
+        memtable.put( key, value );
+        userBytes.addAndGet( recordSize );
+        size = -1;
+
+        if ( memtable.getSize() >= memtableSize ) {
+            rotate();
+        }
+
+    }
+
+    // grava o buffer do log no arquivo
+    private void drainLog() throws IOException {
+        logBuffer.flip();
+        writtenBytes.addAndGet( logBuffer.remaining() );
+        while ( logBuffer.hasRemaining() ) {
+            log.write( logBuffer );
+        }
+        logBuffer.clear();
+    }
+
+    /*
+     * Torna a memtable imutável e inicia uma nova, com um novo log. Se a
+     * memtable imutável anterior ainda não foi gravada, espera por ela
+     * (assim as escritas nunca ficam à frente do disco).
+     */
+    private void rotate() {
+
+        FileChannel previous = log;
+
+        try {
+
+            drainLog();
+
+            synchronized ( this ) {
+
+                while ( current.immutable != null && backgroundError == null ) {
+                    wait();
+                }
+                checkBackgroundError();
+
+                immutableLogNumber = activeLogNumber;
+                activeLogNumber = nextFileNumber++;
+                log = openLog( activeLogNumber );
+
+                install( new Version<>( memtable, current.levels ) );
+                memtable = new RedBlackTree<>();
+                notifyAll();
+
+            }
+
+            previous.close();
+
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        } catch ( InterruptedException exc ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while waiting for a memtable flush", exc );
+        }
+
+    }
+
+    /**
+     * Retorna, em ordem, os pares cujas chaves estão no intervalo [lo, hi],
+     * intercalando a memtable e as SSTables. Cada SSTable é lida
+     * sequencialmente a partir do bloco que contém lo.
+     *
+     * @param lo Menor chave do intervalo.
+     * @param hi Maior chave do intervalo.
+     * @return Os pares do intervalo.
+     * @throws IllegalArgumentException se alguma das chaves for nula.
+     */
+    public Iterable<SymbolTable.Entry<Key, Value>> range( Key lo, Key hi ) throws IllegalArgumentException {
+
+        if ( lo == null || hi == null ) {
+            throw new IllegalArgumentException( "argument to range() is null" );
+        }
+
+        return () -> new EntryIterator( lo, hi );
+
+    }
+
+    @Override
+    public Iterator<SymbolTable.Entry<Key, Value>> iterator() {
+        return new EntryIterator( null, null );
+    }
+
+    /*
+     * Iterador sobre os pares vivos do intervalo [lo, hi] (ou de todos,
+     * quando lo e hi são null), que ignora as lápides. A versão fica presa
+     * até o fim do percurso. Os pares da memtable atual são copiados na
+     * criação, já que ela pode ser modificada durante o percurso.
+     */
+    private final class EntryIterator implements Iterator<SymbolTable.Entry<Key, Value>> {
+
+        private Version<Key, Value> version;
+        private final Cursor<Key> cursor;
+        private SymbolTable.Entry<Key, Value> next;
+
+        private EntryIterator( Key lo, Key hi ) {
+
+            checkBackgroundError();
+            version = acquire();
+
+            try {
+                cursor = cursor( version, snapshot( lo, hi ), lo, hi );
+                advance();
+            } catch ( IOException exc ) {
+                finish();
+                throw new UncheckedIOException( exc );
+            }
+
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public SymbolTable.Entry<Key, Value> next() {
+
+            if ( next == null ) {
+                throw new NoSuchElementException();
+            }
+
+            SymbolTable.Entry<Key, Value> e = next;
+
+            try {
+                advance();
+            } catch ( IOException exc ) {
+                finish();
+                throw new UncheckedIOException( exc );
+            }
+
+            return e;
+
+        }
+
+        private void advance() throws IOException {
+
+            next = null;
+
+            while ( cursor.advance() ) {
+                if ( cursor.value != TOMBSTONE ) {
+                    next = new SymbolTable.Entry<>( cursor.key, valueOf( cursor.value ) );
+                    return;
+                }
+            }
+
+            finish();
+
+        }
+
+        // solta a versão presa pelo percurso
+        private void finish() {
+            if ( version != null ) {
+                release( version );
+                version = null;
+            }
+        }
+
+    }
+
+    // copia os pares da memtable atual que estão no intervalo
+    private Queue<SymbolTable.Entry<Key, Object>> snapshot( Key lo, Key hi ) {
+
+        Queue<SymbolTable.Entry<Key, Object>> q = new LinkedQueue<>();
+        Iterable<? extends SymbolTable.Entry<Key, Object>> entries = lo == null ? memtable : memtable.range( lo, hi );
+
+        for ( SymbolTable.Entry<Key, Object> e : entries ) {
+            q.enqueue( e );
+        }
+
+        return q;
+
+    }
+
+    /*
+     * Cria a intercalação da memtable fornecida (a mais nova), da memtable
+     * imutável e das tabelas da versão, da mais nova para a mais antiga.
+     */
+    private Cursor<Key> cursor( Version<Key, Value> v, Iterable<? extends SymbolTable.Entry<Key, Object>> newest,
+            Key lo, Key hi ) throws IOException {
+
+        List<Cursor<Key>> sources = new ResizingArrayList<>();
+        sources.add( new MemtableCursor<>( newest.iterator() ) );
+
+        if ( v.immutable != null ) {
+            Iterable<? extends SymbolTable.Entry<Key, Object>> entries = lo == null ? v.immutable : v.immutable.range( lo, hi );
+            sources.add( new MemtableCursor<>( entries.iterator() ) );
+        }
+
+        for ( Table<Key, Value> t : v.levels[0] ) {
+            sources.add( new TableCursor( t, lo, hi ) );
+        }
+
+        for ( int i = 1; i < v.levels.length; i++ ) {
+            if ( v.levels[i].length > 0 ) {
+                sources.add( new LevelCursor( v.levels[i], lo, hi ) );
+            }
+        }
+
+        return new MergeCursor<>( toArray( sources ) );
+
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <Key> Cursor<Key>[] toArray( List<Cursor<Key>> list ) {
+        Cursor<Key>[] a = new Cursor[list.getSize()];
+        for ( int i = 0; i < a.length; i++ ) {
+            a[i] = list.get( i );
+        }
+        return a;
+    }
+
+    /*
+     * Cursor que lê sequencialmente, em blocos de 64 KiB, os registros de
+     * uma tabela com chaves no intervalo [lo, hi] (sem limites quando são
+     * null).
+     */
+    private final class TableCursor extends Cursor<Key> {
+
+        private final Table<Key, Value> table;
+        private final Key hi;
+        private final ByteBuffer buffer;
+        private long position;
+        private int remaining;
+
+        private TableCursor( Table<Key, Value> table, Key lo, Key hi ) throws IOException {
+            this.table = table;
+            this.hi = hi;
+            this.buffer = ByteBuffer.allocate( Math.max( 1, IO_BUFFER_SIZE / recordSize ) * recordSize );
+            this.position = seek( table, lo );
+        }
+
+        @Override
+        protected boolean advance() throws IOException {
+
+            if ( position >= table.count ) {
+                return false;
+            }
+
+            if ( remaining == 0 ) {
+                int n = (int) Math.min( buffer.capacity() / recordSize, table.count - position );
+                buffer.clear().limit( n * recordSize );
+                readFully( table.channel, buffer, position * recordSize );
+                buffer.position( 0 );
+                remaining = n;
+            }
+
+            int offset = buffer.position();
+            Key k = keyCodec.read( buffer, offset + 1 );
+
+            if ( hi != null && k.compareTo( hi ) > 0 ) {
+                position = table.count;
+                return false;
+            }
+
+            key = k;
+            value = buffer.get( offset ) == DELETE ? TOMBSTONE : valueCodec.read( buffer, offset + 1 + keySize );
+            buffer.position( offset + recordSize );
+            remaining--;
+            position++;
+
+            return true;
+
+        }
+
+    }
+
+    // índice do primeiro registro da tabela com chave maior ou igual a lo
+    private long seek( Table<Key, Value> t, Key lo ) throws IOException {
+
+        if ( lo == null || lo.compareTo( t.min ) <= 0 ) {
+            return 0;
+        }
+
+        if ( lo.compareTo( t.max ) > 0 ) {
+            return t.count;
+        }
+
+        int block = floorBlock( t, lo );
+        long first = (long) block * t.blockRecords;
+        int n = (int) Math.min( t.blockRecords, t.count - first );
+
+        ByteBuffer b = ByteBuffer.allocate( n * recordSize );
+        readFully( t.channel, b, first * recordSize );
+
+        int i = search( b, n, lo );
+        return first + ( i >= 0 ? i : -i - 1 );
+
+    }
+
+    /*
+     * Cursor sobre um nível ordenado: percorre, em sequência, as tabelas
+     * que se sobrepõem ao intervalo [lo, hi].
+     */
+    private final class LevelCursor extends Cursor<Key> {
+
+        private final Table<Key, Value>[] tables;
+        private final Key lo;
+        private final Key hi;
+        private int next;
+        private TableCursor cursor;
+
+        private LevelCursor( Table<Key, Value>[] tables, Key lo, Key hi ) {
+            this.tables = tables;
+            this.lo = lo;
+            this.hi = hi;
+            this.next = lo == null ? 0 : tableFor( tables, lo );
+        }
+
+        @Override
+        protected boolean advance() throws IOException {
+
+            while ( true ) {
+
+                if ( cursor != null && cursor.advance() ) {
+                    key = cursor.key;
+                    value = cursor.value;
+                    return true;
+                }
+
+                if ( next >= tables.length || ( hi != null && tables[next].min.compareTo( hi ) > 0 ) ) {
+                    return false;
+                }
+
+                cursor = new TableCursor( tables[next++], lo, hi );
+
+            }
+
+        }
+
+    }
+
+    @Override
+    public Iterable<Key> getKeys() {
+
+        return () -> new Iterator<Key>() {
+
+            private final Iterator<SymbolTable.Entry<Key, Value>> it = iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Key next() {
+                return it.next().getKey();
+            }
+
+        };
+
+    }
+
+    /**
+     * Remove todos os pares, apagando todas as SSTables e logs.
+     *
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    @Override
+    public void clear() {
+
+        try {
+
+            synchronized ( this ) {
+
+                while ( busy && backgroundError == null ) {
+                    wait();
+                }
+                checkBackgroundError();
+
+                // o MANIFEST vazio é gravado antes de qualquer arquivo ser
+                // apagado: uma queda antes dele mantém a árvore como estava
+                long previousLog = activeLogNumber;
+                long previousImmutableLog = current.immutable != null ? immutableLogNumber : -1;
+                log.close();
+                logBuffer.clear();
+
+                activeLogNumber = nextFileNumber++;
+                logNumber = activeLogNumber;
+                log = openLog( activeLogNumber );
+
+                Table<Key, Value>[][] levels = newLevels( 1 );
+                levels[0] = newTables( 0 );
+                writeManifest( levels );
+                install( new Version<>( null, levels ) );
+                compactPointers = newKeys( 1 );
+
+                Files.deleteIfExists( logPath( previousLog ) );
+                if ( previousImmutableLog >= 0 ) {
+                    Files.deleteIfExists( logPath( previousImmutableLog ) );
+                    immutableLogNumber = -1;
+                }
+
+                memtable = new RedBlackTree<>();
+                size = 0;
+                notifyAll();
+
+            }
+
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        } catch ( InterruptedException exc ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while waiting for the background thread", exc );
+        }
+
+    }
+
+    @Override
+    public boolean isEmpty() {
+
+        if ( size >= 0 ) {
+            return size == 0;
+        }
+
+        EntryIterator it = new EntryIterator( null, null );
+        boolean empty = !it.hasNext();
+        it.finish();
+
+        return empty;
+
+    }
+
+    /**
+     * Retorna a quantidade de pares. Na primeira chamada após uma
+     * modificação, percorre todos os pares: O(n).
+     *
+     * @return A quantidade de pares.
+     */
+    @Override
+    public int getSize() {
+
+        if ( size < 0 ) {
+            int n = 0;
+            for ( Iterator<SymbolTable.Entry<Key, Value>> it = iterator(); it.hasNext(); it.next() ) {
+                n++;
+            }
+            size = n;
+        }
+
+        return size;
+
+    }
+
+    /**
+     * Retorna a estratégia de compactação.
+     *
+     * @return A estratégia.
+     */
+    public CompactionStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Retorna a quantidade de SSTables de cada nível (em SIZE_TIERED, todas
+     * ficam no nível 0).
+     *
+     * @return As quantidades de tabelas, indexadas pelo nível.
+     */
+    public synchronized int[] getTableCounts() {
+
+        int[] counts = new int[current.levels.length];
+        for ( int i = 0; i < counts.length; i++ ) {
+            counts[i] = current.levels[i].length;
+        }
+
+        return counts;
+
+    }
+
+    /**
+     * Retorna a amplificação de escrita: a razão entre os bytes gravados em
+     * disco (logs, SSTables e compactações) e os bytes dos registros
+     * enviados por put() e delete().
+     *
+     * @return A amplificação de escrita, ou 0 se nada foi escrito.
+     */
+    public double getWriteAmplification() {
+        long user = userBytes.get();
+        return user == 0 ? 0 : (double) writtenBytes.get() / user;
+    }
+
+    /**
+     * Grava o buffer do log e força a sua gravação física, tornando todas as
+     * escritas anteriores duráveis.
+     *
+     * @throws UncheckedIOException se ocorrer um erro de E/S.
+     */
+    public void flush() {
+
+        checkBackgroundError();
+
+        try {
+            drainLog();
+            log.force( false );
+        } catch ( IOException exc ) {
+            throw new UncheckedIOException( exc );
+        }
+
+    }
+
+    /**
+     * Espera até que a memtable imutável tenha sido gravada e que não haja
+     * mais compactações a fazer.
+     *
+     * @throws UncheckedIOException se a thread de segundo plano falhar.
+     */
+    public void waitForCompactions() {
+
+        try {
+            synchronized ( this ) {
+                while ( ( busy || nextJob() != IDLE ) && backgroundError == null ) {
+                    wait();
+                }
+            }
+        } catch ( InterruptedException exc ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while waiting for compactions", exc );
+        }
+
+        checkBackgroundError();
+
+    }
+
+    /**
+     * Grava o buffer do log, interrompe a thread de segundo plano (uma
+     * compactação em andamento é descartada e refeita na próxima abertura)
+     * e fecha os arquivos.
+     *
+     * @throws IOException se ocorrer um erro de E/S.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if ( closed ) {
+            return;
+        }
+
+        try {
+            drainLog();
+            log.force( false );
+        } finally {
+
+            synchronized ( this ) {
+                closed = true;
+                notifyAll();
+            }
+
+            try {
+                background.join();
+            } catch ( InterruptedException exc ) {
+                Thread.currentThread().interrupt();
+            }
+
+            log.close();
+            release( current );
+
+        }
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        for ( SymbolTable.Entry<Key, Value> e : this ) {
+            sb.append( e ).append( "\n" );
+        }
+
+        if ( sb.length() == 0 ) {
+            sb.append( "empty LSM tree!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+    private void checkBackgroundError() {
+
+        Exception exc = backgroundError;
+
+        if ( exc != null ) {
+            throw new UncheckedIOException( "background flush or compaction failed",
+                    exc instanceof IOException ? (IOException) exc : new IOException( exc ) );
+        }
+
+        if ( closed ) {
+            throw new IllegalStateException( "LSM tree is closed" );
+        }
+
+    }
+
+    // prende a versão atual
+    private synchronized Version<Key, Value> acquire() {
+        current.refs++;
+        return current;
+    }
+
+    // solta uma versão; as tabelas que deixam de pertencer a alguma versão
+    // são fechadas e, se a árvore não estiver sendo fechada, apagadas
+    private synchronized void release( Version<Key, Value> v ) {
+
+        if ( --v.refs > 0 ) {
+            return;
+        }
+
+        for ( Table<Key, Value>[] level : v.levels ) {
+            for ( Table<Key, Value> t : level ) {
+                if ( --t.refs == 0 ) {
+                    try {
+                        t.channel.close();
+                        if ( !closed ) {
+                            Files.deleteIfExists( t.file );
+                        }
+                    } catch ( IOException exc ) {
+                        throw new UncheckedIOException( exc );
+                    }
+                }
+            }
+        }
+
+    }
+
+    // torna uma nova versão a atual (chamado com this travado)
+    private void install( Version<Key, Value> v ) {
+
+        for ( Table<Key, Value>[] level : v.levels ) {
+            for ( Table<Key, Value> t : level ) {
+                t.refs++;
+            }
+        }
+
+        Version<Key, Value> previous = current;
+        current = v;
+        release( previous );
+
+    }
+
+    /*
+     * Laço da thread de segundo plano: grava a memtable imutável e faz as
+     * compactações, um trabalho por vez, até o fechamento da árvore.
+     */
+    private void runBackground() {
+
+        try {
+
+            while ( true ) {
+
+                Version<Key, Value> v;
+                Compaction<Key, Value> c = null;
+
+                synchronized ( this ) {
+
+                    int job;
+                    while ( !closed && ( job = nextJob() ) == IDLE ) {
+                        busy = false;
+                        notifyAll();
+                        wait();
+                    }
+
+                    if ( closed ) {
+                        busy = false;
+                        notifyAll();
+                        return;
+                    }
+
+                    job = nextJob();
+                    if ( job == COMPACT ) {
+                        c = pickCompaction( current );
+                    }
+
+                    busy = true;
+                    v = current;
+                    v.refs++;
+
+                }
+
+                try {
+                    if ( c == null ) {
+                        flushImmutable( v );
+                    } else {
+                        compact( v, c );
+                    }
+                } finally {
+                    release( v );
+                }
+
+            }
+
+        } catch ( Exception exc ) {
+            synchronized ( this ) {
+                backgroundError = exc;
+                busy = false;
+                notifyAll();
+            }
+        }
+
+    }
+
+    // próximo trabalho da thread de segundo plano (chamado com this travado)
+    private int nextJob() {
+
+        boolean compaction = pickCompaction( current ) != null;
+
+        if ( compaction && current.levels[0].length >= L0_STOP_TRIGGER ) {
+            return COMPACT;
+        }
+
+        if ( current.immutable != null ) {
+            return FLUSH;
+        }
+
+        return compaction ? COMPACT : IDLE;
+
+    }
+
+    /*
+     * Grava a memtable imutável em uma SSTable do nível 0 e apaga o log
+     * correspondente.
+     */
+    private void flushImmutable( Version<Key, Value> v ) throws IOException {
+
+        RedBlackTree<Key, Object> immutable = v.immutable;
+        TableBuilder builder = new TableBuilder( newFileNumber(), immutable.getSize() );
+
+        for ( SymbolTable.Entry<Key, Object> e : immutable ) {
+            if ( closed ) {
+                builder.abandon();
+                return;
+            }
+            builder.add( e.getKey(), e.getValue() );
+        }
+
+        Table<Key, Value> t = builder.finish();
+
+        synchronized ( this ) {
+
+            if ( closed ) {
+                t.channel.close();
+                Files.deleteIfExists( t.file );
+                return;
+            }
+
+            Table<Key, Value>[][] levels = current.levels.clone();
+            levels[0] = prepend( levels[0], t );
+
+            logNumber = activeLogNumber;
+            writeManifest( levels );
+            install( new Version<>( null, levels ) );
+            Files.deleteIfExists( logPath( immutableLogNumber ) );
+            immutableLogNumber = -1;
+            notifyAll();
+
+        }
+
+    }
+
+    // escolhe a próxima compactação, ou null se nenhuma for necessária
+    private Compaction<Key, Value> pickCompaction( Version<Key, Value> v ) {
+        return strategy == CompactionStrategy.SIZE_TIERED ? pickSizeTiered( v ) : pickLeveled( v );
+    }
+
+    /*
+     * SIZE_TIERED: procura, da mais nova para a mais antiga, a primeira
+     * sequência de pelo menos 4 tabelas consecutivas da mesma faixa de
+     * tamanho. As tabelas precisam ser consecutivas para que a tabela
+     * resultante possa ocupar o lugar delas sem alterar a ordem das versões.
+     */
+    private Compaction<Key, Value> pickSizeTiered( Version<Key, Value> v ) {
+
+        Table<Key, Value>[] level = v.levels[0];
+        int start = 0;
+
+        while ( start < level.length ) {
+
+            int tier = tier( level[start] );
+            int end = start + 1;
+            while ( end < level.length && end - start < MAX_MERGE_WIDTH && tier( level[end] ) == tier ) {
+                end++;
+            }
+
+            if ( end - start >= COMPACTION_TRIGGER ) {
+                Compaction<Key, Value> c = new Compaction<>();
+                c.level = 0;
+                c.output = 0;
+                c.start = start;
+                c.inputs = Arrays.copyOfRange( level, start, end );
+                c.overlaps = newTables( 0 );
+                c.dropTombstones = end == level.length && deeperLevelsEmpty( v, 0 );
+                return c;
+            }
+
+            start = end;
+
+        }
+
+        return null;
+
+    }
+
+    // faixa de tamanho de uma tabela: cada faixa é 4 vezes maior
+    private int tier( Table<Key, Value> t ) {
+        int tier = 0;
+        for ( long c = t.count; c > memtableSize; c /= 4 ) {
+            tier++;
+        }
+        return tier;
+    }
+
+    /*
+     * LEVELED: o nível 0 é fundido com o nível 1 quando tiver 4 tabelas;
+     * senão, o nível (a partir do 1) mais acima da sua capacidade tem uma
+     * tabela fundida com o nível seguinte.
+     */
+    private Compaction<Key, Value> pickLeveled( Version<Key, Value> v ) {
+
+        Compaction<Key, Value> c = new Compaction<>();
+
+        if ( v.levels[0].length >= COMPACTION_TRIGGER ) {
+
+            c.level = 0;
+            c.inputs = v.levels[0];
+
+            Key lo = c.inputs[0].min;
+            Key hi = c.inputs[0].max;
+            for ( Table<Key, Value> t : c.inputs ) {
+                lo = t.min.compareTo( lo ) < 0 ? t.min : lo;
+                hi = t.max.compareTo( hi ) > 0 ? t.max : hi;
+            }
+
+            c.output = 1;
+            c.overlaps = overlapping( v, 1, lo, hi );
+            c.dropTombstones = deeperLevelsEmpty( v, 1 );
+            return c;
+
+        }
+
+        int best = -1;
+        double bestScore = 1;
+
+        for ( int i = 1; i < v.levels.length; i++ ) {
+            long records = 0;
+            for ( Table<Key, Value> t : v.levels[i] ) {
+                records += t.count;
+            }
+            double score = (double) records / levelCapacity( i );
+            if ( score >= bestScore ) {
+                best = i;
+                bestScore = score;
+            }
+        }
+
+        if ( best < 0 ) {
+            return null;
+        }
+
+        // rodízio: a primeira tabela depois da última compactada no nível
+        Table<Key, Value>[] level = v.levels[best];
+        Key pointer = best < compactPointers.length ? compactPointers[best] : null;
+        int i = 0;
+        if ( pointer != null ) {
+            while ( i < level.length && level[i].min.compareTo( pointer ) <= 0 ) {
+                i++;
+            }
+            if ( i == level.length ) {
+                i = 0;
+            }
+        }
+
+        c.level = best;
+        c.inputs = newTables( 1 );
+        c.inputs[0] = level[i];
+        c.output = best + 1;
+        c.overlaps = overlapping( v, best + 1, level[i].min, level[i].max );
+        c.dropTombstones = deeperLevelsEmpty( v, best + 1 );
+
+        return c;
+
+    }
+
+    // capacidade, em pares, de um nível a partir do 1
+    private long levelCapacity( int level ) {
+        long capacity = (long) COMPACTION_TRIGGER * memtableSize;
+        for ( int i = 1; i < level; i++ ) {
+            capacity *= LEVEL_MULTIPLIER;
+        }
+        return capacity;
+    }
+
+    // tabelas de um nível ordenado que se sobrepõem ao intervalo [lo, hi]
+    private Table<Key, Value>[] overlapping( Version<Key, Value> v, int level, Key lo, Key hi ) {
+
+        if ( level >= v.levels.length ) {
+            return newTables( 0 );
+        }
+
+        Table<Key, Value>[] tables = v.levels[level];
+        int from = tableFor( tables, lo );
+        int to = from;
+        while ( to < tables.length && tables[to].min.compareTo( hi ) <= 0 ) {
+            to++;
+        }
+
+        return Arrays.copyOfRange( tables, from, to );
+
+    }
+
+    // verifica se nenhum nível abaixo do fornecido tem tabelas
+    private static boolean deeperLevelsEmpty( Version<?, ?> v, int level ) {
+        for ( int i = level + 1; i < v.levels.length; i++ ) {
+            if ( v.levels[i].length > 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Funde as tabelas da compactação, lendo-as e gravando o resultado
+     * sequencialmente. Em LEVELED, o resultado é dividido em tabelas de até
+     * memtableSize pares; uma única tabela sem sobreposições no nível
+     * seguinte é apenas movida, sem ser regravada. As lápides são
+     * descartadas quando não há versões mais antigas abaixo do resultado.
+     */
+    private void compact( Version<Key, Value> v, Compaction<Key, Value> c ) throws IOException {
+
+        List<Table<Key, Value>> outputs = new ResizingArrayList<>();
+        boolean leveled = strategy == CompactionStrategy.LEVELED;
+
+        if ( c.level > 0 && c.inputs.length == 1 && c.overlaps.length == 0 ) {
+
+            outputs.add( c.inputs[0] );
+
+        } else {
+
+            List<Cursor<Key>> sources = new ResizingArrayList<>();
+            long expected = 0;
+            for ( Table<Key, Value> t : c.inputs ) {
+                sources.add( new TableCursor( t, null, null ) );
+                expected += t.count;
+            }
+            if ( c.overlaps.length > 0 ) {
+                sources.add( new LevelCursor( c.overlaps, null, null ) );
+                for ( Table<Key, Value> t : c.overlaps ) {
+                    expected += t.count;
+                }
+            }
+
+            MergeCursor<Key> merge = new MergeCursor<>( toArray( sources ) );
+            TableBuilder builder = null;
+            long records = 0;
+
+            while ( merge.advance() ) {
+
+                if ( ( ++records & 1023 ) == 0 && closed ) {
+                    if ( builder != null ) {
+                        builder.abandon();
+                    }
+                    for ( Table<Key, Value> t : outputs ) {
+                        t.channel.close();
+                        Files.deleteIfExists( t.file );
+                    }
+                    return;
+                }
+
+                if ( merge.value == TOMBSTONE && c.dropTombstones ) {
+                    continue;
+                }
+
+                if ( builder == null ) {
+                    builder = new TableBuilder( newFileNumber(),
+                            leveled ? Math.min( expected, memtableSize ) : expected );
+                }
+
+                builder.add( merge.key, merge.value );
+
+                if ( leveled && builder.count >= memtableSize ) {
+                    outputs.add( builder.finish() );
+                    builder = null;
+                }
+
+            }
+
+            if ( builder != null ) {
+                outputs.add( builder.finish() );
+            }
+
+        }
+
+        synchronized ( this ) {
+
+            if ( closed ) {
+                for ( Table<Key, Value> t : outputs ) {
+                    if ( t.refs == 0 ) {
+                        t.channel.close();
+                        Files.deleteIfExists( t.file );
+                    }
+                }
+                return;
+            }
+
+            Table<Key, Value>[][] levels = current.levels;
+            if ( c.output >= levels.length ) {
+                levels = Arrays.copyOf( levels, c.output + 1 );
+                levels[c.output] = newTables( 0 );
+                compactPointers = Arrays.copyOf( compactPointers, c.output + 1 );
+            } else {
+                levels = levels.clone();
+            }
+
+            Table<Key, Value>[] out = newTables( outputs.getSize() );
+            for ( int i = 0; i < out.length; i++ ) {
+                out[i] = outputs.get( i );
+            }
+
+            if ( c.output == c.level ) {
+                // SIZE_TIERED: o resultado ocupa o lugar das entradas
+                Table<Key, Value>[] level = levels[0];
+                Table<Key, Value>[] merged = newTables( level.length - c.inputs.length + out.length );
+                System.arraycopy( level, 0, merged, 0, c.start );
+                System.arraycopy( out, 0, merged, c.start, out.length );
+                System.arraycopy( level, c.start + c.inputs.length, merged, c.start + out.length,
+                        level.length - c.start - c.inputs.length );
+                levels[0] = merged;
+            } else {
+                levels[c.level] = remove( levels[c.level], c.inputs );
+                levels[c.output] = insertSorted( remove( levels[c.output], c.overlaps ), out );
+                if ( c.level > 0 ) {
+                    compactPointers[c.level] = c.inputs[0].max;
+                }
+            }
+
+            // o MANIFEST novo precisa estar no disco antes que install()
+            // apague as entradas da compactação
+            writeManifest( levels );
+            install( new Version<>( current.immutable, levels ) );
+            notifyAll();
+
+        }
+
+    }
+
+    // tabelas de um nível sem as fornecidas
+    private Table<Key, Value>[] remove( Table<Key, Value>[] level, Table<Key, Value>[] removed ) {
+
+        Table<Key, Value>[] result = newTables( level.length - removed.length );
+        int n = 0;
+
+        for ( Table<Key, Value> t : level ) {
+            boolean found = false;
+            for ( Table<Key, Value> r : removed ) {
+                found |= r == t;
+            }
+            if ( !found ) {
+                result[n++] = t;
+            }
+        }
+
+        return result;
+
+    }
+
+    // insere tabelas (ordenadas e sem sobreposições) em um nível ordenado
+    private Table<Key, Value>[] insertSorted( Table<Key, Value>[] level, Table<Key, Value>[] added ) {
+
+        if ( added.length == 0 ) {
+            return level;
+        }
+
+        int at = tableFor( level, added[0].min );
+        Table<Key, Value>[] result = newTables( level.length + added.length );
+        System.arraycopy( level, 0, result, 0, at );
+        System.arraycopy( added, 0, result, at, added.length );
+        System.arraycopy( level, at, result, at + added.length, level.length - at );
+
+        return result;
+
+    }
+
+    private Table<Key, Value>[] prepend( Table<Key, Value>[] level, Table<Key, Value> t ) {
+        Table<Key, Value>[] result = newTables( level.length + 1 );
+        result[0] = t;
+        System.arraycopy( level, 0, result, 1, level.length );
+        return result;
+    }
+
+    /*
+     * Grava uma SSTable sequencialmente: os registros são acumulados em um
+     * buffer de 64 KiB, a primeira chave de cada bloco vai para o índice e
+     * cada chave é adicionada ao filtro de Bloom. finish() grava o índice,
+     * o filtro e o rodapé, força a gravação física e retorna a tabela já
+     * aberta, sem precisar relê-la.
+     */
+    private final class TableBuilder {
+
+        private final long number;
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int blockRecords;
+        private final List<Key> index = new ResizingArrayList<>();
+        private final long[] bloom;
+        private Key last;
+        private long position;
+        private long count;
+
+        private TableBuilder( long number, long expected ) throws IOException {
+            this.number = number;
+            this.file = tablePath( number );
+            this.channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE );
+            this.buffer = ByteBuffer.allocate( Math.max( 1, IO_BUFFER_SIZE / recordSize ) * recordSize );
+            this.blockRecords = Math.max( 1, BLOCK_SIZE / recordSize );
+            this.bloom = new long[(int) Math.max( 1, Math.min( Integer.MAX_VALUE / 64, ( expected * BLOOM_BITS_PER_KEY + 63 ) / 64 ) )];
+        }
+
+        private void add( Key key, Object value ) throws IOException {
+
+            if ( !buffer.hasRemaining() ) {
+                drain();
+            }
+
+            int offset = buffer.position();
+
+            if ( value == TOMBSTONE ) {
+                for ( int i = 0; i < recordSize; i++ ) {
+                    buffer.put( offset + i, (byte) 0 );
+                }
+                buffer.put( offset, DELETE );
+                keyCodec.write( buffer, offset + 1, key );
+            } else {
+                buffer.put( offset, PUT );
+                keyCodec.write( buffer, offset + 1, key );
+                valueCodec.write( buffer, offset + 1 + keySize, valueOf( value ) );
+            }
+
+            addToBloom( bloom, hash( buffer, offset + 1, keySize ) );
+            buffer.position( offset + recordSize );
+
+            if ( count % blockRecords == 0 ) {
+                index.add( key );
+            }
+
+            last = key;
+            count++;
+
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            int n = buffer.remaining();
+            while ( buffer.hasRemaining() ) {
+                position += channel.write( buffer, position );
+            }
+            writtenBytes.addAndGet( n );
+            buffer.clear();
+        }
+
+        private Table<Key, Value> finish() throws IOException {
+
+            drain();
+
+            Key[] keys = newKeys( index.getSize() );
+            for ( int i = 0; i < keys.length; i++ ) {
+                keys[i] = index.get( i );
+            }
+
+            long indexOffset = position;
+            long bloomOffset = indexOffset + (long) ( keys.length + 1 ) * keySize;
+
+            ByteBuffer b = ByteBuffer.allocate( ( keys.length + 1 ) * keySize + bloom.length * 8 + FOOTER_SIZE );
+            for ( int i = 0; i < keys.length; i++ ) {
+                keyCodec.write( b, i * keySize, keys[i] );
+            }
+            keyCodec.write( b, keys.length * keySize, last );
+            b.position( ( keys.length + 1 ) * keySize );
+            for ( long word : bloom ) {
+                b.putLong( word );
+            }
+
+            b.putInt( TABLE_MAGIC );
+            b.putInt( keySize );
+            b.putInt( recordSize - 1 - keySize );
+            b.putInt( blockRecords );
+            b.putLong( count );
+            b.putLong( indexOffset );
+            b.putLong( bloomOffset );
+            b.putInt( bloom.length );
+            b.putInt( BLOOM_HASHES );
+            b.flip();
+
+            writtenBytes.addAndGet( b.remaining() );
+            while ( b.hasRemaining() ) {
+                position += channel.write( b, position );
+            }
+            channel.force( true );
+
+            return new Table<>( number, file, channel, count, blockRecords, keys, last, bloom );
+
+        }
+
+        private void abandon() throws IOException {
+            channel.close();
+            Files.deleteIfExists( file );
+        }
+
+    }
+
+    // abre uma tabela existente, lendo o índice e o filtro de Bloom
+    private Table<Key, Value> readTable( long number ) throws IOException {
+
+        Path file = tablePath( number );
+        FileChannel channel = FileChannel.open( file, StandardOpenOption.READ );
+
+        try {
+
+            long fileSize = channel.size();
+            if ( fileSize < FOOTER_SIZE ) {
+                throw new IOException( "truncated SSTable: " + file );
+            }
+
+            ByteBuffer footer = ByteBuffer.allocate( FOOTER_SIZE );
+            readFully( channel, footer, fileSize - FOOTER_SIZE );
+
+            if ( footer.getInt( 0 ) != TABLE_MAGIC ) {
+                throw new IOException( "not an SSTable: " + file );
+            }
+
+            if ( footer.getInt( 4 ) != keySize || footer.getInt( 8 ) != valueCodec.getSize() ) {
+                throw new IllegalArgumentException( "codecs do not match the SSTable: " + file );
+            }
+
+            int blockRecords = footer.getInt( 12 );
+            long count = footer.getLong( 16 );
+            long indexOffset = footer.getLong( 24 );
+            long bloomOffset = footer.getLong( 32 );
+            int bloomWords = footer.getInt( 40 );
+
+            int blocks = (int) ( ( count + blockRecords - 1 ) / blockRecords );
+            ByteBuffer b = ByteBuffer.allocate( ( blocks + 1 ) * keySize + bloomWords * 8 );
+            readFully( channel, b, indexOffset );
+
+            Key[] index = newKeys( blocks );
+            for ( int i = 0; i < blocks; i++ ) {
+                index[i] = keyCodec.read( b, i * keySize );
+            }
+            Key max = keyCodec.read( b, blocks * keySize );
+
+            long[] bloom = new long[bloomWords];
+            b.position( (int) ( bloomOffset - indexOffset ) );
+            b.asLongBuffer().get( bloom );
+
+            return new Table<>( number, file, channel, count, blockRecords, index, max, bloom );
+
+        } catch ( IOException | RuntimeException exc ) {
+            channel.close();
+            throw exc;
+        }
+
+    }
+
+    /*
+     * Regrava o MANIFEST com as tabelas fornecidas em um arquivo temporário
+     * e o renomeia, para que uma queda no meio da gravação mantenha o
+     * MANIFEST anterior. É chamado antes de a versão com essas tabelas ser
+     * instalada, pois a instalação apaga as tabelas que saem da árvore e o
+     * MANIFEST em disco nunca pode citar uma tabela apagada (chamado com
+     * this travado).
+     */
+    private void writeManifest( Table<Key, Value>[][] levels ) throws IOException {
+
+        int tables = 0;
+        for ( Table<Key, Value>[] level : levels ) {
+            tables += level.length;
+        }
+
+        ByteBuffer b = ByteBuffer.allocate( 32 + 4 * levels.length + 8 * tables );
+        b.putInt( MANIFEST_MAGIC );
+        b.putInt( keySize );
+        b.putInt( valueCodec.getSize() );
+        b.putLong( nextFileNumber );
+        b.putLong( logNumber );
+        b.putInt( levels.length );
+        for ( Table<Key, Value>[] level : levels ) {
+            b.putInt( level.length );
+            for ( Table<Key, Value> t : level ) {
+                b.putLong( t.number );
+            }
+        }
+        b.flip();
+
+        Path tmp = directory.resolve( "MANIFEST.tmp" );
+        try ( FileChannel channel = FileChannel.open( tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) ) {
+            while ( b.hasRemaining() ) {
+                channel.write( b );
+            }
+            channel.force( true );
+        }
+
+        Files.move( tmp, directory.resolve( "MANIFEST" ),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+
+    }
+
+    private FileChannel openLog( long number ) throws IOException {
+        return FileChannel.open( logPath( number ), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE );
+    }
+
+    private synchronized long newFileNumber() {
+        return nextFileNumber++;
+    }
+
+    private Path tablePath( long number ) {
+        return directory.resolve( String.format( "%06d.sst", number ) );
+    }
+
+    private Path logPath( long number ) {
+        return directory.resolve( String.format( "%06d.log", number ) );
+    }
+
+    // número de um arquivo de tabela ou de log, ou -1 para outros arquivos
+    private static long fileNumber( String name ) {
+
+        if ( !name.endsWith( ".sst" ) && !name.endsWith( ".log" ) ) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong( name.substring( 0, name.length() - 4 ) );
+        } catch ( NumberFormatException exc ) {
+            return -1;
+        }
+
+    }
+
+    private static boolean contains( List<Long> list, long value ) {
+        for ( long v : list ) {
+            if ( v == value ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void readFully( FileChannel channel, ByteBuffer b, long position ) throws IOException {
+        int start = b.position();
+        while ( b.hasRemaining() ) {
+            if ( channel.read( b, position + b.position() - start ) < 0 ) {
+                throw new EOFException( "unexpected end of file" );
+            }
+        }
+        b.position( start );
+    }
+
+    /*
+     * Dispersão de 64 bits dos bytes codificados de uma chave (e não de
+     * hashCode(), que não precisa ser o mesmo entre execuções), para que
+     * os filtros de Bloom gravados continuem válidos.
+     */
+    private static long hash( ByteBuffer b, int offset, int length ) {
+
+        long h = 0x9E3779B97F4A7C15L ^ length;
+        int i = 0;
+
+        for ( ; i + 8 <= length; i += 8 ) {
+            h = ( h ^ b.getLong( offset + i ) ) * 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 32;
+        }
+
+        long tail = 0;
+        for ( ; i < length; i++ ) {
+            tail = ( tail << 8 ) | ( b.get( offset + i ) & 0xFF );
+        }
+        h = ( h ^ tail ) * 0xC4CEB9FE1A85EC53L;
+
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+
+        return h;
+
+    }
+
+    /*
+     * Filtro de Bloom com dispersão dupla: a i-ésima posição é
+     * h1 + i * h2, com h1 e h2 as metades do hash de 64 bits.
+     */
+    private static void addToBloom( long[] bloom, long hash ) {
+        long bits = bloom.length * 64L;
+        int h1 = (int) hash;
+        int h2 = (int) ( hash >>> 32 );
+        for ( int i = 0; i < BLOOM_HASHES; i++ ) {
+            long bit = ( ( h1 + i * h2 ) & 0xFFFFFFFFL ) % bits;
+            bloom[(int) ( bit >>> 6 )] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain( long[] bloom, long hash ) {
+        long bits = bloom.length * 64L;
+        int h1 = (int) hash;
+        int h2 = (int) ( hash >>> 32 );
+        for ( int i = 0; i < BLOOM_HASHES; i++ ) {
+            long bit = ( ( h1 + i * h2 ) & 0xFFFFFFFFL ) % bits;
+            if ( ( bloom[(int) ( bit >>> 6 )] & ( 1L << bit ) ) == 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Key[] newKeys( int n ) {
+        return (Key[]) new Comparable[n];
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Table<Key, Value>[] newTables( int n ) {
+        return new Table[n];
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Table<Key, Value>[][] newLevels( int n ) {
+        return new Table[n][];
+    }
+
+}
@@ -5,12 +5,11 @@
  */
 package aesd.ds.implementations.nonlinear.symtable;
 
-import aesd.ds.implementations.linear.LinkedQueue;
 import aesd.algorithms.tree.TraversalTypes;
 import aesd.algorithms.tree.TreeTraversals;
 import java.util.Iterator;
 import aesd.ds.interfaces.BinaryTree;
-import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.OrderedSymbolTable;
 
 /**
  * Implementação de uma árvore vermelho-preto (Red-Black Tree), mais
@@ -38,7 +37,7 @@ import aesd.ds.interfaces.Queue;
  *
  * @author Prof. Dr. David Buzatto
  */
-public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryTree<Key, Value> {
+public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryTree<Key, Value>, OrderedSymbolTable<Key, Value> {
 
     /*
      * Classe interna estática que define os nós da árvore vermelho-preto.
@@ -66,6 +65,10 @@ public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryT
     // raiz da árvore
     private RBNode<Key, Value> root;
     
+    // quantidade de inserções e remoções de chaves, usada pelos iteradores
+    // para detectar alterações durante o percurso
+    private int modCount;
+    
     /**
      * Constrói uma Árvore vermelho-preto vazia.
      */
@@ -135,6 +138,7 @@ public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryT
             rbNode.size = 1;
             
             node = rbNode;
+            modCount++;
             
             return node;
             
@@ -206,6 +210,8 @@ public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryT
             return;
         }
         
+        modCount++;
+        
         // se ambos os filhos da raiz forem pretos, configura a raiz como vermelho
         if ( !isRed( root.left ) && !isRed( root.right ) ) {
             root.color = NodeColor.RED;
@@ -448,9 +454,164 @@ public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryT
         
     }
     
+    @Override
+    public Key floor( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to floor() is null" );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+        Key floor = null;
+
+        while ( node != null ) {
+
+            int comp = key.compareTo( node.key );
+
+            if ( comp < 0 ) {
+                node = node.left;
+            } else if ( comp > 0 ) {
+                // node é candidato; algum nó à direita pode estar mais perto
+                floor = node.key;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+
+        }
+
+        return floor;
+
+    }
+
+    @Override
+    public Key ceiling( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to ceiling() is null" );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+        Key ceiling = null;
+
+        while ( node != null ) {
+
+            int comp = key.compareTo( node.key );
+
+            if ( comp > 0 ) {
+                node = node.right;
+            } else if ( comp < 0 ) {
+                // node é candidato; algum nó à esquerda pode estar mais perto
+                ceiling = node.key;
+                node = node.left;
+            } else {
+                return node.key;
+            }
+
+        }
+
+        return ceiling;
+
+    }
+
+    @Override
+    public int rank( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to rank() is null" );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+        int rank = 0;
+
+        while ( node != null ) {
+
+            int comp = key.compareTo( node.key );
+
+            if ( comp < 0 ) {
+                node = node.left;
+            } else if ( comp > 0 ) {
+                // node e toda a sua subárvore esquerda são menores que key
+                rank += nodeSize( node.left ) + 1;
+                node = node.right;
+            } else {
+                return rank + nodeSize( node.left );
+            }
+
+        }
+
+        return rank;
+
+    }
+
+    @Override
+    public Key select( int rank ) throws IllegalArgumentException {
+
+        if ( rank < 0 || rank >= getSize() ) {
+            throw new IllegalArgumentException( "argument to select() is invalid: " + rank );
+        }
+
+        BinaryTree.Node<Key, Value> node = root;
+
+        while ( true ) {
+
+            int leftSize = nodeSize( node.left );
+
+            if ( rank < leftSize ) {
+                node = node.left;
+            } else if ( rank > leftSize ) {
+                rank -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+
+        }
+
+    }
+
+    @Override
+    public Iterable<Entry<Key, Value>> range( Key lower, Key higher ) throws IllegalArgumentException {
+
+        if ( lower == null ) {
+            throw new IllegalArgumentException( "first argument to range() is null" );
+        }
+
+        if ( higher == null ) {
+            throw new IllegalArgumentException( "second argument to range() is null" );
+        }
+
+        return new FailFastIterable<>( () -> TreeTraversals.range( root, lower, higher ), () -> modCount );
+
+    }
+
+    @Override
+    public int count( Key lower, Key higher ) throws IllegalArgumentException {
+
+        if ( lower == null ) {
+            throw new IllegalArgumentException( "first argument to count() is null" );
+        }
+
+        if ( higher == null ) {
+            throw new IllegalArgumentException( "second argument to count() is null" );
+        }
+
+        if ( lower.compareTo( higher ) > 0 ) {
+            return 0;
+        }
+
+        if ( contains( higher ) ) {
+            return rank( higher ) - rank( lower ) + 1;
+        }
+
+        return rank( higher ) - rank( lower );
+
+    }
+
     @Override
     public void clear() {
         root = (RBNode<Key, Value>) clear( root );
+        modCount++;
     }
 
     private BinaryTree.Node<Key, Value> clear( BinaryTree.Node<Key, Value> node ) {
@@ -471,7 +632,7 @@ public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryT
     
     @Override
     public Iterable<Entry<Key, Value>> traverse( TraversalTypes type ) {
-        return TreeTraversals.traverse( root, type );
+        return new FailFastIterable<>( () -> TreeTraversals.traverse( root, type ), () -> modCount );
     }
     
     @Override
@@ -479,13 +640,19 @@ public class RedBlackTree<Key extends Comparable<Key>, Value> implements BinaryT
         return traverse(TraversalTypes.INORDER ).iterator();
     }
     
+    /**
+     * Retorna as chaves em ordem. O iterável não é uma cópia: cada iterador
+     * percorre a árvore no momento em que é criado, e inserir ou remover
+     * chaves durante o percurso faz o iterador lançar
+     * ConcurrentModificationException (alterar o valor de uma chave
+     * existente é permitido). Para alterar a árvore enquanto as chaves são
+     * percorridas, copie-as antes.
+     *
+     * @return As chaves da árvore, em ordem.
+     */
     @Override
     public Iterable<Key> getKeys() {
-        Queue<Key> keys = new LinkedQueue<>();
-        for ( BinaryTree.Entry<Key, Value> e : traverse(TraversalTypes.INORDER ) ) {
-            keys.enqueue( e.getKey() );
-        }
-        return keys;
+        return new FailFastIterable<>( () -> TreeTraversals.keys( root, TraversalTypes.INORDER ), () -> modCount );
     }
     
     /*@Override
@@ -0,0 +1,550 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação de uma tabela de dispersão com sondagem linear e inserção
+ * Robin Hood.
+ *
+ * Na sondagem linear comum (ver LinearProbingHashTable), uma chave que
+ * cai no meio de um cluster fica depois de todas as que chegaram antes,
+ * e os clusters crescem rapidamente conforme a tabela enche: a partir de
+ * 50% de ocupação, algumas buscas percorrem dezenas de posições. Na
+ * inserção Robin Hood, cada posição guarda também a distância da chave
+ * até a sua posição inicial (o comprimento da sondagem); ao passar por uma
+ * chave que está mais perto de casa do que a chave sendo inserida, as
+ * duas trocam de lugar e a inserção continua com a chave deslocada ("tira
+ * dos ricos para dar aos pobres"). Com isso as distâncias ficam parecidas
+ * entre si e a maior delas cresce devagar, o que permite fatores de carga
+ * de até 90% e, portanto, arrays bem menores. Além disso:
+ *     - as chaves de um cluster ficam ordenadas pela posição inicial, então
+ *       uma busca sem sucesso para assim que encontra uma chave mais perto
+ *       de casa do que a distância já percorrida;
+ *     - só são comparadas com equals() as chaves com a mesma distância da
+ *       buscada (ou seja, com a mesma posição inicial);
+ *     - a remoção usa deslocamento para trás (backward-shift deletion): as
+ *       chaves seguintes do cluster que não estão em casa voltam uma
+ *       posição, sem lápides e sem reinserir o resto do cluster.
+ *
+ * As distâncias ficam em um array de bytes (0 indica uma posição vazia), um
+ * byte por posição além das duas referências do array de entradas. Como
+ * quase todas as sondagens são curtas, distâncias até 253 são guardadas
+ * exatamente e o valor 255 indica uma distância maior, que é recalculada a
+ * partir do hash da chave guardada. Assim o byte não limita o comprimento
+ * das sondagens: chaves com o mesmo hashCode(), que nenhum
+ * redimensionamento separa, apenas formam um cluster longo, como na
+ * sondagem linear comum. O histograma dos comprimentos de sondagem
+ * pode ser consultado para acompanhar a qualidade da dispersão e decidir o
+ * fator de carga máximo.
+ *
+ * Referência: CELIS, P.; LARSON, P.-A.; MUNRO, J. I. Robin Hood Hashing.
+ * In: 26th Annual Symposium on Foundations of Computer Science, 1985.
+ *
+ * @param <Key> Tipo das chaves que serão armazenadas na tabela de dispersão.
+ * @param <Value> Tipo dos valores associados às chaves armazenadas na tabela de
+ * dispersão.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class RobinHoodHashTable<Key, Value> implements SymbolTable<Key, Value> {
+
+    // capacidade inicial, deve ser potência de 2
+    private static final int INIT_CAPACITY = 4;
+
+    // maior capacidade, pois o array de entradas tem o dobro de posições
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    // valor do byte de distância que indica uma distância longa demais para
+    // caber nele, recalculada a partir do hash da chave
+    private static final int SATURATED = 0xFF;
+
+    // fator de carga máximo padrão e o maior permitido
+    private static final double DEFAULT_MAX_LOAD_FACTOR = 0.9;
+    private static final double MAX_LOAD_FACTOR = 0.9;
+
+    // tamanho da tabela de dispersão (quantidade de pares chave/valor)
+    private int size;
+
+    // tamanho dos arrays (sempre potência de 2) e máscara das posições
+    private int capacity;
+    private int mask;
+
+    // fator de carga máximo e quantidade de chaves que o atinge
+    private final double maxLoadFactor;
+    private int threshold;
+
+    // chaves e valores intercalados (a chave da posição i fica em 2i e o
+    // valor em 2i + 1), para que uma busca leia os dois da mesma linha de
+    // cache
+    private Object[] table;
+
+    // comprimento da sondagem de cada posição mais 1, sem sinal; 0 indica
+    // uma posição vazia e SATURATED uma sondagem longa
+    private byte[] probes;
+
+    /**
+     * Constrói uma tabela de dispersão vazia com fator de carga máximo de
+     * 90%.
+     */
+    public RobinHoodHashTable() {
+        this( INIT_CAPACITY, DEFAULT_MAX_LOAD_FACTOR );
+    }
+
+    /**
+     * Constrói uma tabela de dispersão vazia com a capacidade inicial e o
+     * fator de carga máximo fornecidos. A capacidade é arredondada para a
+     * próxima potência de 2, limitada a 2^29.
+     *
+     * @param capacity A capacidade inicial.
+     * @param maxLoadFactor O fator de carga máximo, entre 0 (exclusive) e
+     * 0,9; ao ser ultrapassado, a tabela dobra de tamanho.
+     * @throws IllegalArgumentException se a capacidade não for positiva ou
+     * o fator de carga estiver fora do intervalo.
+     */
+    public RobinHoodHashTable( int capacity, double maxLoadFactor ) throws IllegalArgumentException {
+
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException( "capacity must be greater than zero" );
+        }
+
+        if ( !( maxLoadFactor > 0 && maxLoadFactor <= MAX_LOAD_FACTOR ) ) {
+            throw new IllegalArgumentException( "max load factor must be in (0, " + MAX_LOAD_FACTOR + "]" );
+        }
+
+        this.maxLoadFactor = maxLoadFactor;
+
+        int c = MAX_CAPACITY;
+        if ( capacity < MAX_CAPACITY ) {
+            c = Integer.highestOneBit( capacity );
+            if ( c < capacity ) {
+                c <<= 1;
+            }
+        }
+
+        allocate( c );
+
+    }
+
+    /*
+     * Aloca os arrays vazios. Na capacidade máxima a tabela não cresce mais,
+     * então o limite de chaves passa a ser o do maior fator de carga
+     * permitido, o que também impede que um fator de carga minúsculo dobre
+     * a capacidade indefinidamente.
+     */
+    private void allocate( int capacity ) {
+        this.capacity = capacity;
+        mask = capacity - 1;
+        if ( capacity < MAX_CAPACITY ) {
+            threshold = (int) ( capacity * maxLoadFactor );
+        } else {
+            threshold = (int) ( capacity * MAX_LOAD_FACTOR );
+        }
+        table = new Object[2 * capacity];
+        probes = new byte[capacity];
+    }
+
+    @Override
+    public void put( Key key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        int i = indexOf( key );
+
+        if ( i >= 0 ) {
+            table[2 * i + 1] = value;
+            return;
+        }
+
+        while ( size + 1 > threshold ) {
+            if ( capacity == MAX_CAPACITY ) {
+                throw new IllegalStateException( "robin hood hash table is full" );
+            }
+            resize( 2 * capacity );
+        }
+
+        insert( key, value );
+        size++;
+
+    }
+
+    /*
+     * Insere uma chave que não está na tabela. Ao encontrar uma chave mais
+     * perto de casa do que a que está sendo inserida, toma o lugar dela e
+     * continua inserindo a chave deslocada.
+     */
+    private void insert( Key key, Value value ) {
+
+        int i = hash( key );
+        int probe = 1;
+
+        while ( probes[i] != 0 ) {
+
+            int p = probeAt( i );
+
+            if ( p < probe ) {
+
+                Key k = key( i );
+                Value v = value( i );
+
+                table[2 * i] = key;
+                table[2 * i + 1] = value;
+                setProbe( i, probe );
+
+                key = k;
+                value = v;
+                probe = p;
+
+            }
+
+            i = ( i + 1 ) & mask;
+            probe++;
+
+        }
+
+        table[2 * i] = key;
+        table[2 * i + 1] = value;
+        setProbe( i, probe );
+
+    }
+
+    /*
+     * Retorna a posição da chave ou -1 caso ela não exista. A busca para
+     * ao encontrar uma posição vazia ou uma chave mais perto de casa do que
+     * a distância já percorrida, pois a chave buscada estaria antes dela.
+     */
+    private int indexOf( Key key ) {
+
+        int i = hash( key );
+
+        for ( int probe = 1;; probe++ ) {
+            int p = probeAt( i );
+            if ( p < probe ) {
+                return -1;
+            }
+            if ( p == probe && key.equals( table[2 * i] ) ) {
+                return i;
+            }
+            i = ( i + 1 ) & mask;
+        }
+
+    }
+
+    @Override
+    public Value get( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        int i = indexOf( key );
+
+        return i >= 0 ? value( i ) : null;
+
+    }
+
+    @Override
+    public void delete( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        int i = indexOf( key );
+
+        if ( i < 0 ) {
+            return;
+        }
+
+        // deslocamento para trás: as chaves seguintes do cluster que não
+        // estão em casa voltam uma posição, até uma posição vazia ou uma
+        // chave que já está em casa
+        int j = ( i + 1 ) & mask;
+
+        int p;
+
+        while ( ( p = probeAt( j ) ) > 1 ) {
+            table[2 * i] = table[2 * j];
+            table[2 * i + 1] = table[2 * j + 1];
+            setProbe( i, p - 1 );
+            i = j;
+            j = ( j + 1 ) & mask;
+        }
+
+        table[2 * i] = null;
+        table[2 * i + 1] = null;
+        probes[i] = 0;
+        size--;
+
+        // diminui o tamanho dos arrays se a ocupação cair para um quarto do
+        // fator de carga máximo
+        if ( capacity > INIT_CAPACITY && size <= threshold / 4 ) {
+            resize( capacity / 2 );
+        }
+
+    }
+
+    @Override
+    public boolean contains( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return indexOf( key ) >= 0;
+
+    }
+
+    /**
+     * Redimensiona a tabela para a capacidade fornecida, reinserindo todas
+     * as chaves diretamente nos novos arrays.
+     *
+     * @param capacity Tamanho a ser redimensionado (potência de 2).
+     */
+    @SuppressWarnings( "unchecked" )
+    private void resize( int capacity ) {
+
+        Object[] oldTable = table;
+        byte[] oldProbes = probes;
+
+        allocate( capacity );
+
+        for ( int i = 0; i < oldProbes.length; i++ ) {
+            if ( oldProbes[i] != 0 ) {
+                insert( (Key) oldTable[2 * i], (Value) oldTable[2 * i + 1] );
+            }
+        }
+
+    }
+
+    /*
+     * Retorna o comprimento da sondagem da posição i mais 1 (0 se estiver
+     * vazia), recalculando-o a partir do hash da chave quando não cabe no
+     * byte.
+     */
+    private int probeAt( int i ) {
+        int p = probes[i] & 0xFF;
+        return p != SATURATED ? p : ( ( i - hash( key( i ) ) ) & mask ) + 1;
+    }
+
+    private void setProbe( int i, int probe ) {
+        probes[i] = (byte) Math.min( probe, SATURATED );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Key key( int i ) {
+        return (Key) table[2 * i];
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Value value( int i ) {
+        return (Value) table[2 * i + 1];
+    }
+
+    /*
+     * Espalha os bits do hashCode() (finalização do MurmurHash3) antes de
+     * aplicar a máscara, pois só os bits baixos escolhem a posição.
+     */
+    private int hash( Key key ) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    /**
+     * Retorna o histograma dos comprimentos de sondagem: a posição d do
+     * array é a quantidade de chaves que estão d posições depois da sua
+     * posição inicial (d = 0 indica uma chave em casa). O comprimento do
+     * array é o maior comprimento de sondagem mais 1.
+     *
+     * @return O histograma dos comprimentos de sondagem.
+     */
+    public int[] getProbeLengthHistogram() {
+
+        int[] histogram = new int[getMaxProbeLength() + 1];
+
+        for ( int i = 0; i < capacity; i++ ) {
+            if ( probes[i] != 0 ) {
+                histogram[probeAt( i ) - 1]++;
+            }
+        }
+
+        return histogram;
+
+    }
+
+    /**
+     * Retorna o maior comprimento de sondagem entre as chaves da tabela, ou
+     * seja, quantas posições além da inicial a busca mais longa percorre.
+     *
+     * @return O maior comprimento de sondagem, ou 0 se a tabela estiver
+     * vazia.
+     */
+    public int getMaxProbeLength() {
+
+        int max = 0;
+
+        for ( int i = 0; i < capacity; i++ ) {
+            if ( probes[i] != 0 ) {
+                max = Math.max( max, probeAt( i ) );
+            }
+        }
+
+        return Math.max( 0, max - 1 );
+
+    }
+
+    /**
+     * Retorna o comprimento médio de sondagem das chaves da tabela, que é o
+     * número médio de posições além da inicial percorridas por uma busca
+     * com sucesso.
+     *
+     * @return O comprimento médio de sondagem, ou 0 se a tabela estiver
+     * vazia.
+     */
+    public double getMeanProbeLength() {
+
+        if ( size == 0 ) {
+            return 0;
+        }
+
+        long sum = 0;
+
+        for ( int i = 0; i < capacity; i++ ) {
+            if ( probes[i] != 0 ) {
+                sum += probeAt( i ) - 1;
+            }
+        }
+
+        return (double) sum / size;
+
+    }
+
+    /**
+     * Retorna a fração ocupada das posições da tabela.
+     *
+     * @return O fator de carga atual.
+     */
+    public double getLoadFactor() {
+        return (double) size / capacity;
+    }
+
+    /**
+     * Retorna a quantidade de posições da tabela.
+     *
+     * @return A capacidade atual.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public Iterable<Key> getKeys() {
+
+        Queue<Key> queue = new LinkedQueue<>();
+
+        for ( int i = 0; i < capacity; i++ ) {
+            if ( probes[i] != 0 ) {
+                queue.enqueue( key( i ) );
+            }
+        }
+
+        return queue;
+
+    }
+
+    @Override
+    public void clear() {
+        allocate( INIT_CAPACITY );
+        size = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Iterador que percorre os arrays diretamente, sem copiar as entradas
+     * para uma lista auxiliar. Não deve ser usado enquanto a tabela é
+     * modificada.
+     */
+    @Override
+    public Iterator<Entry<Key, Value>> iterator() {
+
+        return new Iterator<Entry<Key, Value>>() {
+
+            private int current = advance( 0 );
+
+            @Override
+            public boolean hasNext() {
+                return current < capacity;
+            }
+
+            @Override
+            public Entry<Key, Value> next() {
+
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<Key, Value> e = new Entry<>( key( current ), value( current ) );
+                current = advance( current + 1 );
+
+                return e;
+
+            }
+
+            private int advance( int i ) {
+                while ( i < capacity && probes[i] == 0 ) {
+                    i++;
+                }
+                return i;
+            }
+
+        };
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        if ( !isEmpty() ) {
+
+            for ( int i = 0; i < capacity; i++ ) {
+                if ( probes[i] != 0 ) {
+                    sb.append( key( i ) ).append( " -> " ).append( value( i ) )
+                            .append( " (" ).append( probeAt( i ) - 1 ).append( ")\n" );
+                }
+            }
+
+        } else {
+            sb.append( "empty robin hood hash table!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+}
@@ -19,6 +19,26 @@ import java.util.Iterator;
  * encadeada não tem problema em crescer um pouco além do ideal — a busca
  * apenas percorre alguns elementos a mais, sem risco de nunca terminar.
  *
+ * Uma lista só fica longa se muitas chaves caem no mesmo bucket, seja por
+ * um hashCode() mal distribuído (chaves compostas que diferem apenas em
+ * partes ignoradas pelo hash, por exemplo), seja por chaves escolhidas de
+ * propósito para colidir (hash flooding), e aí a busca passa a custar
+ * O(n). Para limitar o pior caso, a lista de um bucket que passa de 8
+ * chaves é convertida em uma RedBlackTree, desde que as chaves sejam
+ * Comparable, da mesma classe e com compareTo() consistente com equals()
+ * (sem duas chaves diferentes que comparam como iguais, como os BigDecimal
+ * 1.0 e 1.00), e a busca nela custa O(lg n); se a árvore voltar a ter 6
+ * chaves ou menos, ela volta a ser uma lista (a diferença entre os dois
+ * limites evita converter de um lado para o outro a cada operação). Um
+ * bucket cujas chaves não podem formar uma árvore fica marcado como lista
+ * até voltar a ter 6 chaves ou menos, para que as inserções seguintes não
+ * percorram a lista tentando convertê-la de novo. Opcionalmente, a tabela pode usar uma semente na função de
+ * dispersão: o hashCode() passa por uma função de mistura que depende da
+ * semente antes de ser reduzido ao número de buckets, e quem não conhece a
+ * semente não consegue escolher chaves com hashCode() diferentes que caiam
+ * no mesmo bucket. Chaves com hashCode() iguais continuam colidindo com
+ * qualquer semente, e para elas a defesa são as árvores.
+ *
  * Implementação baseada na obra: SEDGEWICK, R.; WAYNE, K. Algorithms. 4. ed.
  * Boston: Pearson Education, 2011. 955 p.
  *
@@ -33,14 +53,29 @@ public class SeparateChainingHashTable<Key, Value> implements SymbolTable<Key, V
     // capacidade inicial, deve ser potência de 2
     private static final int INIT_CAPACITY = 4;
 
+    // comprimento a partir do qual uma lista vira árvore e comprimento a
+    // partir do qual uma árvore volta a ser lista
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+
     // tamanho da tabela de dispersão (quantidade de pares chave/valor)
     private int size;
 
     // tamanho da tabela de dispersão (quantidade de encadeamentos)
     private int htSize;
 
-    // array de tabelas de símbolos com encadeamento
-    private SequentialSearchSymbolTable<Key, Value>[] st;
+    // array de tabelas de símbolos com encadeamento: cada posição é uma
+    // SequentialSearchSymbolTable ou, se a lista ficou longa, uma
+    // RedBlackTree
+    private SymbolTable<Key, Value>[] st;
+
+    // buckets cujas chaves não podem formar uma árvore e que continuam
+    // listas enquanto tiverem mais de UNTREEIFY_THRESHOLD chaves
+    private boolean[] listOnly;
+
+    // indica se a função de dispersão usa a semente
+    private final boolean seeded;
+    private final long seed;
 
     /**
      * Constrói uma tabela de dispersão vazia.
@@ -55,12 +90,32 @@ public class SeparateChainingHashTable<Key, Value> implements SymbolTable<Key, V
      *
      * @param numberOfChains Quantidade de encadeamentos.
      */
-    @SuppressWarnings( "unchecked" )
     public SeparateChainingHashTable( int numberOfChains ) {
+        this( numberOfChains, false, 0 );
+    }
+
+    /**
+     * Constrói uma tabela de símbolos com a capacidade inicial de
+     * encadeamentos fornecida e uma função de dispersão com semente. Com
+     * uma semente aleatória (por exemplo, de java.security.SecureRandom),
+     * não é possível prever quais chaves colidem.
+     *
+     * @param numberOfChains Quantidade de encadeamentos.
+     * @param seed Semente da função de dispersão.
+     */
+    public SeparateChainingHashTable( int numberOfChains, long seed ) {
+        this( numberOfChains, true, seed );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private SeparateChainingHashTable( int numberOfChains, boolean seeded, long seed ) {
 
         this.htSize = numberOfChains;
+        this.seeded = seeded;
+        this.seed = seed;
 
-        st = new SequentialSearchSymbolTable[numberOfChains];
+        st = new SymbolTable[numberOfChains];
+        listOnly = new boolean[numberOfChains];
 
         for ( int i = 0; i < numberOfChains; i++ ) {
             st[i] = new SequentialSearchSymbolTable<>();
@@ -88,12 +143,24 @@ public class SeparateChainingHashTable<Key, Value> implements SymbolTable<Key, V
 
         int i = hash( key );
 
+        // a árvore só aceita chaves comparáveis com as que ela já tem e que
+        // não comparam como iguais a uma chave diferente dela
+        if ( st[i] instanceof RedBlackTree && !fitsTree( key, st[i] ) ) {
+            untreeify( i );
+            listOnly[i] = true;
+        }
+
         if ( !st[i].contains( key ) ) {
             size++;
         }
 
         st[i].put( key, value );
 
+        if ( st[i] instanceof SequentialSearchSymbolTable && !listOnly[i]
+                && st[i].getSize() > TREEIFY_THRESHOLD ) {
+            treeify( i );
+        }
+
     }
 
     @Override
@@ -105,6 +172,10 @@ public class SeparateChainingHashTable<Key, Value> implements SymbolTable<Key, V
 
         int i = hash( key );
 
+        if ( st[i] instanceof RedBlackTree && !fitsTree( key, st[i] ) ) {
+            return null;
+        }
+
         return st[i].get( key );
 
     }
@@ -118,12 +189,23 @@ public class SeparateChainingHashTable<Key, Value> implements SymbolTable<Key, V
 
         int i = hash( key );
 
+        if ( st[i] instanceof RedBlackTree && !fitsTree( key, st[i] ) ) {
+            return;
+        }
+
         if ( st[i].contains( key ) ) {
             size--;
         }
 
         st[i].delete( key );
 
+        if ( st[i].getSize() <= UNTREEIFY_THRESHOLD ) {
+            if ( st[i] instanceof RedBlackTree ) {
+                untreeify( i );
+            }
+            listOnly[i] = false;
+        }
+
         // se o tamanho médio da lista é menor ou igual a 2,
         // diminui a capacidade pela metade
         if ( htSize > INIT_CAPACITY && size <= 2 * htSize ) {
@@ -151,7 +233,7 @@ public class SeparateChainingHashTable<Key, Value> implements SymbolTable<Key, V
      */
     private void resize( int chains ) {
 
-        SeparateChainingHashTable<Key, Value> temp = new SeparateChainingHashTable<>( chains );
+        SeparateChainingHashTable<Key, Value> temp = new SeparateChainingHashTable<>( chains, seeded, seed );
 
         for ( int i = 0; i < htSize; i++ ) {
             for ( Key key : st[i].getKeys() ) {
@@ -162,11 +244,189 @@ public class SeparateChainingHashTable<Key, Value> implements SymbolTable<Key, V
         this.htSize = temp.htSize;
         this.size = temp.size;
         this.st = temp.st;
+        this.listOnly = temp.listOnly;
 
     }
     
+    /*
+     * Sem semente, usa o hashCode() diretamente. Com semente, mistura o
+     * hashCode() com a semente usando a finalização de 64 bits do
+     * MurmurHash3 (fmix64), e o resultado depende de todos os bits dos
+     * dois.
+     */
     private int hash( Key key ) {
-        return ( key.hashCode() & 0x7fffffff ) % htSize;
+
+        int h = key.hashCode();
+
+        if ( seeded ) {
+            long x = h ^ seed;
+            x ^= x >>> 33;
+            x *= 0xff51afd7ed558ccdL;
+            x ^= x >>> 33;
+            x *= 0xc4ceb9fe1a85ec53L;
+            x ^= x >>> 33;
+            h = (int) x;
+        }
+
+        return ( h & 0x7fffffff ) % htSize;
+
+    }
+
+    /*
+     * Converte a lista do bucket i em uma RedBlackTree, caso todas as
+     * chaves sejam Comparable, da mesma classe e nenhuma compare como igual
+     * a outra. Caso contrário, marca o bucket como lista.
+     */
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private void treeify( int i ) {
+
+        Class<?> keyClass = null;
+
+        for ( Key key : st[i].getKeys() ) {
+            if ( !( key instanceof Comparable ) || ( keyClass != null && key.getClass() != keyClass ) ) {
+                listOnly[i] = true;
+                return;
+            }
+            keyClass = key.getClass();
+        }
+
+        RedBlackTree tree = new RedBlackTree();
+
+        for ( Entry<Key, Value> e : st[i] ) {
+            // as chaves da lista são diferentes segundo equals()
+            if ( tree.contains( (Comparable) e.getKey() ) ) {
+                listOnly[i] = true;
+                return;
+            }
+            tree.put( (Comparable) e.getKey(), e.getValue() );
+        }
+
+        st[i] = tree;
+
+    }
+
+    // converte a árvore do bucket i de volta em uma lista
+    private void untreeify( int i ) {
+
+        SymbolTable<Key, Value> list = new SequentialSearchSymbolTable<>();
+
+        for ( Entry<Key, Value> e : st[i] ) {
+            list.put( e.getKey(), e.getValue() );
+        }
+
+        st[i] = list;
+
+    }
+
+    /*
+     * Verifica se a árvore pode responder pela chave: ela precisa ser da
+     * mesma classe das chaves da árvore, e a chave da árvore que compara
+     * como igual a ela, se existir, precisa ser igual segundo equals().
+     */
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private boolean fitsTree( Key key, SymbolTable<Key, Value> st ) {
+
+        RedBlackTree tree = (RedBlackTree) st;
+
+        if ( tree.isEmpty() ) {
+            return true;
+        }
+
+        if ( tree.select( 0 ).getClass() != key.getClass() ) {
+            return false;
+        }
+
+        Comparable floor = tree.floor( (Comparable) key );
+
+        return floor == null || floor.compareTo( key ) != 0 || floor.equals( key );
+
+    }
+
+    /**
+     * Retorna o histograma dos comprimentos das listas: a posição c do
+     * array é a quantidade de buckets com c chaves (contando também os
+     * buckets que viraram árvores). O comprimento do array é o maior
+     * comprimento mais 1.
+     *
+     * @return O histograma dos comprimentos dos encadeamentos.
+     */
+    public int[] getChainLengthHistogram() {
+
+        int[] histogram = new int[getMaxChainLength() + 1];
+
+        for ( int i = 0; i < htSize; i++ ) {
+            histogram[st[i].getSize()]++;
+        }
+
+        return histogram;
+
+    }
+
+    /**
+     * Retorna a maior quantidade de chaves em um mesmo bucket.
+     *
+     * @return O maior comprimento de encadeamento.
+     */
+    public int getMaxChainLength() {
+
+        int max = 0;
+
+        for ( int i = 0; i < htSize; i++ ) {
+            max = Math.max( max, st[i].getSize() );
+        }
+
+        return max;
+
+    }
+
+    /**
+     * Retorna a quantidade média de chaves dos buckets não vazios, que é
+     * proporcional ao custo médio de uma busca.
+     *
+     * @return O comprimento médio dos encadeamentos não vazios, ou 0 se a
+     * tabela estiver vazia.
+     */
+    public double getMeanChainLength() {
+
+        int nonEmpty = 0;
+
+        for ( int i = 0; i < htSize; i++ ) {
+            if ( !st[i].isEmpty() ) {
+                nonEmpty++;
+            }
+        }
+
+        return nonEmpty == 0 ? 0 : (double) size / nonEmpty;
+
+    }
+
+    /**
+     * Retorna a quantidade de buckets cujas listas foram convertidas em
+     * árvores.
+     *
+     * @return A quantidade de buckets com árvores.
+     */
+    public int getTreeifiedChainCount() {
+
+        int count = 0;
+
+        for ( int i = 0; i < htSize; i++ ) {
+            if ( st[i] instanceof RedBlackTree ) {
+                count++;
+            }
+        }
+
+        return count;
+
+    }
+
+    /**
+     * Retorna a quantidade de buckets (encadeamentos) da tabela.
+     *
+     * @return A quantidade de encadeamentos.
+     */
+    public int getNumberOfChains() {
+        return htSize;
     }
 
     @Override
@@ -0,0 +1,449 @@
+package aesd.ds.implementations.nonlinear.symtable;
+
+import aesd.ds.implementations.linear.LinkedQueue;
+import aesd.ds.interfaces.Queue;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação de uma tabela de dispersão no estilo "Swiss table", com
+ * sondagem por grupos de bytes de controle.
+ *
+ * Cada posição da tabela tem um byte de controle: vazio (0x80), removido
+ * (0xFE) ou ocupado, e nesse caso o byte guarda 7 bits do hash da chave
+ * (h2). Os bytes de controle ficam agrupados de 8 em 8 em um array de
+ * longs, e a busca examina um grupo inteiro de uma vez: com algumas
+ * operações aritméticas sobre o long (SWAR, SIMD within a register),
+ * obtém-se uma máscara com os bytes iguais a h2 e outra com os bytes
+ * vazios. Só as posições cujo byte bate com h2 têm a chave comparada com
+ * equals() (em média, uma chave diferente a cada 128 comparações de bytes
+ * passa por esse filtro), e a busca termina no primeiro grupo que tem uma
+ * posição vazia. O restante do hash (h1) escolhe o grupo inicial, e os
+ * grupos seguintes são visitados com sondagem triangular (saltos de 1, 2,
+ * 3, ... grupos), que visita todos os grupos quando a quantidade deles é
+ * potência de 2.
+ *
+ * Como uma busca só passa adiante de um grupo sem posições vazias, a
+ * remoção pode marcar a posição como vazia se o grupo tiver alguma outra
+ * posição vazia; caso contrário ela vira uma lápide (removido), que é
+ * reaproveitada por inserções e descartada no próximo redimensionamento.
+ * A tabela é redimensionada quando as posições vazias acabam, mantendo a
+ * ocupação (contando as lápides) abaixo de 7/8.
+ *
+ * As chaves e os valores ficam intercalados em um único array, para que o
+ * valor seja lido da mesma linha de cache que a chave.
+ *
+ * Implementação baseada no projeto da tabela de dispersão
+ * absl::flat_hash_map da biblioteca Abseil (Google).
+ *
+ * @param <Key> Tipo das chaves que serão armazenadas na tabela de dispersão.
+ * @param <Value> Tipo dos valores associados às chaves armazenadas na tabela de
+ * dispersão.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class SwissHashTable<Key, Value> implements SymbolTable<Key, Value> {
+
+    // posições por grupo (bytes em um long)
+    private static final int GROUP_SIZE = 8;
+
+    // bytes de controle
+    private static final int EMPTY = 0x80;
+    private static final int DELETED = 0xFE;
+
+    // constantes dos truques SWAR: o byte 0x01 e o byte 0x80 repetidos
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+
+    // grupo com todos os bytes vazios
+    private static final long EMPTY_GROUP = EMPTY * LSBS;
+
+    // tamanho da tabela de dispersão (quantidade de pares chave/valor)
+    private int size;
+
+    // quantidade de grupos (sempre potência de 2) e máscara dos grupos
+    private int groups;
+    private int groupMask;
+
+    // posições vazias que ainda podem ser ocupadas antes de a ocupação
+    // (chaves mais lápides) chegar a 7/8
+    private int growthLeft;
+
+    // bytes de controle, 8 por long (a posição j de um grupo é o byte j,
+    // a partir do menos significativo)
+    private long[] control;
+
+    // chaves e valores intercalados: a chave da posição i fica em 2i e o
+    // valor em 2i + 1
+    private Object[] table;
+
+    /**
+     * Constrói uma tabela de dispersão vazia.
+     */
+    public SwissHashTable() {
+        this( GROUP_SIZE );
+    }
+
+    /**
+     * Constrói uma tabela de dispersão vazia com espaço para a quantidade de
+     * chaves fornecida sem redimensionamento.
+     *
+     * @param capacity A capacidade inicial.
+     * @throws IllegalArgumentException se a capacidade não for positiva.
+     */
+    public SwissHashTable( int capacity ) throws IllegalArgumentException {
+
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException( "capacity must be greater than zero" );
+        }
+
+        // posições necessárias para manter a ocupação abaixo de 7/8
+        long slots = ( (long) capacity * 8 + 6 ) / 7;
+        int g = 1;
+        while ( (long) g * GROUP_SIZE < slots ) {
+            g <<= 1;
+        }
+
+        allocate( g );
+
+    }
+
+    private void allocate( int groups ) {
+        this.groups = groups;
+        groupMask = groups - 1;
+        growthLeft = groups * GROUP_SIZE * 7 / 8;
+        control = new long[groups];
+        table = new Object[2 * groups * GROUP_SIZE];
+        Arrays.fill( control, EMPTY_GROUP );
+    }
+
+    /*
+     * Máscara com o bit mais significativo ligado nos bytes do grupo iguais
+     * a b: o xor zera esses bytes, e a expressão clássica que detecta bytes
+     * zero liga o bit alto deles. Pode haver falsos positivos logo acima
+     * de um byte que realmente bate (por causa do empréstimo na subtração),
+     * mas a chave é sempre confirmada com equals().
+     */
+    private static long match( long group, int b ) {
+        long x = group ^ ( b * LSBS );
+        return ( x - LSBS ) & ~x & MSBS;
+    }
+
+    // bytes vazios (0x80): bit alto ligado e bit 1 desligado
+    private static long matchEmpty( long group ) {
+        return group & ~( group << 6 ) & MSBS;
+    }
+
+    // bytes vazios ou removidos (0x80 ou 0xFE): bit alto ligado e bit 0
+    // desligado
+    private static long matchEmptyOrDeleted( long group ) {
+        return group & ~( group << 7 ) & MSBS;
+    }
+
+    // posição, dentro do grupo, do primeiro byte marcado na máscara
+    private static int first( long mask ) {
+        return Long.numberOfTrailingZeros( mask ) >>> 3;
+    }
+
+    @Override
+    public void put( Key key, Value value ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "first argument to put() is null" );
+        }
+
+        if ( value == null ) {
+            delete( key );
+            return;
+        }
+
+        int hash = hash( key );
+        int i = indexOf( key, hash );
+
+        if ( i >= 0 ) {
+            table[2 * i + 1] = value;
+            return;
+        }
+
+        i = findInsertSlot( hash );
+
+        // a inserção ocuparia uma posição vazia além do limite de 7/8:
+        // reconstrói a tabela, dobrando-a se as lápides não forem a maior
+        // parte das posições ocupadas
+        if ( growthLeft == 0 && getControl( i ) == EMPTY ) {
+            resize( size * 2 >= groups * GROUP_SIZE * 7 / 8 ? 2 * groups : groups );
+            i = findInsertSlot( hash );
+        }
+
+        if ( getControl( i ) == EMPTY ) {
+            growthLeft--;
+        }
+
+        setControl( i, hash & 0x7F );
+        table[2 * i] = key;
+        table[2 * i + 1] = value;
+        size++;
+
+    }
+
+    /*
+     * Retorna a posição da chave ou -1 caso ela não exista.
+     */
+    private int indexOf( Key key, int hash ) {
+
+        int h2 = hash & 0x7F;
+        int g = ( hash >>> 7 ) & groupMask;
+
+        for ( int step = 1; ; step++ ) {
+
+            long group = control[g];
+
+            for ( long m = match( group, h2 ); m != 0; m &= m - 1 ) {
+                int i = g * GROUP_SIZE + first( m );
+                if ( key.equals( table[2 * i] ) ) {
+                    return i;
+                }
+            }
+
+            if ( matchEmpty( group ) != 0 ) {
+                return -1;
+            }
+
+            g = ( g + step ) & groupMask;
+
+        }
+
+    }
+
+    /*
+     * Primeira posição vazia ou removida na sequência de sondagem do hash.
+     * Sempre existe, pois a ocupação fica abaixo de 7/8.
+     */
+    private int findInsertSlot( int hash ) {
+
+        int g = ( hash >>> 7 ) & groupMask;
+
+        for ( int step = 1; ; step++ ) {
+
+            long m = matchEmptyOrDeleted( control[g] );
+
+            if ( m != 0 ) {
+                return g * GROUP_SIZE + first( m );
+            }
+
+            g = ( g + step ) & groupMask;
+
+        }
+
+    }
+
+    private int getControl( int i ) {
+        return (int) ( control[i >>> 3] >>> ( ( i & 7 ) << 3 ) ) & 0xFF;
+    }
+
+    private void setControl( int i, int b ) {
+        int shift = ( i & 7 ) << 3;
+        control[i >>> 3] = ( control[i >>> 3] & ~( 0xFFL << shift ) ) | ( (long) b << shift );
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public Value get( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to get() is null" );
+        }
+
+        int i = indexOf( key, hash( key ) );
+
+        return i >= 0 ? (Value) table[2 * i + 1] : null;
+
+    }
+
+    @Override
+    public void delete( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to delete() is null" );
+        }
+
+        int i = indexOf( key, hash( key ) );
+
+        if ( i < 0 ) {
+            return;
+        }
+
+        table[2 * i] = null;
+        table[2 * i + 1] = null;
+        size--;
+
+        // se o grupo tem uma posição vazia, nenhuma busca passa adiante
+        // dele e a posição pode voltar a ser vazia; senão vira lápide
+        if ( matchEmpty( control[i >>> 3] ) != 0 ) {
+            setControl( i, EMPTY );
+            growthLeft++;
+        } else {
+            setControl( i, DELETED );
+        }
+
+    }
+
+    @Override
+    public boolean contains( Key key ) throws IllegalArgumentException {
+
+        if ( key == null ) {
+            throw new IllegalArgumentException( "argument to contains() is null" );
+        }
+
+        return indexOf( key, hash( key ) ) >= 0;
+
+    }
+
+    /**
+     * Reconstrói a tabela com a quantidade de grupos fornecida, reinserindo
+     * as chaves diretamente nos novos arrays e descartando as lápides.
+     *
+     * @param groups Quantidade de grupos (potência de 2).
+     */
+    private void resize( int groups ) {
+
+        long[] oldControl = control;
+        Object[] oldTable = table;
+
+        allocate( groups );
+
+        for ( int i = 0; i < oldControl.length * GROUP_SIZE; i++ ) {
+
+            int c = (int) ( oldControl[i >>> 3] >>> ( ( i & 7 ) << 3 ) ) & 0xFF;
+
+            if ( c < EMPTY ) {
+                Object key = oldTable[2 * i];
+                int j = findInsertSlot( hash( key ) );
+                setControl( j, c );
+                table[2 * j] = key;
+                table[2 * j + 1] = oldTable[2 * i + 1];
+                growthLeft--;
+            }
+
+        }
+
+    }
+
+    /*
+     * Espalha os bits do hashCode() (finalização do MurmurHash3): os 7
+     * bits baixos formam h2 e os demais escolhem o grupo.
+     */
+    private static int hash( Object key ) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Retorna a quantidade de posições da tabela.
+     *
+     * @return A capacidade atual.
+     */
+    public int getCapacity() {
+        return groups * GROUP_SIZE;
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public Iterable<Key> getKeys() {
+
+        Queue<Key> queue = new LinkedQueue<>();
+
+        for ( int i = 0; i < groups * GROUP_SIZE; i++ ) {
+            if ( getControl( i ) < EMPTY ) {
+                queue.enqueue( (Key) table[2 * i] );
+            }
+        }
+
+        return queue;
+
+    }
+
+    @Override
+    public void clear() {
+        allocate( 1 );
+        size = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Iterador que percorre os arrays diretamente, sem copiar as entradas
+     * para uma lista auxiliar. Não deve ser usado enquanto a tabela é
+     * modificada.
+     */
+    @Override
+    public Iterator<Entry<Key, Value>> iterator() {
+
+        return new Iterator<Entry<Key, Value>>() {
+
+            private int current = advance( 0 );
+
+            @Override
+            public boolean hasNext() {
+                return current < groups * GROUP_SIZE;
+            }
+
+            @Override
+            @SuppressWarnings( "unchecked" )
+            public Entry<Key, Value> next() {
+
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<Key, Value> e = new Entry<>( (Key) table[2 * current], (Value) table[2 * current + 1] );
+                current = advance( current + 1 );
+
+                return e;
+
+            }
+
+            private int advance( int i ) {
+                while ( i < groups * GROUP_SIZE && getControl( i ) >= EMPTY ) {
+                    i++;
+                }
+                return i;
+            }
+
+        };
+
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        for ( Entry<Key, Value> e : this ) {
+            sb.append( e.getKey() ).append( " -> " ).append( e.getValue() ).append( "\n" );
+        }
+
+        if ( sb.length() == 0 ) {
+            sb.append( "empty swiss hash table!\n" );
+        }
+
+        return sb.toString();
+
+    }
+
+}
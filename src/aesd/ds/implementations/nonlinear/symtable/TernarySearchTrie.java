@@ -305,7 +305,77 @@ public class TernarySearchTrie<Value> implements SymbolTable<String, Value> {
         }
         
     }
-    
+
+    /**
+     * Retorna todas as chaves da trie cuja distância de edição
+     * (Levenshtein: inserções, remoções e substituições de um caractere)
+     * até query é no máximo k, em ordem.
+     *
+     * Funciona como na Trie: cada posição da chave tem a linha
+     * correspondente da tabela de distância de edição, e um filho do meio
+     * só é visitado se o menor valor da linha calculada com o caractere do
+     * nó não passa de k. Os filhos esquerdo e direito estão na mesma
+     * posição da chave e reaproveitam a linha do pai; apenas o caminho
+     * pelos filhos do meio calcula linhas novas.
+     *
+     * @param query A string buscada.
+     * @param k A distância máxima.
+     * @return As chaves a distância no máximo k de query.
+     * @throws IllegalArgumentException se query for nula ou k negativo.
+     */
+    public Iterable<String> getKeysWithinDistance( String query, int k ) throws IllegalArgumentException {
+
+        if ( query == null ) {
+            throw new IllegalArgumentException( "argument to getKeysWithinDistance() is null" );
+        }
+
+        if ( k < 0 ) {
+            throw new IllegalArgumentException( "k must be non-negative" );
+        }
+
+        Queue<String> queue = new ResizingArrayQueue<>();
+
+        k = Math.min( k, EditDistanceRows.MAX_DISTANCE );
+
+        collect( root, new StringBuilder(), query, k, EditDistanceRows.firstRows( query, k ), queue );
+        return queue;
+
+    }
+
+    /*
+     * Retorna a tabela de linhas, que pode ter crescido durante a busca.
+     */
+    private int[][] collect( Node<Value> x, StringBuilder prefix, String query, int k,
+                             int[][] rows, Queue<String> queue ) {
+
+        if ( x == null ) {
+            return rows;
+        }
+
+        int d = prefix.length();
+
+        rows = collect( x.left, prefix, query, k, rows, queue );
+        rows = EditDistanceRows.ensureRow( rows, d + 1, query.length() );
+
+        if ( EditDistanceRows.nextRow( rows[d], rows[d + 1], d + 1, x.c, query, k ) <= k ) {
+
+            if ( x.val != null && rows[d + 1][query.length()] <= k ) {
+                queue.enqueue( prefix.toString() + x.c );
+            }
+
+            // as chaves abaixo do filho do meio têm pelo menos d + 2
+            // caracteres
+            if ( d + 2 <= (long) query.length() + k ) {
+                rows = collect( x.mid, prefix.append( x.c ), query, k, rows, queue );
+                prefix.deleteCharAt( prefix.length() - 1 );
+            }
+
+        }
+
+        return collect( x.right, prefix, query, k, rows, queue );
+
+    }
+
     @Override
     public Iterator<Entry<String, Value>> iterator() {
         
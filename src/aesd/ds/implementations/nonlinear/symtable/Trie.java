@@ -268,6 +268,81 @@ public class Trie<Value> implements SymbolTable<String, Value> {
         
     }
 
+    /**
+     * Retorna todas as chaves da trie cuja distância de edição
+     * (Levenshtein: inserções, remoções e substituições de um caractere)
+     * até query é no máximo k, em ordem.
+     *
+     * A trie é percorrida junto com a tabela de programação dinâmica da
+     * distância de edição: cada nó na profundidade d tem a linha d da
+     * tabela (a distância entre o caminho até o nó e cada prefixo de
+     * query), calculada a partir da linha do pai. Como os valores de uma
+     * linha nunca diminuem nas linhas seguintes, quando o menor valor da
+     * linha passa de k nenhuma chave da subárvore pode estar a distância
+     * k, e a subárvore inteira é descartada. Apenas a faixa de 2k + 1
+     * colunas em torno da diagonal é calculada, pois fora dela a distância
+     * já é maior que k, então cada nó visitado custa O(k).
+     *
+     * @param query A string buscada.
+     * @param k A distância máxima.
+     * @return As chaves a distância no máximo k de query.
+     * @throws IllegalArgumentException se query for nula ou k negativo.
+     */
+    public Iterable<String> getKeysWithinDistance( String query, int k ) throws IllegalArgumentException {
+
+        if ( query == null ) {
+            throw new IllegalArgumentException( "argument to getKeysWithinDistance() is null" );
+        }
+
+        if ( k < 0 ) {
+            throw new IllegalArgumentException( "k must be non-negative" );
+        }
+
+        Queue<String> results = new ResizingArrayQueue<>();
+
+        k = Math.min( k, EditDistanceRows.MAX_DISTANCE );
+
+        if ( root != null ) {
+            collect( root, new StringBuilder(), query, k, EditDistanceRows.firstRows( query, k ), results );
+        }
+
+        return results;
+
+    }
+
+    /*
+     * Retorna a tabela de linhas, que pode ter crescido durante a busca.
+     */
+    private int[][] collect( Node<Value> x, StringBuilder prefix, String query, int k,
+                             int[][] rows, Queue<String> results ) {
+
+        int d = prefix.length();
+        int[] row = rows[d];
+
+        if ( x.val != null && row[query.length()] <= k ) {
+            results.enqueue( prefix.toString() );
+        }
+
+        // uma chave a distância no máximo k tem no máximo m + k caracteres
+        if ( d >= (long) query.length() + k ) {
+            return rows;
+        }
+
+        for ( char c = 0; c < R; c++ ) {
+            if ( x.next[c] != null ) {
+                rows = EditDistanceRows.ensureRow( rows, d + 1, query.length() );
+                if ( EditDistanceRows.nextRow( row, rows[d + 1], d + 1, c, query, k ) <= k ) {
+                    prefix.append( c );
+                    rows = collect( x.next[c], prefix, query, k, rows, results );
+                    prefix.deleteCharAt( prefix.length() - 1 );
+                }
+            }
+        }
+
+        return rows;
+
+    }
+
     /**
      * Retorna o maior prefixo de query que é uma chave presente na trie.
      * Percorre a trie caractere a caractere e, a cada nó visitado que
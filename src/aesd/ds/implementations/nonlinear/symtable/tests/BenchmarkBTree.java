@@ -0,0 +1,76 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.BTree;
+import aesd.utils.MicroBenchmark;
+import aesd.utils.MicroBenchmark.KeyDistribution;
+import aesd.utils.MicroBenchmark.Result;
+
+/**
+ * Benchmark da árvore b: altura e latência de get() em função da ordem M,
+ * para chaves inteiras (armazenadas em arrays de primitivos) e para chaves
+ * String (armazenadas em arrays de referências).
+ *
+ * Parâmetros (formato nome=valor): n (quantidade de chaves, padrão
+ * 1000000), orders (lista de ordens, padrão 4,8,16,32,64,128,256),
+ * warmup (padrão 2) e iterations (padrão 3).
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class BenchmarkBTree {
+
+    private static BTree<Integer, Integer> intTree;
+    private static BTree<String, Integer> stringTree;
+
+    public static void main( String[] args ) {
+
+        int n = 1000000;
+        String[] orders = "4,8,16,32,64,128,256".split( "," );
+        int warmup = 2;
+        int iterations = 3;
+
+        for ( String arg : args ) {
+            String[] kv = arg.split( "=", 2 );
+            switch ( kv[0] ) {
+                case "n": n = Integer.parseInt( kv[1] ); break;
+                case "orders": orders = kv[1].split( "," ); break;
+                case "warmup": warmup = Integer.parseInt( kv[1] ); break;
+                case "iterations": iterations = Integer.parseInt( kv[1] ); break;
+                default: throw new IllegalArgumentException( "unknown parameter: " + kv[0] );
+            }
+        }
+
+        int[] queries = MicroBenchmark.generateKeys( KeyDistribution.UNIFORM, n, n, 42 );
+        Integer[] intKeys = new Integer[n];
+        String[] stringKeys = new String[n];
+        for ( int i = 0; i < n; i++ ) {
+            intKeys[i] = i;
+            stringKeys[i] = String.format( "key%09d", i );
+        }
+
+        System.out.printf( "%-6s %-8s %-6s %s\n", "M", "chaves", "altura", "get" );
+
+        for ( String order : orders ) {
+
+            int m = Integer.parseInt( order );
+
+            intTree = new BTree<>( m );
+            stringTree = new BTree<>( m );
+            for ( int i = 0; i < n; i++ ) {
+                int k = MicroBenchmark.scatter( i, n );
+                intTree.put( intKeys[k], k );
+                stringTree.put( stringKeys[k], k );
+            }
+
+            Result r = MicroBenchmark.measure( "M=" + m + "/int", warmup, iterations, n,
+                    () -> {}, i -> MicroBenchmark.consume( intTree.get( intKeys[queries[i]] ) ) );
+            System.out.printf( "%-6d %-8s %-6d %s\n", m, "int", intTree.getHeight(), r );
+
+            r = MicroBenchmark.measure( "M=" + m + "/string", warmup, iterations, n,
+                    () -> {}, i -> MicroBenchmark.consume( stringTree.get( stringKeys[queries[i]] ) ) );
+            System.out.printf( "%-6d %-8s %-6d %s\n", m, "string", stringTree.getHeight(), r );
+
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.LinearProbingHashTable;
+import aesd.ds.implementations.nonlinear.symtable.SeparateChainingHashTable;
+import aesd.ds.implementations.nonlinear.symtable.SwissHashTable;
+import aesd.ds.interfaces.SymbolTable;
+import aesd.utils.MicroBenchmark;
+import aesd.utils.MicroBenchmark.KeyDistribution;
+import aesd.utils.MicroBenchmark.Result;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark da SwissHashTable comparada com LinearProbingHashTable e
+ * SeparateChainingHashTable: latência de get() em cargas com muitos
+ * acertos e com muitas faltas, para chaves Integer e String.
+ *
+ * Uma carga com taxa de acertos h busca uma chave presente na tabela com
+ * probabilidade h e, senão, uma chave ausente. Nas faltas, a sondagem
+ * linear percorre o cluster inteiro e o encadeamento percorre a lista
+ * inteira, enquanto a Swiss table para no primeiro grupo com uma posição
+ * vazia, quase sempre sem chamar equals().
+ *
+ * Parâmetros (formato nome=valor): impl (padrão lp,sc,swiss), n
+ * (quantidade de chaves, padrão 1000000), hits (taxas de acerto, padrão
+ * 1.0,0.5,0.0), warmup (padrão 2) e iterations (padrão 3).
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class BenchmarkSwissHashTable {
+
+    private static SymbolTable<Object, Integer> st;
+
+    public static void main( String[] args ) {
+
+        String[] impls = { "lp", "sc", "swiss" };
+        int n = 1000000;
+        String[] hits = "1.0,0.5,0.0".split( "," );
+        int warmup = 2;
+        int iterations = 3;
+
+        for ( String arg : args ) {
+            String[] kv = arg.split( "=", 2 );
+            switch ( kv[0] ) {
+                case "impl": impls = kv[1].split( "," ); break;
+                case "n": n = Integer.parseInt( kv[1] ); break;
+                case "hits": hits = kv[1].split( "," ); break;
+                case "warmup": warmup = Integer.parseInt( kv[1] ); break;
+                case "iterations": iterations = Integer.parseInt( kv[1] ); break;
+                default: throw new IllegalArgumentException( "unknown parameter: " + kv[0] );
+            }
+        }
+
+        // as chaves [0, n) são inseridas e as [n, 2n) ficam ausentes
+        Object[] intKeys = new Object[2 * n];
+        Object[] stringKeys = new Object[2 * n];
+        for ( int i = 0; i < 2 * n; i++ ) {
+            intKeys[i] = i;
+            stringKeys[i] = String.format( "key%09d", i );
+        }
+
+        int[] indexes = MicroBenchmark.generateKeys( KeyDistribution.UNIFORM, n, n, 42 );
+
+        for ( String hit : hits ) {
+
+            double rate = Double.parseDouble( hit );
+            Random random = new Random( 42 );
+            int[] queries = new int[n];
+            for ( int i = 0; i < n; i++ ) {
+                queries[i] = random.nextDouble() < rate ? indexes[i] : n + indexes[i];
+            }
+
+            for ( Object[] keys : new Object[][]{ intKeys, stringKeys } ) {
+
+                String type = keys == intKeys ? "int" : "string";
+
+                for ( String impl : impls ) {
+
+                    st = factory( impl ).get();
+                    for ( int i = 0; i < n; i++ ) {
+                        int k = MicroBenchmark.scatter( i, n );
+                        st.put( keys[k], k );
+                    }
+
+                    Result r = MicroBenchmark.measure( impl + "/" + type + "/hits=" + hit, warmup, iterations, n,
+                            () -> {}, i -> MicroBenchmark.consume( st.get( keys[queries[i]] ) ) );
+                    System.out.println( r );
+
+                }
+
+            }
+
+            System.out.println();
+
+        }
+
+    }
+
+    private static Supplier<SymbolTable<Object, Integer>> factory( String impl ) {
+        switch ( impl ) {
+            case "lp": return () -> new LinearProbingHashTable<>();
+            case "sc": return () -> new SeparateChainingHashTable<>();
+            case "swiss": return () -> new SwissHashTable<>();
+            default: throw new IllegalArgumentException( "unknown implementation: " + impl );
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.AVLTree;
+import aesd.ds.implementations.nonlinear.symtable.AdaptiveRadixTree;
+import aesd.ds.implementations.nonlinear.symtable.BTree;
+import aesd.ds.implementations.nonlinear.symtable.BinarySearchSymbolTable;
+import aesd.ds.implementations.nonlinear.symtable.LinearProbingHashTable;
+import aesd.ds.implementations.nonlinear.symtable.RedBlackTree;
+import aesd.ds.implementations.nonlinear.symtable.RobinHoodHashTable;
+import aesd.ds.implementations.nonlinear.symtable.SeparateChainingHashTable;
+import aesd.ds.implementations.nonlinear.symtable.Trie;
+import aesd.ds.interfaces.SymbolTable;
+import aesd.utils.MicroBenchmark;
+import aesd.utils.MicroBenchmark.KeyDistribution;
+import aesd.utils.MicroBenchmark.Result;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark das implementações de tabelas de símbolos, todas usadas através
+ * da interface SymbolTable: para cada implementação, distribuição de chaves
+ * e quantidade de chaves, mede as cargas de trabalho put (inserção em uma
+ * tabela vazia), get (busca em uma tabela com todas as chaves), delete
+ * (remoção a partir de uma tabela com todas as chaves) e iterate (percurso
+ * completo através do iterador).
+ *
+ * Os parâmetros são passados no formato nome=valor, com listas separadas
+ * por vírgula, por exemplo:
+ *
+ *     impl=rbt,lp dist=uniform,zipfian sizes=1000,1000000 ops=get
+ *
+ * Parâmetros aceitos (e seus valores padrão):
+ *     impl       lp,rh,sc,rbt,avl,btree,bsst,trie,art
+ *     dist       uniform,zipfian,sequential
+ *     sizes      1000,10000,100000,1000000
+ *     ops        put,get,delete,iterate
+ *     warmup     2
+ *     iterations 3
+ *
+ * Tamanhos até 10^8 são aceitos, mas exigem um heap grande (-Xmx). Pelo
+ * build do Ant: ant benchmark -Dbenchmark.args="sizes=100000000" e
+ * -Dbenchmark.jvmargs="-Xmx32g". A tabela de busca binária, cuja inserção
+ * custa O(n), só é medida até 10^5 chaves.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class BenchmarkSymbolTables {
+
+    // maior tamanho medido para implementações com inserção linear
+    private static final int QUADRATIC_LIMIT = 100_000;
+
+    private static final long SEED = 42;
+
+    // tabela sendo medida, reconstruída pelo setup de cada iteração
+    private static SymbolTable<Object, Integer> table;
+    private static Iterator<?> iterator;
+
+    public static void main( String[] args ) {
+
+        String[] impls = { "lp", "rh", "sc", "rbt", "avl", "btree", "bsst", "trie", "art" };
+        String[] dists = { "uniform", "zipfian", "sequential" };
+        String[] sizes = { "1000", "10000", "100000", "1000000" };
+        String[] ops = { "put", "get", "delete", "iterate" };
+        int warmup = 2;
+        int iterations = 3;
+
+        for ( String arg : args ) {
+            String[] kv = arg.split( "=", 2 );
+            switch ( kv[0] ) {
+                case "impl": impls = kv[1].split( "," ); break;
+                case "dist": dists = kv[1].split( "," ); break;
+                case "sizes": sizes = kv[1].split( "," ); break;
+                case "ops": ops = kv[1].split( "," ); break;
+                case "warmup": warmup = Integer.parseInt( kv[1] ); break;
+                case "iterations": iterations = Integer.parseInt( kv[1] ); break;
+                default: throw new IllegalArgumentException( "unknown parameter: " + kv[0] );
+            }
+        }
+
+        for ( String size : sizes ) {
+
+            int n = Integer.parseInt( size );
+
+            for ( String dist : dists ) {
+
+                KeyDistribution distribution = KeyDistribution.valueOf( dist.toUpperCase() );
+                int[] keys = MicroBenchmark.generateKeys( distribution, n, n, SEED );
+
+                for ( String impl : impls ) {
+
+                    if ( impl.equals( "bsst" ) && n > QUADRATIC_LIMIT ) {
+                        continue;
+                    }
+
+                    // as chaves são criadas antes das medições, para que a
+                    // criação dos objetos não seja contabilizada
+                    Object[] universe = createKeys( impl, n );
+
+                    for ( String op : ops ) {
+                        String name = String.format( "%s/%s/%s/%d", impl, op, dist, n );
+                        try {
+                            Result r = run( name, impl, op, universe, keys, warmup, iterations );
+                            System.out.println( r );
+                        } catch ( UnsupportedOperationException exc ) {
+                            System.out.printf( "%-40s not supported\n", name );
+                        }
+                    }
+
+                }
+
+            }
+
+        }
+
+    }
+
+    private static Result run( String name, String impl, String op, Object[] universe,
+            int[] keys, int warmup, int iterations ) {
+
+        Supplier<SymbolTable<Object, Integer>> factory = factory( impl );
+        int n = universe.length;
+        table = null;
+
+        switch ( op ) {
+
+            case "put":
+                return MicroBenchmark.measure( name, warmup, iterations, keys.length,
+                        () -> table = factory.get(),
+                        i -> table.put( universe[keys[i]], i ) );
+
+            case "get":
+                return MicroBenchmark.measure( name, warmup, iterations, keys.length,
+                        () -> { if ( table == null || table.getSize() != n ) { table = fill( factory, universe ); } },
+                        i -> MicroBenchmark.consume( table.get( universe[keys[i]] ) ) );
+
+            case "delete":
+                return MicroBenchmark.measure( name, warmup, iterations, keys.length,
+                        () -> table = fill( factory, universe ),
+                        i -> table.delete( universe[keys[i]] ) );
+
+            case "iterate":
+                // a primeira operação cria o iterador, de modo que o custo
+                // de preparação do percurso também seja contabilizado
+                return MicroBenchmark.measure( name, warmup, iterations, n,
+                        () -> { if ( table == null || table.getSize() != n ) { table = fill( factory, universe ); } },
+                        i -> {
+                            if ( i == 0 ) {
+                                iterator = table.iterator();
+                            }
+                            MicroBenchmark.consume( iterator.next() );
+                        } );
+
+            default:
+                throw new IllegalArgumentException( "unknown operation: " + op );
+
+        }
+
+    }
+
+    /*
+     * Preenche uma tabela nova com todas as chaves do universo, em ordem
+     * espalhada, para não degenerar as árvores.
+     */
+    private static SymbolTable<Object, Integer> fill( Supplier<SymbolTable<Object, Integer>> factory, Object[] universe ) {
+        // libera a tabela anterior antes de construir a nova
+        table = null;
+        SymbolTable<Object, Integer> st = factory.get();
+        for ( int i = 0; i < universe.length; i++ ) {
+            st.put( universe[MicroBenchmark.scatter( i, universe.length )], i );
+        }
+        return st;
+    }
+
+    private static Object[] createKeys( String impl, int n ) {
+        Object[] universe = new Object[n];
+        for ( int i = 0; i < n; i++ ) {
+            universe[i] = impl.equals( "trie" ) || impl.equals( "art" ) ? (Object) String.valueOf( i ) : (Object) i;
+        }
+        return universe;
+    }
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private static Supplier<SymbolTable<Object, Integer>> factory( String impl ) {
+        switch ( impl ) {
+            case "lp": return () -> new LinearProbingHashTable<>();
+            case "rh": return () -> new RobinHoodHashTable<>();
+            case "sc": return () -> new SeparateChainingHashTable<>();
+            case "rbt": return () -> (SymbolTable) new RedBlackTree<Integer, Integer>();
+            case "avl": return () -> (SymbolTable) new AVLTree<Integer, Integer>();
+            case "btree": return () -> (SymbolTable) new BTree<Integer, Integer>();
+            case "bsst": return () -> (SymbolTable) new BinarySearchSymbolTable<Integer, Integer>();
+            case "trie": return () -> (SymbolTable) new Trie<Integer>();
+            case "art": return () -> (SymbolTable) new AdaptiveRadixTree<Integer>();
+            default: throw new IllegalArgumentException( "unknown implementation: " + impl );
+        }
+    }
+
+}
@@ -0,0 +1,311 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.AdaptiveRadixTree;
+import aesd.ds.implementations.nonlinear.symtable.TernarySearchTrie;
+import aesd.ds.implementations.nonlinear.symtable.Trie;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Teste de uso de uma árvore radix adaptativa (AdaptiveRadixTree).
+ *
+ * Além do uso básico, executa sequências aleatórias de inserções e remoções
+ * e compara get, getKeys, getKeysWithPrefix, getKeysThatMatch e
+ * getLongestPrefixOf com java.util.TreeMap, tanto com um alfabeto pequeno
+ * quanto com alfabetos de até 256 símbolos, que fazem os nós crescerem até
+ * Node48 e Node256 e, com as remoções, encolherem de volta, e compara o uso de memória e o
+ * tempo das buscas com os da Trie e da TernarySearchTrie em chaves
+ * parecidas com URLs.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestAdaptiveRadixTree {
+
+    public static void main( String[] args ) {
+
+        AdaptiveRadixTree<Integer> st = new AdaptiveRadixTree<>();
+        st.put( "she", 0 );
+        st.put( "sells", 1 );
+        st.put( "sea", 2 );
+        st.put( "shells", 3 );
+        st.put( "by", 4 );
+        st.put( "the", 5 );
+        st.put( "sea", 6 );
+        st.put( "shore", 7 );
+
+        for ( SymbolTable.Entry<String, Integer> e : st ) {
+            System.out.println( e.getKey() + " " + e.getValue() );
+        }
+        System.out.println();
+
+        System.out.println( "longestPrefixOf(\"shellsort\"): " + st.getLongestPrefixOf( "shellsort" ) );
+        System.out.println( "longestPrefixOf(\"quicksort\"): " + st.getLongestPrefixOf( "quicksort" ) );
+        System.out.println( "keysWithPrefix(\"sh\"): " + st.getKeysWithPrefix( "sh" ) );
+        System.out.println( "keysThatMatch(\".he.l.\"): " + st.getKeysThatMatch( ".he.l." ) );
+        System.out.println();
+
+        // comparação com TreeMap: alfabeto pequeno e chaves longas, depois
+        // alfabetos de 49 a 256 símbolos e chaves curtas, com muitos filhos
+        // por nó
+        char[] small = { 'a', 'b', 'c', 'd', '/', (char) 0, (char) 200, (char) 255 };
+        char[] large = new char[256];
+        for ( int c = 0; c < large.length; c++ ) {
+            large[c] = (char) c;
+        }
+        int[] peak = new int[4];
+        System.out.println( "AdaptiveRadixTree, alfabeto pequeno: "
+                + ( check( small, 2, 12, 50, 3000, peak ) ? "correta" : "incorreta!" ) );
+        peak = new int[4];
+        boolean ok = check( large, 49, 3, 10, 20000, peak );
+        System.out.printf( "AdaptiveRadixTree, alfabeto grande: %s (pico de %d Node48 e %d Node256)\n\n",
+                ok ? "correta" : "incorreta!", peak[2], peak[3] );
+
+        // memória e tempo de busca
+        // a Trie fica por último: a memória que ela ocupa nem sempre é
+        // devolvida a tempo da medição seguinte
+        String[] keys = urls( 50000, new Random( 42 ) );
+        compare( "TernarySearchTrie", () -> new TernarySearchTrie<>(), keys );
+        compare( "AdaptiveRadixTree", () -> new AdaptiveRadixTree<>(), keys );
+        compare( "Trie", () -> new Trie<>(), keys );
+        System.out.println();
+
+        keys = urls( 1000000, new Random( 42 ) );
+        compare( "TernarySearchTrie", () -> new TernarySearchTrie<>(), keys );
+        compare( "AdaptiveRadixTree", () -> new AdaptiveRadixTree<>(), keys );
+
+        AdaptiveRadixTree<Integer> art = new AdaptiveRadixTree<>();
+        for ( int i = 0; i < keys.length; i++ ) {
+            art.put( keys[i], i );
+        }
+        int[] counts = art.getNodeCounts();
+        System.out.printf( "nós: %d Node4, %d Node16, %d Node48, %d Node256\n",
+                counts[0], counts[1], counts[2], counts[3] );
+
+    }
+
+    /*
+     * Compara a árvore com TreeMap em rounds sequências de ops operações,
+     * usando os primeiros minLetters a alphabet.length símbolos do alfabeto
+     * e chaves de até maxLength caracteres. Na segunda metade de cada
+     * sequência as remoções passam a ser maioria, para que os nós encolham,
+     * e ao final todas as chaves são removidas. peak recebe a maior
+     * quantidade de nós de cada tipo observada.
+     */
+    private static boolean check( char[] alphabet, int minLetters, int maxLength,
+                                  int rounds, int ops, int[] peak ) {
+
+        Random random = new Random( 42 );
+
+        for ( int round = 0; round < rounds; round++ ) {
+
+            AdaptiveRadixTree<Integer> st = new AdaptiveRadixTree<>();
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            int letters = minLetters + random.nextInt( alphabet.length - minLetters + 1 );
+            int length = 1 + random.nextInt( maxLength );
+
+            for ( int op = 0; op < ops; op++ ) {
+
+                String key = randomKey( random, alphabet, letters, length );
+
+                if ( random.nextInt( 3 ) < ( op < ops / 2 ? 1 : 2 ) ) {
+                    st.delete( key );
+                    expected.remove( key );
+                } else {
+                    st.put( key, op );
+                    expected.put( key, op );
+                }
+
+                String probe = randomKey( random, alphabet, letters, length );
+                Integer value = st.get( probe );
+
+                if ( st.getSize() != expected.size()
+                        || ( value == null ? expected.get( probe ) != null : !value.equals( expected.get( probe ) ) )
+                        || !same( st.getLongestPrefixOf( probe ), longestPrefixOf( expected, probe ) ) ) {
+                    return false;
+                }
+
+                if ( op % 50 == 0 ) {
+
+                    String prefix = probe.substring( 0, random.nextInt( probe.length() + 1 ) );
+                    List<String> withPrefix = new ArrayList<>();
+                    List<String> matching = new ArrayList<>();
+                    String pattern = pattern( random, probe );
+
+                    for ( String k : expected.keySet() ) {
+                        if ( k.startsWith( prefix ) ) {
+                            withPrefix.add( k );
+                        }
+                        if ( matches( k, pattern ) ) {
+                            matching.add( k );
+                        }
+                    }
+
+                    if ( !same( st.getKeys(), new ArrayList<>( expected.keySet() ) )
+                            || !same( st.getKeysWithPrefix( prefix ), withPrefix )
+                            || !same( st.getKeysThatMatch( pattern ), matching )
+                            || !sameEntries( st, expected ) ) {
+                        return false;
+                    }
+
+                    int[] counts = st.getNodeCounts();
+                    for ( int i = 0; i < peak.length; i++ ) {
+                        peak[i] = Math.max( peak[i], counts[i] );
+                    }
+
+                }
+
+            }
+
+            for ( String key : new ArrayList<>( expected.keySet() ) ) {
+                st.delete( key );
+                if ( st.get( key ) != null ) {
+                    return false;
+                }
+            }
+
+            if ( !st.isEmpty() || st.getKeys().iterator().hasNext() ) {
+                return false;
+            }
+
+        }
+
+        return true;
+
+    }
+
+    private static String randomKey( Random random, char[] alphabet, int letters, int maxLength ) {
+        int length = random.nextInt( maxLength + 1 );
+        char[] key = new char[length];
+        for ( int i = 0; i < length; i++ ) {
+            key[i] = alphabet[random.nextInt( letters )];
+        }
+        return new String( key );
+    }
+
+    private static String pattern( Random random, String key ) {
+        char[] pattern = key.toCharArray();
+        for ( int i = 0; i < pattern.length; i++ ) {
+            if ( random.nextInt( 3 ) == 0 ) {
+                pattern[i] = '.';
+            }
+        }
+        return new String( pattern );
+    }
+
+    private static boolean matches( String key, String pattern ) {
+        if ( key.length() != pattern.length() ) {
+            return false;
+        }
+        for ( int i = 0; i < key.length(); i++ ) {
+            if ( pattern.charAt( i ) != '.' && pattern.charAt( i ) != key.charAt( i ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String longestPrefixOf( TreeMap<String, Integer> map, String query ) {
+        for ( int length = query.length(); length >= 0; length-- ) {
+            if ( map.containsKey( query.substring( 0, length ) ) ) {
+                return query.substring( 0, length );
+            }
+        }
+        return null;
+    }
+
+    private static boolean same( String a, String b ) {
+        return a == null ? b == null : a.equals( b );
+    }
+
+    private static boolean same( Iterable<String> actual, List<String> expected ) {
+        Iterator<String> it = actual.iterator();
+        for ( String k : expected ) {
+            if ( !it.hasNext() || !it.next().equals( k ) ) {
+                return false;
+            }
+        }
+        return !it.hasNext();
+    }
+
+    private static boolean sameEntries( AdaptiveRadixTree<Integer> st, TreeMap<String, Integer> expected ) {
+        Iterator<SymbolTable.Entry<String, Integer>> it = st.iterator();
+        for ( Map.Entry<String, Integer> e : expected.entrySet() ) {
+            if ( !it.hasNext() ) {
+                return false;
+            }
+            SymbolTable.Entry<String, Integer> actual = it.next();
+            if ( !actual.getKey().equals( e.getKey() ) || !actual.getValue().equals( e.getValue() ) ) {
+                return false;
+            }
+        }
+        return !it.hasNext();
+    }
+
+    /*
+     * Chaves parecidas com URLs: poucos domínios, caminhos com prefixos em
+     * comum e um identificador numérico no final.
+     */
+    private static String[] urls( int n, Random random ) {
+
+        String[] hosts = { "www.example.com", "docs.example.com", "api.example.org", "blog.sample.net", "shop.sample.net" };
+        String[] sections = { "users", "products", "articles", "images", "search", "static/css", "static/js" };
+        String[] keys = new String[n];
+
+        for ( int i = 0; i < n; i++ ) {
+            keys[i] = "https://" + hosts[random.nextInt( hosts.length )]
+                    + "/" + sections[random.nextInt( sections.length )]
+                    + "/" + random.nextInt( 100000 )
+                    + "/" + Integer.toString( i, 36 );
+        }
+
+        return keys;
+
+    }
+
+    /*
+     * Memória usada pela estrutura (as chaves já existem antes da inserção e
+     * não são contadas) e tempo de busca de todas as chaves.
+     */
+    private static void compare( String name, Supplier<SymbolTable<String, Integer>> factory, String[] keys ) {
+
+        long before = usedMemory();
+        SymbolTable<String, Integer> st = factory.get();
+        Integer value = 1;
+        for ( String key : keys ) {
+            st.put( key, value );
+        }
+        long bytes = usedMemory() - before;
+
+        long best = Long.MAX_VALUE;
+        long found = 0;
+
+        for ( int round = 0; round < 5; round++ ) {
+            long start = System.nanoTime();
+            for ( String key : keys ) {
+                if ( st.get( key ) != null ) {
+                    found++;
+                }
+            }
+            best = Math.min( best, System.nanoTime() - start );
+        }
+
+        System.out.printf( "%-18s %8d chaves: %8.1f bytes/chave, busca %6.1f ns/chave (%d)\n",
+                name, keys.length, (double) bytes / keys.length, (double) best / keys.length, found );
+
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 3; i++ ) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
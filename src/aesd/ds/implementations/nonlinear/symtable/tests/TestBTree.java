@@ -1,6 +1,7 @@
 package aesd.ds.implementations.nonlinear.symtable.tests;
 
 import aesd.ds.implementations.nonlinear.symtable.BTree;
+import aesd.ds.interfaces.SymbolTable.Entry;
 
 /**
  * Teste de uso da árvore B (BTree).
@@ -44,6 +45,36 @@ public class TestBTree {
         System.out.println( "height:  " + st.getHeight() );
         System.out.println( st );
         
+        System.out.println( "----- Remoção -----" );
+        st.delete( "www.ebay.com" );
+        st.delete( "www.cnn.com" );
+        st.delete( "www.apple.com" );
+        st.delete( "www.yale.edu" );
+        System.out.println( "size:    " + st.getSize() );
+        System.out.println( "height:  " + st.getHeight() );
+        System.out.println( st );
+        
+        System.out.println( "Dados da árvore através do iterador:" );
+        for ( Entry<String, String> e : st ) {
+            System.out.println( e );
+        }
+        
+        System.out.println();
+        
+        // ordem maior e chaves inteiras, armazenadas em arrays de primitivos
+        BTree<Integer, String> bt = new BTree<>( 16 );
+        for ( int i = 0; i < 1000; i++ ) {
+            bt.put( i, "v" + i );
+        }
+        for ( int i = 0; i < 1000; i += 2 ) {
+            bt.delete( i );
+        }
+        System.out.println( "ordem:   " + bt.getOrder() );
+        System.out.println( "size:    " + bt.getSize() );
+        System.out.println( "height:  " + bt.getHeight() );
+        System.out.println( "get(7):  " + bt.get( 7 ) );
+        System.out.println( "get(8):  " + bt.get( 8 ) );
+        
         System.out.println();
         
     }
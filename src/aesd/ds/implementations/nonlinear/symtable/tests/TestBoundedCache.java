@@ -0,0 +1,314 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.BoundedCache;
+import aesd.ds.implementations.nonlinear.symtable.BoundedCache.EvictionPolicy;
+import aesd.ds.interfaces.SymbolTable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Teste de uso de uma cache limitada (BoundedCache).
+ *
+ * Além do uso básico, compara a política LRU com java.util.LinkedHashMap
+ * em ordem de acesso, verifica os invariantes da W-TinyLFU (peso máximo,
+ * valores e contadores) em sequências aleatórias de operações, inclusive
+ * com pesos que mudam quando o valor de uma chave é substituído, compara as
+ * taxas de acerto das duas políticas em uma carga com distribuição de Zipf
+ * intercalada com varreduras e mede o tempo e a alocação de memória das
+ * buscas.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestBoundedCache {
+
+    public static void main( String[] args ) {
+
+        BoundedCache<String, Integer> cache = new BoundedCache<>( 3, EvictionPolicy.LRU );
+        cache.put( "a", 1 );
+        cache.put( "b", 2 );
+        cache.put( "c", 3 );
+        cache.get( "a" );
+        cache.put( "d", 4 );
+
+        System.out.print( cache );
+        System.out.println( "contains(\"b\"): " + cache.contains( "b" ) );
+        System.out.println( "getOrCompute(\"e\"): " + cache.getOrCompute( "e", k -> 5 ) );
+        System.out.println( "getOrCompute(\"a\"): " + cache.getOrCompute( "a", k -> -1 ) );
+        System.out.printf( "acertos: %d, faltas: %d, descartes: %d\n",
+                cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount() );
+        System.out.println();
+
+        System.out.println( "LRU: " + ( checkLru() ? "correta" : "incorreta!" ) );
+        System.out.println( "W-TinyLFU: " + ( checkTinyLfu( ( k, v ) -> 1 ) ? "correta" : "incorreta!" ) );
+        System.out.println( "W-TinyLFU com pesos: " + ( checkTinyLfu( ( k, v ) -> k % 7 ) ? "correta" : "incorreta!" ) );
+        System.out.println( "W-TinyLFU com pesos que mudam com o valor: "
+                + ( checkTinyLfu( ( k, v ) -> Math.abs( v ) % 37 ) ? "correta" : "incorreta!" ) );
+
+        // a substituição do valor torna a entrada protegida "A" mais pesada
+        // que a região protegida inteira
+        BoundedCache<String, String> strings = new BoundedCache<>( 100, EvictionPolicy.W_TINY_LFU,
+                ( k, v ) -> v.length() );
+        strings.put( "A", "x" );
+        strings.put( "B", "y" );
+        strings.get( "A" );
+        strings.put( "A", "x".repeat( 90 ) );
+        System.out.println( "peso após crescer uma entrada protegida: " + strings.getWeight()
+                + " (" + strings.getSize() + " entradas)" );
+        System.out.println();
+
+        Integer[] keys = new Integer[1000000];
+        for ( int i = 0; i < keys.length; i++ ) {
+            keys[i] = i;
+        }
+
+        int[] trace = trace( keys.length, 2000000, new Random( 42 ) );
+        for ( EvictionPolicy policy : EvictionPolicy.values() ) {
+            for ( int size : new int[]{ 1000, 10000 } ) {
+                hitRate( policy, size, keys, trace );
+            }
+        }
+        System.out.println();
+
+        for ( EvictionPolicy policy : EvictionPolicy.values() ) {
+            time( policy, keys );
+        }
+
+    }
+
+    private static boolean checkLru() {
+
+        Random random = new Random( 42 );
+
+        for ( int round = 0; round < 50; round++ ) {
+
+            int maximum = 1 + random.nextInt( 50 );
+            int range = 1 + random.nextInt( 4 * maximum );
+            BoundedCache<Integer, Integer> cache = new BoundedCache<>( maximum, EvictionPolicy.LRU );
+            LinkedHashMap<Integer, Integer> expected = new LinkedHashMap<>( 16, 0.75f, true ) {
+                @Override
+                protected boolean removeEldestEntry( Map.Entry<Integer, Integer> eldest ) {
+                    return size() > maximum;
+                }
+            };
+
+            for ( int op = 0; op < 5000; op++ ) {
+
+                int key = random.nextInt( range );
+
+                switch ( random.nextInt( 4 ) ) {
+                    case 0:
+                        cache.put( key, op );
+                        expected.put( key, op );
+                        break;
+                    case 1:
+                        cache.delete( key );
+                        expected.remove( key );
+                        break;
+                    default:
+                        Integer value = cache.get( key );
+                        Integer expectedValue = expected.get( key );
+                        if ( value == null ? expectedValue != null : !value.equals( expectedValue ) ) {
+                            return false;
+                        }
+                        break;
+                }
+
+                if ( cache.getSize() != expected.size() || cache.getWeight() != expected.size() ) {
+                    return false;
+                }
+
+            }
+
+            // getKeys() vai da mais recente para a mais antiga
+            List<Integer> order = new ArrayList<>( expected.keySet() );
+            int i = order.size() - 1;
+            for ( Integer key : cache.getKeys() ) {
+                if ( !key.equals( order.get( i-- ) ) ) {
+                    return false;
+                }
+            }
+
+        }
+
+        return true;
+
+    }
+
+    private static boolean checkTinyLfu( ToIntBiFunction<Integer, Integer> weigher ) {
+
+        Random random = new Random( 42 );
+
+        for ( int round = 0; round < 50; round++ ) {
+
+            int maximum = 1 + random.nextInt( 200 );
+            int range = 1 + random.nextInt( 4 * maximum );
+            BoundedCache<Integer, Integer> cache = new BoundedCache<>( maximum, EvictionPolicy.W_TINY_LFU, weigher );
+            Map<Integer, Integer> last = new HashMap<>();
+            long[] misses = { 0 };
+            long requests = 0;
+
+            for ( int op = 0; op < 5000; op++ ) {
+
+                // chaves baixas são mais populares
+                int key = Math.min( random.nextInt( range ), random.nextInt( range ) );
+
+                switch ( random.nextInt( 4 ) ) {
+                    case 0:
+                        cache.put( key, op );
+                        last.put( key, op );
+                        break;
+                    case 1:
+                        cache.delete( key );
+                        last.remove( key );
+                        break;
+                    default:
+                        // o valor calculado só é chamado nas faltas
+                        long computed = misses[0];
+                        Integer value = cache.getOrCompute( key, k -> {
+                            misses[0]++;
+                            return -k - 1;
+                        } );
+                        if ( misses[0] > computed ) {
+                            last.put( key, value );
+                        } else if ( !value.equals( last.get( key ) ) ) {
+                            return false;
+                        }
+                        requests++;
+                        break;
+                }
+
+                long weight = 0;
+                int size = 0;
+                for ( SymbolTable.Entry<Integer, Integer> e : cache ) {
+                    if ( !e.getValue().equals( last.get( e.getKey() ) ) ) {
+                        return false;
+                    }
+                    weight += weigher.applyAsInt( e.getKey(), e.getValue() );
+                    size++;
+                }
+
+                if ( size != cache.getSize() || weight != cache.getWeight() || weight > maximum ) {
+                    return false;
+                }
+
+            }
+
+            if ( cache.getMissCount() != misses[0] || cache.getHitCount() != requests - misses[0] ) {
+                return false;
+            }
+
+        }
+
+        return true;
+
+    }
+
+    /*
+     * Sequência de acessos com distribuição de Zipf (expoente 0,9) sobre n
+     * chaves, em que um a cada quatro trechos de 10000 acessos é trocado por
+     * uma varredura de chaves que não se repetem.
+     */
+    private static int[] trace( int n, int length, Random random ) {
+
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for ( int i = 0; i < n; i++ ) {
+            sum += 1.0 / Math.pow( i + 1, 0.9 );
+            cumulative[i] = sum;
+        }
+
+        // embaralha as chaves para que as populares não sejam as menores
+        int[] permutation = new int[n];
+        for ( int i = 0; i < n; i++ ) {
+            int j = random.nextInt( i + 1 );
+            permutation[i] = permutation[j];
+            permutation[j] = i;
+        }
+
+        int[] trace = new int[length];
+        int scan = 0;
+
+        for ( int i = 0; i < length; i++ ) {
+            if ( ( i / 10000 ) % 4 == 3 ) {
+                trace[i] = scan;
+                scan = ( scan + 1 ) % n;
+            } else {
+                double u = random.nextDouble() * sum;
+                int lo = 0;
+                int hi = n - 1;
+                while ( lo < hi ) {
+                    int mid = ( lo + hi ) >>> 1;
+                    if ( cumulative[mid] < u ) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                trace[i] = permutation[lo];
+            }
+        }
+
+        return trace;
+
+    }
+
+    private static void hitRate( EvictionPolicy policy, int size, Integer[] keys, int[] trace ) {
+
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>( size, policy );
+
+        for ( int i : trace ) {
+            cache.getOrCompute( keys[i], k -> k );
+        }
+
+        System.out.printf( "%-10s %6d entradas: taxa de acertos %5.1f%% (%d descartes)\n",
+                policy, size, 100 * cache.getHitRate(), cache.getEvictionCount() );
+
+    }
+
+    /*
+     * Tempo médio de get (metade acertos, metade faltas) e de put, e bytes
+     * alocados por get, medidos pela JVM para a thread atual.
+     */
+    private static void time( EvictionPolicy policy, Integer[] keys ) {
+
+        int size = keys.length / 2;
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>( size, policy );
+
+        long start = System.nanoTime();
+        for ( Integer key : keys ) {
+            cache.put( key, key );
+        }
+        double putTime = (double) ( System.nanoTime() - start ) / keys.length;
+
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        long found = 0;
+
+        for ( int round = 0; round < 5; round++ ) {
+            long bytes = allocatedBytes();
+            start = System.nanoTime();
+            for ( Integer key : keys ) {
+                if ( cache.get( key ) != null ) {
+                    found++;
+                }
+            }
+            best = Math.min( best, System.nanoTime() - start );
+            allocated = allocatedBytes() - bytes;
+        }
+
+        System.out.printf( "%-10s put %6.1f ns, get %6.1f ns, %.3f bytes alocados por get (%d)\n",
+                policy, putTime, (double) best / keys.length, (double) allocated / keys.length, found );
+
+    }
+
+    private static long allocatedBytes() {
+        return ( (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() ).getCurrentThreadAllocatedBytes();
+    }
+
+}
@@ -0,0 +1,130 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.ConcurrentHashSymbolTable;
+import aesd.ds.implementations.nonlinear.symtable.SeparateChainingHashTable;
+import aesd.ds.interfaces.SymbolTable;
+import aesd.ds.interfaces.SymbolTable.Entry;
+import aesd.utils.MicroBenchmark;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de uso da tabela de dispersão concorrente.
+ *
+ * Além do uso básico, executa uma carga mista de 90% de buscas e 10% de
+ * inserções com 1 a 32 threads, comparando a vazão com a de uma
+ * SeparateChainingHashTable protegida por uma trava global.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestConcurrentHashSymbolTable {
+
+    private static final int KEYS = 100000;
+    private static final int OPS_PER_THREAD = 1000000;
+
+    public static void main( String[] args ) throws InterruptedException {
+
+        ConcurrentHashSymbolTable<Integer, String> cht = new ConcurrentHashSymbolTable<>();
+
+        cht.put( 6, "João" );
+        cht.put( 8, "Maria" );
+        cht.put( 7, "David" );
+        cht.put( 4, "Fernanda" );
+        cht.put( 5, "Aurora" );
+        cht.put( 9, "Marcelo" );
+        cht.put( 3, "Ronaldinho" );
+        cht.put( 9, "Matilda" );
+        cht.put( 3, null );
+        System.out.println( cht );
+
+        System.out.println( "Dados da tabela de dispersão através do iterador:" );
+        for ( Entry<Integer, String> e : cht ) {
+            System.out.print( e.getKey() );
+            System.out.print( " " );
+        }
+        System.out.println( "\n" );
+
+        // escritas concorrentes em faixas disjuntas de chaves
+        System.out.println( "----- Escritas concorrentes -----" );
+        ConcurrentHashSymbolTable<Integer, Integer> st = new ConcurrentHashSymbolTable<>();
+        Thread[] threads = new Thread[8];
+        for ( int t = 0; t < threads.length; t++ ) {
+            int base = t * KEYS;
+            threads[t] = new Thread( () -> {
+                for ( int i = 0; i < KEYS; i++ ) {
+                    st.put( base + i, i );
+                }
+                for ( int i = 0; i < KEYS; i += 2 ) {
+                    st.delete( base + i );
+                }
+            } );
+            threads[t].start();
+        }
+        for ( Thread t : threads ) {
+            t.join();
+        }
+        System.out.printf( "tamanho esperado: %d, obtido: %d\n\n", threads.length * KEYS / 2, st.getSize() );
+
+        // vazão com carga 90/10
+        System.out.println( "----- Vazão (90% get / 10% put) -----" );
+        SeparateChainingHashTable<Integer, Integer> sc = new SeparateChainingHashTable<>();
+        Object lock = new Object();
+        SymbolTable<Integer, Integer> locked = new SymbolTable<>() {
+            @Override public void put( Integer key, Integer value ) { synchronized ( lock ) { sc.put( key, value ); } }
+            @Override public Integer get( Integer key ) { synchronized ( lock ) { return sc.get( key ); } }
+            @Override public void delete( Integer key ) { synchronized ( lock ) { sc.delete( key ); } }
+            @Override public boolean contains( Integer key ) { synchronized ( lock ) { return sc.contains( key ); } }
+            @Override public void clear() { synchronized ( lock ) { sc.clear(); } }
+            @Override public boolean isEmpty() { synchronized ( lock ) { return sc.isEmpty(); } }
+            @Override public int getSize() { synchronized ( lock ) { return sc.getSize(); } }
+            @Override public Iterable<Integer> getKeys() { synchronized ( lock ) { return sc.getKeys(); } }
+            @Override public java.util.Iterator<Entry<Integer, Integer>> iterator() { synchronized ( lock ) { return sc.iterator(); } }
+        };
+        ConcurrentHashSymbolTable<Integer, Integer> concurrent = new ConcurrentHashSymbolTable<>();
+        for ( int i = 0; i < KEYS; i++ ) {
+            locked.put( i, i );
+            concurrent.put( i, i );
+        }
+
+        System.out.printf( "%8s %20s %20s\n", "threads", "trava global", "concorrente" );
+        for ( int n = 1; n <= 32; n *= 2 ) {
+            System.out.printf( "%8d %14.0f ops/s %14.0f ops/s\n", n,
+                    throughput( locked, n ), throughput( concurrent, n ) );
+        }
+
+    }
+
+    private static double throughput( SymbolTable<Integer, Integer> st, int threadCount )
+            throws InterruptedException {
+
+        Thread[] threads = new Thread[threadCount];
+
+        for ( int t = 0; t < threadCount; t++ ) {
+            threads[t] = new Thread( () -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                long sum = 0;
+                for ( int i = 0; i < OPS_PER_THREAD; i++ ) {
+                    int key = r.nextInt( KEYS );
+                    if ( r.nextInt( 10 ) == 0 ) {
+                        st.put( key, i );
+                    } else {
+                        Integer v = st.get( key );
+                        sum += v == null ? 0 : v;
+                    }
+                }
+                MicroBenchmark.consume( (int) sum );
+            } );
+        }
+
+        long start = System.nanoTime();
+        for ( Thread t : threads ) {
+            t.start();
+        }
+        for ( Thread t : threads ) {
+            t.join();
+        }
+
+        return (double) threadCount * OPS_PER_THREAD * 1e9 / ( System.nanoTime() - start );
+
+    }
+
+}
@@ -0,0 +1,196 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.linear.ResizingArrayList;
+import aesd.ds.implementations.nonlinear.symtable.DiskBPlusTree;
+import aesd.ds.interfaces.Codec;
+import aesd.ds.interfaces.List;
+import aesd.ds.interfaces.SymbolTable.Entry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Teste de uso da árvore B+ persistente (DiskBPlusTree).
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestDiskBPlusTree {
+
+    public static void main( String[] args ) throws IOException {
+
+        Path file = Files.createTempFile( "bplustree", ".dat" );
+        Files.delete( file );
+
+        // ordem pequena e poucas páginas em memória, para exercitar as
+        // divisões de nós e a substituição de páginas do buffer pool
+        try ( DiskBPlusTree<String, String> st = new DiskBPlusTree<>(
+                file, Codec.string( 32 ), Codec.string( 16 ), 512, 4, 8 ) ) {
+
+            st.put( "www.cs.princeton.edu", "128.112.136.12" );
+            st.put( "www.cs.princeton.edu", "128.112.136.11" );
+            st.put( "www.princeton.edu",    "128.112.128.15" );
+            st.put( "www.yale.edu",         "130.132.143.21" );
+            st.put( "www.simpsons.com",     "209.052.165.60" );
+            st.put( "www.apple.com",        "17.112.152.32" );
+            st.put( "www.amazon.com",       "207.171.182.16" );
+            st.put( "www.ebay.com",         "66.135.192.87" );
+            st.put( "www.cnn.com",          "64.236.16.20" );
+            st.put( "www.google.com",       "216.239.41.99" );
+            st.put( "www.nytimes.com",      "199.239.136.200" );
+            st.put( "www.microsoft.com",    "207.126.99.140" );
+            st.put( "www.dell.com",         "143.166.224.230" );
+            st.put( "www.slashdot.org",     "66.35.250.151" );
+            st.put( "www.espn.com",         "199.181.135.201" );
+            st.put( "www.weather.com",      "63.111.66.11" );
+            st.put( "www.yahoo.com",        "216.109.118.65" );
+
+            System.out.println( "cs.princeton.edu:  " + st.get( "www.cs.princeton.edu" ) );
+            System.out.println( "hardvardsucks.com: " + st.get( "www.harvardsucks.com" ) );
+            System.out.println( "simpsons.com:      " + st.get( "www.simpsons.com" ) );
+            System.out.println( "apple.com:         " + st.get( "www.apple.com" ) );
+            System.out.println( "ebay.com:          " + st.get( "www.ebay.com" ) );
+            System.out.println( "dell.com:          " + st.get( "www.dell.com" ) );
+            System.out.println();
+
+            System.out.println( "size:    " + st.getSize() );
+            System.out.println( "height:  " + st.getHeight() );
+            System.out.println( st );
+
+            System.out.println( "Intervalo [www.d, www.n]:" );
+            for ( Entry<String, String> e : st.range( "www.d", "www.n" ) ) {
+                System.out.println( e );
+            }
+            System.out.println();
+
+            st.delete( "www.ebay.com" );
+            st.delete( "www.yahoo.com" );
+            System.out.println( "após remover ebay e yahoo, size: " + st.getSize() );
+
+        }
+
+        // reabre o arquivo
+        try ( DiskBPlusTree<String, String> st = new DiskBPlusTree<>(
+                file, Codec.string( 32 ), Codec.string( 16 ), 512, 4, 8 ) ) {
+            System.out.println( "reaberta, size: " + st.getSize() );
+            System.out.println( "apple.com:         " + st.get( "www.apple.com" ) );
+            System.out.println( "ebay.com:          " + st.get( "www.ebay.com" ) );
+            System.out.println();
+        }
+
+        Files.delete( file );
+
+        // carga em massa
+        System.out.println( "----- Carga em massa -----" );
+        int n = 1000000;
+        List<Entry<Integer, Long>> entries = new ResizingArrayList<>();
+        for ( int i = 0; i < n; i++ ) {
+            entries.add( new Entry<>( 2 * i, (long) i * i ) );
+        }
+
+        try ( DiskBPlusTree<Integer, Long> st = new DiskBPlusTree<>( file, Codec.INTEGER, Codec.LONG ) ) {
+
+            long start = System.nanoTime();
+            st.bulkLoad( entries );
+            st.flush();
+            System.out.printf( "%d pares carregados em %.1f ms (ordem %d, altura %d)\n",
+                    st.getSize(), ( System.nanoTime() - start ) / 1e6, st.getOrder(), st.getHeight() );
+
+            boolean ok = true;
+            for ( int i = 0; i < n && ok; i += 997 ) {
+                ok = st.get( 2 * i ) == (long) i * i && st.get( 2 * i + 1 ) == null;
+            }
+
+            // inserções depois da carga em massa
+            for ( int i = 0; i < 1000; i++ ) {
+                st.put( 2 * i + 1, -1L );
+            }
+
+            int count = 0;
+            Integer last = null;
+            for ( Entry<Integer, Long> e : st ) {
+                ok = ok && ( last == null || last < e.getKey() );
+                last = e.getKey();
+                count++;
+            }
+            ok = ok && count == n + 1000 && count == st.getSize();
+
+            System.out.println( ok ? "consultas e percurso corretos" : "resultados incorretos!" );
+
+        }
+
+        Files.delete( file );
+
+        // carga em massa em uma árvore esvaziada por remoções
+        try ( DiskBPlusTree<Integer, Long> st = new DiskBPlusTree<>(
+                file, Codec.INTEGER, Codec.LONG, 512, 4, 8 ) ) {
+
+            for ( int i = 0; i < 100; i++ ) {
+                st.put( i, (long) i );
+            }
+            for ( int i = 0; i < 100; i++ ) {
+                st.delete( i );
+            }
+
+            List<Entry<Integer, Long>> few = new ResizingArrayList<>();
+            for ( int i = 0; i < 10; i++ ) {
+                few.add( new Entry<>( i, (long) i ) );
+            }
+            st.bulkLoad( few );
+
+            boolean ok = st.getSize() == 10 && st.getHeight() == 1;
+            for ( int i = 0; i < 10 && ok; i++ ) {
+                ok = st.get( i ) == (long) i;
+            }
+            System.out.println( "carga após remover todos os pares: altura " + st.getHeight()
+                    + ( ok ? ", consultas corretas" : ", resultados incorretos!" ) );
+
+        }
+
+        Files.delete( file );
+
+        // cargas em massa que falham no meio (chave fora de ordem e par
+        // nulo) depois de gravar várias folhas: a árvore precisa ficar vazia
+        // e continuar utilizável
+        try ( DiskBPlusTree<Integer, Long> st = new DiskBPlusTree<>(
+                file, Codec.INTEGER, Codec.LONG, 512, 4, 8 ) ) {
+
+            boolean ok = true;
+
+            for ( int fail = 0; fail < 2; fail++ ) {
+
+                List<Entry<Integer, Long>> bad = new ResizingArrayList<>();
+                for ( int i = 0; i < 100; i++ ) {
+                    bad.add( new Entry<>( i, (long) i ) );
+                }
+                bad.add( fail == 0 ? new Entry<>( 50, 50L ) : null );
+
+                try {
+                    st.bulkLoad( bad );
+                    ok = false;
+                } catch ( IllegalArgumentException exc ) {
+                    ok = ok && st.isEmpty() && st.getSize() == 0 && st.get( 10 ) == null
+                            && !st.iterator().hasNext();
+                }
+
+            }
+
+            List<Entry<Integer, Long>> good = new ResizingArrayList<>();
+            for ( int i = 0; i < 100; i++ ) {
+                good.add( new Entry<>( i, (long) -i ) );
+            }
+            st.bulkLoad( good );
+            for ( int i = 0; i < 100 && ok; i++ ) {
+                ok = st.get( i ) == (long) -i;
+            }
+            ok = ok && st.getSize() == 100;
+
+            System.out.println( "cargas inválidas deixam a árvore vazia? "
+                    + ( ok ? "sim" : "não!" ) );
+
+        }
+
+        Files.delete( file );
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.IntLinearProbingHashTable;
+import aesd.ds.implementations.nonlinear.symtable.LinearProbingHashTable;
+import aesd.ds.interfaces.SymbolTable.Entry;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Teste de uso da tabela de dispersão com sondagem linear para chaves int.
+ * 
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestIntLinearProbingHashTable {
+    
+    public static void main( String[] args ) {
+        
+        IntLinearProbingHashTable<String> lph = new IntLinearProbingHashTable<>();
+        
+        lph.put( 6, "João" );
+        System.out.println( lph );
+        lph.put( 8, "Maria" );
+        System.out.println( lph );
+        lph.put( 7, "David" );
+        System.out.println( lph );
+        lph.put( 4, "Fernanda" );
+        System.out.println( lph );
+        lph.put( -5, "Aurora" );
+        System.out.println( lph );
+        lph.put( Integer.MIN_VALUE, "Marcelo" );
+        System.out.println( lph );
+        lph.put( 0, "Ronaldinho" );
+        System.out.println( lph );
+        lph.put( Integer.MIN_VALUE, "Matilda" );
+        System.out.println( lph );
+        lph.put( 0, null );
+        System.out.println( lph );
+        
+        System.out.println( "Dados da tabela de dispersão através do iterador:" );
+        for ( Entry<Integer, String> e : lph ) {
+            System.out.print( e.getKey() );
+            System.out.print( " " );
+        }
+        
+        System.out.println( "\n" );
+        
+        System.out.println( "Chaves:" );
+        for ( int key : lph.getKeys() ) {
+            System.out.print( key );
+            System.out.print( " " );
+        }
+        
+        System.out.println( "\n" );
+        
+        // compara com LinearProbingHashTable sob uma sequência aleatória de
+        // inserções e remoções, exercitando o deslocamento para trás
+        System.out.println( "----- Comparação com LinearProbingHashTable -----" );
+        IntLinearProbingHashTable<Integer> a = new IntLinearProbingHashTable<>();
+        LinearProbingHashTable<Integer, Integer> b = new LinearProbingHashTable<>();
+        Random r = new Random( 42 );
+        boolean ok = true;
+        
+        for ( int i = 0; i < 200000 && ok; i++ ) {
+            int key = r.nextInt( 2000 ) - 1000;
+            if ( r.nextInt( 3 ) == 0 ) {
+                a.delete( key );
+                b.delete( key );
+            } else {
+                a.put( key, (Integer) i );
+                b.put( key, (Integer) i );
+            }
+            ok = a.getSize() == b.getSize() && 
+                    Objects.equals( a.get( key ), b.get( key ) );
+        }
+        
+        for ( int key = -1000; key < 1000 && ok; key++ ) {
+            ok = Objects.equals( a.get( key ), b.get( key ) );
+        }
+        
+        System.out.println( ok ? "resultados iguais" : "resultados diferentes!" );
+        
+    }
+    
+}
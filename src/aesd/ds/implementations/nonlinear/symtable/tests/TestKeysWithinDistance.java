@@ -0,0 +1,207 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.TernarySearchTrie;
+import aesd.ds.implementations.nonlinear.symtable.Trie;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+
+/**
+ * Teste da busca por chaves a uma distância de edição máxima
+ * (getKeysWithinDistance) na Trie e na TernarySearchTrie.
+ *
+ * Compara os resultados com o cálculo direto da distância de Levenshtein
+ * para todas as chaves de dicionários aleatórios e mede o tempo das buscas
+ * com k = 1 e k = 2 em dicionários grandes.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestKeysWithinDistance {
+
+    public static void main( String[] args ) {
+
+        TernarySearchTrie<Integer> tst = new TernarySearchTrie<>();
+        Trie<Integer> trie = new Trie<>();
+        String[] words = { "she", "sells", "sea", "shells", "by", "the", "shore", "shell", "cells" };
+        for ( int i = 0; i < words.length; i++ ) {
+            tst.put( words[i], i );
+            trie.put( words[i], i );
+        }
+
+        System.out.println( "Trie keysWithinDistance(\"shel\", 1): " + trie.getKeysWithinDistance( "shel", 1 ) );
+        System.out.println( "TST  keysWithinDistance(\"shel\", 1): " + tst.getKeysWithinDistance( "shel", 1 ) );
+        System.out.println( "Trie keysWithinDistance(\"sells\", 2): " + trie.getKeysWithinDistance( "sells", 2 ) );
+        System.out.println( "TST  keysWithinDistance(\"sells\", 2): " + tst.getKeysWithinDistance( "sells", 2 ) );
+        System.out.println();
+
+        // k muito maior que qualquer chave: todas as chaves são devolvidas, sem
+        // alocar uma linha da tabela por unidade de k
+        for ( int k : new int[]{ 1000000000, Integer.MAX_VALUE } ) {
+            System.out.printf( "k = %d: Trie %d chaves, TST %d chaves (de %d)\n", k,
+                    count( trie.getKeysWithinDistance( "shel", k ) ),
+                    count( tst.getKeysWithinDistance( "shel", k ) ), words.length );
+        }
+        System.out.println();
+
+        System.out.println( "comparação com a distância calculada diretamente: "
+                + ( check() ? "correta" : "incorreta!" ) + "\n" );
+
+        Random random = new Random( 42 );
+        String[] keys = words( 1000000, random );
+        tst = new TernarySearchTrie<>();
+        for ( int i = 0; i < keys.length; i++ ) {
+            tst.put( keys[i], i );
+        }
+        time( "TernarySearchTrie", keys, random, tst::getKeysWithinDistance );
+        tst = null;
+
+        keys = words( 200000, random );
+        trie = new Trie<>();
+        for ( int i = 0; i < keys.length; i++ ) {
+            trie.put( keys[i], i );
+        }
+        time( "Trie", keys, random, trie::getKeysWithinDistance );
+
+    }
+
+    private static int count( Iterable<String> keys ) {
+        int n = 0;
+        for ( String key : keys ) {
+            n++;
+        }
+        return n;
+    }
+
+    private static boolean check() {
+
+        Random random = new Random( 42 );
+
+        for ( int round = 0; round < 100; round++ ) {
+
+            Trie<Integer> trie = new Trie<>();
+            TernarySearchTrie<Integer> tst = new TernarySearchTrie<>();
+            TreeSet<String> expected = new TreeSet<>();
+            int letters = 1 + random.nextInt( 5 );
+            int maxLength = 1 + random.nextInt( 8 );
+            int size = random.nextInt( 500 );
+
+            for ( int i = 0; i < size; i++ ) {
+                String key = randomKey( random, letters, maxLength );
+                trie.put( key, i );
+                // a TernarySearchTrie não aceita a chave vazia
+                if ( !key.isEmpty() ) {
+                    tst.put( key, i );
+                }
+                expected.add( key );
+            }
+
+            for ( int query = 0; query < 50; query++ ) {
+
+                String probe = randomKey( random, letters, maxLength + 2 );
+                int k = random.nextInt( 4 );
+
+                List<String> within = new ArrayList<>();
+                for ( String key : expected ) {
+                    if ( distance( key, probe ) <= k ) {
+                        within.add( key );
+                    }
+                }
+
+                List<String> withoutEmpty = new ArrayList<>( within );
+                withoutEmpty.remove( "" );
+
+                if ( !same( trie.getKeysWithinDistance( probe, k ), within )
+                        || !same( tst.getKeysWithinDistance( probe, k ), withoutEmpty ) ) {
+                    return false;
+                }
+
+            }
+
+        }
+
+        return true;
+
+    }
+
+    private static void time( String name, String[] keys, Random random,
+                              BiFunction<String, Integer, Iterable<String>> search ) {
+
+        for ( int k = 1; k <= 2; k++ ) {
+
+            int queries = 1000;
+            long found = 0;
+            long start = System.nanoTime();
+
+            for ( int i = 0; i < queries; i++ ) {
+                String query = mutate( keys[random.nextInt( keys.length )], random );
+                for ( String key : search.apply( query, k ) ) {
+                    found++;
+                }
+            }
+
+            System.out.printf( "%-18s %8d chaves, k = %d: %7.3f ms/busca (%d resultados)\n",
+                    name, keys.length, k, ( System.nanoTime() - start ) / 1e6 / queries, found );
+
+        }
+
+    }
+
+    private static String randomKey( Random random, int letters, int maxLength ) {
+        int length = random.nextInt( maxLength + 1 );
+        char[] key = new char[length];
+        for ( int i = 0; i < length; i++ ) {
+            key[i] = (char) ( 'a' + random.nextInt( letters ) );
+        }
+        return new String( key );
+    }
+
+    /*
+     * Palavras de 5 a 12 letras minúsculas.
+     */
+    private static String[] words( int n, Random random ) {
+        String[] keys = new String[n];
+        for ( int i = 0; i < n; i++ ) {
+            keys[i] = randomKey( random, 26, 7 ) + (char) ( 'a' + random.nextInt( 26 ) );
+            while ( keys[i].length() < 5 ) {
+                keys[i] += (char) ( 'a' + random.nextInt( 26 ) );
+            }
+        }
+        return keys;
+    }
+
+    // troca um caractere da chave, simulando um erro de digitação
+    private static String mutate( String key, Random random ) {
+        char[] chars = key.toCharArray();
+        chars[random.nextInt( chars.length )] = (char) ( 'a' + random.nextInt( 26 ) );
+        return new String( chars );
+    }
+
+    private static int distance( String a, String b ) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for ( int i = 0; i <= a.length(); i++ ) {
+            for ( int j = 0; j <= b.length(); j++ ) {
+                if ( i == 0 || j == 0 ) {
+                    dp[i][j] = i + j;
+                } else {
+                    dp[i][j] = Math.min( dp[i - 1][j - 1] + ( a.charAt( i - 1 ) == b.charAt( j - 1 ) ? 0 : 1 ),
+                            Math.min( dp[i - 1][j], dp[i][j - 1] ) + 1 );
+                }
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+
+    private static boolean same( Iterable<String> actual, List<String> expected ) {
+        Iterator<String> it = actual.iterator();
+        for ( String k : expected ) {
+            if ( !it.hasNext() || !it.next().equals( k ) ) {
+                return false;
+            }
+        }
+        return !it.hasNext();
+    }
+
+}
@@ -0,0 +1,290 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.AdaptiveRadixTree;
+import aesd.ds.implementations.nonlinear.symtable.LoudsTrie;
+import aesd.ds.implementations.nonlinear.symtable.TernarySearchTrie;
+import aesd.ds.implementations.nonlinear.symtable.Trie;
+import aesd.ds.interfaces.Codec;
+import aesd.ds.interfaces.SymbolTable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Teste de uso de uma trie sucinta (LoudsTrie).
+ *
+ * Além do uso básico, congela Tries, TernarySearchTries e
+ * AdaptiveRadixTrees aleatórias e compara get, getKeysWithPrefix,
+ * getKeysThatMatch e getLongestPrefixOf com java.util.TreeMap, antes e
+ * depois de gravar e mapear o arquivo, e compara o tamanho e o tempo das
+ * buscas com os da TernarySearchTrie em chaves parecidas com URLs.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestLoudsTrie {
+
+    public static void main( String[] args ) throws IOException {
+
+        Trie<Integer> trie = new Trie<>();
+        trie.put( "she", 0 );
+        trie.put( "sells", 1 );
+        trie.put( "sea", 2 );
+        trie.put( "shells", 3 );
+        trie.put( "by", 4 );
+        trie.put( "the", 5 );
+        trie.put( "sea", 6 );
+        trie.put( "shore", 7 );
+
+        LoudsTrie<Integer> st = LoudsTrie.freeze( trie, Codec.INTEGER );
+        System.out.print( st );
+        System.out.println();
+
+        System.out.println( "longestPrefixOf(\"shellsort\"): " + st.getLongestPrefixOf( "shellsort" ) );
+        System.out.println( "longestPrefixOf(\"quicksort\"): " + st.getLongestPrefixOf( "quicksort" ) );
+        System.out.println( "keysWithPrefix(\"sh\"): " + st.getKeysWithPrefix( "sh" ) );
+        System.out.println( "keysThatMatch(\".he.l.\"): " + st.getKeysThatMatch( ".he.l." ) );
+        System.out.println( st.getSizeInBytes() + " bytes" );
+        System.out.println();
+
+        // comparação com TreeMap
+        Path file = Files.createTempFile( "louds", ".trie" );
+        System.out.println( "LoudsTrie: " + ( check( file ) ? "correta" : "incorreta!" ) + "\n" );
+
+        // tamanho e tempo de busca em um dicionário grande
+        String[] keys = urls( 1000000, new Random( 42 ) );
+        TernarySearchTrie<Integer> tst = new TernarySearchTrie<>();
+
+        long before = usedMemory();
+        for ( int i = 0; i < keys.length; i++ ) {
+            tst.put( keys[i], i );
+        }
+        long tstBytes = usedMemory() - before;
+
+        long start = System.nanoTime();
+        LoudsTrie<Integer> louds = LoudsTrie.freeze( tst, Codec.INTEGER );
+        double freezeTime = ( System.nanoTime() - start ) / 1e6;
+
+        louds.save( file );
+        LoudsTrie<Integer> mapped = LoudsTrie.load( file, Codec.INTEGER );
+
+        System.out.printf( "congelamento de %d chaves: %.0f ms\n", keys.length, freezeTime );
+        System.out.printf( "TernarySearchTrie:   %8.1f bytes/chave, busca %6.1f ns/chave\n",
+                (double) tstBytes / keys.length, lookupTime( keys, tst::get ) );
+        System.out.printf( "LoudsTrie:           %8.1f bytes/chave, busca %6.1f ns/chave\n",
+                (double) louds.getSizeInBytes() / keys.length, lookupTime( keys, louds::get ) );
+        System.out.printf( "LoudsTrie (mapeada): %8.1f bytes/chave, busca %6.1f ns/chave\n",
+                (double) mapped.getSizeInBytes() / keys.length, lookupTime( keys, mapped::get ) );
+
+        start = System.nanoTime();
+        int count = 0;
+        for ( int i = 0; i < 1000; i++ ) {
+            for ( String key : mapped.getKeysWithPrefix( keys[i].substring( 0, keys[i].length() - 2 ) ) ) {
+                count++;
+            }
+        }
+        System.out.printf( "1000 getKeysWithPrefix: %.1f ms (%d chaves)\n", ( System.nanoTime() - start ) / 1e6, count );
+
+        Files.delete( file );
+
+    }
+
+    private static boolean check( Path file ) {
+
+        Random random = new Random( 42 );
+        char[] alphabet = { 'a', 'b', 'c', 'd', '/', (char) 0, (char) 200, (char) 255 };
+
+        for ( int round = 0; round < 60; round++ ) {
+
+            SymbolTable<String, Integer> source;
+            switch ( round % 3 ) {
+                case 0: source = new Trie<>(); break;
+                case 1: source = new TernarySearchTrie<>(); break;
+                default: source = new AdaptiveRadixTree<>(); break;
+            }
+
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            int letters = 1 + random.nextInt( alphabet.length );
+            int maxLength = 1 + random.nextInt( 10 );
+            int size = random.nextInt( 2000 );
+
+            for ( int i = 0; i < size; i++ ) {
+                String key = randomKey( random, alphabet, letters, maxLength );
+                // a TernarySearchTrie não aceita a chave vazia
+                if ( key.isEmpty() && source instanceof TernarySearchTrie ) {
+                    continue;
+                }
+                source.put( key, i );
+                expected.put( key, i );
+            }
+
+            LoudsTrie<Integer> st = LoudsTrie.freeze( source, Codec.INTEGER );
+            st.save( file );
+            LoudsTrie<Integer> mapped = LoudsTrie.load( file, Codec.INTEGER );
+
+            for ( LoudsTrie<Integer> t : List.of( st, mapped ) ) {
+
+                if ( t.getSize() != expected.size() || !sameEntries( t, expected ) ) {
+                    return false;
+                }
+
+                for ( int query = 0; query < 200; query++ ) {
+
+                    String probe = randomKey( random, alphabet, letters, maxLength );
+                    Integer value = t.get( probe );
+                    String prefix = probe.substring( 0, random.nextInt( probe.length() + 1 ) );
+                    String pattern = pattern( random, probe );
+
+                    List<String> withPrefix = new ArrayList<>();
+                    List<String> matching = new ArrayList<>();
+                    for ( String k : expected.keySet() ) {
+                        if ( k.startsWith( prefix ) ) {
+                            withPrefix.add( k );
+                        }
+                        if ( matches( k, pattern ) ) {
+                            matching.add( k );
+                        }
+                    }
+
+                    if ( ( value == null ? expected.get( probe ) != null : !value.equals( expected.get( probe ) ) )
+                            || t.contains( probe ) != expected.containsKey( probe )
+                            || !same( t.getLongestPrefixOf( probe ), longestPrefixOf( expected, probe ) )
+                            || !same( t.getKeysWithPrefix( prefix ), withPrefix )
+                            || !same( t.getKeysThatMatch( pattern ), matching ) ) {
+                        return false;
+                    }
+
+                }
+
+            }
+
+        }
+
+        return true;
+
+    }
+
+    private static String randomKey( Random random, char[] alphabet, int letters, int maxLength ) {
+        int length = random.nextInt( maxLength + 1 );
+        char[] key = new char[length];
+        for ( int i = 0; i < length; i++ ) {
+            key[i] = alphabet[random.nextInt( letters )];
+        }
+        return new String( key );
+    }
+
+    private static String pattern( Random random, String key ) {
+        char[] pattern = key.toCharArray();
+        for ( int i = 0; i < pattern.length; i++ ) {
+            if ( random.nextInt( 3 ) == 0 ) {
+                pattern[i] = '.';
+            }
+        }
+        return new String( pattern );
+    }
+
+    private static boolean matches( String key, String pattern ) {
+        if ( key.length() != pattern.length() ) {
+            return false;
+        }
+        for ( int i = 0; i < key.length(); i++ ) {
+            if ( pattern.charAt( i ) != '.' && pattern.charAt( i ) != key.charAt( i ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String longestPrefixOf( TreeMap<String, Integer> map, String query ) {
+        for ( int length = query.length(); length >= 0; length-- ) {
+            if ( map.containsKey( query.substring( 0, length ) ) ) {
+                return query.substring( 0, length );
+            }
+        }
+        return null;
+    }
+
+    private static boolean same( String a, String b ) {
+        return a == null ? b == null : a.equals( b );
+    }
+
+    private static boolean same( Iterable<String> actual, List<String> expected ) {
+        Iterator<String> it = actual.iterator();
+        for ( String k : expected ) {
+            if ( !it.hasNext() || !it.next().equals( k ) ) {
+                return false;
+            }
+        }
+        return !it.hasNext();
+    }
+
+    private static boolean sameEntries( LoudsTrie<Integer> st, TreeMap<String, Integer> expected ) {
+        Iterator<SymbolTable.Entry<String, Integer>> it = st.iterator();
+        for ( Map.Entry<String, Integer> e : expected.entrySet() ) {
+            if ( !it.hasNext() ) {
+                return false;
+            }
+            SymbolTable.Entry<String, Integer> actual = it.next();
+            if ( !actual.getKey().equals( e.getKey() ) || !actual.getValue().equals( e.getValue() ) ) {
+                return false;
+            }
+        }
+        return !it.hasNext();
+    }
+
+    /*
+     * Chaves parecidas com URLs: poucos domínios, caminhos com prefixos em
+     * comum e um identificador numérico no final.
+     */
+    private static String[] urls( int n, Random random ) {
+
+        String[] hosts = { "www.example.com", "docs.example.com", "api.example.org", "blog.sample.net", "shop.sample.net" };
+        String[] sections = { "users", "products", "articles", "images", "search", "static/css", "static/js" };
+        String[] keys = new String[n];
+
+        for ( int i = 0; i < n; i++ ) {
+            keys[i] = "https://" + hosts[random.nextInt( hosts.length )]
+                    + "/" + sections[random.nextInt( sections.length )]
+                    + "/" + random.nextInt( 100000 )
+                    + "/" + Integer.toString( i, 36 );
+        }
+
+        return keys;
+
+    }
+
+    private static double lookupTime( String[] keys, java.util.function.Function<String, Integer> get ) {
+
+        long best = Long.MAX_VALUE;
+        long sum = 0;
+
+        for ( int round = 0; round < 5; round++ ) {
+            long start = System.nanoTime();
+            for ( String key : keys ) {
+                sum += get.apply( key );
+            }
+            best = Math.min( best, System.nanoTime() - start );
+        }
+
+        if ( sum == 42 ) {
+            System.out.println();
+        }
+
+        return (double) best / keys.length;
+
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 3; i++ ) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,346 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.DiskBPlusTree;
+import aesd.ds.implementations.nonlinear.symtable.LsmTree;
+import aesd.ds.implementations.nonlinear.symtable.LsmTree.CompactionStrategy;
+import aesd.ds.interfaces.Codec;
+import aesd.ds.interfaces.SymbolTable.Entry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Teste de uso da árvore LSM (LsmTree).
+ *
+ * Além do uso básico, compara as duas estratégias de compactação com
+ * java.util.TreeMap sob uma sequência aleatória de inserções e remoções
+ * (buscas, consultas por intervalo, reabertura e recuperação a partir de
+ * uma cópia do diretório feita sem fechar a árvore, como após uma queda,
+ * inclusive com um registro incompleto no final do log, e reabertura após
+ * falhas na gravação do MANIFEST) e mede a vazão de escrita e a
+ * amplificação de escrita, comparando-as com as da árvore B+ persistente.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestLsmTree {
+
+    public static void main( String[] args ) throws IOException {
+
+        Path directory = Files.createTempDirectory( "lsmtree" );
+
+        try ( LsmTree<String, String> st = new LsmTree<>( directory, Codec.string( 32 ), Codec.string( 16 ),
+                4, CompactionStrategy.LEVELED ) ) {
+
+            st.put( "www.cs.princeton.edu", "128.112.136.12" );
+            st.put( "www.cs.princeton.edu", "128.112.136.11" );
+            st.put( "www.princeton.edu",    "128.112.128.15" );
+            st.put( "www.yale.edu",         "130.132.143.21" );
+            st.put( "www.simpsons.com",     "209.052.165.60" );
+            st.put( "www.apple.com",        "17.112.152.32" );
+            st.put( "www.amazon.com",       "207.171.182.16" );
+            st.put( "www.ebay.com",         "66.135.192.87" );
+            st.put( "www.cnn.com",          "64.236.16.20" );
+            st.put( "www.google.com",       "216.239.41.99" );
+            st.put( "www.nytimes.com",      "199.239.136.200" );
+            st.put( "www.microsoft.com",    "207.126.99.140" );
+            st.put( "www.dell.com",         "143.166.224.230" );
+            st.put( "www.slashdot.org",     "66.35.250.151" );
+            st.put( "www.espn.com",         "199.181.135.201" );
+            st.put( "www.weather.com",      "63.111.66.11" );
+            st.put( "www.yahoo.com",        "216.109.118.65" );
+            st.delete( "www.yale.edu" );
+            st.waitForCompactions();
+
+            System.out.println( "cs.princeton.edu:  " + st.get( "www.cs.princeton.edu" ) );
+            System.out.println( "hardvardsucks.com: " + st.get( "www.harvardsucks.com" ) );
+            System.out.println( "simpsons.com:      " + st.get( "www.simpsons.com" ) );
+            System.out.println( "yale.edu:          " + st.get( "www.yale.edu" ) );
+            System.out.println();
+
+            System.out.println( "size:    " + st.getSize() );
+            System.out.println( "tabelas: " + Arrays.toString( st.getTableCounts() ) );
+            System.out.println( st );
+
+            System.out.println( "Intervalo [www.d, www.n]:" );
+            for ( Entry<String, String> e : st.range( "www.d", "www.n" ) ) {
+                System.out.println( e );
+            }
+            System.out.println();
+
+        }
+
+        try ( LsmTree<String, String> st = new LsmTree<>( directory, Codec.string( 32 ), Codec.string( 16 ),
+                4, CompactionStrategy.LEVELED ) ) {
+            System.out.println( "Após reabrir: size " + st.getSize() + ", apple.com " + st.get( "www.apple.com" ) );
+            System.out.println();
+        }
+
+        deleteDirectory( directory );
+
+        for ( CompactionStrategy strategy : CompactionStrategy.values() ) {
+            System.out.println( strategy + ": " + ( check( strategy ) ? "resultados iguais" : "resultados diferentes!" ) );
+        }
+        for ( CompactionStrategy strategy : CompactionStrategy.values() ) {
+            System.out.println( strategy + " após falhas na gravação do MANIFEST: "
+                    + ( checkManifestFailure( strategy ) ? "árvore recuperada" : "árvore corrompida!" ) );
+        }
+        System.out.println();
+
+        System.out.println( "----- Vazão de escrita (1000000 inserções) -----" );
+        for ( boolean sequential : new boolean[]{ true, false } ) {
+            for ( CompactionStrategy strategy : CompactionStrategy.values() ) {
+                throughput( strategy, 1000000, sequential );
+            }
+            bPlusTreeThroughput( 1000000, sequential );
+        }
+
+    }
+
+    /*
+     * Sequência aleatória de operações comparada com TreeMap, com memtables
+     * pequenas para que haja muitas SSTables e compactações. No meio da
+     * sequência, o diretório é copiado com a árvore aberta e a cópia, com
+     * um registro incompleto acrescentado ao log, é aberta e comparada.
+     */
+    private static boolean check( CompactionStrategy strategy ) throws IOException {
+
+        Random random = new Random( 42 );
+        Path directory = Files.createTempDirectory( "lsmtree" );
+        Path copy = Files.createTempDirectory( "lsmtree" );
+        TreeMap<Integer, Long> expected = new TreeMap<>();
+        boolean ok = true;
+
+        try ( LsmTree<Integer, Long> st = new LsmTree<>( directory, Codec.INTEGER, Codec.LONG, 500, strategy ) ) {
+
+            for ( int op = 0; op < 200000 && ok; op++ ) {
+
+                int key = random.nextInt( 20000 );
+
+                if ( random.nextInt( 4 ) == 0 ) {
+                    st.delete( key );
+                    expected.remove( key );
+                } else {
+                    st.put( key, (long) op );
+                    expected.put( key, (long) op );
+                }
+
+                int probe = random.nextInt( 20000 );
+                ok = Objects.equals( st.get( probe ), expected.get( probe ) )
+                        && st.contains( probe ) == expected.containsKey( probe );
+
+                if ( op % 20000 == 0 ) {
+                    int lo = random.nextInt( 20000 );
+                    ok &= same( st.range( lo, lo + 500 ), expected.subMap( lo, true, lo + 500, true ) );
+                }
+
+                if ( op == 100000 ) {
+
+                    st.flush();
+                    st.waitForCompactions();
+                    copyDirectory( directory, copy );
+                    appendPartialRecord( copy );
+
+                    try ( LsmTree<Integer, Long> recovered = new LsmTree<>( copy, Codec.INTEGER, Codec.LONG, 500, strategy ) ) {
+                        ok &= recovered.getSize() == expected.size() && same( recovered, expected );
+                    }
+
+                }
+
+            }
+
+            ok &= st.getSize() == expected.size() && same( st, expected );
+            st.waitForCompactions();
+            ok &= same( st, expected );
+            System.out.printf( "%s: tabelas por nível %s, amplificação de escrita %.2f\n",
+                    strategy, Arrays.toString( st.getTableCounts() ), st.getWriteAmplification() );
+
+        }
+
+        try ( LsmTree<Integer, Long> st = new LsmTree<>( directory, Codec.INTEGER, Codec.LONG, 500, strategy ) ) {
+            ok &= st.getSize() == expected.size() && same( st, expected );
+            st.clear();
+            ok &= st.isEmpty() && st.get( expected.firstKey() ) == null;
+        }
+
+        deleteDirectory( directory );
+        deleteDirectory( copy );
+
+        return ok;
+
+    }
+
+    /*
+     * Um diretório chamado MANIFEST.tmp impede a gravação do MANIFEST a
+     * partir de um ponto da sequência de inserções, fazendo falhar a
+     * próxima gravação de memtable ou compactação da thread de segundo
+     * plano (ou clear(), na última rodada). Depois de fechada, a árvore
+     * reaberta deve conter tudo o que foi inserido antes da falha.
+     */
+    private static boolean checkManifestFailure( CompactionStrategy strategy ) throws IOException {
+
+        boolean ok = true;
+
+        for ( int round = 0; round <= 20 && ok; round++ ) {
+
+            Path directory = Files.createTempDirectory( "lsmtree" );
+            Path blocker = directory.resolve( "MANIFEST.tmp" );
+            boolean failed = false;
+            int written = 0;
+
+            try ( LsmTree<Integer, Long> st = new LsmTree<>( directory, Codec.INTEGER, Codec.LONG, 100, strategy ) ) {
+
+                try {
+                    if ( round < 20 ) {
+                        for ( ; written < 20000; written++ ) {
+                            if ( written == 1000 + 250 * round ) {
+                                Files.createDirectory( blocker );
+                            }
+                            st.put( written, (long) written );
+                        }
+                        st.waitForCompactions();
+                    } else {
+                        for ( ; written < 5000; written++ ) {
+                            st.put( written, (long) written );
+                        }
+                        st.waitForCompactions();
+                        Files.createDirectory( blocker );
+                        st.clear();
+                    }
+                } catch ( UncheckedIOException exc ) {
+                    failed = true;
+                }
+
+            }
+
+            Files.delete( blocker );
+
+            // a inserção que falhou pode ter chegado ao log ou não
+            try ( LsmTree<Integer, Long> st = new LsmTree<>( directory, Codec.INTEGER, Codec.LONG, 100, strategy ) ) {
+                ok = failed && ( st.getSize() == written || st.getSize() == written + 1 );
+                for ( int key = 0; key < written && ok; key++ ) {
+                    ok = Objects.equals( st.get( key ), (long) key );
+                }
+            } catch ( UncheckedIOException exc ) {
+                ok = false;
+            }
+
+            deleteDirectory( directory );
+
+        }
+
+        return ok;
+
+    }
+
+    private static boolean same( Iterable<Entry<Integer, Long>> entries, Map<Integer, Long> expected ) {
+
+        Iterator<Map.Entry<Integer, Long>> it = expected.entrySet().iterator();
+
+        for ( Entry<Integer, Long> e : entries ) {
+            if ( !it.hasNext() ) {
+                return false;
+            }
+            Map.Entry<Integer, Long> x = it.next();
+            if ( !e.getKey().equals( x.getKey() ) || !e.getValue().equals( x.getValue() ) ) {
+                return false;
+            }
+        }
+
+        return !it.hasNext();
+
+    }
+
+    /*
+     * Vazão de inserções de chaves sequenciais ou aleatórias, em MB/s dos
+     * registros enviados e dos bytes gravados em disco.
+     */
+    private static void throughput( CompactionStrategy strategy, int n, boolean sequential ) throws IOException {
+
+        Path directory = Files.createTempDirectory( "lsmtree" );
+        Random random = new Random( 42 );
+        long start = System.nanoTime();
+        double amplification;
+
+        try ( LsmTree<Long, Long> st = new LsmTree<>( directory, Codec.LONG, Codec.LONG,
+                1 << 16, strategy ) ) {
+            for ( int i = 0; i < n; i++ ) {
+                st.put( sequential ? i : random.nextLong(), (long) i );
+            }
+            st.flush();
+            st.waitForCompactions();
+            amplification = st.getWriteAmplification();
+        }
+
+        double seconds = ( System.nanoTime() - start ) / 1e9;
+        double megabytes = n * 17.0 / 1e6;
+
+        System.out.printf( "%-12s %-11s %9.0f inserções/s, %6.1f MB/s de registros, %6.1f MB/s em disco (amplificação %.2f)\n",
+                strategy, sequential ? "sequencial" : "aleatória", n / seconds, megabytes / seconds,
+                megabytes * amplification / seconds, amplification );
+
+        deleteDirectory( directory );
+
+    }
+
+    private static void bPlusTreeThroughput( int n, boolean sequential ) throws IOException {
+
+        Path file = Files.createTempFile( "bplustree", ".dat" );
+        Files.delete( file );
+        Random random = new Random( 42 );
+        long start = System.nanoTime();
+
+        try ( DiskBPlusTree<Long, Long> st = new DiskBPlusTree<>( file, Codec.LONG, Codec.LONG ) ) {
+            for ( int i = 0; i < n; i++ ) {
+                st.put( sequential ? i : random.nextLong(), (long) i );
+            }
+        }
+
+        double seconds = ( System.nanoTime() - start ) / 1e9;
+        System.out.printf( "%-12s %-11s %9.0f inserções/s\n",
+                "B+ em disco", sequential ? "sequencial" : "aleatória", n / seconds );
+
+        Files.delete( file );
+
+    }
+
+    // acrescenta metade de um registro a cada log, simulando uma escrita
+    // interrompida
+    private static void appendPartialRecord( Path directory ) throws IOException {
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( directory, "*.log" ) ) {
+            for ( Path file : files ) {
+                try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.APPEND ) ) {
+                    channel.write( ByteBuffer.wrap( new byte[]{ 1, 2, 3, 4, 0, 0, 0 } ) );
+                }
+            }
+        }
+    }
+
+    private static void copyDirectory( Path from, Path to ) throws IOException {
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( from ) ) {
+            for ( Path file : files ) {
+                Files.copy( file, to.resolve( file.getFileName() ) );
+            }
+        }
+    }
+
+    private static void deleteDirectory( Path directory ) throws IOException {
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( directory ) ) {
+            for ( Path file : files ) {
+                Files.delete( file );
+            }
+        }
+        Files.delete( directory );
+    }
+
+}
@@ -0,0 +1,155 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.AVLTree;
+import aesd.ds.implementations.nonlinear.symtable.BinarySearchSymbolTable;
+import aesd.ds.implementations.nonlinear.symtable.RedBlackTree;
+import aesd.ds.interfaces.OrderedSymbolTable;
+import aesd.ds.interfaces.SymbolTable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Teste de uso das tabelas de símbolos ordenadas (OrderedSymbolTable):
+ * RedBlackTree, AVLTree e BinarySearchSymbolTable.
+ *
+ * Além do uso básico, executa sequências aleatórias de inserções e remoções
+ * e compara floor, ceiling, rank, select, range e count com os de
+ * java.util.TreeMap, e mede o custo de consultas de intervalos pequenos em
+ * uma árvore grande.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestOrderedSymbolTable {
+
+    public static void main( String[] args ) {
+
+        OrderedSymbolTable<Integer, String> st = new RedBlackTree<>();
+        for ( int key : new int[]{ 50, 20, 80, 10, 30, 70, 90, 60 } ) {
+            st.put( key, "valor" + key );
+        }
+
+        System.out.println( "floor(65): " + st.floor( 65 ) );
+        System.out.println( "ceiling(65): " + st.ceiling( 65 ) );
+        System.out.println( "floor(5): " + st.floor( 5 ) );
+        System.out.println( "rank(60): " + st.rank( 60 ) );
+        System.out.println( "select(3): " + st.select( 3 ) );
+        System.out.println( "count(25, 75): " + st.count( 25, 75 ) );
+        System.out.print( "range(25, 75): " );
+        for ( SymbolTable.Entry<Integer, String> e : st.range( 25, 75 ) ) {
+            System.out.print( e + "; " );
+        }
+        System.out.println( "\n" );
+
+        // comparação com TreeMap
+        check( "RedBlackTree", () -> new RedBlackTree<>() );
+        check( "AVLTree", () -> new AVLTree<>() );
+        check( "BinarySearchSymbolTable", () -> new BinarySearchSymbolTable<>() );
+        System.out.println();
+
+        // janelas pequenas em uma árvore grande
+        RedBlackTree<Integer, Integer> large = new RedBlackTree<>();
+        AVLTree<Integer, Integer> largeAvl = new AVLTree<>();
+        for ( int i = 0; i < 1000000; i++ ) {
+            large.put( i, i );
+            largeAvl.put( i, i );
+        }
+
+        Random random = new Random( 42 );
+
+        for ( int round = 0; round < 3; round++ ) {
+
+            long start = System.nanoTime();
+            long sum = 0;
+            for ( int query = 0; query < 10000; query++ ) {
+                int lower = random.nextInt( 1000000 );
+                for ( SymbolTable.Entry<Integer, Integer> e : large.range( lower, lower + 10 ) ) {
+                    sum += e.getValue();
+                }
+                sum += largeAvl.count( lower, lower + 10 );
+            }
+            double time = ( System.nanoTime() - start ) / 1e6;
+
+            System.out.printf( "10000 consultas range + count com 11 chaves: %6.1f ms (%d)\n", time, sum );
+
+        }
+
+    }
+
+    private static void check( String name, Supplier<OrderedSymbolTable<Integer, Integer>> factory ) {
+
+        Random random = new Random( 42 );
+        boolean ok = true;
+
+        for ( int round = 0; round < 50 && ok; round++ ) {
+
+            OrderedSymbolTable<Integer, Integer> st = factory.get();
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            int universe = 1 + random.nextInt( 1000 );
+
+            for ( int op = 0; op < 2000 && ok; op++ ) {
+
+                int key = random.nextInt( universe );
+
+                if ( random.nextInt( 3 ) == 0 ) {
+                    st.delete( key );
+                    expected.remove( key );
+                } else {
+                    st.put( key, op );
+                    expected.put( key, op );
+                }
+
+                int probe = random.nextInt( universe + 2 ) - 1;
+                int other = random.nextInt( universe + 2 ) - 1;
+
+                ok = st.getSize() == expected.size()
+                        && same( st.floor( probe ), expected.floorKey( probe ) )
+                        && same( st.ceiling( probe ), expected.ceilingKey( probe ) )
+                        && st.rank( probe ) == expected.headMap( probe, false ).size()
+                        && st.count( probe, other ) == ( probe > other ? 0 : expected.subMap( probe, true, other, true ).size() );
+
+                if ( ok && !expected.isEmpty() ) {
+                    int rank = random.nextInt( expected.size() );
+                    ok = st.select( rank ).equals( expected.keySet().toArray()[rank] );
+                }
+
+                if ( ok && op % 20 == 0 ) {
+                    ok = sameRange( st, expected, probe, other );
+                }
+
+            }
+
+        }
+
+        System.out.println( name + ": " + ( ok ? "correta" : "incorreta!" ) );
+
+    }
+
+    private static boolean same( Integer a, Integer b ) {
+        return a == null ? b == null : a.equals( b );
+    }
+
+    private static boolean sameRange( OrderedSymbolTable<Integer, Integer> st, NavigableMap<Integer, Integer> expected, int lower, int higher ) {
+
+        Iterator<SymbolTable.Entry<Integer, Integer>> it = st.range( lower, higher ).iterator();
+
+        if ( lower <= higher ) {
+            for ( Map.Entry<Integer, Integer> e : expected.subMap( lower, true, higher, true ).entrySet() ) {
+                if ( !it.hasNext() ) {
+                    return false;
+                }
+                SymbolTable.Entry<Integer, Integer> actual = it.next();
+                if ( !actual.getKey().equals( e.getKey() ) || !actual.getValue().equals( e.getValue() ) ) {
+                    return false;
+                }
+            }
+        }
+
+        return !it.hasNext();
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.LinearProbingHashTable;
+import aesd.ds.implementations.nonlinear.symtable.RobinHoodHashTable;
+import aesd.ds.interfaces.SymbolTable;
+import aesd.ds.interfaces.SymbolTable.Entry;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Teste de uso da tabela de dispersão com inserção Robin Hood.
+ *
+ * Além do uso básico, compara a tabela com java.util.HashMap sob uma
+ * sequência aleatória de inserções e remoções, insere muitas chaves com o
+ * mesmo hashCode(), mostra os histogramas dos comprimentos de sondagem
+ * para alguns fatores de carga e compara a memória e o tempo de busca com
+ * os da LinearProbingHashTable.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestRobinHoodHashTable {
+
+    public static void main( String[] args ) {
+
+        RobinHoodHashTable<String, Integer> rh = new RobinHoodHashTable<>();
+
+        rh.put( "João", 6 );
+        rh.put( "Maria", 8 );
+        rh.put( "David", 7 );
+        rh.put( "Fernanda", 4 );
+        rh.put( "Aurora", 5 );
+        rh.put( "Marcelo", 3 );
+        rh.put( "Maria", 9 );
+        rh.put( "David", null );
+        System.out.println( rh );
+
+        System.out.println( "Dados da tabela de dispersão através do iterador:" );
+        for ( Entry<String, Integer> e : rh ) {
+            System.out.print( e.getKey() + "=" + e.getValue() + " " );
+        }
+        System.out.println( "\n" );
+
+        System.out.println( "----- Comparação com HashMap -----" );
+        System.out.println( check() ? "resultados iguais" : "resultados diferentes!" );
+        System.out.println();
+
+        // 1024 chaves com o mesmo hashCode(), formadas por blocos "Aa" e "BB":
+        // redimensionar não as separa, então ficam em um único cluster
+        System.out.println( "----- Chaves com o mesmo hashCode() -----" );
+        RobinHoodHashTable<String, Integer> collisions = new RobinHoodHashTable<>();
+        int blocks = 10;
+        for ( int i = 0; i < 1 << blocks; i++ ) {
+            collisions.put( collidingKey( i, blocks ), i );
+        }
+        boolean found = true;
+        for ( int i = 0; i < 1 << blocks; i++ ) {
+            found &= Objects.equals( collisions.get( collidingKey( i, blocks ) ), i );
+        }
+        System.out.printf( "%d chaves, todas encontradas? %b, capacidade %d, sondagem máxima %d\n",
+                collisions.getSize(), found, collisions.getCapacity(), collisions.getMaxProbeLength() );
+
+        // as sondagens passam de 254 posições, então as distâncias saturam o
+        // byte e são recalculadas; remover as chaves pares desloca para trás
+        // chaves saturadas
+        for ( int i = 0; i < 1 << blocks; i += 2 ) {
+            collisions.delete( collidingKey( i, blocks ) );
+        }
+        found = collisions.getSize() == 1 << ( blocks - 1 );
+        for ( int i = 0; i < 1 << blocks; i++ ) {
+            Integer expected = i % 2 == 0 ? null : i;
+            found &= Objects.equals( collisions.get( collidingKey( i, blocks ) ), expected );
+        }
+        System.out.printf( "removidas as pares: %d chaves, resultados corretos? %b, sondagem máxima %d\n",
+                collisions.getSize(), found, collisions.getMaxProbeLength() );
+
+        // fator de carga minúsculo: a tabela dobra até caber as chaves sem
+        // passar dele
+        RobinHoodHashTable<Integer, Integer> sparse = new RobinHoodHashTable<>( 1, 1e-6 );
+        for ( int i = 0; i < 10; i++ ) {
+            sparse.put( i, i );
+        }
+        System.out.printf( "fator de carga 1e-6: %d chaves, capacidade %d\n",
+                sparse.getSize(), sparse.getCapacity() );
+        System.out.println();
+
+        // distribuição dos comprimentos de sondagem logo antes de a tabela
+        // dobrar de tamanho
+        System.out.println( "----- Comprimentos de sondagem -----" );
+        for ( double loadFactor : new double[]{ 0.5, 0.7, 0.8, 0.9 } ) {
+            RobinHoodHashTable<Integer, Integer> t = new RobinHoodHashTable<>( 1 << 20, loadFactor );
+            int n = (int) ( ( 1 << 20 ) * loadFactor );
+            for ( int i = 0; i < n; i++ ) {
+                t.put( i * 31, i );
+            }
+            System.out.printf( "carga %.2f: média %.2f, máximo %d, histograma %s\n",
+                    t.getLoadFactor(), t.getMeanProbeLength(), t.getMaxProbeLength(),
+                    Arrays.toString( t.getProbeLengthHistogram() ) );
+        }
+        System.out.println();
+
+        System.out.println( "----- Memória e tempo de busca -----" );
+        Random random = new Random( 42 );
+        String[] keys = new String[1000000];
+        for ( int i = 0; i < keys.length; i++ ) {
+            keys[i] = Long.toString( random.nextLong() & Long.MAX_VALUE, 36 );
+        }
+        for ( int n : new int[]{ 600000, 1000000 } ) {
+            String[] k = Arrays.copyOf( keys, n );
+            compare( "LinearProbingHashTable", () -> new LinearProbingHashTable<>(), k );
+            compare( "RobinHoodHashTable", () -> new RobinHoodHashTable<>(), k );
+        }
+
+    }
+
+    private static String collidingKey( int bits, int blocks ) {
+        StringBuilder sb = new StringBuilder();
+        for ( int j = 0; j < blocks; j++ ) {
+            sb.append( ( bits >> j & 1 ) == 0 ? "Aa" : "BB" );
+        }
+        return sb.toString();
+    }
+
+    private static boolean check() {
+
+        Random random = new Random( 42 );
+
+        for ( double loadFactor : new double[]{ 0.3, 0.75, 0.9 } ) {
+
+            RobinHoodHashTable<Integer, Integer> a = new RobinHoodHashTable<>( 1, loadFactor );
+            Map<Integer, Integer> b = new HashMap<>();
+
+            for ( int i = 0; i < 300000; i++ ) {
+
+                // chaves com os mesmos bits baixos, que colidem bastante
+                // antes da mistura do hash
+                int key = random.nextInt( 3000 ) << 16;
+
+                if ( random.nextInt( 3 ) == 0 ) {
+                    a.delete( key );
+                    b.remove( key );
+                } else {
+                    a.put( key, i );
+                    b.put( key, i );
+                }
+
+                if ( a.getSize() != b.size() || !Objects.equals( a.get( key ), b.get( key ) )
+                        || a.getLoadFactor() > loadFactor ) {
+                    return false;
+                }
+
+            }
+
+            for ( int k = 0; k < 3000; k++ ) {
+                if ( !Objects.equals( a.get( k << 16 ), b.get( k << 16 ) ) || a.contains( k << 16 ) != b.containsKey( k << 16 ) ) {
+                    return false;
+                }
+            }
+
+            int count = 0;
+            for ( Entry<Integer, Integer> e : a ) {
+                if ( !e.getValue().equals( b.get( e.getKey() ) ) ) {
+                    return false;
+                }
+                count++;
+            }
+
+            int[] histogram = a.getProbeLengthHistogram();
+            if ( count != b.size() || Arrays.stream( histogram ).sum() != b.size() ) {
+                return false;
+            }
+
+        }
+
+        return true;
+
+    }
+
+    /*
+     * Memória usada pela estrutura (as chaves já existem antes da inserção e
+     * não são contadas) e tempo de busca de todas as chaves.
+     */
+    private static void compare( String name, Supplier<SymbolTable<String, Integer>> factory, String[] keys ) {
+
+        long before = usedMemory();
+        SymbolTable<String, Integer> st = factory.get();
+        Integer value = 1;
+        for ( String key : keys ) {
+            st.put( key, value );
+        }
+        long bytes = usedMemory() - before;
+
+        long best = Long.MAX_VALUE;
+        long found = 0;
+
+        for ( int round = 0; round < 5; round++ ) {
+            long start = System.nanoTime();
+            for ( String key : keys ) {
+                if ( st.get( key ) != null ) {
+                    found++;
+                }
+            }
+            best = Math.min( best, System.nanoTime() - start );
+        }
+
+        System.out.printf( "%-23s %8d chaves: %6.1f bytes/chave, busca %6.1f ns/chave (%d)\n",
+                name, keys.length, (double) bytes / keys.length, (double) best / keys.length, found );
+
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 3; i++ ) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
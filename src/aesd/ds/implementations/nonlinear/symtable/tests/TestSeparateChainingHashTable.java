@@ -5,6 +5,10 @@ import aesd.ds.implementations.nonlinear.symtable.SeparateChainingHashTable;
 import aesd.ds.interfaces.List;
 import aesd.ds.interfaces.SymbolTable.Entry;
 import aesd.utils.Utils;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
 
 /**
  * Teste de uso da tabela de dispersão com encadeamento.
@@ -67,6 +71,130 @@ public class TestSeparateChainingHashTable {
             System.out.println( sch );
         }
         
+        // chaves com o mesmo hashCode(): "Aa" e "BB" têm o mesmo hash, e
+        // qualquer concatenação de k desses pares também, gerando 2^k
+        // chaves que colidem em qualquer tabela
+        System.out.println( "\n----- Chaves com o mesmo hashCode() -----" );
+        String[] colliding = colliding( 14 );
+        SeparateChainingHashTable<Object, Integer> flooded = new SeparateChainingHashTable<>( 4, new Random( 42 ).nextLong() );
+        
+        long start = System.nanoTime();
+        for ( int i = 0; i < colliding.length; i++ ) {
+            flooded.put( colliding[i], i );
+        }
+        for ( int i = 0; i < colliding.length; i++ ) {
+            flooded.get( colliding[i] );
+        }
+        System.out.printf( "%d chaves inseridas e buscadas em %.1f ms\n",
+                colliding.length, ( System.nanoTime() - start ) / 1e6 );
+        printMetrics( flooded );
+        
+        // compara com HashMap sob inserções e remoções de chaves que
+        // colidem, convertendo buckets em árvores e de volta em listas;
+        // os Integer com o mesmo hash das Strings caem no mesmo bucket
+        // mas não podem ser comparados com elas
+        SeparateChainingHashTable<Object, Integer> mixed = new SeparateChainingHashTable<>();
+        Map<Object, Integer> expected = new HashMap<>();
+        Random r = new Random( 42 );
+        boolean ok = true;
+        for ( int i = 0; i < 200000 && ok; i++ ) {
+            Object key = r.nextInt( 10 ) == 0 ? (Object) colliding[0].hashCode() : colliding[r.nextInt( 64 )];
+            if ( r.nextInt( 2 ) == 0 ) {
+                mixed.delete( key );
+                expected.remove( key );
+            } else {
+                mixed.put( key, i );
+                expected.put( key, i );
+            }
+            ok = mixed.getSize() == expected.size() && Objects.equals( mixed.get( key ), expected.get( key ) );
+        }
+        for ( int i = 0; i < 64; i++ ) {
+            ok = ok && Objects.equals( mixed.get( colliding[i] ), expected.get( colliding[i] ) );
+        }
+        System.out.println( ok ? "resultados iguais ao HashMap" : "resultados diferentes do HashMap!" );
+        printMetrics( mixed );
+        
+        // chaves com o mesmo hashCode() cujo compareTo() só compara o valor,
+        // enquanto equals() compara também a moeda: na árvore, ( 5, "BRL" )
+        // sobrescreveria ( 5, "USD" ), então o bucket precisa continuar
+        // lista
+        SeparateChainingHashTable<Amount, Integer> amounts = new SeparateChainingHashTable<>();
+        Map<Amount, Integer> expectedAmounts = new HashMap<>();
+        r = new Random( 42 );
+        ok = true;
+        for ( int i = 0; i < 200000 && ok; i++ ) {
+            Amount key = new Amount( r.nextInt( 16 ), r.nextInt( 4 ) == 0 ? "BRL" : "USD" );
+            if ( r.nextInt( 3 ) == 0 ) {
+                amounts.delete( key );
+                expectedAmounts.remove( key );
+            } else {
+                amounts.put( key, i );
+                expectedAmounts.put( key, i );
+            }
+            ok = amounts.getSize() == expectedAmounts.size()
+                    && Objects.equals( amounts.get( key ), expectedAmounts.get( key ) );
+        }
+        for ( int v = 0; v < 16; v++ ) {
+            for ( String currency : new String[]{ "BRL", "USD" } ) {
+                Amount key = new Amount( v, currency );
+                ok = ok && Objects.equals( amounts.get( key ), expectedAmounts.get( key ) );
+            }
+        }
+        System.out.println( ok ? "compareTo() inconsistente com equals(): resultados iguais ao HashMap"
+                : "compareTo() inconsistente com equals(): resultados diferentes do HashMap!" );
+        printMetrics( amounts );
+        
+    }
+    
+    /*
+     * Valor monetário com hashCode() constante e compareTo() que ignora a
+     * moeda, ou seja, inconsistente com equals().
+     */
+    private static class Amount implements Comparable<Amount> {
+        
+        final int value;
+        final String currency;
+        
+        Amount( int value, String currency ) {
+            this.value = value;
+            this.currency = currency;
+        }
+        
+        @Override
+        public int compareTo( Amount o ) {
+            return Integer.compare( value, o.value );
+        }
+        
+        @Override
+        public boolean equals( Object o ) {
+            return o instanceof Amount && ( (Amount) o ).value == value
+                    && ( (Amount) o ).currency.equals( currency );
+        }
+        
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+        
+    }
+    
+    private static String[] colliding( int k ) {
+        String[] keys = new String[1 << k];
+        for ( int i = 0; i < keys.length; i++ ) {
+            StringBuilder sb = new StringBuilder();
+            for ( int j = 0; j < k; j++ ) {
+                sb.append( ( i >>> j & 1 ) == 0 ? "Aa" : "BB" );
+            }
+            keys[i] = sb.toString();
+        }
+        return keys;
+    }
+    
+    private static void printMetrics( SeparateChainingHashTable<?, ?> st ) {
+        int[] histogram = st.getChainLengthHistogram();
+        System.out.printf( "%d chaves em %d buckets: comprimento médio %.2f, máximo %d, %d árvores, %d buckets vazios\n",
+                st.getSize(), st.getNumberOfChains(), st.getMeanChainLength(), st.getMaxChainLength(),
+                st.getTreeifiedChainCount(), histogram[0] );
     }
     
 }
@@ -0,0 +1,86 @@
+package aesd.ds.implementations.nonlinear.symtable.tests;
+
+import aesd.ds.implementations.nonlinear.symtable.SwissHashTable;
+import aesd.ds.interfaces.SymbolTable.Entry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Teste de uso da tabela de dispersão com sondagem por grupos (Swiss
+ * table).
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public class TestSwissHashTable {
+
+    public static void main( String[] args ) {
+
+        SwissHashTable<String, Integer> sht = new SwissHashTable<>();
+
+        sht.put( "João", 6 );
+        sht.put( "Maria", 8 );
+        sht.put( "David", 7 );
+        sht.put( "Fernanda", 4 );
+        sht.put( "Aurora", 5 );
+        sht.put( "Marcelo", 3 );
+        sht.put( "Ronaldinho", 10 );
+        sht.put( "Matilda", 2 );
+        sht.put( "Maria", 9 );
+        sht.put( "David", null );
+        System.out.println( sht );
+
+        System.out.println( "Dados da tabela de dispersão através do iterador:" );
+        for ( Entry<String, Integer> e : sht ) {
+            System.out.print( e.getKey() + "=" + e.getValue() + " " );
+        }
+        System.out.println( "\n" );
+
+        System.out.println( "Capacidade: " + sht.getCapacity() );
+        System.out.println();
+
+        // compara com HashMap sob sequências aleatórias de inserções e
+        // remoções; as faixas pequenas de chaves geram muitas lápides e
+        // reconstruções sem crescimento
+        System.out.println( "----- Comparação com HashMap -----" );
+        Random r = new Random( 42 );
+        boolean ok = true;
+
+        for ( int range : new int[]{ 5, 50, 3000, 100000 } ) {
+
+            SwissHashTable<Integer, Integer> a = new SwissHashTable<>();
+            Map<Integer, Integer> b = new HashMap<>();
+
+            for ( int i = 0; i < 300000 && ok; i++ ) {
+                // chaves com os mesmos bits baixos
+                Integer key = r.nextInt( range ) << 12;
+                if ( r.nextInt( 2 ) == 0 ) {
+                    a.delete( key );
+                    b.remove( key );
+                } else {
+                    a.put( key, i );
+                    b.put( key, i );
+                }
+                ok = a.getSize() == b.size() && Objects.equals( a.get( key ), b.get( key ) );
+            }
+
+            for ( int k = 0; k < range && ok; k++ ) {
+                ok = Objects.equals( a.get( k << 12 ), b.get( k << 12 ) )
+                        && a.contains( k << 12 ) == b.containsKey( k << 12 );
+            }
+
+            int count = 0;
+            for ( Entry<Integer, Integer> e : a ) {
+                ok = ok && e.getValue().equals( b.get( e.getKey() ) );
+                count++;
+            }
+            ok = ok && count == b.size();
+
+        }
+
+        System.out.println( ok ? "resultados iguais" : "resultados diferentes!" );
+
+    }
+
+}
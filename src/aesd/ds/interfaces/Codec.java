@@ -0,0 +1,148 @@
+package aesd.ds.interfaces;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Interface para codificadores de tamanho fixo, usados pelas estruturas de
+ * dados que armazenam chaves e valores em páginas de arquivos: cada valor
+ * ocupa sempre getSize() bytes, o que permite calcular a posição de
+ * qualquer elemento de uma página diretamente pelo seu índice.
+ *
+ * @param <Type> Tipo dos valores codificados.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public interface Codec<Type> {
+
+    /**
+     * Codificador de inteiros (4 bytes).
+     */
+    public static final Codec<Integer> INTEGER = new Codec<>() {
+        @Override
+        public int getSize() {
+            return 4;
+        }
+        @Override
+        public void write( ByteBuffer buffer, int offset, Integer value ) {
+            buffer.putInt( offset, value );
+        }
+        @Override
+        public Integer read( ByteBuffer buffer, int offset ) {
+            return buffer.getInt( offset );
+        }
+    };
+
+    /**
+     * Codificador de inteiros longos (8 bytes).
+     */
+    public static final Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int getSize() {
+            return 8;
+        }
+        @Override
+        public void write( ByteBuffer buffer, int offset, Long value ) {
+            buffer.putLong( offset, value );
+        }
+        @Override
+        public Long read( ByteBuffer buffer, int offset ) {
+            return buffer.getLong( offset );
+        }
+    };
+
+    /**
+     * Codificador de números de ponto flutuante de precisão dupla (8 bytes).
+     */
+    public static final Codec<Double> DOUBLE = new Codec<>() {
+        @Override
+        public int getSize() {
+            return 8;
+        }
+        @Override
+        public void write( ByteBuffer buffer, int offset, Double value ) {
+            buffer.putDouble( offset, value );
+        }
+        @Override
+        public Double read( ByteBuffer buffer, int offset ) {
+            return buffer.getDouble( offset );
+        }
+    };
+
+    /**
+     * Cria um codificador de Strings com no máximo maxBytes bytes quando
+     * codificadas em UTF-8. Cada String ocupa 2 + maxBytes bytes: o tamanho
+     * seguido dos bytes, completados com zeros.
+     *
+     * @param maxBytes Quantidade máxima de bytes de cada String.
+     * @return O codificador.
+     * @throws IllegalArgumentException se maxBytes não estiver em [1, 32767].
+     */
+    public static Codec<String> string( int maxBytes ) throws IllegalArgumentException {
+
+        if ( maxBytes <= 0 || maxBytes > Short.MAX_VALUE ) {
+            throw new IllegalArgumentException( "maxBytes must be in [1, 32767]" );
+        }
+
+        return new Codec<>() {
+
+            @Override
+            public int getSize() {
+                return 2 + maxBytes;
+            }
+
+            @Override
+            public void write( ByteBuffer buffer, int offset, String value ) {
+
+                byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+
+                if ( bytes.length > maxBytes ) {
+                    throw new IllegalArgumentException( "string too long: " + value );
+                }
+
+                buffer.putShort( offset, (short) bytes.length );
+                for ( int i = 0; i < maxBytes; i++ ) {
+                    buffer.put( offset + 2 + i, i < bytes.length ? bytes[i] : 0 );
+                }
+
+            }
+
+            @Override
+            public String read( ByteBuffer buffer, int offset ) {
+                byte[] bytes = new byte[buffer.getShort( offset )];
+                for ( int i = 0; i < bytes.length; i++ ) {
+                    bytes[i] = buffer.get( offset + 2 + i );
+                }
+                return new String( bytes, StandardCharsets.UTF_8 );
+            }
+
+        };
+
+    }
+
+    /**
+     * Retorna a quantidade de bytes ocupada por cada valor codificado.
+     *
+     * @return A quantidade de bytes.
+     */
+    public int getSize();
+
+    /**
+     * Escreve um valor no buffer, a partir da posição absoluta offset.
+     *
+     * @param buffer O buffer.
+     * @param offset A posição inicial.
+     * @param value O valor.
+     */
+    public void write( ByteBuffer buffer, int offset, Type value );
+
+    /**
+     * Lê um valor do buffer, a partir da posição absoluta offset.
+     *
+     * @param buffer O buffer.
+     * @param offset A posição inicial.
+     * @return O valor lido.
+     */
+    public Type read( ByteBuffer buffer, int offset );
+
+}
@@ -0,0 +1,146 @@
+package aesd.ds.interfaces;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Interface para implementação de filas de prioridades indexadas cujas
+ * prioridades são números de ponto flutuante de precisão dupla.
+ *
+ * Tem as mesmas operações de {@link IndexedPriorityQueue}, mas as
+ * prioridades são recebidas e devolvidas como double, e não como um tipo
+ * genérico Comparable: as implementações podem então guardá-las em um array
+ * de tipo primitivo e compará-las diretamente, sem a criação de um objeto
+ * Double a cada inserção ou alteração de prioridade e sem chamadas a
+ * compareTo. É a interface usada pelos algoritmos de Dijkstra e de Prim.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public interface IndexedDoublePriorityQueue extends Iterable<Integer> {
+
+    /**
+     * Insere uma nova prioridade à essa fila de prioridades associada à um
+     * índice.
+     *
+     * @param index índice que a prioridade será inserida
+     * @param key a nova prioridade a ser associada ao índice
+     * @throws IllegalArgumentException se o índice for inválido ou já existir
+     * na fila de prioridades
+     * @throws IllegalArgumentException se a prioridade não for um número
+     */
+    public void insert( int index, double key ) throws IllegalArgumentException;
+
+    /**
+     * Retorna o índice associado à maior prioridade definida de acordo com a
+     * invariante da fila de prioridades implementada, sem removê-lo.
+     *
+     * @return o índice associado à maior prioridade da fila de prioridades
+     * @throws NoSuchElementException se essa fila de prioridades estiver vazia
+     */
+    public int peekIndex() throws NoSuchElementException;
+
+    /**
+     * Retorna a maior prioridade definida de acordo com a invariante da fila
+     * de prioridades implementada, sem removê-la.
+     *
+     * @return a maior prioridade da fila de prioridades
+     * @throws NoSuchElementException se essa fila de prioridades estiver vazia
+     */
+    public double peekKey() throws NoSuchElementException;
+
+    /**
+     * Remove o índice que tem maior prioridade definida de acordo com a
+     * invariante da fila de prioridades implementada.
+     *
+     * @return o índice que tem maior prioridade
+     * @throws NoSuchElementException se essa fila de prioridades estiver vazia
+     */
+    public int delete() throws NoSuchElementException;
+
+    /**
+     * Remove a prioridade associada ao índice.
+     *
+     * @param index índice da prioridade que será removida
+     * @throws IllegalArgumentException Se for um índice inválido
+     * @throws NoSuchElementException se não houver prioridade associada ao
+     * índice
+     */
+    public void delete( int index );
+
+    /**
+     * Verifica se um inteiro é um índice da fila de prioridades.
+     *
+     * @param index O inteiro a ser verificado.
+     * @return verdadeiro se index for um índice, false caso contrário
+     * @throws IllegalArgumentException se o índice for inválido
+     */
+    public boolean contains( int index ) throws IllegalArgumentException;
+
+    /**
+     * Retorna a prioridade associada ao índice.
+     *
+     * @param index o índice da prioridade
+     * @return a prioridade associada ao índice
+     * @throws IllegalArgumentException se for um índice inválido
+     * @throws NoSuchElementException se não existir uma prioridade associada
+     * ao índice
+     */
+    public double keyOf( int index );
+
+    /**
+     * Altera a prioridade associada ao índice.
+     *
+     * @param index o índice da prioridade que será alterada
+     * @param key a nova prioridade que será associada ao índice
+     * @throws IllegalArgumentException se for um índice inválido
+     * @throws NoSuchElementException se não houver prioridade associada ao
+     * índice
+     */
+    public void changeKey( int index, double key );
+
+    /**
+     * Aumenta a prioridade associada ao índice ao valor especificado.
+     *
+     * @param index o índice da prioridade que será aumentada
+     * @param key a nova prioridade, que deve ser maior que a atual
+     * @throws IllegalArgumentException se o índice for inválido
+     * @throws IllegalArgumentException se a nova prioridade for menor ou igual
+     * à atual
+     * @throws NoSuchElementException se não houver prioridade associada ao
+     * índice
+     */
+    public void increaseKey( int index, double key );
+
+    /**
+     * Diminui a prioridade associada ao índice ao valor especificado.
+     *
+     * @param index o índice da prioridade que será diminuída
+     * @param key a nova prioridade, que deve ser menor que a atual
+     * @throws IllegalArgumentException se o índice for inválido
+     * @throws IllegalArgumentException se a nova prioridade for maior ou igual
+     * à atual
+     * @throws NoSuchElementException se não houver prioridade associada ao
+     * índice
+     */
+    public void decreaseKey( int index, double key );
+
+    /**
+     * Remove todos os elementos dessa fila de prioridades.
+     */
+    public void clear();
+
+    /**
+     * Verifica se a fila de prioridades está vazia.
+     *
+     * @return Verdadeiro, caso a fila de prioridades esteja vazia, falso caso
+     * contrário.
+     */
+    public boolean isEmpty();
+
+    /**
+     * Retorna a quantidade de prioridades da fila de prioridades.
+     *
+     * @return A quantidade de prioridades.
+     */
+    public int getSize();
+
+}
@@ -0,0 +1,84 @@
+package aesd.ds.interfaces;
+
+/**
+ * Interface para implementação de tabelas de símbolos ordenadas, ou seja,
+ * tabelas de símbolos cujas chaves são comparáveis e que permitem consultas
+ * que dependem da ordem das chaves.
+ *
+ * Nas árvores balanceadas, floor, ceiling, rank, select e count custam
+ * O(log n), e range é preguiçoso: o iterador desce até a primeira chave do
+ * intervalo em O(log n) e depois avança um par por vez, de modo que
+ * percorrer k pares custa O(log n + k), sem copiar a árvore.
+ *
+ * @param <Key> Tipo das chaves que serão armazenadas na tabela de símbolos.
+ * @param <Value> Tipo dos valores associados às chaves armazenadas na tabela
+ * de símbolos.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public interface OrderedSymbolTable<Key extends Comparable<Key>, Value> extends SymbolTable<Key, Value> {
+
+    /**
+     * Retorna a maior chave da tabela de símbolos que é menor ou igual à
+     * chave fornecida.
+     *
+     * @param key Chave usada na busca.
+     * @return A maior chave menor ou igual a key, ou null caso não exista.
+     * @throws IllegalArgumentException se a chave for nula.
+     */
+    public Key floor( Key key ) throws IllegalArgumentException;
+
+    /**
+     * Retorna a menor chave da tabela de símbolos que é maior ou igual à
+     * chave fornecida.
+     *
+     * @param key Chave usada na busca.
+     * @return A menor chave maior ou igual a key, ou null caso não exista.
+     * @throws IllegalArgumentException se a chave for nula.
+     */
+    public Key ceiling( Key key ) throws IllegalArgumentException;
+
+    /**
+     * Retorna a quantidade de chaves da tabela de símbolos estritamente
+     * menores que a chave fornecida (o ranque da chave).
+     *
+     * @param key Chave usada na busca.
+     * @return O ranque da chave.
+     * @throws IllegalArgumentException se a chave for nula.
+     */
+    public int rank( Key key ) throws IllegalArgumentException;
+
+    /**
+     * Retorna a chave de um determinado ranque, ou seja, a chave que tem
+     * exatamente rank chaves menores que ela na tabela de símbolos.
+     *
+     * @param rank O ranque, entre 0 e getSize() - 1.
+     * @return A chave de ranque rank.
+     * @throws IllegalArgumentException se o ranque não estiver entre 0 e
+     * getSize() - 1.
+     */
+    public Key select( int rank ) throws IllegalArgumentException;
+
+    /**
+     * Retorna os pares chave/valor cujas chaves estão no intervalo fechado
+     * [lower, higher], em ordem crescente de chave. O percurso é feito sob
+     * demanda, à medida que o iterador avança.
+     *
+     * @param lower Menor chave do intervalo.
+     * @param higher Maior chave do intervalo.
+     * @return Os pares chave/valor do intervalo, vazio se lower &gt; higher.
+     * @throws IllegalArgumentException se alguma das chaves for nula.
+     */
+    public Iterable<Entry<Key, Value>> range( Key lower, Key higher ) throws IllegalArgumentException;
+
+    /**
+     * Retorna a quantidade de chaves no intervalo fechado [lower, higher].
+     *
+     * @param lower Menor chave do intervalo.
+     * @param higher Maior chave do intervalo.
+     * @return A quantidade de chaves do intervalo, 0 se lower &gt; higher.
+     * @throws IllegalArgumentException se alguma das chaves for nula.
+     */
+    public int count( Key lower, Key higher ) throws IllegalArgumentException;
+
+}
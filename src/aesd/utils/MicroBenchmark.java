@@ -0,0 +1,342 @@
+package aesd.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Arcabouço mínimo para micro-benchmarks das estruturas de dados
+ * implementadas, no espírito do JMH: cada medição executa algumas iterações
+ * de aquecimento (para que o JIT compile os métodos envolvidos) antes das
+ * iterações medidas e relata vazão (operações por segundo), o percentil 99
+ * da latência por operação e a taxa de alocação de memória da thread que
+ * executou o trabalho.
+ *
+ * A latência é medida com System.nanoTime() em volta de cada operação, o
+ * que acrescenta algumas dezenas de nanossegundos a cada amostra; por isso
+ * os números servem para comparar implementações entre si nas mesmas
+ * condições, e não como medida absoluta. Para manter a memória usada pelas
+ * amostras limitada, no máximo MAX_SAMPLES latências são guardadas por
+ * iteração (uma a cada "passo" operações).
+ *
+ * A alocação é obtida através de com.sun.management.ThreadMXBean, quando
+ * disponível na JVM em uso; caso contrário, é relatada como -1.
+ *
+ * @author Prof. Dr. David Buzatto
+ */
+public abstract class MicroBenchmark {
+
+    // quantidade máxima de latências guardadas por iteração medida
+    private static final int MAX_SAMPLES = 1 << 20;
+
+    // expoente padrão da distribuição de Zipf (o mesmo usado pelo YCSB)
+    public static final double ZIPF_THETA = 0.99;
+
+    // acumulador usado para que o JIT não elimine resultados não usados
+    private static volatile int sink;
+
+    /**
+     * Distribuições de chaves usadas para gerar as cargas de trabalho.
+     */
+    public static enum KeyDistribution {
+
+        /**
+         * Chaves sorteadas uniformemente em [0, n).
+         */
+        UNIFORM,
+
+        /**
+         * Chaves sorteadas segundo uma distribuição de Zipf: poucas chaves
+         * "quentes" concentram a maior parte dos acessos.
+         */
+        ZIPFIAN,
+
+        /**
+         * Chaves 0, 1, 2, ..., n-1, em ordem crescente.
+         */
+        SEQUENTIAL
+
+    }
+
+    /**
+     * Resultado de uma medição.
+     */
+    public static class Result {
+
+        private final String name;
+        private final long operations;
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+        private final long p99Nanos;
+
+        public Result( String name, long operations, long elapsedNanos, long allocatedBytes, long p99Nanos ) {
+            this.name = name;
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public double getOpsPerSecond() {
+            return operations * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Taxa de alocação em MB/s, ou -1 caso a JVM não a forneça.
+         *
+         * @return A taxa de alocação.
+         */
+        public double getAllocationRate() {
+            if ( allocatedBytes < 0 ) {
+                return -1;
+            }
+            return allocatedBytes / 1048576.0 / ( elapsedNanos / 1e9 );
+        }
+
+        /**
+         * Bytes alocados por operação, ou -1 caso a JVM não os forneça.
+         *
+         * @return Os bytes alocados por operação.
+         */
+        public double getBytesPerOperation() {
+            if ( allocatedBytes < 0 ) {
+                return -1;
+            }
+            return (double) allocatedBytes / operations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format( "%-40s %14.0f ops/s %10d ns p99 %10.2f MB/s %10.2f B/op",
+                    name, getOpsPerSecond(), p99Nanos, getAllocationRate(), getBytesPerOperation() );
+        }
+
+    }
+
+    /**
+     * Mede uma carga de trabalho composta por "operations" operações.
+     * Antes de cada iteração (de aquecimento ou medida), setup é executado
+     * fora da medição, permitindo reconstruir o estado usado pelas
+     * operações. Cada operação i (0 <= i < operations) é executada por op.
+     *
+     * @param name Nome da medição.
+     * @param warmupIterations Quantidade de iterações de aquecimento.
+     * @param measurementIterations Quantidade de iterações medidas.
+     * @param operations Quantidade de operações por iteração.
+     * @param setup Preparação executada antes de cada iteração.
+     * @param op Operação medida.
+     * @return O resultado agregado das iterações medidas.
+     */
+    public static Result measure( String name, int warmupIterations, int measurementIterations,
+            int operations, Runnable setup, IntConsumer op ) {
+
+        for ( int i = 0; i < warmupIterations; i++ ) {
+            setup.run();
+            for ( int j = 0; j < operations; j++ ) {
+                op.accept( j );
+            }
+        }
+
+        int step = Math.max( 1, (int) ( (long) operations * measurementIterations / MAX_SAMPLES ) + 1 );
+        long[] samples = new long[(int) ( (long) operations * measurementIterations / step ) + measurementIterations];
+        int sampleCount = 0;
+        long elapsed = 0;
+        long allocated = 0;
+
+        for ( int i = 0; i < measurementIterations; i++ ) {
+
+            setup.run();
+
+            long allocStart = allocatedBytes();
+            long start = System.nanoTime();
+
+            for ( int j = 0; j < operations; j++ ) {
+                if ( j % step == 0 ) {
+                    long t = System.nanoTime();
+                    op.accept( j );
+                    samples[sampleCount++] = System.nanoTime() - t;
+                } else {
+                    op.accept( j );
+                }
+            }
+
+            elapsed += System.nanoTime() - start;
+            long allocEnd = allocatedBytes();
+
+            if ( allocStart < 0 || allocated < 0 ) {
+                allocated = -1;
+            } else {
+                allocated += allocEnd - allocStart;
+            }
+
+        }
+
+        return new Result( name, (long) operations * measurementIterations,
+                Math.max( 1, elapsed ), allocated, percentile( samples, sampleCount, 0.99 ) );
+
+    }
+
+    /**
+     * Consome um valor, impedindo que o JIT elimine o código que o produziu.
+     *
+     * @param o Valor a ser consumido.
+     */
+    public static void consume( Object o ) {
+        if ( o != null ) {
+            sink += o.hashCode();
+        }
+    }
+
+    /**
+     * Consome um valor inteiro, impedindo que o JIT elimine o código que o
+     * produziu.
+     *
+     * @param v Valor a ser consumido.
+     */
+    public static void consume( int v ) {
+        sink += v;
+    }
+
+    /**
+     * Gera "count" índices de chaves em [0, n) segundo a distribuição
+     * fornecida.
+     *
+     * @param distribution A distribuição.
+     * @param n Quantidade de chaves distintas possíveis.
+     * @param count Quantidade de índices gerados.
+     * @param seed Semente do gerador de números pseudoaleatórios.
+     * @return Os índices gerados.
+     */
+    public static int[] generateKeys( KeyDistribution distribution, int n, int count, long seed ) {
+
+        int[] keys = new int[count];
+        Random random = new Random( seed );
+
+        switch ( distribution ) {
+            case UNIFORM:
+                for ( int i = 0; i < count; i++ ) {
+                    keys[i] = random.nextInt( n );
+                }
+                break;
+            case ZIPFIAN:
+                generateZipfian( keys, n, ZIPF_THETA, random );
+                break;
+            case SEQUENTIAL:
+                for ( int i = 0; i < count; i++ ) {
+                    keys[i] = i % n;
+                }
+                break;
+        }
+
+        return keys;
+
+    }
+
+    /**
+     * Espalha o índice i de [0, n) em outra posição de [0, n) através de
+     * uma bijeção multiplicativa (i * p mod n, com p primo com n). Permite
+     * embaralhar grandes intervalos sem precisar de um array de permutação.
+     *
+     * @param i Índice a ser espalhado.
+     * @param n Tamanho do intervalo.
+     * @return O índice espalhado.
+     */
+    public static int scatter( int i, int n ) {
+        return (int) ( (long) i * scatterFactor( n ) % n );
+    }
+
+    private static long scatterFactor( int n ) {
+        long p = 1_000_003L;
+        while ( gcd( p, n ) != 1 ) {
+            p += 2;
+        }
+        return p;
+    }
+
+    private static long gcd( long a, long b ) {
+        while ( b != 0 ) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /*
+     * Gerador de Zipf de Gray et al. ("Quickly Generating Billion-Record
+     * Synthetic Databases", SIGMOD 1994), o mesmo usado pelo YCSB. O rank
+     * sorteado é espalhado por scatter() para que as chaves quentes não
+     * fiquem todas agrupadas no começo do intervalo.
+     */
+    private static void generateZipfian( int[] keys, int n, double theta, Random random ) {
+
+        double zetan = 0;
+        for ( int i = 1; i <= n; i++ ) {
+            zetan += 1.0 / Math.pow( i, theta );
+        }
+
+        double zeta2 = 1.0 + 1.0 / Math.pow( 2, theta );
+        double alpha = 1.0 / ( 1.0 - theta );
+        double eta = ( 1.0 - Math.pow( 2.0 / n, 1.0 - theta ) ) / ( 1.0 - zeta2 / zetan );
+        long factor = scatterFactor( n );
+
+        for ( int i = 0; i < keys.length; i++ ) {
+
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            long rank;
+
+            if ( uz < 1.0 ) {
+                rank = 0;
+            } else if ( uz < 1.0 + Math.pow( 0.5, theta ) ) {
+                rank = 1;
+            } else {
+                rank = (long) ( n * Math.pow( eta * u - eta + 1.0, alpha ) );
+            }
+
+            rank = Math.min( rank, n - 1 );
+            keys[i] = (int) ( rank * factor % n );
+
+        }
+
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if ( bean instanceof com.sun.management.ThreadMXBean ) {
+            return ( (com.sun.management.ThreadMXBean) bean ).getThreadAllocatedBytes( Thread.currentThread().getId() );
+        }
+        return -1;
+    }
+
+    private static long percentile( long[] samples, int count, double p ) {
+        if ( count == 0 ) {
+            return 0;
+        }
+        Arrays.sort( samples, 0, count );
+        return samples[Math.min( count - 1, (int) Math.ceil( p * count ) - 1 )];
+    }
+
+}